@@ -0,0 +1,87 @@
+package benchmark;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import service.InMemoryHistoryManager;
+import service.InMemoryTaskManager;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Массовые операции InMemoryTaskManager на пуле из parallelism потоков: ускорение видно, если сравнить
+// результаты для разного числа потоков на машине с достаточным числом ядер.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkOperationsBenchmark {
+
+    @Param({"1000000"})
+    public int boardSize;
+
+    @Param({"10"})
+    public int epicFanOut;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private InMemoryTaskManager taskManager;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    // Доска собирается заново перед каждым замером, потому что deleteAllSubtasks её опустошает.
+    // Эпики и подзадачи попадают в историю, а статусы половины подзадач меняются напрямую
+    @Setup(Level.Iteration)
+    public void setUp() {
+        taskManager = new InMemoryTaskManager(new InMemoryHistoryManager(), pool);
+        TaskManagerBenchmark.fillBoard(taskManager, boardSize, epicFanOut);
+        for (Epic epic : taskManager.getEpics()) {
+            taskManager.getEpic(epic.getId());
+        }
+        boolean done = false;
+        for (Subtask subtask : taskManager.getSubtasks()) {
+            taskManager.getSubtask(subtask.getId());
+            if (done) {
+                subtask.setStatus(Status.DONE);
+            }
+            done = !done;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int recalculateStatuses() {
+        return taskManager.recalculateStatuses();
+    }
+
+    @Benchmark
+    public void deleteAllSubtasks(Blackhole blackhole) {
+        taskManager.deleteAllSubtasks();
+        blackhole.consume(taskManager);
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import service.CsvTaskIO;
+import service.InMemoryHistoryManager;
+import service.InMemoryTaskManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+// Пропускная способность CsvTaskIO: генерирует доску из rows строк (десятая часть - эпики, остальное -
+// задачи и подзадачи вперемешку, часть подзадач ссылается на эпики дальше по файлу; каждая задача и подзадача
+// запланирована на свою минуту, так что импорт проверяет пересечения), затем rounds раз импортирует её
+// в пустой InMemoryTaskManager, экспортирует обратно и берёт список по приоритету. Не JMH: одна операция - это
+// миллион строк и секунды работы. Полнотекстовый индекс после импорта строится при первом поиске,
+// его время печатается отдельно. Кучу лучше задать заранее (например -Xms4g), иначе в замер попадает её рост.
+// Аргументы: [строк] [повторов]
+public class CsvThroughput {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path board = Files.createTempFile("kanban-board", ".csv");
+        Path exported = Files.createTempFile("kanban-export", ".csv");
+        try {
+            generate(board, rows);
+            System.out.printf("файл %,d байт, строк %,d%n", Files.size(board), rows);
+            for (int round = 1; round <= rounds; round++) {
+                InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+                long start = System.nanoTime();
+                int imported = CsvTaskIO.importFrom(board, manager);
+                long importTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int exportedRows = CsvTaskIO.exportTo(manager, exported);
+                long exportTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int scheduled = manager.getPrioritizedTasks().size();
+                long prioritizedTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                manager.search("подзадача", 10);
+                long indexTime = System.nanoTime() - start;
+
+                System.out.printf("#%d импорт %,.0f строк/с, экспорт %,.0f строк/с, по приоритету %,d за %.1f мс,"
+                                + " первый поиск %.2f с%n", round, imported / (importTime / 1e9),
+                        exportedRows / (exportTime / 1e9), scheduled, prioritizedTime / 1e6, indexTime / 1e9);
+            }
+        } finally {
+            Files.deleteIfExists(board);
+            Files.deleteIfExists(exported);
+        }
+    }
+
+    private static void generate(Path file, int rows) throws IOException {
+        int epics = rows / 10;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(CsvTaskIO.HEADER);
+            writer.write('\n');
+            for (int id = 1; id <= rows; id++) {
+                if (id % 10 == 0) {
+                    writer.write(id + ",EPIC,NEW,,Эпик " + id + ",\"Релиз, этап " + id % 97 + "\",,\n");
+                    continue;
+                }
+                if (id % 3 == 0 || epics == 0) {
+                    writer.write(id + ",TASK,IN_PROGRESS,,Задача " + id + ",Проверить сборку " + id % 977);
+                } else {
+                    int epicId = (id % epics + 1) * 10; // Эпик может идти и раньше, и позже подзадачи
+                    writer.write(id + ",SUBTASK,DONE," + epicId + ",Подзадача " + id + ",deploy cache " + id % 1013);
+                }
+                // Минуты идут не по порядку ID, чтобы расписание не заполнялось только с конца
+                writer.write("," + START.plusMinutes((id * 7919L) % rows) + ",PT1M\n");
+            }
+        }
+    }
+}
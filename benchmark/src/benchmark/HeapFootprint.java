@@ -0,0 +1,78 @@
+package benchmark;
+
+import model.Status;
+import model.Task;
+import service.ColumnarTaskManager;
+import service.InMemoryHistoryManager;
+import service.InMemoryTaskManager;
+import service.IntHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Замер занятой кучи: сколько байт на запись стоит хранилище HashMap<Integer, Task> против IntHashMap<Task>
+// на одних и тех же задачах, и сколько байт на сущность занимает доска InMemoryTaskManager и ColumnarTaskManager
+// (у последнего - до и после первого поиска, который строит полнотекстовый индекс).
+// Не JMH: память меряется по Runtime после нескольких сборок мусора, поэтому запускать с фиксированной
+// кучей, например -Xms4g -Xmx4g. Аргументы: [число сущностей] [подзадач на эпик]
+public class HeapFootprint {
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int epicFanOut = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task(i + 1, "Task", "Description", Status.NEW);
+        }
+
+        long base = usedHeap();
+        Map<Integer, Task> boxed = new HashMap<>();
+        for (Task task : tasks) {
+            boxed.put(task.getId(), task);
+        }
+        long boxedBytes = usedHeap() - base;
+        report("HashMap<Integer, Task>", boxedBytes, boxed.size());
+        boxed = null;
+
+        base = usedHeap();
+        IntHashMap<Task> primitive = new IntHashMap<>();
+        for (Task task : tasks) {
+            primitive.put(task.getId(), task);
+        }
+        long primitiveBytes = usedHeap() - base;
+        report("IntHashMap<Task>", primitiveBytes, primitive.size());
+        primitive = null;
+        tasks = null;
+
+        base = usedHeap();
+        InMemoryTaskManager taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        TaskManagerBenchmark.fillBoard(taskManager, count, epicFanOut);
+        int entities = taskManager.getTasks().size() + taskManager.getEpics().size() + count;
+        report("InMemoryTaskManager", usedHeap() - base, entities);
+        taskManager = null;
+
+        base = usedHeap();
+        ColumnarTaskManager columnar = new ColumnarTaskManager(new InMemoryHistoryManager());
+        TaskManagerBenchmark.fillBoard(columnar, count, epicFanOut);
+        report("ColumnarTaskManager", usedHeap() - base, columnar.size());
+        columnar.search("task", 1); // Полнотекстовый индекс строится при первом поиске
+        report("  + индекс поиска", usedHeap() - base, columnar.size());
+    }
+
+    private static void report(String name, long bytes, int entries) {
+        System.out.printf("%-24s %,14d байт  %6.1f байт на запись%n", name, bytes, (double) bytes / entries);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Несколько проходов: берём минимум, когда сборщик уже ничего не освобождает
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,135 @@
+package benchmark;
+
+import http.HttpTaskServer;
+import model.Status;
+import model.Task;
+import service.ConcurrentHistoryManager;
+import service.ConcurrentTaskManager;
+import service.TaskManager;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Нагрузочный тест HttpTaskServer через loopback: clients клиентов, у каждого своё keep-alive соединение
+// и свой виртуальный поток, шлют по requests запросов GET /tasks/{id} подряд. Сначала все клиенты
+// подключаются, затем стартуют одновременно; в конце печатаются запросы в секунду и перцентили задержки.
+// Не JMH: сервер и клиенты живут в одном процессе, поэтому на каждого клиента нужно два дескриптора
+// (для 10 000 клиентов - ulimit -n не меньше 21 000).
+// Аргументы: [клиентов] [запросов на клиента] [задач на доске]
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int boardSize = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        TaskManager manager = new ConcurrentTaskManager(new ConcurrentHistoryManager());
+        for (int i = 0; i < boardSize; i++) {
+            manager.addNewTask(new Task(0, "Task " + i, "Description " + i, Status.NEW));
+        }
+        HttpTaskServer server = new HttpTaskServer(manager,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                HttpTaskServer.DEFAULT_MAX_CONCURRENT, clients);
+        server.start();
+
+        CountDownLatch connected = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicLong failures = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads.add(Thread.ofVirtual().start(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                    socket.setTcpNoDelay(true);
+                    OutputStream out = socket.getOutputStream();
+                    InputStream in = new BufferedInputStream(socket.getInputStream());
+                    connected.countDown();
+                    go.await();
+                    long[] own = new long[requests];
+                    for (int i = 0; i < requests; i++) {
+                        int id = ThreadLocalRandom.current().nextInt(boardSize) + 1;
+                        long start = System.nanoTime();
+                        out.write(("GET /tasks/" + id + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                                .getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                        if (readResponse(in) != 200) {
+                            failures.incrementAndGet();
+                        }
+                        own[i] = System.nanoTime() - start;
+                    }
+                    latencies[client] = own;
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                    connected.countDown();
+                }
+            }));
+        }
+
+        connected.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        server.stop(0);
+
+        long[] all = Arrays.stream(latencies).filter(own -> own != null).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        System.out.printf("клиентов %,d, запросов %,d, ошибок %,d, время %.2f с%n",
+                clients, all.length, failures.get(), elapsed / 1e9);
+        System.out.printf("%,.0f запросов/с%n", all.length / (elapsed / 1e9));
+        System.out.printf("p50 %.2f мс, p99 %.2f мс, p99.9 %.2f мс, max %.2f мс%n",
+                percentile(all, 50) / 1e6, percentile(all, 99) / 1e6, percentile(all, 99.9) / 1e6,
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    // Читает ответ целиком, чтобы следующий запрос шёл по тому же соединению; возвращает код ответа
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        int length = 0;
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        in.skipNBytes(length); // EOFException, если соединение оборвалось раньше
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) {
+                throw new EOFException("Соединение закрыто сервером.");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+}
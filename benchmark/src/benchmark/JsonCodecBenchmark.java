@@ -0,0 +1,95 @@
+package benchmark;
+
+import json.JsonWriter;
+import json.TaskJsonCodec;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Потоковый TaskJsonCodec против маппера на рефлексии (ReflectiveJsonMapper) на типичных ответах API:
+// страница из pageSize подзадач (запись и чтение) и эпик с таким же числом вложенных подзадач (запись).
+// Кодек пишет в один переиспользуемый JsonWriter. Аллокации видны с профилировщиком -prof gc.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonCodecBenchmark {
+
+    @Param({"100"})
+    public int pageSize;
+
+    private final TaskJsonCodec codec = new TaskJsonCodec(true);
+    private final JsonWriter writer = new JsonWriter();
+    private final ReflectiveJsonMapper mapper = new ReflectiveJsonMapper();
+    private List<Subtask> page;
+    private Epic epic;
+    private byte[] pageJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper.registerCreator(Subtask.class, "id", "title", "description", "status", "epicId");
+        epic = new Epic(1, "Релиз 2.0", "Подготовка и выкладка релиза", Status.IN_PROGRESS);
+        page = new ArrayList<>(pageSize);
+        Status[] statuses = Status.values();
+        for (int i = 0; i < pageSize; i++) {
+            Subtask subtask = new Subtask(i + 2, "Подзадача " + i + ": проверить \"сборку\"",
+                    "Description of step " + i + " with some details", statuses[i % statuses.length], 1);
+            page.add(subtask);
+            epic.addSubtask(subtask);
+        }
+        pageJson = codec.encode(page);
+    }
+
+    @Benchmark
+    public int encodePageCodec() {
+        writer.reset();
+        codec.write(writer, page);
+        return writer.size();
+    }
+
+    @Benchmark
+    public byte[] encodePageReflective() {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<Task> decodePageCodec() {
+        return codec.decodeList(pageJson);
+    }
+
+    @Benchmark
+    public List<Subtask> decodePageReflective() {
+        return mapper.readList(pageJson, Subtask.class);
+    }
+
+    @Benchmark
+    public int encodeEpicCodec() {
+        writer.reset();
+        codec.write(writer, epic);
+        return writer.size();
+    }
+
+    @Benchmark
+    public byte[] encodeEpicReflective() {
+        return mapper.writeValueAsBytes(epic);
+    }
+}
@@ -0,0 +1,292 @@
+package benchmark;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Точка сравнения для JsonCodecBenchmark: маппер устроен так же, как типичные библиотеки на рефлексии
+// (Jackson, Gson в режиме по умолчанию). Свойства бина находятся по геттерам и кэшируются на класс,
+// значения пишутся через Method.invoke в StringBuilder и затем перекодируются в UTF-8; чтение строит
+// дерево Map/List, а объект создаётся конструктором-«создателем» с перечисленными свойствами
+// (аналог @JsonCreator) с преобразованием каждого значения по типу параметра.
+// Сторонние библиотеки в модуль не подключены, поэтому маппер написан здесь и делает ровно ту же работу.
+final class ReflectiveJsonMapper {
+    private final Map<Class<?>, List<Property>> properties = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Creator> creators = new HashMap<>();
+
+    // Конструктор, которым создаётся класс при чтении, и имена свойств в порядке его параметров
+    void registerCreator(Class<?> type, String... propertyNames) {
+        for (Constructor<?> constructor : type.getConstructors()) {
+            if (constructor.getParameterCount() == propertyNames.length) {
+                creators.put(type, new Creator(constructor, propertyNames));
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Нет конструктора с " + propertyNames.length + " параметрами: " + type);
+    }
+
+    byte[] writeValueAsBytes(Object value) {
+        StringBuilder json = new StringBuilder(256);
+        write(json, value);
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    <T> List<T> readList(byte[] json, Class<T> elementType) {
+        Object tree = new Parser(new String(json, StandardCharsets.UTF_8)).readValue();
+        List<T> result = new ArrayList<>();
+        for (Object element : (List<?>) tree) {
+            result.add(elementType.cast(bind(element, elementType)));
+        }
+        return result;
+    }
+
+    private void write(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof String) {
+            writeString(json, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof Enum) {
+            writeString(json, ((Enum<?>) value).name());
+        } else if (value instanceof Collection) {
+            json.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                write(json, element);
+            }
+            json.append(']');
+        } else {
+            json.append('{');
+            boolean first = true;
+            for (Property property : propertiesOf(value.getClass())) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                writeString(json, property.name);
+                json.append(':');
+                write(json, property.get(value));
+            }
+            json.append('}');
+        }
+    }
+
+    private static void writeString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private List<Property> propertiesOf(Class<?> type) {
+        return properties.computeIfAbsent(type, key -> {
+            List<Property> found = new ArrayList<>();
+            for (Method method : key.getMethods()) {
+                String name = method.getName();
+                if (name.startsWith("get") && name.length() > 3 && method.getParameterCount() == 0
+                        && !Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() != Object.class) {
+                    found.add(new Property(Character.toLowerCase(name.charAt(3)) + name.substring(4), method));
+                }
+            }
+            found.sort(Comparator.comparing(property -> property.name));
+            return found;
+        });
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object bind(Object node, Class<?> type) {
+        if (node == null) {
+            return type == int.class ? 0 : null;
+        }
+        if (type == int.class || type == Integer.class) {
+            return ((Long) node).intValue();
+        }
+        if (type == String.class) {
+            return node;
+        }
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<Enum>) type, (String) node);
+        }
+        Creator creator = creators.get(type);
+        if (creator == null) {
+            throw new IllegalArgumentException("Не зарегистрирован создатель для " + type);
+        }
+        Map<String, Object> object = (Map<String, Object>) node;
+        Class<?>[] parameterTypes = creator.constructor.getParameterTypes();
+        Object[] arguments = new Object[parameterTypes.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = bind(object.get(creator.propertyNames[i]), parameterTypes[i]);
+        }
+        try {
+            return creator.constructor.newInstance(arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Property {
+        final String name;
+        final Method getter;
+
+        Property(String name, Method getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        Object get(Object bean) {
+            try {
+                return getter.invoke(bean);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class Creator {
+        final Constructor<?> constructor;
+        final String[] propertyNames;
+
+        Creator(Constructor<?> constructor, String[] propertyNames) {
+            this.constructor = constructor;
+            this.propertyNames = propertyNames;
+        }
+    }
+
+    // Рекурсивный разбор в дерево, как у мапперов, читающих сначала в узлы, а затем в объекты
+    private static final class Parser {
+        private final String json;
+        private int position;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Object readValue() {
+            skipWhitespace();
+            char c = json.charAt(position);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    position += 4;
+                    return Boolean.TRUE;
+                case 'f':
+                    position += 5;
+                    return Boolean.FALSE;
+                case 'n':
+                    position += 4;
+                    return null;
+                default:
+                    int start = position;
+                    while (position < json.length() && (json.charAt(position) == '-'
+                            || Character.isDigit(json.charAt(position)))) {
+                        position++;
+                    }
+                    return Long.parseLong(json.substring(start, position));
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (json.charAt(position) == '}') {
+                position++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String name = readString();
+                skipWhitespace();
+                position++; // ':'
+                object.put(name, readValue());
+                skipWhitespace();
+                if (json.charAt(position++) == '}') {
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (json.charAt(position) == ']') {
+                position++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                if (json.charAt(position++) == ']') {
+                    return array;
+                }
+            }
+        }
+
+        private String readString() {
+            StringBuilder value = new StringBuilder();
+            position++;
+            while (true) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    char escaped = json.charAt(position++);
+                    switch (escaped) {
+                        case 'n':
+                            value.append('\n');
+                            break;
+                        case 't':
+                            value.append('\t');
+                            break;
+                        case 'r':
+                            value.append('\r');
+                            break;
+                        case 'u':
+                            value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                            position += 4;
+                            break;
+                        default:
+                            value.append(escaped);
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import model.Status;
+import model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.InMemoryHistoryManager;
+import service.InMemoryTaskManager;
+import service.TaskManager;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Полнотекстовый поиск InMemoryTaskManager на доске из boardSize задач. Названия и описания собраны из
+// словаря русских и английских слов с распределением Ципфа, как в живом тексте: немного частых слов и
+// длинный хвост редких. Запросы - два слова, второе обрезано до префикса.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+    private static final String[] STEMS = {
+            "отчет", "релиз", "сборк", "ошибк", "клиент", "сервер", "платеж", "заказ", "доставк", "проверк",
+            "report", "release", "build", "payment", "order", "deploy", "login", "cache", "index", "query"
+    };
+    private static final String[] ENDINGS = {"", "а", "ы", "ом", "ами", "s", "ing", "ed", "er", "ов"};
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"1000000"})
+    public int boardSize;
+
+    private TaskManager taskManager;
+    private String[] queries;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        Random random = new Random(1);
+        String[] vocabulary = vocabulary(random);
+        fillBoard(taskManager, boardSize, vocabulary, random);
+        queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            String prefix = vocabulary[zipf(random)];
+            queries[i] = vocabulary[zipf(random)] + " " + prefix.substring(0, Math.max(2, prefix.length() - 2));
+        }
+    }
+
+    @Benchmark
+    public List<Task> search() {
+        cursor = cursor + 1 < queries.length ? cursor + 1 : 0;
+        return taskManager.search(queries[cursor], 20);
+    }
+
+    static void fillBoard(TaskManager taskManager, int boardSize, String[] vocabulary, Random random) {
+        for (int i = 0; i < boardSize; i++) {
+            taskManager.addNewTask(new Task(0, sentence(vocabulary, random, 3), sentence(vocabulary, random, 8),
+                    Status.NEW));
+        }
+    }
+
+    static String[] vocabulary(Random random) {
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = STEMS[random.nextInt(STEMS.length)] + ENDINGS[random.nextInt(ENDINGS.length)] + i;
+        }
+        return vocabulary;
+    }
+
+    private static String sentence(String[] vocabulary, Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(vocabulary[zipf(random)]);
+        }
+        return sentence.toString();
+    }
+
+    // Номер слова с вероятностью примерно 1/(номер + 1): приближение распределения Ципфа
+    private static int zipf(Random random) {
+        return (int) Math.min(VOCABULARY_SIZE - 1, Math.exp(random.nextDouble() * Math.log(VOCABULARY_SIZE)) - 1);
+    }
+}
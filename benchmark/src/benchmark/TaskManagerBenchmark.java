@@ -0,0 +1,147 @@
+package benchmark;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import service.InMemoryHistoryManager;
+import service.InMemoryTaskManager;
+import service.TaskManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Горячие пути InMemoryTaskManager и InMemoryHistoryManager на доске из boardSize подзадач,
+// разложенных по эпикам по epicFanOut штук. Задачи и эпики добавляются в том же количестве, что и эпики.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskManagerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int boardSize;
+
+    @Param({"10", "1000"})
+    public int epicFanOut;
+
+    private InMemoryTaskManager taskManager;
+    private int[] epicIds;
+    private int[] taskIds;
+    private Subtask[] subtasks;
+    private int cursor; // Перебираем сущности по кругу, чтобы не попадать всё время в одну и ту же
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+        fillBoard(taskManager, boardSize, epicFanOut);
+        List<Epic> epics = taskManager.getEpics();
+        epicIds = new int[epics.size()];
+        for (int i = 0; i < epicIds.length; i++) {
+            epicIds[i] = epics.get(i).getId();
+        }
+        List<Task> tasks = taskManager.getTasks();
+        taskIds = new int[tasks.size()];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = tasks.get(i).getId();
+            taskManager.getTask(taskIds[i]); // Заполняем историю
+        }
+        subtasks = taskManager.getSubtasks().toArray(new Subtask[0]);
+    }
+
+    @Benchmark
+    public int addNewSubtask() {
+        return taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.NEW, nextEpicId()));
+    }
+
+    // Обновление статуса подзадачи вместе с пересчётом статуса эпика
+    @Benchmark
+    public void updateSubtask() {
+        Subtask subtask = subtasks[next(subtasks.length)];
+        subtask.setStatus(subtask.getStatus() == Status.DONE ? Status.IN_PROGRESS : Status.DONE);
+        taskManager.updateSubtask(subtask);
+    }
+
+    @Benchmark
+    public List<Subtask> getEpicSubtasks() {
+        return taskManager.getEpicSubtasks(nextEpicId());
+    }
+
+    // Получение задачи вместе с переносом её в конец истории
+    @Benchmark
+    public Task getTask() {
+        return taskManager.getTask(taskIds[next(taskIds.length)]);
+    }
+
+    // Снимок всех задач без копирования
+    @Benchmark
+    public List<Task> getTasks() {
+        return taskManager.getTasks();
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return taskManager.getHistory();
+    }
+
+    // Каждый замер - одно удаление на заново собранной доске
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void deleteAllEpics(EmptyingState state, Blackhole blackhole) {
+        state.taskManager.deleteAllEpics();
+        blackhole.consume(state.taskManager);
+    }
+
+    // Для deleteAllEpics доску нужно собирать заново перед каждым замером
+    @State(Scope.Thread)
+    public static class EmptyingState {
+        private InMemoryTaskManager taskManager;
+
+        @Setup(Level.Iteration)
+        public void setUp(TaskManagerBenchmark benchmark) {
+            taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+            fillBoard(taskManager, benchmark.boardSize, benchmark.epicFanOut);
+            for (Epic epic : taskManager.getEpics()) {
+                taskManager.getEpic(epic.getId()); // Чтобы удаление чистило и историю
+            }
+        }
+    }
+
+    static void fillBoard(TaskManager taskManager, int boardSize, int epicFanOut) {
+        int epicId = 0;
+        for (int i = 0; i < boardSize; i++) {
+            if (i % epicFanOut == 0) {
+                epicId = taskManager.addNewEpic(new Epic(0, "Epic " + i, "Description", Status.NEW));
+                taskManager.addNewTask(new Task(0, "Task " + i, "Description", Status.NEW));
+            }
+            taskManager.addNewSubtask(new Subtask(0, "Subtask " + i, "Description", Status.NEW, epicId));
+        }
+    }
+
+    private int nextEpicId() {
+        return epicIds[next(epicIds.length)];
+    }
+
+    private int next(int bound) {
+        cursor = cursor + 1 < bound ? cursor + 1 : 0;
+        return cursor;
+    }
+}
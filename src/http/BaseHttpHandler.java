@@ -0,0 +1,188 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import json.JsonWriter;
+import service.TaskManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Общая часть обработчиков: разбор пути и параметров, ответы JSON и перевод исключений менеджера в коды HTTP.
+// Текст непредвиденной ошибки (500) клиенту не отдаётся: он может раскрыть внутреннее устройство сервера,
+// поэтому исключение пишется в журнал платформы (System.Logger), а клиент получает общее сообщение.
+// Тело ответа всегда отправляется с известной длиной, а тело запроса дочитывается до конца -
+// без этого соединение нельзя оставить открытым (keep-alive) для следующего запроса.
+// Тело запроса не длиннее MAX_BODY_BYTES. Длинное получает 413 без чтения остатка: Content-Length
+// проверяется до чтения, а тело без него читается не дальше предела. Недочитанное соединение закрывается.
+abstract class BaseHttpHandler implements HttpHandler {
+    static final int MAX_BODY_BYTES = 1 << 20; // 1 МиБ - пакет из нескольких тысяч изменений
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final System.Logger LOGGER = System.getLogger(BaseHttpHandler.class.getName());
+
+    protected final TaskManager manager;
+
+    protected BaseHttpHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = readBody(exchange);
+            if (body == null) {
+                closeAfterResponse(exchange);
+                send(exchange, Response.error(413, "Тело запроса длиннее " + MAX_BODY_BYTES + " байт."));
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.length() <= 1 ? new String[0] : path.substring(1).split("/");
+            Response response;
+            try {
+                response = handle(exchange.getRequestMethod(), segments, query(exchange), body);
+            } catch (NoSuchElementException e) {
+                response = Response.error(404, e.getMessage());
+            } catch (IllegalArgumentException e) { // Сюда же попадают NumberFormatException и ошибки JSON
+                response = Response.error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, "Ошибка обработки " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI(), e);
+                response = Response.error(500, "Внутренняя ошибка сервера.");
+            }
+            send(exchange, response);
+        }
+    }
+
+    // segments - части пути без начального '/', например ["epics", "5", "subtasks"]
+    // body - тело запроса в UTF-8 как есть: JSON разбирается прямо из байтов
+    protected abstract Response handle(String method, String[] segments, Map<String, String> query, byte[] body);
+
+    protected static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный ID: " + value, e);
+        }
+    }
+
+    protected static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть целым числом: " + value, e);
+        }
+    }
+
+    // Тело запроса; null - оно длиннее MAX_BODY_BYTES и прочитано не до конца
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        if (declaredLength(exchange) > MAX_BODY_BYTES) {
+            return null;
+        }
+        InputStream in = exchange.getRequestBody();
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            return null;
+        }
+        in.close();
+        return body;
+    }
+
+    // Длина тела из Content-Length; -1, если заголовка нет (тело по частям) или он не число
+    static long declaredLength(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Соединение закрывается после ответа, и недочитанный остаток тела не читается
+    static void closeAfterResponse(HttpExchange exchange) {
+        exchange.getResponseHeaders().set("Connection", "close");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    // Пишет ответ прямо из буфера JsonWriter и возвращает буфер в пул
+    static void send(HttpExchange exchange, Response response) throws IOException {
+        JsonWriter body = response.body;
+        try {
+            int length = body == null ? 0 : body.size();
+            if (length > 0) {
+                exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+            }
+            exchange.sendResponseHeaders(response.status, length == 0 ? -1 : length);
+            if (length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    body.writeTo(out);
+                }
+            }
+        } finally {
+            if (body != null) {
+                TaskJson.release(body);
+            }
+        }
+    }
+
+    // Код ответа и тело JSON (null - без тела)
+    static final class Response {
+        final int status;
+        final JsonWriter body;
+
+        Response(int status, JsonWriter body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response ok(JsonWriter body) {
+            return new Response(200, body);
+        }
+
+        static Response created(int id) {
+            return new Response(201, TaskJson.writeNumber("id", id));
+        }
+
+        static Response noContent() {
+            return new Response(204, null);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, TaskJson.writeError(message == null ? "" : message));
+        }
+
+        static Response notFound() {
+            return error(404, "Нет такого адреса.");
+        }
+
+        static Response methodNotAllowed() {
+            return error(405, "Метод не поддерживается.");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package http;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import service.TaskManager;
+
+import java.util.List;
+import java.util.Map;
+
+// /tasks, /epics и /subtasks:
+//   GET    /{type}                      - все сущности; ?status=DONE - по статусу; ?afterId=&limit= - страница
+//   GET    /{type}/count[?status=DONE]  - количество
+//   GET    /{type}/{id}                 - одна сущность (попадает в историю)
+//   GET    /epics/{id}/subtasks         - подзадачи эпика
+//   POST   /{type}                      - тело без id (или id 0) создаёт сущность, с id - обновляет
+//   DELETE /{type}/{id}                 - удалить одну, DELETE /{type} - удалить все
+class EntityHandler extends BaseHttpHandler {
+    private final TaskType type;
+    private final String resource; // Первая часть пути: tasks, epics или subtasks
+
+    EntityHandler(TaskManager manager, TaskType type, String resource) {
+        super(manager);
+        this.type = type;
+        this.resource = resource;
+    }
+
+    @Override
+    protected Response handle(String method, String[] segments, Map<String, String> query, byte[] body) {
+        if (segments.length == 0 || !segments[0].equals(resource)) {
+            return Response.notFound(); // Контекст совпадает по префиксу, например /tasksx
+        }
+        switch (method) {
+            case "GET":
+                return get(segments, query);
+            case "POST":
+                if (segments.length != 1) {
+                    return Response.notFound();
+                }
+                return post(TaskJson.readTask(body, type));
+            case "DELETE":
+                return delete(segments);
+            default:
+                return Response.methodNotAllowed();
+        }
+    }
+
+    private Response get(String[] segments, Map<String, String> query) {
+        if (segments.length == 1) {
+            if (query.containsKey("status")) {
+                return Response.ok(TaskJson.write(byStatus(Status.valueOf(query.get("status")))));
+            }
+            if (query.containsKey("afterId") || query.containsKey("limit")) {
+                return Response.ok(TaskJson.write(page(intParameter(query, "afterId", 0),
+                        intParameter(query, "limit", Integer.MAX_VALUE))));
+            }
+            return Response.ok(TaskJson.write(all()));
+        }
+        if (segments.length == 2 && segments[1].equals("count")) {
+            int count = query.containsKey("status")
+                    ? manager.countByStatus(type, Status.valueOf(query.get("status")))
+                    : manager.count(type);
+            return Response.ok(TaskJson.writeNumber("count", count));
+        }
+        if (segments.length == 2) {
+            return Response.ok(TaskJson.write(byId(parseId(segments[1]))));
+        }
+        if (segments.length == 3 && type == TaskType.EPIC && segments[2].equals("subtasks")) {
+            return Response.ok(TaskJson.write(manager.getEpicSubtasks(parseId(segments[1]))));
+        }
+        return Response.notFound();
+    }
+
+    private Response post(Task entity) {
+        if (entity.getId() == 0) {
+            switch (type) {
+                case EPIC:
+                    return Response.created(manager.addNewEpic((Epic) entity));
+                case SUBTASK:
+                    return Response.created(manager.addNewSubtask((Subtask) entity));
+                default:
+                    return Response.created(manager.addNewTask(entity));
+            }
+        }
+        switch (type) {
+            case EPIC:
+                manager.updateEpic((Epic) entity);
+                break;
+            case SUBTASK:
+                manager.updateSubtask((Subtask) entity);
+                break;
+            default:
+                manager.updateTask(entity);
+                break;
+        }
+        return Response.ok(TaskJson.writeNumber("id", entity.getId()));
+    }
+
+    private Response delete(String[] segments) {
+        if (segments.length == 1) {
+            switch (type) {
+                case EPIC:
+                    manager.deleteAllEpics();
+                    break;
+                case SUBTASK:
+                    manager.deleteAllSubtasks();
+                    break;
+                default:
+                    manager.deleteAllTasks();
+                    break;
+            }
+            return Response.noContent();
+        }
+        if (segments.length != 2) {
+            return Response.notFound();
+        }
+        int id = parseId(segments[1]);
+        switch (type) {
+            case EPIC:
+                manager.deleteEpic(id);
+                break;
+            case SUBTASK:
+                manager.deleteSubtask(id);
+                break;
+            default:
+                manager.deleteTask(id);
+                break;
+        }
+        return Response.noContent();
+    }
+
+    private List<? extends Task> all() {
+        switch (type) {
+            case EPIC:
+                return manager.getEpics();
+            case SUBTASK:
+                return manager.getSubtasks();
+            default:
+                return manager.getTasks();
+        }
+    }
+
+    private List<? extends Task> byStatus(Status status) {
+        switch (type) {
+            case EPIC:
+                return manager.getEpicsByStatus(status);
+            case SUBTASK:
+                return manager.getSubtasksByStatus(status);
+            default:
+                return manager.getTasksByStatus(status);
+        }
+    }
+
+    private List<? extends Task> page(int afterId, int limit) {
+        switch (type) {
+            case EPIC:
+                return manager.getEpics(afterId, limit);
+            case SUBTASK:
+                return manager.getSubtasks(afterId, limit);
+            default:
+                return manager.getTasks(afterId, limit);
+        }
+    }
+
+    private Task byId(int id) {
+        switch (type) {
+            case EPIC:
+                return manager.getEpic(id);
+            case SUBTASK:
+                return manager.getSubtask(id);
+            default:
+                return manager.getTask(id);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.TaskType;
+import service.Managers;
+import service.TaskManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// HTTP/JSON API поверх TaskManager на встроенном com.sun.net.httpserver. Каждый запрос обрабатывается
+// в своём виртуальном потоке, поэтому ожидание менеджера или медленный клиент не занимают поток ОС.
+// Соединения HTTP/1.1 остаются открытыми между запросами (keep-alive): ответы всегда идут с известной длиной.
+//
+// Нагрузка ограничена двумя числами: одновременно выполняется не больше maxConcurrent запросов, ещё
+// maxQueued ждут своей очереди, а сверх этого сервер сразу отвечает 503 с Retry-After, не накапливая
+// виртуальные потоки без предела. Менеджер вызывается из разных потоков, поэтому должен быть
+// потокобезопасным (Managers.getConcurrent()) - или нужно задать maxConcurrent = 1.
+public class HttpTaskServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_CONCURRENT = 256;
+    public static final int DEFAULT_MAX_QUEUED = 10_000;
+    private static final int BACKLOG = 4096; // Очередь установленных, но ещё не принятых соединений
+    private static final int MAX_DRAINED_BYTES = 64 * 1024; // Тело отклонённого (503) запроса, которое дочитывается
+    private static final String MAX_IDLE_CONNECTIONS = "sun.net.httpserver.maxIdleConnections";
+
+    static {
+        // Встроенный сервер держит открытыми не больше 200 соединений между запросами (по умолчанию),
+        // а остальные закрывает после ответа - keep-alive для большого числа клиентов пропадает.
+        // Настройка читается один раз при первом создании HttpServer в JVM, поэтому задаётся здесь,
+        // если её не задали явно через -D
+        if (System.getProperty(MAX_IDLE_CONNECTIONS) == null) {
+            System.setProperty(MAX_IDLE_CONNECTIONS, "65536");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, new InetSocketAddress(DEFAULT_PORT), DEFAULT_MAX_CONCURRENT, DEFAULT_MAX_QUEUED);
+    }
+
+    // Порт 0 - любой свободный, узнать его можно через getPort()
+    public HttpTaskServer(TaskManager manager, InetSocketAddress address, int maxConcurrent, int maxQueued)
+            throws IOException {
+        if (manager == null) {
+            throw new IllegalArgumentException("TaskManager не может быть null.");
+        }
+        if (maxConcurrent <= 0 || maxQueued < 0) {
+            throw new IllegalArgumentException("Неверные ограничения очереди: maxConcurrent=" + maxConcurrent
+                    + ", maxQueued=" + maxQueued);
+        }
+        server = HttpServer.create(address, BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+
+        AdmissionFilter admission = new AdmissionFilter(maxConcurrent, maxQueued);
+        add("/tasks", new EntityHandler(manager, TaskType.TASK, "tasks"), admission);
+        add("/epics", new EntityHandler(manager, TaskType.EPIC, "epics"), admission);
+        add("/subtasks", new EntityHandler(manager, TaskType.SUBTASK, "subtasks"), admission);
+        ManagerHandler managerHandler = new ManagerHandler(manager);
+        add("/history", managerHandler, admission);
+        add("/search", managerHandler, admission);
+        add("/prioritized", managerHandler, admission);
+        add("/batch", managerHandler, admission);
+    }
+
+    private void add(String path, BaseHttpHandler handler, AdmissionFilter admission) {
+        HttpContext context = server.createContext(path, handler);
+        context.getFilters().add(admission);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Перестаёт принимать соединения и ждёт до delaySeconds, пока закончатся начатые запросы
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    @Override
+    public void close() {
+        stop(0);
+    }
+
+    // Пропускает не больше maxConcurrent запросов одновременно и держит в ожидании не больше maxQueued.
+    // Ожидающий запрос блокирует только свой виртуальный поток
+    private static final class AdmissionFilter extends Filter {
+        private final Semaphore admitted; // Выполняются или ждут
+        private final Semaphore running; // Выполняются
+
+        AdmissionFilter(int maxConcurrent, int maxQueued) {
+            this.admitted = new Semaphore(maxConcurrent + maxQueued);
+            this.running = new Semaphore(maxConcurrent);
+        }
+
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            if (!admitted.tryAcquire()) {
+                reject(exchange);
+                return;
+            }
+            try {
+                running.acquireUninterruptibly();
+                try {
+                    chain.doFilter(exchange);
+                } finally {
+                    running.release();
+                }
+            } finally {
+                admitted.release();
+            }
+        }
+
+        // Короткое тело с известной длиной дочитывается, чтобы соединение осталось пригодным для keep-alive;
+        // длинное или без Content-Length не читается - соединение просто закрывается после ответа
+        private static void reject(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                long length = BaseHttpHandler.declaredLength(exchange);
+                if (length >= 0 && length <= MAX_DRAINED_BYTES) {
+                    try (InputStream in = exchange.getRequestBody()) {
+                        in.readAllBytes();
+                    }
+                } else {
+                    BaseHttpHandler.closeAfterResponse(exchange);
+                }
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                BaseHttpHandler.send(exchange, BaseHttpHandler.Response.error(503, "Сервер перегружен."));
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Ограничение числа одновременных и ожидающих запросов";
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        HttpTaskServer server = new HttpTaskServer(Managers.getConcurrent(), new InetSocketAddress(port),
+                DEFAULT_MAX_CONCURRENT, DEFAULT_MAX_QUEUED);
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+}
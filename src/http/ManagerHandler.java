@@ -0,0 +1,50 @@
+package http;
+
+import service.TaskManager;
+
+import java.util.Map;
+
+// Операции над менеджером целиком:
+//   GET  /history                 - история просмотров
+//   GET  /search?q=...&limit=20   - полнотекстовый поиск
+//   GET  /prioritized             - запланированные задачи и подзадачи по времени начала
+//   POST /batch                   - пакет изменений (TaskManager.applyBatch), ответ {"ids":[...]}
+class ManagerHandler extends BaseHttpHandler {
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    ManagerHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected Response handle(String method, String[] segments, Map<String, String> query, byte[] body) {
+        if (segments.length != 1) {
+            return Response.notFound();
+        }
+        switch (segments[0]) {
+            case "history":
+                if (!method.equals("GET")) {
+                    return Response.methodNotAllowed();
+                }
+                return Response.ok(TaskJson.write(manager.getHistory()));
+            case "search":
+                if (!method.equals("GET")) {
+                    return Response.methodNotAllowed();
+                }
+                return Response.ok(TaskJson.write(manager.search(query.getOrDefault("q", ""),
+                        intParameter(query, "limit", DEFAULT_SEARCH_LIMIT))));
+            case "prioritized":
+                if (!method.equals("GET")) {
+                    return Response.methodNotAllowed();
+                }
+                return Response.ok(TaskJson.write(manager.getPrioritizedTasks()));
+            case "batch":
+                if (!method.equals("POST")) {
+                    return Response.methodNotAllowed();
+                }
+                return Response.ok(TaskJson.writeIds(manager.applyBatch(TaskJson.readBatch(body))));
+            default:
+                return Response.notFound();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package http;
+
+import json.JsonReader;
+import json.JsonWriter;
+import json.TaskJsonCodec;
+import model.Task;
+import model.TaskType;
+import service.Mutation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// JSON для HTTP API поверх потокового кодека из пакета json. Ответ пишется сразу в байты UTF-8
+// в JsonWriter из небольшого пула: после отправки буфер возвращается в пул (release), поэтому
+// под нагрузкой ответы не выделяют новых буферов. Ошибки формата - IllegalArgumentException,
+// которое сервер превращает в ответ 400.
+final class TaskJson {
+    private static final TaskJsonCodec CODEC = new TaskJsonCodec();
+    private static final int POOL_SIZE = 256;
+    private static final int MAX_POOLED_BYTES = 1 << 20; // Большие буферы (огромные списки) в пул не возвращаем
+    private static final ArrayBlockingQueue<JsonWriter> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final byte[][] BATCH_FIELDS = {"kind".getBytes(StandardCharsets.UTF_8),
+            "type".getBytes(StandardCharsets.UTF_8), "id".getBytes(StandardCharsets.UTF_8),
+            "entity".getBytes(StandardCharsets.UTF_8)};
+    private static final int FIELD_KIND = 0;
+    private static final int FIELD_TYPE = 1;
+    private static final int FIELD_ID = 2;
+    private static final int FIELD_ENTITY = 3;
+
+    private TaskJson() {
+    }
+
+    static JsonWriter acquire() {
+        JsonWriter writer = POOL.poll();
+        return writer == null ? new JsonWriter() : writer.reset();
+    }
+
+    static void release(JsonWriter writer) {
+        if (writer.buffer().length <= MAX_POOLED_BYTES) {
+            POOL.offer(writer.reset());
+        }
+    }
+
+    static JsonWriter write(Task task) {
+        JsonWriter writer = acquire();
+        CODEC.write(writer, task);
+        return writer;
+    }
+
+    static JsonWriter write(List<? extends Task> tasks) {
+        JsonWriter writer = acquire();
+        CODEC.write(writer, tasks);
+        return writer;
+    }
+
+    static JsonWriter writeNumber(String name, long value) {
+        return acquire().beginObject().name(name).value(value).endObject();
+    }
+
+    static JsonWriter writeIds(int[] ids) {
+        JsonWriter writer = acquire().beginObject().name("ids").beginArray();
+        for (int id : ids) {
+            writer.value(id);
+        }
+        return writer.endArray().endObject();
+    }
+
+    static JsonWriter writeError(String message) {
+        return acquire().beginObject().name("error").value(message).endObject();
+    }
+
+    // Сущность из JSON-объекта; type задаёт адрес запроса (/tasks, /epics, /subtasks), поле "type" не обязательно
+    static Task readTask(byte[] body, TaskType type) {
+        return CODEC.decode(body, type);
+    }
+
+    // Пакет изменений: [{"kind":"ADD","entity":{...}}, {"kind":"UPDATE","entity":{...}},
+    // {"kind":"DELETE","type":"TASK","id":5}]. Поля элемента могут идти в любом порядке
+    static List<Mutation> readBatch(byte[] body) {
+        JsonReader in = new JsonReader(body);
+        if (in.peek() != JsonReader.Token.BEGIN_ARRAY) {
+            throw new IllegalArgumentException("Пакет изменений должен быть массивом JSON.");
+        }
+        List<Mutation> batch = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            batch.add(readMutation(in));
+        }
+        in.endArray();
+        in.endDocument();
+        return batch;
+    }
+
+    private static Mutation readMutation(JsonReader in) {
+        Mutation.Kind kind = null;
+        TaskType type = null;
+        int id = 0;
+        Task entity = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName(BATCH_FIELDS)) {
+                case FIELD_KIND:
+                    kind = Mutation.Kind.valueOf(in.nextString());
+                    break;
+                case FIELD_TYPE:
+                    type = TaskType.valueOf(in.nextString());
+                    break;
+                case FIELD_ID:
+                    id = in.nextInt();
+                    break;
+                case FIELD_ENTITY:
+                    entity = CODEC.read(in, null);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        if (kind == null) {
+            throw new IllegalArgumentException("Не задано поле kind.");
+        }
+        switch (kind) {
+            case ADD:
+                return Mutation.add(requiredEntity(entity));
+            case UPDATE:
+                return Mutation.update(requiredEntity(entity));
+            default:
+                if (type == null) {
+                    throw new IllegalArgumentException("Не задано поле type.");
+                }
+                return Mutation.delete(type, id);
+        }
+    }
+
+    private static Task requiredEntity(Task entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Не задано поле entity.");
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,495 @@
+package json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Потоковый разбор JSON (RFC 8259) прямо из байтов UTF-8: значения читаются по одному через peek()/next*(),
+// дерево из Map и List не строится. Вложенность хранится в массиве состояний, а не в стеке вызовов,
+// поэтому сколь угодно глубокий документ - например, неизвестное поле, пропускаемое через skipValue(), -
+// не приводит к StackOverflowError. Имена полей и значения enum можно сравнивать с заранее закодированными
+// байтами через nextName(byte[][]) и nextString(byte[][]) без создания строки. Дробные числа не поддерживаются.
+// Ошибки формата - IllegalArgumentException с позицией в байтах.
+public final class JsonReader {
+
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Состояния уровня вложенности
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte DANGLING_NAME = 5; // Прочитано имя, ждём значение
+    private static final byte NONEMPTY_OBJECT = 6;
+
+    private final byte[] data;
+    private final int limit;
+    private int position;
+    private byte[] scopes = new byte[16];
+    private int depth;
+    private Token peeked; // Уже определённый, но ещё не прочитанный токен
+
+    public JsonReader(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    public JsonReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.limit = offset + length;
+        scopes[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public Token peek() {
+        if (peeked == null) {
+            peeked = advance();
+        }
+        return peeked;
+    }
+
+    public boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    // Индекс имени поля в names (байты UTF-8 без кавычек) или -1, если такого нет; строка не создаётся
+    public int nextName(byte[][] names) {
+        expect(Token.NAME);
+        return matchString(names);
+    }
+
+    // Индекс строкового значения в values или -1 - например, для имени константы enum без создания строки
+    public int nextString(byte[][] values) {
+        expect(Token.STRING);
+        return matchString(values);
+    }
+
+    public String nextString() {
+        expect(Token.STRING);
+        return readString();
+    }
+
+    // Строка или null, если в документе стоит null
+    public String nextStringOrNull() {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    public long nextLong() {
+        expect(Token.NUMBER);
+        int start = position;
+        boolean negative = data[position] == '-';
+        if (negative) {
+            position++;
+        }
+        int digitsStart = position;
+        long value = 0;
+        while (position < limit && data[position] >= '0' && data[position] <= '9') {
+            int digit = data[position] - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw error("число вне диапазона");
+            }
+            value = value * 10 - digit; // Копим в отрицательную сторону, чтобы поместился Long.MIN_VALUE
+            position++;
+        }
+        if (position == digitsStart) {
+            position = start;
+            throw error("ожидалась цифра");
+        }
+        if (data[digitsStart] == '0' && position - digitsStart > 1) {
+            throw error("число с ведущим нулём");
+        }
+        if (position < limit && (data[position] == '.' || data[position] == 'e' || data[position] == 'E')) {
+            throw error("дробные числа не поддерживаются");
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw error("число вне диапазона");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    public int nextInt() {
+        int start = position;
+        long value = nextLong();
+        if (value != (int) value) {
+            position = start;
+            throw error("число вне диапазона int");
+        }
+        return (int) value;
+    }
+
+    public boolean nextBoolean() {
+        expect(Token.BOOLEAN);
+        if (data[position] == 't') {
+            literal("true");
+            return true;
+        }
+        literal("false");
+        return false;
+    }
+
+    public void nextNull() {
+        expect(Token.NULL);
+        literal("null");
+    }
+
+    // Пропускает очередное значение целиком вместе со всей вложенностью - циклом, без рекурсии
+    public void skipValue() {
+        Token first = peek();
+        if (first == Token.END_OBJECT || first == Token.END_ARRAY || first == Token.END_DOCUMENT) {
+            throw error("ожидалось значение, а не " + first);
+        }
+        int nesting = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nesting++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nesting++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nesting--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nesting--;
+                    break;
+                case NAME:
+                    expect(Token.NAME);
+                    skipString();
+                    break;
+                case STRING:
+                    expect(Token.STRING);
+                    skipString();
+                    break;
+                case NUMBER:
+                    nextLong();
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                default:
+                    throw error("неожиданный конец");
+            }
+        } while (nesting > 0);
+    }
+
+    // Проверяет, что после значения в документе ничего нет
+    public void endDocument() {
+        expect(Token.END_DOCUMENT);
+    }
+
+    private void expect(Token token) {
+        Token actual = peek();
+        if (actual != token) {
+            throw error("ожидалось " + token + ", а не " + actual);
+        }
+        peeked = null;
+    }
+
+    private void push(byte scope) {
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        scopes[depth++] = scope;
+    }
+
+    // Определяет следующий токен. Скобки и разделители поглощаются сразу, а значения и имена -
+    // при чтении: position остаётся на их первом байте
+    private Token advance() {
+        byte scope = scopes[depth - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    position++;
+                    return Token.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                switch (nextNonWhitespace()) {
+                    case ']':
+                        position++;
+                        return Token.END_ARRAY;
+                    case ',':
+                        position++;
+                        break;
+                    default:
+                        throw error("ожидалось ',' или ']'");
+                }
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                int c = nextNonWhitespace();
+                if (c == '}') {
+                    position++;
+                    return Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw error("ожидалось ',' или '}'");
+                    }
+                    position++;
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw error("ожидалось имя поля");
+                }
+                scopes[depth - 1] = DANGLING_NAME;
+                return Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw error("ожидалось ':'");
+                }
+                position++;
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                scopes[depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw error("лишние символы после значения");
+                }
+                return Token.END_DOCUMENT;
+        }
+        switch (nextNonWhitespace()) {
+            case '{':
+                position++;
+                return Token.BEGIN_OBJECT;
+            case '[':
+                position++;
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return Token.NUMBER;
+            case -1:
+                throw error("неожиданный конец");
+            default:
+                throw error("неожиданный символ");
+        }
+    }
+
+    // Байт после пробелов или -1 в конце данных; position указывает на него
+    private int nextNonWhitespace() {
+        while (position < limit) {
+            byte b = data[position];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return b;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    private int matchString(byte[][] candidates) {
+        int start = position + 1;
+        int end = start;
+        while (end < limit && data[end] != '"' && data[end] != '\\') {
+            end++;
+        }
+        if (end < limit && data[end] == '"') {
+            position = end + 1;
+            for (int i = 0; i < candidates.length; i++) {
+                if (Arrays.equals(data, start, end, candidates[i], 0, candidates[i].length)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        byte[] value = readString().getBytes(StandardCharsets.UTF_8); // Редкий случай: строка с экранированием
+        for (int i = 0; i < candidates.length; i++) {
+            if (Arrays.equals(value, candidates[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Строка с позиции открывающей кавычки. Без экранирования она создаётся одним вызовом прямо из байтов
+    private String readString() {
+        int start = position + 1;
+        int end = start;
+        while (true) {
+            if (end >= limit) {
+                position = end;
+                throw error("незакрытая строка");
+            }
+            byte b = data[end];
+            if (b == '"') {
+                position = end + 1;
+                return new String(data, start, end - start, StandardCharsets.UTF_8);
+            }
+            if (b == '\\') {
+                break;
+            }
+            if (b >= 0 && b < 0x20) {
+                position = end;
+                throw error("управляющий символ в строке");
+            }
+            end++;
+        }
+        StringBuilder value = new StringBuilder(end - start + 16);
+        int segment = start;
+        int i = end;
+        while (true) {
+            if (i >= limit) {
+                position = i;
+                throw error("незакрытая строка");
+            }
+            byte b = data[i];
+            if (b == '"') {
+                value.append(new String(data, segment, i - segment, StandardCharsets.UTF_8));
+                position = i + 1;
+                return value.toString();
+            }
+            if (b >= 0 && b < 0x20) {
+                position = i;
+                throw error("управляющий символ в строке");
+            }
+            if (b != '\\') {
+                i++;
+                continue;
+            }
+            value.append(new String(data, segment, i - segment, StandardCharsets.UTF_8));
+            if (i + 1 >= limit) {
+                position = i;
+                throw error("незакрытая строка");
+            }
+            byte escaped = data[i + 1];
+            i += 2;
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append((char) escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    value.append(hexChar(i));
+                    i += 4;
+                    break;
+                default:
+                    position = i - 1;
+                    throw error("неверная escape-последовательность");
+            }
+            segment = i;
+        }
+    }
+
+    private char hexChar(int offset) {
+        if (offset + 4 > limit) {
+            position = offset;
+            throw error("неполная escape-последовательность");
+        }
+        int value = 0;
+        for (int i = offset; i < offset + 4; i++) {
+            int digit = Character.digit(data[i], 16);
+            if (digit < 0) {
+                position = i;
+                throw error("неверная escape-последовательность");
+            }
+            value = value * 16 + digit;
+        }
+        return (char) value;
+    }
+
+    private void skipString() {
+        int i = position + 1;
+        while (i < limit && data[i] != '"') {
+            i += data[i] == '\\' ? 2 : 1;
+        }
+        if (i >= limit) {
+            position = limit;
+            throw error("незакрытая строка");
+        }
+        position = i + 1;
+    }
+
+    private void literal(String literal) {
+        int length = literal.length();
+        if (position + length > limit) {
+            throw error("неожиданный конец");
+        }
+        for (int i = 0; i < length; i++) {
+            if (data[position + i] != literal.charAt(i)) {
+                throw error("неожиданный символ");
+            }
+        }
+        position += length;
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException("Неверный JSON в позиции " + position + ": " + reason + ".");
+    }
+}
@@ -0,0 +1,285 @@
+package json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Потоковая запись JSON прямо в байты UTF-8 во внутренний буфер, который можно переиспользовать
+// между сообщениями через reset(): после разогрева запись не выделяет памяти. Числа пишутся цифрами
+// без Integer.toString, строки кодируются в UTF-8 посимвольно без промежуточного byte[], а имена полей
+// можно заранее закодировать через encodeName и писать готовыми байтами.
+// Запятые и двоеточия расставляются сами; стек вложенности - массив, а не рекурсия.
+public final class JsonWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private byte[] buffer;
+    private int size;
+    private boolean[] hasElements = new boolean[16]; // Есть ли уже элементы на каждом уровне вложенности
+    private int depth;
+    private boolean afterName; // Только что записано имя поля - значению запятая не нужна
+
+    public JsonWriter() {
+        this(1024);
+    }
+
+    public JsonWriter(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    // Готовое к записи имя поля: "name": в UTF-8
+    public static byte[] encodeName(String name) {
+        JsonWriter writer = new JsonWriter(name.length() * 3 + 3);
+        writer.writeString(name);
+        writer.writeByte(':');
+        return writer.toByteArray();
+    }
+
+    // Начинает новое сообщение в том же буфере
+    public JsonWriter reset() {
+        size = 0;
+        depth = 0;
+        afterName = false;
+        return this;
+    }
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        writeByte('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        pop();
+        writeByte('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        writeByte('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        pop();
+        writeByte(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        beforeName();
+        writeString(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    // Имя, заранее закодированное через encodeName
+    public JsonWriter name(byte[] encodedName) {
+        beforeName();
+        writeBytes(encodedName, 0, encodedName.length);
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            writeBytes(NULL, 0, NULL.length);
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        byte[] literal = value ? TRUE : FALSE;
+        writeBytes(literal, 0, literal.length);
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        beforeValue();
+        writeBytes(NULL, 0, NULL.length);
+        return this;
+    }
+
+    // Значение, которое уже является готовым JSON в UTF-8 (например, заранее закодированная константа)
+    public JsonWriter rawValue(byte[] json) {
+        beforeValue();
+        writeBytes(json, 0, json.length);
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Внутренний буфер без копирования; действителен до следующей записи или reset()
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    private void push() {
+        if (depth == hasElements.length) {
+            hasElements = Arrays.copyOf(hasElements, depth * 2);
+        }
+        hasElements[depth++] = false;
+    }
+
+    private void pop() {
+        if (depth == 0) {
+            throw new IllegalStateException("Нет открытого объекта или массива.");
+        }
+        depth--;
+        afterName = false;
+    }
+
+    private void beforeName() {
+        if (depth == 0) {
+            throw new IllegalStateException("Имя поля вне объекта.");
+        }
+        if (hasElements[depth - 1]) {
+            writeByte(',');
+        }
+        hasElements[depth - 1] = true;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth - 1]) {
+                writeByte(',');
+            }
+            hasElements[depth - 1] = true;
+        }
+    }
+
+    private void writeString(String value) {
+        int length = value.length();
+        ensureCapacity(length + 2); // Для ASCII без экранирования этого достаточно, иначе растём по ходу
+        buffer[size++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    ensureCapacity(1);
+                    buffer[size++] = (byte) c;
+                } else {
+                    writeEscaped(c);
+                }
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                ensureCapacity(1);
+                buffer[size++] = '?'; // Непарный суррогат в UTF-8 не кодируется, как и в String.getBytes
+            } else {
+                ensureCapacity(3);
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        ensureCapacity(1);
+        buffer[size++] = '"';
+    }
+
+    private void writeEscaped(char c) {
+        ensureCapacity(6);
+        buffer[size++] = '\\';
+        switch (c) {
+            case '"':
+                buffer[size++] = '"';
+                break;
+            case '\\':
+                buffer[size++] = '\\';
+                break;
+            case '\n':
+                buffer[size++] = 'n';
+                break;
+            case '\r':
+                buffer[size++] = 'r';
+                break;
+            case '\t':
+                buffer[size++] = 't';
+                break;
+            default:
+                buffer[size++] = 'u';
+                buffer[size++] = '0';
+                buffer[size++] = '0';
+                buffer[size++] = HEX[c >> 4];
+                buffer[size++] = HEX[c & 0xF];
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            byte[] digits = Long.toString(value).getBytes();
+            writeBytes(digits, 0, digits.length);
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void writeByte(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package json;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// JSON для Task, Epic и Subtask, написанный вручную поверх JsonWriter и JsonReader - без рефлексии
+// и без промежуточного дерева. Сущность:
+// {"id":1,"type":"SUBTASK","title":"...","description":"...","status":"NEW","epicId":3};
+// epicId есть только у подзадач, а эпик при includeSubtasks пишется вместе с массивом "subtasks".
+// Без includeSubtasks непустой "subtasks" при чтении - ошибка: подзадачи создаются только своими запросами,
+// и клиент не может подложить их эпику.
+// У запланированной сущности есть ещё "startTime", "duration" и вычисляемое "endTime" в ISO-8601
+// ("2026-10-18T09:00", "PT1H30M"); у эпика они выведены из подзадач и при чтении игнорируются, как и endTime.
+// Имена полей, типы и статусы закодированы заранее, поэтому запись сущности без времени не создаёт
+// ни одной строки.
+// Вложенные подзадачи пишутся и читаются плоским циклом: подзадача сама ничего не вкладывает,
+// а любые лишние поля любой глубины пропускаются через JsonReader.skipValue() без рекурсии.
+// Кодек не хранит состояния и может использоваться из разных потоков.
+public final class TaskJsonCodec {
+    private static final byte[] ID = JsonWriter.encodeName("id");
+    private static final byte[] TYPE = JsonWriter.encodeName("type");
+    private static final byte[] TITLE = JsonWriter.encodeName("title");
+    private static final byte[] DESCRIPTION = JsonWriter.encodeName("description");
+    private static final byte[] STATUS = JsonWriter.encodeName("status");
+    private static final byte[] EPIC_ID = JsonWriter.encodeName("epicId");
+    private static final byte[] SUBTASKS = JsonWriter.encodeName("subtasks");
+    private static final byte[] START_TIME = JsonWriter.encodeName("startTime");
+    private static final byte[] DURATION = JsonWriter.encodeName("duration");
+    private static final byte[] END_TIME = JsonWriter.encodeName("endTime");
+
+    // Имена полей для чтения; порядок совпадает с константами FIELD_*
+    private static final byte[][] FIELDS = names("id", "type", "title", "description", "status", "epicId", "subtasks",
+            "startTime", "duration");
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_TYPE = 1;
+    private static final int FIELD_TITLE = 2;
+    private static final int FIELD_DESCRIPTION = 3;
+    private static final int FIELD_STATUS = 4;
+    private static final int FIELD_EPIC_ID = 5;
+    private static final int FIELD_SUBTASKS = 6;
+    private static final int FIELD_START_TIME = 7;
+    private static final int FIELD_DURATION = 8;
+
+    // Значения enum в кавычках для записи и без них - для сравнения при чтении; индекс равен ordinal()
+    private static final byte[][] TYPE_VALUES = quoted(TaskType.values());
+    private static final byte[][] STATUS_VALUES = quoted(Status.values());
+    private static final byte[][] TYPE_NAMES = names(TaskType.values());
+    private static final byte[][] STATUS_NAMES = names(Status.values());
+
+    private final boolean includeSubtasks;
+
+    public TaskJsonCodec() {
+        this(false);
+    }
+
+    // includeSubtasks - писать и читать подзадачи внутри эпика
+    public TaskJsonCodec(boolean includeSubtasks) {
+        this.includeSubtasks = includeSubtasks;
+    }
+
+    public void write(JsonWriter out, Task task) {
+        out.beginObject();
+        writeFields(out, task);
+        if (includeSubtasks && task instanceof Epic) {
+            out.name(SUBTASKS).beginArray();
+            for (Subtask subtask : ((Epic) task).getSubtasks()) {
+                out.beginObject();
+                writeFields(out, subtask);
+                out.endObject();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    public void write(JsonWriter out, List<? extends Task> tasks) {
+        out.beginArray();
+        for (int i = 0; i < tasks.size(); i++) {
+            write(out, tasks.get(i));
+        }
+        out.endArray();
+    }
+
+    public byte[] encode(Task task) {
+        JsonWriter out = new JsonWriter(256);
+        write(out, task);
+        return out.toByteArray();
+    }
+
+    public byte[] encode(List<? extends Task> tasks) {
+        JsonWriter out = new JsonWriter(tasks.size() * 96 + 16);
+        write(out, tasks);
+        return out.toByteArray();
+    }
+
+    private static void writeFields(JsonWriter out, Task task) {
+        out.name(ID).value(task.getId());
+        out.name(TYPE).rawValue(TYPE_VALUES[task.getType().ordinal()]);
+        out.name(TITLE).value(task.getTitle());
+        out.name(DESCRIPTION).value(task.getDescription());
+        out.name(STATUS);
+        if (task.getStatus() == null) {
+            out.nullValue();
+        } else {
+            out.rawValue(STATUS_VALUES[task.getStatus().ordinal()]);
+        }
+        if (task instanceof Subtask) {
+            out.name(EPIC_ID).value(((Subtask) task).getEpicId());
+        }
+        LocalDateTime startTime = task.getStartTime();
+        Duration duration = task.getDuration();
+        if (startTime != null) {
+            out.name(START_TIME).value(startTime.toString());
+        }
+        if (duration != null) {
+            out.name(DURATION).value(duration.toString());
+        }
+        if (startTime != null) {
+            out.name(END_TIME).value(task.getEndTime().toString());
+        }
+    }
+
+    // Сущность из очередного объекта. type - ожидаемый тип (например, по адресу запроса); если null,
+    // тип берётся из поля "type". Поля могут идти в любом порядке, неизвестные пропускаются
+    public Task read(JsonReader in, TaskType type) {
+        Fields fields = readFields(in, type, false);
+        if (fields.subtasks == null) {
+            return fields.toTask();
+        }
+        if (fields.type != TaskType.EPIC) {
+            throw new IllegalArgumentException("Подзадачи могут быть только у эпика.");
+        }
+        Epic epic = (Epic) fields.toTask();
+        for (Fields subtask : fields.subtasks) {
+            if (!subtask.hasEpicId) { // Внутри эпика epicId можно не повторять
+                subtask.epicId = epic.getId();
+                subtask.hasEpicId = true;
+            } else if (subtask.epicId != epic.getId()) {
+                throw new IllegalArgumentException("Подзадача " + subtask.id + " относится к эпику "
+                        + subtask.epicId + ", а не " + epic.getId() + ".");
+            }
+            epic.addSubtask((Subtask) subtask.toTask());
+        }
+        return epic;
+    }
+
+    // Массив сущностей, тип каждой - из поля "type"
+    public List<Task> readList(JsonReader in) {
+        List<Task> tasks = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            tasks.add(read(in, null));
+        }
+        in.endArray();
+        return tasks;
+    }
+
+    public Task decode(byte[] json, TaskType type) {
+        JsonReader in = new JsonReader(json);
+        Task task = read(in, type);
+        in.endDocument();
+        return task;
+    }
+
+    public List<Task> decodeList(byte[] json) {
+        JsonReader in = new JsonReader(json);
+        List<Task> tasks = readList(in);
+        in.endDocument();
+        return tasks;
+    }
+
+    // Поля одного объекта. Массив "subtasks" читается только у объекта верхнего уровня; у вложенной
+    // подзадачи (nested) он пропускается как неизвестное поле, поэтому глубина разбора не больше двух
+    private Fields readFields(JsonReader in, TaskType expectedType, boolean nested) {
+        Fields fields = new Fields();
+        TaskType declaredType = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName(FIELDS)) {
+                case FIELD_ID:
+                    fields.id = in.nextInt();
+                    break;
+                case FIELD_TYPE:
+                    declaredType = TaskType.values()[enumIndex(in.nextString(TYPE_NAMES), "type")];
+                    break;
+                case FIELD_TITLE:
+                    fields.title = in.nextStringOrNull();
+                    break;
+                case FIELD_DESCRIPTION:
+                    fields.description = in.nextStringOrNull();
+                    break;
+                case FIELD_STATUS:
+                    if (in.peek() == JsonReader.Token.NULL) {
+                        in.nextNull();
+                        fields.status = Status.NEW;
+                    } else {
+                        fields.status = Status.values()[enumIndex(in.nextString(STATUS_NAMES), "status")];
+                    }
+                    break;
+                case FIELD_EPIC_ID:
+                    fields.epicId = in.nextInt();
+                    fields.hasEpicId = true;
+                    break;
+                case FIELD_START_TIME:
+                    String startTime = in.nextStringOrNull();
+                    try {
+                        fields.startTime = startTime == null ? null : LocalDateTime.parse(startTime);
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Неверное значение поля startTime: " + startTime, e);
+                    }
+                    break;
+                case FIELD_DURATION:
+                    String duration = in.nextStringOrNull();
+                    try {
+                        fields.duration = duration == null ? null : Duration.parse(duration);
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Неверное значение поля duration: " + duration, e);
+                    }
+                    break;
+                case FIELD_SUBTASKS:
+                    if (nested || in.peek() == JsonReader.Token.NULL) {
+                        in.skipValue();
+                    } else if (!includeSubtasks) {
+                        throw new IllegalArgumentException("Поле subtasks не принимается: подзадачи создаются отдельно.");
+                    } else {
+                        fields.subtasks = readSubtasks(in);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        fields.type = expectedType != null ? expectedType : declaredType;
+        if (fields.type == null) {
+            throw new IllegalArgumentException("Не задано поле type.");
+        }
+        return fields;
+    }
+
+    private List<Fields> readSubtasks(JsonReader in) {
+        List<Fields> subtasks = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            subtasks.add(readFields(in, TaskType.SUBTASK, true));
+        }
+        in.endArray();
+        return subtasks;
+    }
+
+    private static int enumIndex(int index, String field) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Неизвестное значение поля " + field + ".");
+        }
+        return index;
+    }
+
+    private static byte[][] names(String... names) {
+        byte[][] encoded = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i].name().getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static byte[][] quoted(Enum<?>[] values) {
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = new JsonWriter(32).value(values[i].name()).toByteArray();
+        }
+        return encoded;
+    }
+
+    // Прочитанные поля до создания сущности: конструктор нужного класса известен только в конце объекта
+    private static final class Fields {
+        TaskType type;
+        int id;
+        String title;
+        String description;
+        Status status = Status.NEW;
+        int epicId;
+        boolean hasEpicId;
+        LocalDateTime startTime;
+        Duration duration;
+        List<Fields> subtasks;
+
+        Task toTask() {
+            switch (type) {
+                case EPIC:
+                    return new Epic(id, title, description, status);
+                case SUBTASK:
+                    if (!hasEpicId) {
+                        throw new IllegalArgumentException("У подзадачи должно быть поле epicId.");
+                    }
+                    return new Subtask(id, title, description, status, epicId, startTime, duration);
+                default:
+                    return new Task(id, title, description, status, startTime, duration);
+            }
+        }
+    }
+}
@@ -1,47 +1,385 @@
 package model;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractSequentialList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.TreeMap;
 
+// Подзадачи эпика хранятся в двусвязном списке в порядке добавления, а узлы дополнительно доступны по ID,
+// поэтому добавление, удаление и замена подзадачи стоят O(1) и не меняют порядок остальных.
+// Поиск по ID - хеш-таблица с цепочками прямо из узлов списка: ID не упаковываются в Integer,
+// и на подзадачу не заводится отдельный элемент карты.
+// Узел помнит статус, с которым подзадача учтена в счётчиках статусов.
+// Время эпика не задаётся, а следует из запланированных подзадач: начало - самое раннее их начало, окончание -
+// самое позднее окончание, продолжительность - сумма. Начала и окончания лежат в отсортированных счётчиках,
+// поэтому добавление, замена и удаление подзадачи пересчитывают их за O(log n), без перебора списка.
 public class Epic extends Task {
 
-    private final List<Subtask> subtasks; // Список подзадач
+    private static final int MIN_BUCKETS = 4; // Степень двойки
+    private Node[] buckets = new Node[MIN_BUCKETS]; // ID подзадачи -> цепочка узлов через bucketNext
+    private int size; // Количество подзадач
+    private Node head; // Первая добавленная подзадача
+    private Node tail; // Последняя добавленная подзадача
+    private int modCount; // Счётчик добавлений и удалений, чтобы обход замечал правку списка
+    private final int[] statusCounts = new int[Status.values().length]; // Количество подзадач в каждом статусе
+    private final List<Subtask> subtasks = new SubtaskList(); // Представление только для чтения
+    private TreeMap<LocalDateTime, Integer> startCounts; // Начало запланированной подзадачи -> сколько таких; null - нет
+    private TreeMap<LocalDateTime, Integer> endCounts; // Окончание запланированной подзадачи -> сколько таких
+    private Duration totalDuration = Duration.ZERO; // Сумма продолжительностей запланированных подзадач
 
     public Epic(int id, String title, String description,Status status) {
         super(id, title, description, status);
-        this.subtasks = new ArrayList<>(); // Инициализация списка подзадач
     }
 
+    private static final class Node {
+        final int id;
+        Subtask subtask;
+        Status countedStatus; // Статус, с которым подзадача учтена в счётчиках
+        LocalDateTime countedStart; // Время, с которым подзадача учтена во времени эпика; null - не запланирована
+        Duration countedDuration;
+        Node prev;
+        Node next;
+        Node bucketNext; // Следующий узел в той же ячейке таблицы
+
+        Node(Subtask subtask) {
+            this.id = subtask.getId();
+            this.subtask = subtask;
+        }
+    }
+
+    // Подзадача с уже известным ID заменяется на своём месте, новая добавляется в конец
     public void addSubtask(Subtask subtask) {
-        subtasks.add(subtask); // Добавление подзадачи в список
+        Node node = find(subtask.getId());
+        if (node == null) {
+            node = new Node(subtask);
+            linkLast(node);
+            insert(node);
+        } else {
+            uncount(node);
+            node.subtask = subtask;
+        }
+        count(node);
     }
 
+    // Подзадачи в порядке добавления; список только для чтения и отражает последующие изменения эпика
     public List<Subtask> getSubtasks() {
         return subtasks;
     }
 
     public void removeSubtask(int id) {
-        Subtask subtaskToRemove = null;
-        for (Subtask subtask : subtasks) {
-            if (subtask.getId() == id) {
-                subtaskToRemove = subtask;
-                break;
-            }
+        Node node = detach(id);
+        if (node != null) {
+            unlink(node); // Удаляем подзадачу из списка
+            uncount(node);
         }
-        if (subtaskToRemove != null) {
-            subtasks.remove(subtaskToRemove); // Удаляем подзадачу из списка
+    }
+
+    public void clearSubtasks() {
+        modCount++;
+        buckets = new Node[MIN_BUCKETS];
+        size = 0;
+        head = null;
+        tail = null;
+        Arrays.fill(statusCounts, 0); // Обнуляем все счётчики статусов
+        startCounts = null;
+        endCounts = null;
+        totalDuration = Duration.ZERO;
+    }
+
+    // Статус эпика по счётчикам подзадач, без перебора списка
+    public Status calculateStatus() {
+        int total = size;
+        if (total == 0) {
+            return Status.NEW; // Если подзадач нет, статус NEW
         }
+        if (statusCounts[Status.DONE.ordinal()] == total) {
+            return Status.DONE; // Все подзадачи выполнены
+        }
+        if (statusCounts[Status.IN_PROGRESS.ordinal()] > 0) {
+            return Status.IN_PROGRESS; // Есть хотя бы одна подзадача в процессе
+        }
+        return Status.NEW;
     }
 
-    public void updateSubtask(Subtask updatedSubtask) {
-        // Находим подзадачу по ID и удаляем её из списка
-        removeSubtask(updatedSubtask.getId());
+    // Пересчитывает счётчики по текущим статусам и времени подзадач, если подзадачи меняли в обход updateSubtask
+    public void recountSubtasks() {
+        Arrays.fill(statusCounts, 0);
+        startCounts = null;
+        endCounts = null;
+        totalDuration = Duration.ZERO;
+        for (Node node = head; node != null; node = node.next) {
+            count(node);
+        }
+    }
 
-        // Добавляем обновлённую версию подзадачи в список
+    // Самое раннее начало запланированных подзадач; null, если таких нет
+    @Override
+    public LocalDateTime getStartTime() {
+        return startCounts == null ? null : startCounts.firstKey();
+    }
+
+    // Сумма продолжительностей запланированных подзадач; null, если таких нет
+    @Override
+    public Duration getDuration() {
+        return startCounts == null ? null : totalDuration;
+    }
+
+    // Самое позднее окончание запланированных подзадач; null, если таких нет
+    @Override
+    public LocalDateTime getEndTime() {
+        return endCounts == null ? null : endCounts.lastKey();
+    }
+
+    @Override
+    public void setStartTime(LocalDateTime startTime) {
+        throw new UnsupportedOperationException("Время эпика вычисляется по его подзадачам.");
+    }
+
+    @Override
+    public void setDuration(Duration duration) {
+        throw new UnsupportedOperationException("Время эпика вычисляется по его подзадачам.");
+    }
+
+    // Учитывает подзадачу узла в счётчиках статусов и во времени эпика с её текущими статусом и временем
+    private void count(Node node) {
+        Subtask subtask = node.subtask;
+        node.countedStatus = subtask.getStatus();
+        statusCounts[node.countedStatus.ordinal()]++;
+        node.countedStart = subtask.getStartTime();
+        if (node.countedStart == null) {
+            return;
+        }
+        node.countedDuration = subtask.getDuration() == null ? Duration.ZERO : subtask.getDuration();
+        if (startCounts == null) {
+            startCounts = new TreeMap<>();
+            endCounts = new TreeMap<>();
+        }
+        startCounts.merge(node.countedStart, 1, Integer::sum);
+        endCounts.merge(node.countedStart.plus(node.countedDuration), 1, Integer::sum);
+        totalDuration = totalDuration.plus(node.countedDuration);
+    }
+
+    // Обратное к count: убирает подзадачу узла с тем статусом и временем, с которыми она была учтена
+    private void uncount(Node node) {
+        statusCounts[node.countedStatus.ordinal()]--;
+        if (node.countedStart == null) {
+            return;
+        }
+        decrement(startCounts, node.countedStart);
+        decrement(endCounts, node.countedStart.plus(node.countedDuration));
+        totalDuration = totalDuration.minus(node.countedDuration);
+        if (startCounts.isEmpty()) {
+            startCounts = null;
+            endCounts = null;
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time) {
+        counts.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    // Замена подзадачи на её прежнем месте; подзадача, которой ещё нет, добавляется в конец
+    public void updateSubtask(Subtask updatedSubtask) {
         addSubtask(updatedSubtask);
     }
 
+    private static int bucket(int id, int length) {
+        int hash = id * 0x9E3779B9; // Перемешиваем ID, чтобы подряд идущие не попадали в соседние ячейки
+        return (hash ^ hash >>> 16) & (length - 1);
+    }
+
+    private Node find(int id) {
+        for (Node node = buckets[bucket(id, buckets.length)]; node != null; node = node.bucketNext) {
+            if (node.id == id) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void insert(Node node) {
+        if (++size > buckets.length) { // Держим в среднем не больше одного узла на ячейку
+            Node[] old = buckets;
+            buckets = new Node[old.length * 2];
+            for (Node chain : old) {
+                while (chain != null) {
+                    Node next = chain.bucketNext;
+                    int i = bucket(chain.id, buckets.length);
+                    chain.bucketNext = buckets[i];
+                    buckets[i] = chain;
+                    chain = next;
+                }
+            }
+        }
+        int i = bucket(node.id, buckets.length);
+        node.bucketNext = buckets[i];
+        buckets[i] = node;
+    }
+
+    // Убирает узел из таблицы (но не из списка) и возвращает его; null - подзадачи с таким ID нет
+    private Node detach(int id) {
+        int i = bucket(id, buckets.length);
+        Node prev = null;
+        for (Node node = buckets[i]; node != null; prev = node, node = node.bucketNext) {
+            if (node.id == id) {
+                if (prev == null) {
+                    buckets[i] = node.bucketNext;
+                } else {
+                    prev.bucketNext = node.bucketNext;
+                }
+                node.bucketNext = null;
+                size--;
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void linkLast(Node node) {
+        modCount++;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tail = node;
+    }
+
+    private void unlink(Node node) {
+        modCount++;
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+    }
+
+    // Список подзадач поверх узлов: размер и contains - O(1), get(index) идёт от ближнего конца списка
+    private final class SubtaskList extends AbstractSequentialList<Subtask> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Subtask)) {
+                return false;
+            }
+            Node node = find(((Subtask) o).getId());
+            return node != null && node.subtask.equals(o);
+        }
+
+        @Override
+        public ListIterator<Subtask> listIterator(int index) {
+            if (index < 0 || index > size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return new SubtaskIterator(index);
+        }
+    }
+
+    private final class SubtaskIterator implements ListIterator<Subtask> {
+        private Node next; // null - позиция за последней подзадачей
+        private int nextIndex;
+        private final int expectedModCount = modCount;
+
+        SubtaskIterator(int index) {
+            if (index < size / 2) {
+                next = head;
+                for (int i = 0; i < index; i++) {
+                    next = next.next;
+                }
+            } else {
+                for (int i = size; i > index; i--) {
+                    next = next == null ? tail : next.prev;
+                }
+            }
+            nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public Subtask next() {
+            checkForModification();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Subtask subtask = next.subtask;
+            next = next.next;
+            nextIndex++;
+            return subtask;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public Subtask previous() {
+            checkForModification();
+            if (nextIndex == 0) {
+                throw new NoSuchElementException();
+            }
+            next = next == null ? tail : next.prev;
+            nextIndex--;
+            return next.subtask;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Подзадачи эпика меняются только через Epic.");
+        }
+
+        @Override
+        public void set(Subtask subtask) {
+            throw new UnsupportedOperationException("Подзадачи эпика меняются только через Epic.");
+        }
+
+        @Override
+        public void add(Subtask subtask) {
+            throw new UnsupportedOperationException("Подзадачи эпика меняются только через Epic.");
+        }
+
+        private void checkForModification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.EPIC;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -63,6 +401,7 @@ public class Epic extends Task {
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
                 ", status=" + status +
+                timeToString() +
                 ", subtasks=" + subtasks +
                 '}';
     }
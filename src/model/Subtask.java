@@ -1,5 +1,7 @@
 package model;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Subtask extends Task {
@@ -7,7 +9,12 @@ public class Subtask extends Task {
     private int epicId; // ID эпика, к которому относится подзадача
 
     public Subtask(int id, String title, String description, Status status, int epicId) {
-        super(id, title, description, status);
+        this(id, title, description, status, epicId, null, null);
+    }
+
+    public Subtask(int id, String title, String description, Status status, int epicId, LocalDateTime startTime,
+                   Duration duration) {
+        super(id, title, description, status, startTime, duration);
         this.epicId = epicId; // Установка ID эпика
     }
 
@@ -15,6 +22,15 @@ public class Subtask extends Task {
         return epicId; // Получение ID эпика
     }
 
+    public void setEpicId(int epicId) {
+        this.epicId = epicId;
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.SUBTASK;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -36,6 +52,7 @@ public class Subtask extends Task {
                 ", description='" + description + '\'' +
                 ", status=" + status +
                 ", epicId=" + epicId +
+                timeToString() +
                 '}';
     }
 
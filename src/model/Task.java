@@ -1,21 +1,33 @@
 package model;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 public class Task {
 
     protected int id; // Уникальный ID задачи
     protected String title; // Название задач
     protected String description; // Описание задачи
     protected Status status; // Статус задачи
+    protected LocalDateTime startTime; // Время начала; null - задача не запланирована
+    protected Duration duration; // Продолжительность; null у запланированной задачи считается нулевой
 
     public Task(int id, String title, String description, Status status) {
+        this(id, title, description, status, null, null);
+    }
+
+    public Task(int id, String title, String description, Status status, LocalDateTime startTime,
+                Duration duration) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.status = status;
+        this.startTime = startTime;
+        this.duration = duration;
     }
 
     // Геттеры и сеттеры
-    public Integer getId() {
+    public int getId() {
         return id;
     }
 
@@ -47,6 +59,34 @@ public class Task {
         this.status = status;
     }
 
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    // Время окончания: начало плюс продолжительность; null, если задача не запланирована
+    public LocalDateTime getEndTime() {
+        if (startTime == null) {
+            return null;
+        }
+        return duration == null ? startTime : startTime.plus(duration);
+    }
+
+    public TaskType getType() {
+        return TaskType.TASK;
+    }
+
     @Override
 
     public boolean equals(Object o) {
@@ -61,6 +101,14 @@ public class Task {
         return Integer.hashCode(id); // Теперь хеш-код зависит только от id
     }
 
+    // Время в toString только у запланированных задач, чтобы не засорять вывод остальных
+    protected String timeToString() {
+        if (getStartTime() == null && getDuration() == null) {
+            return "";
+        }
+        return ", startTime=" + getStartTime() + ", duration=" + getDuration();
+    }
+
     @Override
     public String toString() {
         return "Task{" +
@@ -68,6 +116,7 @@ public class Task {
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
                 ", status=" + status +
+                timeToString() +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,971 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Менеджер задач для очень больших досок: сущности хранятся не объектами, а колонками примитивных массивов
+// (struct of arrays). Номер строки совпадает с ID, ID выдаются подряд и не переиспользуются, поэтому поиск
+// по ID - просто индекс в массиве. Строка стоит 38 байт плюс название и описание в UTF-8:
+// тип и статус - по байту, epicId, смещение текста (long), длины названия и описания, две ссылки списка
+// подзадач и две ссылки списка строк того же типа и статуса.
+// Названия и описания лежат подряд в общем хранилище из кусков byte[] до 16 МиБ, поэтому объём текста
+// не упирается в предел длины одного массива; смещение строки - номер куска в старших 32 битах и позиция
+// в нём в младших. Текст одной строки в кусок помещается целиком. Старый текст после обновления считается
+// мусором и вычищается, когда мусора становится больше, чем живого текста. Массивы растут в полтора раза.
+//
+// Методы отдают не хранимые объекты, а лёгкие представления (flyweight): ID, статус и epicId копируются
+// при создании, а строки декодируются только при первом обращении. Представление - снимок строки на момент
+// выдачи: его изменения попадают в менеджер только через update*, как и для FileBackedTaskManager.
+// История получает только заглушки с ID и без текста, чтобы не держать старые куски хранилища, а getHistory,
+// как и поиск, отдаёт по их ID свежие представления: порядок - как у просмотров, состояние - текущее.
+// Подзадачи эпика связаны в кольцевой двусвязный список, где сам эпик служит заглушкой (sentinel).
+// Строки каждого типа и статуса тоже связаны в двусвязный список (раздел) со счётчиком длины, поэтому
+// countByStatus стоит O(1), а getXxxByStatus - пропорционально размеру раздела, а не всей таблицы.
+// Время есть не у всех строк, поэтому оно хранится не колонкой, а только в расписании (ScheduleIndex)
+// копиями запланированных строк; незапланированная строка за время ничего не платит.
+// Полнотекстовый индекс (SearchIndex) строится при первом search() и только после этого ведётся при каждом
+// изменении: доска, где не ищут, за него не платит. Индекс хранит термины и ID, но не тексты и не объекты;
+// найденные ID отдаются свежими представлениями. Его словарь и списки документов не входят в 38 байт строки.
+public class ColumnarTaskManager implements TaskManager {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8; // Предел длины массива в JVM
+    private static final int MIN_GARBAGE_TO_COMPACT = 1 << 16; // Байт мусора, ниже которых текст не сжимаем
+    static final int TEXT_CHUNK_SIZE = 1 << 24; // Предел куска хранилища текста, до которого он растёт копированием
+    private static final int INITIAL_TEXT_CAPACITY = INITIAL_CAPACITY * 16;
+    private static final byte EMPTY = 0; // Строка свободна или удалена; иначе хранится 1 + TaskType.ordinal()
+    private static final Status[] STATUSES = Status.values();
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final byte[] EMPTY_TEXT = new byte[0];
+
+    private final HistoryManager historyManager;
+    private int nextId = 1;
+
+    // Колонки, индекс - ID сущности
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int[] epicIds = new int[INITIAL_CAPACITY]; // Только у подзадач
+    private long[] textOffsets = new long[INITIAL_CAPACITY]; // Кусок text и начало названия в нём, затем описание
+    private int[] titleLengths = new int[INITIAL_CAPACITY]; // Длина в байтах UTF-8, -1 для null
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY]; // Длина в байтах UTF-8, -1 для null
+    private int[] next = new int[INITIAL_CAPACITY]; // Следующая подзадача эпика; у эпика - первая подзадача
+    private int[] prev = new int[INITIAL_CAPACITY]; // Предыдущая подзадача эпика; у эпика - последняя подзадача
+    private int[] sameStatusNext = new int[INITIAL_CAPACITY]; // Следующая строка раздела, 0 - конец
+    private int[] sameStatusPrev = new int[INITIAL_CAPACITY]; // Предыдущая строка раздела, 0 - начало
+
+    private final int chunkSize;
+    private byte[][] text = {new byte[INITIAL_TEXT_CAPACITY]}; // Куски общего хранилища названий и описаний в UTF-8
+    private int textChunks = 1; // Занятые куски text; дописывается только последний
+    private int chunkLength; // Занятая часть последнего куска
+    private long textLength; // Байт во всех кусках text, включая мусор
+    private long garbageLength; // Байт в text, которые больше не принадлежат ни одной строке
+
+    // Счётчики статусов подзадач по эпикам; эпиков обычно намного меньше, чем строк
+    private final IntHashMap<int[]> epicStatusCounts = new IntHashMap<>();
+    private final int[] typeCounts = new int[TYPES.length];
+    // Разделы по типу и статусу, индекс - partition(id): первая строка и число строк
+    private final int[] partitionHeads = new int[TYPES.length * STATUSES.length];
+    private final int[] partitionSizes = new int[TYPES.length * STATUSES.length];
+    private final ScheduleIndex schedule = new ScheduleIndex();
+    private SearchIndex searchIndex; // null до первого search()
+
+    public ColumnarTaskManager(HistoryManager historyManager) {
+        this(historyManager, TEXT_CHUNK_SIZE);
+    }
+
+    // Для тестов: маленькие куски текста, чтобы проверить переход между ними без гигабайтов памяти
+    ColumnarTaskManager(HistoryManager historyManager, int chunkSize) {
+        this.historyManager = historyManager;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int addNewTask(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task не может быть null.");
+        }
+        schedule.checkFree(0, task);
+        int id = allocate(TaskType.TASK, task.getStatus());
+        writeText(id, task.getTitle(), task.getDescription());
+        schedule.put(id, scheduled(id, task));
+        index(id, task);
+        task.setId(id);
+        return id;
+    }
+
+    @Override
+    public int addNewEpic(Epic epic) {
+        if (epic == null) {
+            throw new IllegalArgumentException("Эпик не может быть null.");
+        }
+        // Подзадачи и статус, пришедшие вместе с эпиком, не учитываются: новый эпик пуст и поэтому NEW
+        epic.clearSubtasks();
+        epic.setStatus(Status.NEW);
+        int id = allocate(TaskType.EPIC, Status.NEW);
+        writeText(id, epic.getTitle(), epic.getDescription());
+        index(id, epic);
+        next[id] = id; // Пустой список подзадач замкнут на сам эпик
+        prev[id] = id;
+        epicStatusCounts.put(id, new int[STATUSES.length]);
+        epic.setId(id);
+        return id;
+    }
+
+    @Override
+    public Integer addNewSubtask(Subtask subtask) {
+        if (subtask == null) {
+            throw new IllegalArgumentException("Подзадача не может быть null.");
+        }
+        int epicId = subtask.getEpicId();
+        if (!is(epicId, TaskType.EPIC)) {
+            throw new NoSuchElementException("Epic с ID " + epicId + " не найден.");
+        }
+        schedule.checkFree(0, subtask);
+        int id = allocate(TaskType.SUBTASK, subtask.getStatus());
+        writeText(id, subtask.getTitle(), subtask.getDescription());
+        schedule.put(id, scheduled(id, subtask));
+        index(id, subtask);
+        link(id, epicId);
+        updateEpicStatus(epicId);
+        subtask.setId(id);
+        return id;
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        List<Task> result = new ArrayList<>(typeCounts[TaskType.TASK.ordinal()]);
+        byte type = code(TaskType.TASK);
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == type) {
+                result.add(view(id));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        List<Epic> result = new ArrayList<>(typeCounts[TaskType.EPIC.ordinal()]);
+        byte type = code(TaskType.EPIC);
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == type) {
+                result.add((Epic) view(id));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        List<Subtask> result = new ArrayList<>(typeCounts[TaskType.SUBTASK.ordinal()]);
+        byte type = code(TaskType.SUBTASK);
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == type) {
+                result.add((Subtask) view(id));
+            }
+        }
+        return result;
+    }
+
+    // Потоки и страницы идут прямо по колонке типов: представление создаётся, только когда до строки
+    // дошёл поток, а страница по курсору начинается сразу со строки afterId + 1
+    @Override
+    public Stream<Task> streamTasks() {
+        return stream(TaskType.TASK, 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Epic> streamEpics() {
+        return (Stream<Epic>) (Stream<?>) stream(TaskType.EPIC, 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Subtask> streamSubtasks() {
+        return (Stream<Subtask>) (Stream<?>) stream(TaskType.SUBTASK, 0);
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return page(TaskType.TASK, afterId, limit);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Epic> getEpics(int afterId, int limit) {
+        return (List<Epic>) (List<?>) page(TaskType.EPIC, afterId, limit);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return (List<Subtask>) (List<?>) page(TaskType.SUBTASK, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        if (!is(epicId, TaskType.EPIC)) {
+            throw new NoSuchElementException("Эпик с ID " + epicId + " не существует.");
+        }
+        List<Subtask> result = new ArrayList<>();
+        for (int id = next[epicId]; id != epicId; id = next[id]) {
+            result.add((Subtask) view(id));
+        }
+        return result;
+    }
+
+    // Выборки по статусу обходят только раздел нужного типа и статуса
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return scan(TaskType.TASK, status);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Epic> getEpicsByStatus(Status status) {
+        return (List<Epic>) (List<?>) scan(TaskType.EPIC, status);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return (List<Subtask>) (List<?>) scan(TaskType.SUBTASK, status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return partitionSizes[type.ordinal() * STATUSES.length + status.ordinal()];
+    }
+
+    @Override
+    public Task getTask(int id) {
+        if (!is(id, TaskType.TASK)) {
+            throw new NoSuchElementException("Task с таким id " + id + " не существует.");
+        }
+        historyManager.add(new Task(id, null, null, STATUSES[statuses[id]]));
+        return view(id);
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        if (!is(id, TaskType.SUBTASK)) {
+            throw new NoSuchElementException("Подзадача с ID " + id + " не существует.");
+        }
+        return (Subtask) view(id);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        if (!is(id, TaskType.EPIC)) {
+            throw new NoSuchElementException("Epic with id " + id + " does not exist.");
+        }
+        historyManager.add(new Epic(id, null, null, STATUSES[statuses[id]]));
+        return (Epic) view(id);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (task == null || !is(task.getId(), TaskType.TASK)) {
+            throw new NoSuchElementException("Task c id " + (task == null ? null : task.getId()) + " не существует.");
+        }
+        schedule.checkFree(task.getId(), task);
+        setStatus(task.getId(), task.getStatus());
+        writeText(task.getId(), task.getTitle(), task.getDescription());
+        schedule.put(task.getId(), scheduled(task.getId(), task));
+        index(task.getId(), task);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null || !is(epic.getId(), TaskType.EPIC)) {
+            throw new NoSuchElementException("Эпик с ID " + (epic == null ? null : epic.getId()) + " не существует.");
+        }
+        writeText(epic.getId(), epic.getTitle(), epic.getDescription()); // Статус эпика не меняется
+        index(epic.getId(), epic);
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask == null || !is(subtask.getId(), TaskType.SUBTASK)) {
+            throw new NoSuchElementException("Подзадача с ID " + (subtask == null ? null : subtask.getId())
+                    + " не существует.");
+        }
+        int epicId = subtask.getEpicId();
+        if (!is(epicId, TaskType.EPIC)) {
+            throw new NoSuchElementException("Epic с ID " + epicId + " не найден.");
+        }
+        int id = subtask.getId();
+        schedule.checkFree(id, subtask);
+        int oldEpicId = epicIds[id];
+        if (oldEpicId != epicId) {
+            unlink(id); // Перенос в конец списка другого эпика
+            setStatus(id, subtask.getStatus());
+            link(id, epicId);
+        } else {
+            int[] counts = epicStatusCounts.get(epicId); // Подзадача остаётся на своём месте в списке эпика
+            counts[statuses[id]]--;
+            setStatus(id, subtask.getStatus());
+            counts[statuses[id]]++;
+        }
+        writeText(id, subtask.getTitle(), subtask.getDescription());
+        schedule.put(id, scheduled(id, subtask));
+        index(id, subtask);
+        if (oldEpicId != epicId) {
+            updateEpicStatus(oldEpicId);
+        }
+        updateEpicStatus(epicId);
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        if (!is(id, TaskType.TASK)) {
+            throw new NoSuchElementException("Задача с ID " + id + " не существует.");
+        }
+        release(id);
+        historyManager.remove(id);
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        if (!is(id, TaskType.SUBTASK)) {
+            throw new NoSuchElementException("Подзадача с id " + id + " не существует.");
+        }
+        int epicId = epicIds[id];
+        unlink(id);
+        release(id);
+        updateEpicStatus(epicId);
+        historyManager.remove(id);
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        if (!is(id, TaskType.EPIC)) {
+            throw new NoSuchElementException("Эпик с ID " + id + " не существует.");
+        }
+        int subtaskCount = 0;
+        for (int count : epicStatusCounts.get(id)) {
+            subtaskCount += count;
+        }
+        int[] removedIds = new int[subtaskCount + 1];
+        int count = 0;
+        int subtaskId = next[id];
+        while (subtaskId != id) {
+            int following = next[subtaskId];
+            release(subtaskId);
+            removedIds[count++] = subtaskId;
+            subtaskId = following;
+        }
+        removedIds[count] = id;
+        epicStatusCounts.remove(id);
+        release(id);
+        historyManager.removeAll(removedIds); // Эпик и подзадачи уходят из истории одним вызовом
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        byte type = code(TaskType.TASK);
+        // История - один проход по ней или сброс целиком, если кроме задач ничего нет
+        if (typeCounts[TaskType.EPIC.ordinal()] == 0) {
+            historyManager.clear();
+        } else {
+            historyManager.removeAll(id -> types[id] == type);
+        }
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == type) {
+                release(id);
+            }
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        byte epic = code(TaskType.EPIC);
+        byte subtask = code(TaskType.SUBTASK);
+        if (typeCounts[TaskType.TASK.ordinal()] == 0) {
+            historyManager.clear();
+        } else {
+            historyManager.removeAll(id -> types[id] == epic || types[id] == subtask);
+        }
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == epic || types[id] == subtask) {
+                release(id);
+            }
+        }
+        epicStatusCounts.clear();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        byte subtask = code(TaskType.SUBTASK);
+        byte epic = code(TaskType.EPIC);
+        historyManager.removeAll(id -> types[id] == subtask);
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == subtask) {
+                release(id);
+            } else if (types[id] == epic) {
+                next[id] = id;
+                prev[id] = id;
+                Arrays.fill(epicStatusCounts.get(id), 0);
+                setStatus(id, Status.NEW);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (searchIndex == null) {
+            buildSearchIndex();
+        }
+        int[] found = searchIndex.searchIds(query, limit);
+        List<Task> result = new ArrayList<>(found.length);
+        for (int id : found) {
+            result.add(view(id));
+        }
+        return result;
+    }
+
+    // Индексирует все живые строки; строки текста декодируются по одной и в индексе не остаются
+    private void buildSearchIndex() {
+        SearchIndex index = new SearchIndex();
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] != EMPTY) {
+                index.add(id, title(id), description(id));
+            }
+        }
+        searchIndex = index;
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> ordered = schedule.ordered();
+        ordered.replaceAll(task -> view(task.getId()));
+        return ordered;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> viewed = historyManager.getHistory();
+        List<Task> history = new ArrayList<>(viewed.size());
+        for (Task task : viewed) {
+            history.add(view(task.getId()));
+        }
+        return history;
+    }
+
+    @Override
+    public int count(TaskType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    public int size() {
+        return typeCounts[TaskType.TASK.ordinal()] + typeCounts[TaskType.EPIC.ordinal()]
+                + typeCounts[TaskType.SUBTASK.ordinal()];
+    }
+
+    // Строки раздела по возрастанию ID, как и в остальных выборках
+    private List<Task> scan(TaskType type, Status status) {
+        int partition = type.ordinal() * STATUSES.length + status.ordinal();
+        int[] ids = new int[partitionSizes[partition]];
+        int count = 0;
+        for (int id = partitionHeads[partition]; id != 0; id = sameStatusNext[id]) {
+            ids[count++] = id;
+        }
+        Arrays.sort(ids);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(view(id));
+        }
+        return result;
+    }
+
+    // Строки типа type с ID больше afterId; колонка читается в момент прохода потока
+    private Stream<Task> stream(TaskType type, int afterId) {
+        if (afterId >= nextId - 1) {
+            return Stream.empty(); // Заодно не даём afterId + 1 переполниться
+        }
+        byte typeCode = code(type);
+        return IntStream.range(Math.max(afterId, 0) + 1, nextId).filter(id -> types[id] == typeCode)
+                .mapToObj(this::view);
+    }
+
+    private List<Task> page(TaskType type, int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit не может быть отрицательным.");
+        }
+        return stream(type, afterId).limit(limit).collect(Collectors.toList());
+    }
+
+    private static byte code(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    private boolean is(int id, TaskType type) {
+        return id > 0 && id < nextId && types[id] == code(type);
+    }
+
+    private int allocate(TaskType type, Status status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Статус не может быть null.");
+        }
+        if (nextId == types.length) {
+            if (types.length == MAX_ARRAY_LENGTH) {
+                throw new IllegalStateException("Достигнуто максимальное число сущностей: " + (nextId - 1));
+            }
+            grow((int) Math.min(MAX_ARRAY_LENGTH, types.length * 3L / 2));
+        }
+        int id = nextId++;
+        types[id] = code(type);
+        statuses[id] = (byte) status.ordinal();
+        typeCounts[type.ordinal()]++;
+        file(id);
+        return id;
+    }
+
+    private void release(int id) {
+        unfile(id);
+        typeCounts[types[id] - 1]--;
+        types[id] = EMPTY;
+        schedule.remove(id);
+        if (searchIndex != null) {
+            searchIndex.remove(id);
+        }
+        garbageLength += Math.max(titleLengths[id], 0) + Math.max(descriptionLengths[id], 0);
+    }
+
+    private void grow(int capacity) {
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        textOffsets = Arrays.copyOf(textOffsets, capacity);
+        titleLengths = Arrays.copyOf(titleLengths, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        sameStatusNext = Arrays.copyOf(sameStatusNext, capacity);
+        sameStatusPrev = Arrays.copyOf(sameStatusPrev, capacity);
+    }
+
+    // Добавляет подзадачу в конец списка эпика и учитывает её статус
+    private void link(int id, int epicId) {
+        int last = prev[epicId];
+        next[last] = id;
+        prev[id] = last;
+        next[id] = epicId;
+        prev[epicId] = id;
+        epicIds[id] = epicId;
+        epicStatusCounts.get(epicId)[statuses[id]]++;
+    }
+
+    private void unlink(int id) {
+        next[prev[id]] = next[id];
+        prev[next[id]] = prev[id];
+        epicStatusCounts.get(epicIds[id])[statuses[id]]--;
+    }
+
+    private void updateEpicStatus(int epicId) {
+        // Те же правила, что и в Epic.calculateStatus
+        int[] counts = epicStatusCounts.get(epicId);
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        Status status;
+        if (total == 0) {
+            status = Status.NEW;
+        } else if (counts[Status.DONE.ordinal()] == total) {
+            status = Status.DONE;
+        } else if (counts[Status.IN_PROGRESS.ordinal()] > 0) {
+            status = Status.IN_PROGRESS;
+        } else {
+            status = Status.NEW;
+        }
+        setStatus(epicId, status);
+    }
+
+    // Номер раздела строки по её текущим типу и статусу
+    private int partition(int id) {
+        return (types[id] - 1) * STATUSES.length + statuses[id];
+    }
+
+    // Добавляет строку в начало раздела её типа и статуса
+    private void file(int id) {
+        int partition = partition(id);
+        int head = partitionHeads[partition];
+        sameStatusNext[id] = head;
+        sameStatusPrev[id] = 0;
+        if (head != 0) {
+            sameStatusPrev[head] = id;
+        }
+        partitionHeads[partition] = id;
+        partitionSizes[partition]++;
+    }
+
+    private void unfile(int id) {
+        int partition = partition(id);
+        int following = sameStatusNext[id];
+        int previous = sameStatusPrev[id];
+        if (previous == 0) {
+            partitionHeads[partition] = following;
+        } else {
+            sameStatusNext[previous] = following;
+        }
+        if (following != 0) {
+            sameStatusPrev[following] = previous;
+        }
+        partitionSizes[partition]--;
+    }
+
+    // Меняет статус строки и перекладывает её в раздел нового статуса
+    private void setStatus(int id, Status status) {
+        byte code = (byte) status.ordinal();
+        if (statuses[id] != code) {
+            unfile(id);
+            statuses[id] = code;
+            file(id);
+        }
+    }
+
+    // Дописывает название и описание в конец общего хранилища текста; прежний текст строки становится мусором
+    private void writeText(int id, String title, String description) {
+        garbageLength += Math.max(titleLengths[id], 0) + Math.max(descriptionLengths[id], 0);
+        titleLengths[id] = 0; // Чтобы сжатие не копировало прежний текст этой строки
+        descriptionLengths[id] = 0;
+        byte[] titleBytes = title == null ? EMPTY_TEXT : title.getBytes(StandardCharsets.UTF_8);
+        byte[] descriptionBytes = description == null ? EMPTY_TEXT : description.getBytes(StandardCharsets.UTF_8);
+        long size = (long) titleBytes.length + descriptionBytes.length;
+        if (size > MAX_ARRAY_LENGTH) {
+            throw new IllegalStateException("Текст сущности с ID " + id + " длиннее " + MAX_ARRAY_LENGTH + " байт.");
+        }
+        compactTextIfNeeded();
+        long offset = reserveText((int) size);
+        byte[] chunk = text[chunk(offset)];
+        System.arraycopy(titleBytes, 0, chunk, position(offset), titleBytes.length);
+        System.arraycopy(descriptionBytes, 0, chunk, position(offset) + titleBytes.length, descriptionBytes.length);
+        textOffsets[id] = offset;
+        titleLengths[id] = title == null ? -1 : titleBytes.length;
+        descriptionLengths[id] = description == null ? -1 : descriptionBytes.length;
+    }
+
+    private String title(int id) {
+        int length = titleLengths[id];
+        long offset = textOffsets[id];
+        return length < 0 ? null : new String(text[chunk(offset)], position(offset), length, StandardCharsets.UTF_8);
+    }
+
+    private String description(int id) {
+        int length = descriptionLengths[id];
+        long offset = textOffsets[id];
+        return length < 0 ? null : new String(text[chunk(offset)], position(offset) + Math.max(titleLengths[id], 0),
+                length, StandardCharsets.UTF_8);
+    }
+
+    // Место под size байт в конце последнего куска или в новом куске; возвращает смещение для textOffsets.
+    // Текст строки не разрывается между кусками, поэтому длинному тексту достаётся кусок по его размеру
+    private long reserveText(int size) {
+        byte[] last = text[textChunks - 1];
+        long required = (long) chunkLength + size;
+        if (required > last.length) {
+            if (required <= chunkSize) {
+                // Новый массив, а не правка старого: выданные представления продолжают читать свою копию
+                last = Arrays.copyOf(last, (int) Math.min(chunkSize, Math.max(required, last.length * 3L / 2)));
+                text[textChunks - 1] = last;
+            } else {
+                if (textChunks == text.length) {
+                    text = Arrays.copyOf(text, textChunks * 2);
+                }
+                text[textChunks++] = new byte[Math.max(size, Math.min(chunkSize, INITIAL_TEXT_CAPACITY))];
+                chunkLength = 0;
+            }
+        }
+        long offset = (long) (textChunks - 1) << 32 | chunkLength;
+        chunkLength += size;
+        textLength += size;
+        return offset;
+    }
+
+    private static int chunk(long offset) {
+        return (int) (offset >>> 32);
+    }
+
+    private static int position(long offset) {
+        return (int) offset;
+    }
+
+    // Переписывает живой текст в новые куски, когда мусора больше, чем живого текста
+    private void compactTextIfNeeded() {
+        if (garbageLength < MIN_GARBAGE_TO_COMPACT || garbageLength * 2 < textLength) {
+            return;
+        }
+        byte[][] old = text;
+        text = new byte[1][];
+        long live = textLength - garbageLength;
+        text[0] = new byte[(int) Math.min(chunkSize, Math.max(INITIAL_TEXT_CAPACITY, live * 3 / 2))];
+        textChunks = 1;
+        chunkLength = 0;
+        textLength = 0;
+        for (int id = 1; id < nextId; id++) {
+            if (types[id] == EMPTY) {
+                continue;
+            }
+            int size = Math.max(titleLengths[id], 0) + Math.max(descriptionLengths[id], 0);
+            long from = textOffsets[id];
+            long to = reserveText(size);
+            System.arraycopy(old[chunk(from)], position(from), text[chunk(to)], position(to), size);
+            textOffsets[id] = to;
+        }
+        garbageLength = 0;
+    }
+
+    // Переиндексирует текст строки id, если индекс уже построен. Индекс запоминает только ID:
+    // менеджер не хранит чужие объекты
+    private void index(int id, Task entity) {
+        if (searchIndex != null) {
+            searchIndex.add(id, entity.getTitle(), entity.getDescription());
+        }
+    }
+
+    // Копия времени строки для расписания: сам объект вызывающего менеджер не хранит. Копии нужны только
+    // время, ID и тип (для сообщения о пересечении). Незапланированную сущность расписание само не хранит
+    private static Task scheduled(int id, Task entity) {
+        LocalDateTime start = entity.getStartTime();
+        if (start == null) {
+            return entity;
+        }
+        if (entity instanceof Subtask) {
+            return new Subtask(id, null, null, Status.NEW, 0, start, entity.getDuration());
+        }
+        return new Task(id, null, null, Status.NEW, start, entity.getDuration());
+    }
+
+    private Task view(int id) {
+        Status status = STATUSES[statuses[id]];
+        switch (TYPES[types[id] - 1]) {
+            case EPIC:
+                return new EpicView(this, id, status);
+            case SUBTASK:
+                return new SubtaskView(this, id, status, epicIds[id], schedule.get(id));
+            default:
+                return new TaskView(this, id, status, schedule.get(id));
+        }
+    }
+
+    // Ссылка на текст строки в момент выдачи представления; строки создаются только по запросу.
+    // Держит только кусок хранилища со своей строкой, а не всё хранилище
+    private static final class TextRef {
+        private final byte[] text;
+        private final int offset;
+        private final int titleLength;
+        private final int descriptionLength;
+
+        TextRef(ColumnarTaskManager manager, int id) {
+            long offset = manager.textOffsets[id];
+            this.text = manager.text[chunk(offset)];
+            this.offset = position(offset);
+            this.titleLength = manager.titleLengths[id];
+            this.descriptionLength = manager.descriptionLengths[id];
+        }
+
+        String title() {
+            return titleLength < 0 ? null : new String(text, offset, titleLength, StandardCharsets.UTF_8);
+        }
+
+        String description() {
+            return descriptionLength < 0 ? null
+                    : new String(text, offset + Math.max(titleLength, 0), descriptionLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class TaskView extends Task {
+        private TextRef textRef; // null, когда строки уже декодированы или заданы сеттером
+
+        TaskView(ColumnarTaskManager manager, int id, Status status, Task time) {
+            super(id, null, null, status, time == null ? null : time.getStartTime(),
+                    time == null ? null : time.getDuration());
+            this.textRef = new TextRef(manager, id);
+        }
+
+        private void load() {
+            if (textRef != null) {
+                title = textRef.title();
+                description = textRef.description();
+                textRef = null;
+            }
+        }
+
+        @Override
+        public String getTitle() {
+            load();
+            return title;
+        }
+
+        @Override
+        public String getDescription() {
+            load();
+            return description;
+        }
+
+        @Override
+        public void setTitle(String title) {
+            load();
+            super.setTitle(title);
+        }
+
+        @Override
+        public void setDescription(String description) {
+            load();
+            super.setDescription(description);
+        }
+
+        @Override
+        public String toString() {
+            load();
+            return super.toString();
+        }
+    }
+
+    // Подзадачи эпика подгружаются из менеджера при первом вызове getSubtasks()
+    private static final class EpicView extends Epic {
+        private TextRef textRef;
+        private ColumnarTaskManager manager;
+
+        EpicView(ColumnarTaskManager manager, int id, Status status) {
+            super(id, null, null, status);
+            this.textRef = new TextRef(manager, id);
+            this.manager = manager;
+        }
+
+        private void load() {
+            if (textRef != null) {
+                title = textRef.title();
+                description = textRef.description();
+                textRef = null;
+            }
+        }
+
+        @Override
+        public List<Subtask> getSubtasks() {
+            if (manager != null) {
+                ColumnarTaskManager source = manager;
+                manager = null;
+                if (source.is(id, TaskType.EPIC)) {
+                    for (Subtask subtask : source.getEpicSubtasks(id)) {
+                        addSubtask(subtask);
+                    }
+                }
+            }
+            return super.getSubtasks();
+        }
+
+        // Время эпика выводится из подзадач, поэтому сначала их нужно подгрузить
+        @Override
+        public LocalDateTime getStartTime() {
+            getSubtasks();
+            return super.getStartTime();
+        }
+
+        @Override
+        public LocalDateTime getEndTime() {
+            getSubtasks();
+            return super.getEndTime();
+        }
+
+        @Override
+        public Duration getDuration() {
+            getSubtasks();
+            return super.getDuration();
+        }
+
+        @Override
+        public String getTitle() {
+            load();
+            return title;
+        }
+
+        @Override
+        public String getDescription() {
+            load();
+            return description;
+        }
+
+        @Override
+        public void setTitle(String title) {
+            load();
+            super.setTitle(title);
+        }
+
+        @Override
+        public void setDescription(String description) {
+            load();
+            super.setDescription(description);
+        }
+
+        @Override
+        public String toString() {
+            load();
+            getSubtasks();
+            return super.toString();
+        }
+    }
+
+    private static final class SubtaskView extends Subtask {
+        private TextRef textRef;
+
+        SubtaskView(ColumnarTaskManager manager, int id, Status status, int epicId, Task time) {
+            super(id, null, null, status, epicId, time == null ? null : time.getStartTime(),
+                    time == null ? null : time.getDuration());
+            this.textRef = new TextRef(manager, id);
+        }
+
+        private void load() {
+            if (textRef != null) {
+                title = textRef.title();
+                description = textRef.description();
+                textRef = null;
+            }
+        }
+
+        @Override
+        public String getTitle() {
+            load();
+            return title;
+        }
+
+        @Override
+        public String getDescription() {
+            load();
+            return description;
+        }
+
+        @Override
+        public void setTitle(String title) {
+            load();
+            super.setTitle(title);
+        }
+
+        @Override
+        public void setDescription(String description) {
+            load();
+            super.setDescription(description);
+        }
+
+        @Override
+        public String toString() {
+            load();
+            return super.toString();
+        }
+    }
+}
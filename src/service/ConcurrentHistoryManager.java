@@ -0,0 +1,216 @@
+package service;
+
+import model.Task;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Потокобезопасная история просмотров для высокой частоты getTask/getEpic.
+// Просмотры и удаления без блокировок складываются в общую очередь (ConcurrentLinkedQueue),
+// а в упорядоченный список InMemoryHistoryManager их переносит тот поток, которому удалось взять блокировку.
+// Порядок применения совпадает с порядком попадания в очередь, поэтому getHistory()
+// по-прежнему возвращает историю без дубликатов, последний просмотр - в конце.
+public class ConcurrentHistoryManager implements HistoryManager {
+
+    private static final int DRAIN_THRESHOLD = 1024; // После стольких событий писатель пробует перенести очередь
+    private static final int MAX_PENDING = 64 * DRAIN_THRESHOLD; // После стольких писатель ждёт блокировку
+
+    private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<>(); // Task - просмотр, Removal - удаление, Marker - метка чтения
+    private final AtomicInteger pendingCount = new AtomicInteger(); // Примерный размер очереди
+    private final ReentrantLock drainLock = new ReentrantLock(); // Защищает ordered
+    private final InMemoryHistoryManager ordered; // Применённая история
+
+    public ConcurrentHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    public ConcurrentHistoryManager(int capacity) {
+        this.ordered = new InMemoryHistoryManager(capacity);
+    }
+
+    // Событие удаления из истории
+    private static final class Removal {
+        final int id;
+
+        Removal(int id) {
+            this.id = id;
+        }
+    }
+
+    // Метка читателя: позиция в очереди на момент вызова. reached отмечает тот, кто снял метку с очереди,
+    // - к этому моменту всё, что было до неё, уже применено. Читается и пишется только под drainLock.
+    private static final class Marker {
+        boolean reached;
+    }
+
+    // Событие удаления нескольких задач одним проходом
+    private static final class BulkRemoval {
+        final int[] ids;
+
+        BulkRemoval(int[] ids) {
+            this.ids = ids;
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return; // Если задача равна null, не добавляем её в историю
+        }
+        enqueue(task);
+    }
+
+    @Override
+    public void remove(int id) {
+        enqueue(new Removal(id));
+    }
+
+    // Список ID копируется и ставится в очередь одним событием, как и одиночное удаление
+    @Override
+    public void removeAll(int[] ids) {
+        enqueue(new BulkRemoval(ids.clone()));
+    }
+
+    // Всё, что попало в очередь до вызова, применяется и тут же отбрасывается вместе с историей
+    @Override
+    public void clear() {
+        lockAndCatchUp();
+        try {
+            ordered.clear();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Условие может зависеть от текущего состояния хранилищ, поэтому применяется сразу под блокировкой,
+    // а не откладывается в очередь
+    @Override
+    public void removeAll(IntPredicate ids) {
+        lockAndCatchUp();
+        try {
+            ordered.removeAll(ids);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        lockAndCatchUp();
+        try {
+            return ordered.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Страница истории копируется под блокировкой, остальная история не трогается
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        lockAndCatchUp();
+        try {
+            return ordered.getHistory(offset, limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Обход без копирования выполняется под блокировкой: action должен быть коротким и не менять историю
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        lockAndCatchUp();
+        try {
+            ordered.forEach(action);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lockAndCatchUp();
+        try {
+            return ordered.size();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    public long getEvictionCount() {
+        lockAndCatchUp();
+        try {
+            return ordered.getEvictionCount();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Просмотры и удаления ставятся в очередь одинаково: после DRAIN_THRESHOLD событий писатель пробует
+    // перенести очередь сам, иначе одни удаления копили бы её до следующего чтения. Если очередь уже
+    // переносит другой поток, писатель не ждёт - пока событий не станет MAX_PENDING: перенос медленнее
+    // постановки в очередь, и без ожидания писатели обгоняли бы его без предела
+    private void enqueue(Object event) {
+        pending.offer(event);
+        int count = pendingCount.incrementAndGet();
+        if (count >= MAX_PENDING) {
+            drainLock.lock();
+        } else if (count < DRAIN_THRESHOLD || !drainLock.tryLock()) {
+            return;
+        }
+        try {
+            drain(pendingCount.get(), null);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Примерное число ещё не применённых событий
+    int pendingCount() {
+        return pendingCount.get();
+    }
+
+    // Берёт drainLock и применяет все события, случившиеся до вызова; снять блокировку должен вызывающий.
+    // Метка в очереди отделяет такие события от более поздних, поэтому догонять приходится не больше,
+    // чем было в очереди на входе. Если метку уже снял другой поток, догонять нечего.
+    private void lockAndCatchUp() {
+        Marker marker = new Marker();
+        pending.offer(marker);
+        drainLock.lock();
+        if (!marker.reached) {
+            drain(Integer.MAX_VALUE, marker);
+        }
+    }
+
+    // Переносит накопленные события в упорядоченный список. Вызывается под drainLock.
+    // Останавливается на метке читателя, на пустой очереди или после limit событий,
+    // чтобы непрерывный поток писателей не удерживал нас бесконечно.
+    private void drain(int limit, Marker marker) {
+        for (int i = 0; i < limit; i++) {
+            Object event = pending.poll();
+            if (event == null) {
+                return;
+            }
+            if (event instanceof Marker) {
+                ((Marker) event).reached = true; // Всё, что было до метки, уже применено
+                if (event == marker) {
+                    return;
+                }
+                continue;
+            }
+            if (event instanceof Task) {
+                pendingCount.decrementAndGet();
+                ordered.add((Task) event);
+            } else if (event instanceof Removal) {
+                pendingCount.decrementAndGet();
+                ordered.remove(((Removal) event).id);
+            } else if (event instanceof BulkRemoval) {
+                pendingCount.decrementAndGet();
+                ordered.removeAll(((BulkRemoval) event).ids);
+            }
+        }
+    }
+}
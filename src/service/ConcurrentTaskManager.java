@@ -0,0 +1,734 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+// Потокобезопасный менеджер задач. Хранилища - версионные PersistentIntMap: чтение идёт по последнему
+// опубликованному снимку без блокировок, а getTasks/getEpics/getSubtasks отдают этот снимок за O(1)
+// без копирования. ID выдаются атомарно, а изменения одной сущности защищены полосой блокировок
+// (lock striping) по её ID.
+// Подзадачи блокируют только полосу своего эпика, поэтому работа с разными эпиками идёт параллельно.
+// Эпики и задачи, возвращаемые наружу, - живые объекты: их нельзя менять без updateXxx.
+// Расписание (ScheduleIndex) общее, поэтому его изменения идут под отдельной блокировкой scheduleLock,
+// которая всегда берётся последней, после полос. Хранилища и так пишутся под своей блокировкой, так что
+// параллельности она почти не отнимает.
+// Каждое хранилище дополнительно разбито по статусу: разделы публикуются тем же снимком, что и само
+// хранилище, поэтому getXxxByStatus отдают готовый раздел за O(1), а countByStatus - его размер.
+// Статус эпика меняется на месте, поэтому после пересчёта эпик перекладывается через refresh.
+// Эпик подзадачи берётся не из неё самой (её epicId могут поменять на месте), а из subtaskEpics. Запись
+// о подзадаче меняется только под полосой её эпика, поэтому, взяв эту полосу, её можно читать как есть.
+// Полнотекстовый индекс (SearchIndex) тоже общий: изменения идут под блокировкой записи searchLock,
+// которая берётся самой последней, а поиск - под блокировкой чтения, параллельно с другими поисками.
+public class ConcurrentTaskManager implements TaskManager {
+
+    private static final int LOCK_STRIPES = 64; // Количество полос, степень двойки
+    private static final Status[] STATUSES = Status.values();
+
+    private final VersionedStore<Task> tasks = new VersionedStore<>(); // Задачи
+    private final VersionedStore<Epic> epics = new VersionedStore<>(); // Эпики
+    private final VersionedStore<Subtask> subtasks = new VersionedStore<>(); // Подзадачи
+    private final IntHashMap<Epic> subtaskEpics = new IntHashMap<>(); // ID подзадачи -> эпик; под своим монитором
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES]; // Полосы блокировок
+    private final AtomicInteger nextId = new AtomicInteger(1); // Атомарный счетчик для ID
+    private final ScheduleIndex schedule = new ScheduleIndex(); // Запланированные задачи и подзадачи
+    private final ReentrantLock scheduleLock = new ReentrantLock(); // Защищает schedule
+    private final SearchIndex searchIndex = new SearchIndex(); // Полнотекстовый индекс по всем хранилищам
+    private final ReentrantReadWriteLock searchLock = new ReentrantReadWriteLock(); // Защищает searchIndex
+    protected final HistoryManager historyManager; // Менеджер истории, должен быть потокобезопасным
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public int addNewTask(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task не может быть null.");
+        }
+        return scheduled(0, task, () -> {
+            int id = nextId.getAndIncrement(); // Получаем следующий уникальный ID
+            task.setId(id);
+            tasks.put(id, task);
+            index(task);
+            return id;
+        });
+    }
+
+    @Override
+    public int addNewEpic(Epic epic) {
+        if (epic == null) {
+            throw new IllegalArgumentException("Эпик не может быть null.");
+        }
+        int id = nextId.getAndIncrement();
+        epic.setId(id);
+        epic.clearSubtasks(); // Подзадачи добавляются только через addNewSubtask
+        epic.setStatus(epic.calculateStatus());
+        epics.put(id, epic);
+        index(epic);
+        return id;
+    }
+
+    @Override
+    public Integer addNewSubtask(Subtask subtask) {
+        if (subtask == null) {
+            throw new IllegalArgumentException("Подзадача не может быть null.");
+        }
+
+        ReentrantLock lock = lockFor(subtask.getEpicId()); // Блокируем только эпик подзадачи
+        lock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new NoSuchElementException("Epic с ID " + subtask.getEpicId() + " не найден.");
+            }
+            if (subtasks.containsKey(subtask.getId())) {
+                throw new IllegalArgumentException("Подзадача с ID " + subtask.getId() + " уже существует.");
+            }
+
+            return scheduled(0, subtask, () -> {
+                int id = nextId.getAndIncrement();
+                subtask.setId(id);
+                subtasks.put(id, subtask);
+                setEpicOf(id, epic);
+                index(subtask);
+                epic.addSubtask(subtask);
+                epic.setStatus(epic.calculateStatus()); // Статус эпика по счётчикам подзадач
+                epics.refresh(epic);
+                return id;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return tasks.snapshot(); // Согласованный снимок хранилища задач
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return epics.snapshot();
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return subtasks.snapshot();
+    }
+
+    // Потоки и страницы берут один опубликованный снимок и поэтому согласованы даже при параллельной записи
+    @Override
+    public Stream<Task> streamTasks() {
+        return tasks.snapshot().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epics.snapshot().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtasks.snapshot().stream();
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return tasks.snapshot().page(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return epics.snapshot().page(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return subtasks.snapshot().page(afterId, limit);
+    }
+
+    // Выборки по статусу берут раздел из того же опубликованного снимка, без фильтрации и блокировок
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return tasks.snapshot(status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return epics.snapshot(status);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return subtasks.snapshot(status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        switch (type) {
+            case EPIC:
+                return epics.snapshot(status).size();
+            case SUBTASK:
+                return subtasks.snapshot(status).size();
+            default:
+                return tasks.snapshot(status).size();
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                throw new NoSuchElementException("Эпик с ID " + epicId + " не существует.");
+            }
+            return new ArrayList<>(epic.getSubtasks()); // Копируем под блокировкой эпика
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task getTask(int id) {
+        // Блокировка нужна, чтобы просмотр не вернул в историю задачу, которую параллельно удалили
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Task task = tasks.get(id);
+            if (task == null) {
+                throw new NoSuchElementException("Task с таким id " + id + " не существует.");
+            }
+            historyManager.add(task);
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic epic = epics.get(id);
+            if (epic == null) {
+                throw new NoSuchElementException("Epic with id " + id + " does not exist.");
+            }
+            historyManager.add(epic);
+            return epic;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            throw new NoSuchElementException("Подзадача с ID " + id + " не существует.");
+        }
+        return subtask;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (task == null) {
+            throw new NoSuchElementException("Task не может быть null.");
+        }
+        ReentrantLock lock = lockFor(task.getId());
+        lock.lock();
+        try {
+            if (!tasks.containsKey(task.getId())) {
+                throw new NoSuchElementException("Task c id " + task.getId() + " не существует.");
+            }
+            scheduled(task.getId(), task, () -> {
+                tasks.put(task.getId(), task);
+                index(task);
+                return task.getId();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (epic == null) {
+            throw new NoSuchElementException("Эпик не может быть null.");
+        }
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            Epic existingEpic = epics.get(epic.getId());
+            if (existingEpic == null) {
+                throw new NoSuchElementException("Эпик с ID " + epic.getId() + " не существует.");
+            }
+            // Обновляем параметры эпика, кроме статуса
+            existingEpic.setTitle(epic.getTitle());
+            existingEpic.setDescription(epic.getDescription());
+            index(existingEpic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        if (subtask == null) {
+            throw new NoSuchElementException("Подзадача не может быть null.");
+        }
+        int id = subtask.getId();
+        while (true) {
+            Epic oldEpic = epicOf(id);
+            if (oldEpic == null) {
+                throw new NoSuchElementException("Подзадача с ID " + id + " не существует.");
+            }
+            int oldEpicId = oldEpic.getId();
+            int newEpicId = subtask.getEpicId();
+
+            // Подзадачу могут перенести в другой эпик - тогда блокируем обе полосы по возрастанию номера
+            int oldStripe = stripe(oldEpicId);
+            int newStripe = stripe(newEpicId);
+            ReentrantLock first = locks[Math.min(oldStripe, newStripe)];
+            ReentrantLock second = locks[Math.max(oldStripe, newStripe)];
+            first.lock();
+            second.lock();
+            try {
+                if (epicOf(id) != oldEpic) {
+                    continue; // Подзадачу успели перенести или удалить - повторяем с актуальным состоянием
+                }
+                Epic epic = epics.get(newEpicId);
+                if (epic == null) {
+                    throw new NoSuchElementException("Epic с ID " + newEpicId + " не найден.");
+                }
+                scheduled(id, subtask, () -> {
+                    if (oldEpic != epic) {
+                        oldEpic.removeSubtask(id);
+                        oldEpic.setStatus(oldEpic.calculateStatus());
+                        epics.refresh(oldEpic);
+                        setEpicOf(id, epic);
+                    }
+                    epic.updateSubtask(subtask);
+                    epic.setStatus(epic.calculateStatus());
+                    epics.refresh(epic);
+                    subtasks.put(id, subtask);
+                    index(subtask);
+                    return id;
+                });
+                return;
+            } finally {
+                second.unlock();
+                first.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            if (tasks.remove(id) == null) {
+                throw new NoSuchElementException("Задача с ID " + id + " не существует.");
+            }
+            unschedule(id);
+            unindex(id);
+            historyManager.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        while (true) {
+            Epic epic = epicOf(id);
+            if (epic == null) {
+                throw new NoSuchElementException("Подзадача с id " + id + " не существует.");
+            }
+            ReentrantLock lock = lockFor(epic.getId());
+            lock.lock();
+            try {
+                if (epicOf(id) != epic) {
+                    continue; // Подзадачу успели перенести или удалить - повторяем
+                }
+                subtasks.remove(id);
+                setEpicOf(id, null);
+                unschedule(id);
+                unindex(id);
+                epic.removeSubtask(id);
+                epic.setStatus(epic.calculateStatus());
+                epics.refresh(epic);
+                historyManager.remove(id);
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic epic = epics.remove(id);
+            if (epic == null) {
+                throw new NoSuchElementException("Эпик с ID " + id + " не существует.");
+            }
+            int[] removedIds = new int[epic.getSubtasks().size() + 1];
+            int count = 0;
+            for (Subtask subtask : epic.getSubtasks()) { // Удаляем все подзадачи эпика
+                removedIds[count++] = subtask.getId();
+                subtasks.remove(subtask.getId());
+                setEpicOf(subtask.getId(), null);
+                unschedule(subtask.getId());
+            }
+            removedIds[count] = id;
+            unindex(removedIds);
+            historyManager.removeAll(removedIds); // Эпик и подзадачи уходят из истории одним событием
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        searchLock.readLock().lock();
+        try {
+            return searchIndex.search(query, limit);
+        } finally {
+            searchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        scheduleLock.lock();
+        try {
+            return schedule.ordered();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        lockAll(); // Массовое удаление блокирует все полосы
+        try {
+            if (epics.snapshot().isEmpty()) {
+                historyManager.clear(); // Кроме задач ничего нет - история сбрасывается целиком
+            } else {
+                historyManager.removeAll(tasks::containsKey); // Один проход по истории
+            }
+            unscheduleAll(tasks.snapshot(), subtasks.snapshot().isEmpty());
+            unindexAll(tasks.snapshot(), epics.snapshot().isEmpty() && subtasks.snapshot().isEmpty());
+            tasks.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAll();
+        try {
+            if (tasks.snapshot().isEmpty()) {
+                historyManager.clear();
+            } else {
+                historyManager.removeAll(id -> epics.containsKey(id) || subtasks.containsKey(id));
+            }
+            unscheduleAll(subtasks.snapshot(), tasks.snapshot().isEmpty());
+            unindexAll(subtasks.snapshot(), tasks.snapshot().isEmpty());
+            unindexAll(epics.snapshot(), tasks.snapshot().isEmpty());
+            subtasks.clear();
+            clearEpicOf();
+            epics.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lockAll();
+        try {
+            historyManager.removeAll(subtasks::containsKey);
+            unscheduleAll(subtasks.snapshot(), tasks.snapshot().isEmpty());
+            unindexAll(subtasks.snapshot(), tasks.snapshot().isEmpty() && epics.snapshot().isEmpty());
+            for (Epic epic : epics.snapshot()) {
+                epic.clearSubtasks();
+                epic.setStatus(epic.calculateStatus());
+                epics.refresh(epic);
+            }
+            subtasks.clear();
+            clearEpicOf();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Хранилище с версиями: запись идёт под собственной короткой блокировкой и публикует новую версию
+    // через volatile-поле, чтение берёт последнюю опубликованную. Версия - снимок всех сущностей и снимки
+    // разделов по статусу, так что они всегда согласованы между собой. Сущность без статуса ни в один
+    // раздел не попадает. Раздел определяется статусом в момент записи, после изменения статуса
+    // на месте сущность перекладывается через refresh.
+    private static final class VersionedStore<V extends Task> {
+        private final PersistentIntMap<V> map = new PersistentIntMap<>();
+        private final List<PersistentIntMap<V>> byStatus = new ArrayList<>(); // Индекс - Status.ordinal()
+        private volatile Version<V> published;
+
+        VersionedStore() {
+            List<PersistentIntMap.Snapshot<V>> partitions = new ArrayList<>();
+            for (int i = 0; i < STATUSES.length; i++) {
+                byStatus.add(new PersistentIntMap<>());
+                partitions.add(byStatus.get(i).snapshot());
+            }
+            published = new Version<>(map.snapshot(), partitions);
+        }
+
+        V get(int id) {
+            return published.all.lookup(id);
+        }
+
+        boolean containsKey(int id) {
+            return get(id) != null;
+        }
+
+        PersistentIntMap.Snapshot<V> snapshot() {
+            return published.all;
+        }
+
+        PersistentIntMap.Snapshot<V> snapshot(Status status) {
+            return published.byStatus.get(status.ordinal());
+        }
+
+        synchronized V put(int id, V value) {
+            V previous = map.put(id, value);
+            publish(refile(id, value));
+            return previous;
+        }
+
+        // Перекладывает лежащую в хранилище сущность в раздел её текущего статуса
+        synchronized void refresh(V value) {
+            if (map.get(value.getId()) != value) {
+                return;
+            }
+            int changed = refile(value.getId(), value);
+            if (changed != 0) {
+                publish(changed);
+            }
+        }
+
+        synchronized V remove(int id) {
+            V previous = map.remove(id);
+            if (previous != null) {
+                publish(refile(id, null));
+            }
+            return previous;
+        }
+
+        // Удаляет значение, только если по ID лежит именно оно
+        synchronized boolean remove(int id, V expected) {
+            if (map.get(id) != expected) {
+                return false;
+            }
+            remove(id);
+            return true;
+        }
+
+        synchronized void clear() {
+            map.clear();
+            for (PersistentIntMap<V> partition : byStatus) {
+                partition.clear();
+            }
+            publish((1 << STATUSES.length) - 1);
+        }
+
+        // Убирает ID из чужих разделов и кладёт value (null - никуда) в раздел её статуса;
+        // возвращает битовую маску изменённых разделов
+        private int refile(int id, V value) {
+            int target = value == null || value.getStatus() == null ? -1 : value.getStatus().ordinal();
+            int changed = 0;
+            for (int i = 0; i < byStatus.size(); i++) {
+                PersistentIntMap<V> partition = byStatus.get(i);
+                if (i == target) {
+                    if (partition.get(id) != value) {
+                        partition.put(id, value);
+                        changed |= 1 << i;
+                    }
+                } else if (partition.remove(id) != null) {
+                    changed |= 1 << i;
+                }
+            }
+            return changed;
+        }
+
+        // Снимки берутся только у изменённых разделов, остальные переходят из прошлой версии
+        private void publish(int changed) {
+            List<PersistentIntMap.Snapshot<V>> partitions = published.byStatus;
+            if (changed != 0) {
+                partitions = new ArrayList<>(partitions);
+                for (int i = 0; i < byStatus.size(); i++) {
+                    if ((changed & 1 << i) != 0) {
+                        partitions.set(i, byStatus.get(i).snapshot());
+                    }
+                }
+            }
+            published = new Version<>(map.snapshot(), partitions);
+        }
+    }
+
+    private static final class Version<V> {
+        final PersistentIntMap.Snapshot<V> all;
+        final List<PersistentIntMap.Snapshot<V>> byStatus; // Не меняется после публикации
+
+        Version(PersistentIntMap.Snapshot<V> all, List<PersistentIntMap.Snapshot<V>> byStatus) {
+            this.all = all;
+            this.byStatus = byStatus;
+        }
+    }
+
+    // Эпик, в котором учтена подзадача; null - такой подзадачи нет
+    private Epic epicOf(int subtaskId) {
+        synchronized (subtaskEpics) {
+            return subtaskEpics.get(subtaskId);
+        }
+    }
+
+    // Вызывается под полосами прежнего и нового эпика подзадачи; epic == null - подзадача удалена
+    private void setEpicOf(int subtaskId, Epic epic) {
+        synchronized (subtaskEpics) {
+            if (epic == null) {
+                subtaskEpics.remove(subtaskId);
+            } else {
+                subtaskEpics.put(subtaskId, epic);
+            }
+        }
+    }
+
+    private void clearEpicOf() {
+        synchronized (subtaskEpics) {
+            subtaskEpics.clear();
+        }
+    }
+
+    // Под scheduleLock проверяет, что entity под ID id (0 - новая сущность) ни с чем не пересекается
+    // по времени, выполняет change и ставит entity в расписание под возвращённым им ID
+    private int scheduled(int id, Task entity, IntSupplier change) {
+        scheduleLock.lock();
+        try {
+            schedule.checkFree(id, entity);
+            int storedId = change.getAsInt();
+            schedule.put(storedId, entity);
+            return storedId;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void unschedule(int id) {
+        scheduleLock.lock();
+        try {
+            schedule.remove(id);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Убирает из расписания удаляемые сущности; onlyThese - в расписании нет никого, кроме них
+    private void unscheduleAll(List<? extends Task> removed, boolean onlyThese) {
+        scheduleLock.lock();
+        try {
+            if (onlyThese) {
+                schedule.clear();
+                return;
+            }
+            for (Task entity : removed) {
+                schedule.remove(entity.getId());
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Добавляет сущность в полнотекстовый индекс или переиндексирует её изменившийся текст
+    private void index(Task entity) {
+        searchLock.writeLock().lock();
+        try {
+            searchIndex.add(entity);
+        } finally {
+            searchLock.writeLock().unlock();
+        }
+    }
+
+    private void unindex(int... ids) {
+        searchLock.writeLock().lock();
+        try {
+            for (int id : ids) {
+                searchIndex.remove(id);
+            }
+        } finally {
+            searchLock.writeLock().unlock();
+        }
+    }
+
+    // Убирает из индекса удаляемые сущности; onlyThese - в индексе нет никого, кроме них
+    private void unindexAll(List<? extends Task> removed, boolean onlyThese) {
+        searchLock.writeLock().lock();
+        try {
+            if (onlyThese) {
+                searchIndex.clear();
+                return;
+            }
+            for (Task entity : removed) {
+                searchIndex.remove(entity.getId());
+            }
+        } finally {
+            searchLock.writeLock().unlock();
+        }
+    }
+
+    // Номер полосы блокировок, отвечающей за сущность с данным ID
+    private static int stripe(int id) {
+        return id & (LOCK_STRIPES - 1);
+    }
+
+    private ReentrantLock lockFor(int id) {
+        return locks[stripe(id)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) { // Всегда в одном порядке, чтобы не было взаимоблокировок
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
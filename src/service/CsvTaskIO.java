@@ -0,0 +1,562 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Потоковый импорт и экспорт доски целиком в CSV (RFC 4180, UTF-8):
+//   id,type,status,epic,title,description,start,duration
+//   1,EPIC,IN_PROGRESS,,Релиз,"Выкладка, этап 2",,
+//   2,SUBTASK,DONE,1,Сборка,,2026-10-18T09:00,PT1H30M
+// epic заполнен только у подзадач, start и duration (ISO-8601) - только у запланированных задач и подзадач:
+// время эпика выводится из подзадач. Поле с запятой, кавычкой или переводом строки берётся в кавычки,
+// кавычка внутри удваивается; пустое поле без кавычек - null, "" - пустая строка.
+//
+// Файл читается и пишется через NIO-канал буфером фиксированного размера, строки разбираются прямо из байтов,
+// поэтому память не зависит от размера файла. Исключение - подзадачи, которые ссылаются на эпик из более
+// поздней строки: они ждут свой эпик в памяти. Экспорт пишет эпики раньше подзадач, так что свои файлы
+// загружаются без ожидания.
+//
+// Импорт кладёт сущности прямо в хранилища InMemoryTaskManager (bulkLoad), без событий и истории,
+// а расписание, статусы эпиков и полнотекстовый индекс обновляет один раз в конце. Загружать можно только
+// в пустой менеджер. Ошибка формата (IllegalArgumentException с номером записи), подзадача без эпика
+// или пересечение по времени (с ID сущностей) находятся, когда часть строк уже в хранилищах, поэтому
+// при любой ошибке загрузка откатывается (abortBulkLoad) и менеджер остаётся пустым, как до импорта.
+public final class CsvTaskIO {
+    public static final String HEADER = "id,type,status,epic,title,description,start,duration";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FIELD_COUNT = 8;
+
+    private static final byte[][] TYPE_NAMES = names(TaskType.values());
+    private static final byte[][] STATUS_NAMES = names(Status.values());
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private CsvTaskIO() {
+    }
+
+    // Возвращает число записанных сущностей
+    public static int exportTo(TaskManager manager, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(manager, channel);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать " + file, e);
+        }
+    }
+
+    public static int export(TaskManager manager, WritableByteChannel channel) throws IOException {
+        Writer writer = new Writer(channel);
+        writer.writeAscii(HEADER);
+        writer.endRecord();
+        int count = 0;
+        count += writer.writeAll(manager.getEpics()); // Эпики раньше подзадач, чтобы не было ссылок вперёд
+        count += writer.writeAll(manager.getTasks());
+        count += writer.writeAll(manager.getSubtasks());
+        writer.flush();
+        return count;
+    }
+
+    // Возвращает число загруженных сущностей
+    public static int importFrom(Path file, InMemoryTaskManager manager) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importFrom(channel, manager);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось прочитать " + file, e);
+        }
+    }
+
+    public static int importFrom(ReadableByteChannel channel, InMemoryTaskManager manager) throws IOException {
+        if (manager.count(TaskType.TASK) + manager.count(TaskType.EPIC) + manager.count(TaskType.SUBTASK) > 0) {
+            throw new IllegalStateException("Импорт возможен только в пустой менеджер.");
+        }
+        Reader reader = new Reader(channel);
+        if (!reader.next() || !HEADER.equals(reader.header())) {
+            throw new IllegalArgumentException("Ожидался заголовок CSV: " + HEADER);
+        }
+        int previousNextId = manager.getNextId();
+        try {
+            int count = load(reader, manager);
+            manager.finishBulkLoad();
+            return count;
+        } catch (RuntimeException | IOException e) {
+            try {
+                manager.abortBulkLoad(previousNextId);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    // Кладёт все записи в хранилища; возвращает их число
+    private static int load(Reader reader, InMemoryTaskManager manager) throws IOException {
+        IntHashMap<List<Subtask>> waiting = new IntHashMap<>(); // ID эпика -> подзадачи, пришедшие раньше него
+        int count = 0;
+        while (reader.next()) {
+            Task entity = reader.entity();
+            if (!reader.bulkLoad(manager, entity)) {
+                Subtask subtask = (Subtask) entity;
+                List<Subtask> early = waiting.get(subtask.getEpicId());
+                if (early == null) {
+                    early = new ArrayList<>();
+                    waiting.put(subtask.getEpicId(), early);
+                }
+                early.add(subtask);
+            } else if (entity instanceof Epic && !waiting.isEmpty()) {
+                List<Subtask> early = waiting.remove(entity.getId());
+                if (early != null) {
+                    for (Subtask subtask : early) {
+                        reader.bulkLoad(manager, subtask);
+                    }
+                }
+            }
+            count++;
+        }
+        if (!waiting.isEmpty()) {
+            Subtask orphan = waiting.values().get(0).get(0);
+            throw new NoSuchElementException("Epic с ID " + orphan.getEpicId() + " не найден (подзадача "
+                    + orphan.getId() + ").");
+        }
+        return count;
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+
+    // Кодирует записи в UTF-8 прямо в буфер и сбрасывает его в канал по заполнении
+    private static final class Writer {
+        private final WritableByteChannel channel;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int size;
+
+        Writer(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        int writeAll(List<? extends Task> entities) throws IOException {
+            for (Task entity : entities) {
+                write(entity);
+            }
+            return entities.size();
+        }
+
+        void write(Task entity) throws IOException {
+            ensure(64);
+            writeInt(entity.getId());
+            buffer[size++] = ',';
+            writeAscii(TYPE_NAMES[entity.getType().ordinal()]);
+            buffer[size++] = ',';
+            writeAscii(STATUS_NAMES[entity.getStatus().ordinal()]);
+            buffer[size++] = ',';
+            if (entity instanceof Subtask) {
+                writeInt(((Subtask) entity).getEpicId());
+            }
+            buffer[size++] = ',';
+            writeText(entity.getTitle());
+            ensure(1);
+            buffer[size++] = ',';
+            writeText(entity.getDescription());
+            boolean timed = !(entity instanceof Epic);
+            ensure(1);
+            buffer[size++] = ',';
+            if (timed && entity.getStartTime() != null) {
+                writeAscii(entity.getStartTime().toString());
+            }
+            ensure(1);
+            buffer[size++] = ',';
+            if (timed && entity.getDuration() != null) {
+                writeAscii(entity.getDuration().toString());
+            }
+            endRecord();
+        }
+
+        void writeAscii(String text) throws IOException {
+            writeAscii(text.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void endRecord() throws IOException {
+            ensure(1);
+            buffer[size++] = '\n';
+        }
+
+        private void writeAscii(byte[] bytes) throws IOException {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void writeInt(int value) {
+            if (value < 0) {
+                buffer[size++] = '-';
+                value = -value; // ID отрицательными не бывают, Integer.MIN_VALUE сюда не попадает
+            }
+            int digits = 1;
+            for (int rest = value / 10; rest != 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = size + digits - 1; i >= size; i--) {
+                buffer[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+        }
+
+        // null - пустое поле, пустая строка - "", текст со спецсимволами - в кавычках
+        private void writeText(String text) throws IOException {
+            if (text == null) {
+                return;
+            }
+            int length = text.length();
+            boolean quoted = length == 0;
+            for (int i = 0; i < length && !quoted; i++) {
+                char c = text.charAt(i);
+                quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            ensure(length * 6 + 2); // Худший случай: каждый символ - 3 байта UTF-8, кавычка удваивается
+            if (quoted) {
+                buffer[size++] = '"';
+            }
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"') {
+                        buffer[size++] = '"';
+                    }
+                    buffer[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[size++] = (byte) (0xC0 | (c >> 6));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[size++] = '?'; // Непарный суррогат в UTF-8 не кодируется, как и в String.getBytes
+                } else {
+                    buffer[size++] = (byte) (0xE0 | (c >> 12));
+                    buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            if (quoted) {
+                buffer[size++] = '"';
+            }
+        }
+
+        private void ensure(int extra) throws IOException {
+            if (size + extra <= buffer.length) {
+                return;
+            }
+            flush();
+            if (extra > buffer.length) {
+                buffer = new byte[extra]; // Одно очень длинное поле
+            }
+        }
+
+        void flush() throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, size);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            size = 0;
+        }
+    }
+
+    // Разбирает записи из буфера, который дочитывается из канала по мере надобности. Запись, не
+    // поместившаяся в остаток буфера, переносится в его начало; буфер растёт только под запись длиннее себя
+    private static final class Reader {
+        private final ReadableByteChannel channel;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position; // Начало следующей записи
+        private int limit; // Конец прочитанных данных
+        private boolean eof;
+        private long record; // Номер текущей записи с 1 (заголовок - первая), для сообщений об ошибках
+        private final int[] starts = new int[FIELD_COUNT];
+        private final int[] ends = new int[FIELD_COUNT];
+        private final byte[] quoting = new byte[FIELD_COUNT]; // 0 - без кавычек, 1 - в кавычках, 2 - есть ""
+        private int fields;
+
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        // Переходит к следующей записи; false - данные закончились
+        boolean next() throws IOException {
+            record++;
+            while (true) {
+                skipBlankLines();
+                if (position == limit) {
+                    if (eof) {
+                        return false;
+                    }
+                    fill();
+                    continue;
+                }
+                if (parseRecord()) {
+                    return true;
+                }
+                fill();
+            }
+        }
+
+        String header() {
+            StringBuilder header = new StringBuilder();
+            for (int i = 0; i < fields; i++) {
+                if (i > 0) {
+                    header.append(',');
+                }
+                header.append(text(i));
+            }
+            String text = header.toString();
+            return text.startsWith("\uFEFF") ? text.substring(1) : text; // BOM, который добавляют редакторы
+        }
+
+        Task entity() {
+            if (fields != FIELD_COUNT) {
+                throw error("ожидалось " + FIELD_COUNT + " полей, а не " + fields);
+            }
+            int id = number(0);
+            TaskType type = TYPES[match(1, TYPE_NAMES, "type")];
+            Status status = STATUSES[match(2, STATUS_NAMES, "status")];
+            String title = text(4);
+            String description = text(5);
+            switch (type) {
+                case EPIC:
+                    requireEmpty(3, "epic заполняется только у подзадач");
+                    requireEmpty(6, "время эпика вычисляется по подзадачам");
+                    requireEmpty(7, "время эпика вычисляется по подзадачам");
+                    return new Epic(id, title, description, status);
+                case SUBTASK:
+                    return new Subtask(id, title, description, status, number(3), startTime(6), duration(7));
+                default:
+                    requireEmpty(3, "epic заполняется только у подзадач");
+                    return new Task(id, title, description, status, startTime(6), duration(7));
+            }
+        }
+
+        // Кладёт сущность в менеджер; ошибку (занятый ID) относит к текущей записи. Пересечения по времени
+        // проверяются в конце, в finishBulkLoad: сообщение называет ID пересекающихся сущностей
+        boolean bulkLoad(InMemoryTaskManager manager, Task entity) {
+            try {
+                return manager.bulkLoad(entity);
+            } catch (IllegalArgumentException e) {
+                String reason = e.getMessage();
+                throw error(reason.endsWith(".") ? reason.substring(0, reason.length() - 1) : reason);
+            }
+        }
+
+        private void skipBlankLines() {
+            while (position < limit) {
+                if (buffer[position] == '\n') {
+                    position++;
+                } else if (buffer[position] == '\r' && position + 1 < limit && buffer[position + 1] == '\n') {
+                    position += 2;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        // Разбирает запись с position; false - запись не закончилась в прочитанных данных
+        private boolean parseRecord() {
+            int p = position;
+            fields = 0;
+            while (true) {
+                if (fields == FIELD_COUNT) {
+                    throw error("больше " + FIELD_COUNT + " полей");
+                }
+                if (p < limit && buffer[p] == '"') {
+                    int start = ++p;
+                    byte mode = 1;
+                    while (true) {
+                        if (p >= limit) {
+                            if (eof) {
+                                throw error("незакрытая кавычка");
+                            }
+                            return false;
+                        }
+                        if (buffer[p] == '"') {
+                            if (p + 1 >= limit && !eof) {
+                                return false; // Неясно, удвоенная это кавычка или закрывающая
+                            }
+                            if (p + 1 < limit && buffer[p + 1] == '"') {
+                                mode = 2;
+                                p += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        p++;
+                    }
+                    starts[fields] = start;
+                    ends[fields] = p;
+                    quoting[fields] = mode;
+                    p++; // Закрывающая кавычка
+                } else {
+                    int start = p;
+                    while (p < limit && buffer[p] != ',' && buffer[p] != '\n') {
+                        if (buffer[p] == '"') {
+                            throw error("кавычка внутри поля без кавычек");
+                        }
+                        p++;
+                    }
+                    if (p >= limit && !eof) {
+                        return false;
+                    }
+                    int end = p > start && buffer[p - 1] == '\r' ? p - 1 : p;
+                    starts[fields] = start;
+                    ends[fields] = end;
+                    quoting[fields] = 0;
+                }
+                fields++;
+                if (p >= limit) {
+                    position = p; // Последняя запись без перевода строки
+                    return true;
+                }
+                byte separator = buffer[p];
+                if (separator == '\r') {
+                    if (p + 1 >= limit && !eof) {
+                        return false;
+                    }
+                    if (p + 1 < limit && buffer[p + 1] == '\n') {
+                        p++;
+                        separator = '\n';
+                    }
+                }
+                if (separator == ',') {
+                    p++;
+                } else if (separator == '\n') {
+                    position = p + 1;
+                    return true;
+                } else if (p + 1 >= limit && separator == '\r') {
+                    position = limit;
+                    return true;
+                } else {
+                    throw error("ожидалась запятая после закрывающей кавычки");
+                }
+            }
+        }
+
+        // Переносит незаконченную запись в начало буфера и дочитывает данные из канала
+        private void fill() throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+
+        private String text(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            if (start == end) {
+                return quoting[field] == 0 ? null : "";
+            }
+            if (quoting[field] != 2) {
+                return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+            }
+            byte[] unquoted = new byte[end - start];
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                unquoted[length++] = buffer[i];
+                if (buffer[i] == '"') {
+                    i++; // Вторая кавычка пары
+                }
+            }
+            return new String(unquoted, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int number(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            if (start == end || end - start > 10 || quoting[field] != 0) {
+                throw error("поле " + (field + 1) + " должно быть целым числом");
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = buffer[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw error("поле " + (field + 1) + " должно быть целым числом");
+                }
+                value = value * 10 + digit;
+            }
+            if (value > Integer.MAX_VALUE) {
+                throw error("число в поле " + (field + 1) + " вне диапазона");
+            }
+            return (int) value;
+        }
+
+        private int match(int field, byte[][] names, String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (Arrays.equals(buffer, starts[field], ends[field], names[i], 0, names[i].length)) {
+                    return i;
+                }
+            }
+            throw error("неизвестное значение поля " + name + ": " + text(field));
+        }
+
+        private LocalDateTime startTime(int field) {
+            String text = text(field);
+            try {
+                return text == null ? null : LocalDateTime.parse(text);
+            } catch (DateTimeParseException e) {
+                throw error("неверное время начала: " + text);
+            }
+        }
+
+        private Duration duration(int field) {
+            String text = text(field);
+            try {
+                return text == null ? null : Duration.parse(text);
+            } catch (DateTimeParseException e) {
+                throw error("неверная продолжительность: " + text);
+            }
+        }
+
+        private void requireEmpty(int field, String reason) {
+            if (starts[field] != ends[field]) {
+                throw error(reason);
+            }
+        }
+
+        private IllegalArgumentException error(String reason) {
+            return new IllegalArgumentException("Неверный CSV, запись " + record + ": " + reason + ".");
+        }
+    }
+}
@@ -0,0 +1,666 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+// Менеджер задач, который переживает перезапуск.
+// Каждое изменение дописывается строкой в журнал (write-ahead log) tasks.log до того, как попадёт в память:
+// если запись не удалась, менеджер не меняется, а отвергнутое родителем изменение отрезается из журнала.
+// Запись в файл идёт сразу, а fsync выполняется пачками по groupCommitSize записей (group commit), явным
+// вызовом sync() и фоновым потоком не реже раза в syncInterval, поэтому при сбое теряется не больше
+// syncInterval последних изменений, даже если после них записей больше не было.
+// Менеджер создаётся через open: загрузка снимка и журнала идёт уже после конструктора.
+// Когда в журнале накапливается compactThreshold записей, состояние целиком сохраняется в снимок
+// tasks.snapshot, а журнал обнуляется, поэтому время запуска зависит от размера снимка, а не от всей истории.
+// Каждая строка содержит CRC32, поэтому оборванный при сбое хвост журнала при загрузке отбрасывается.
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+
+    public static final String LOG_FILE = "tasks.log";
+    public static final String SNAPSHOT_FILE = "tasks.snapshot";
+    public static final int DEFAULT_GROUP_COMMIT_SIZE = 64; // Записей на один fsync
+    public static final int DEFAULT_COMPACT_THRESHOLD = 100_000; // Записей в журнале до сжатия в снимок
+    public static final Duration DEFAULT_SYNC_INTERVAL = Duration.ofMillis(100); // Предел задержки fsync
+
+    private static final String ADD = "ADD";
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    private static final String DELETE_ALL = "DELETE_ALL";
+    private static final String SNAPSHOT = "SNAPSHOT";
+    private static final String END = "END";
+
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final int groupCommitSize;
+    private final int compactThreshold;
+    private FileChannel log; // Открытый на дозапись журнал
+    private long lastSeq; // Номер последней записанной операции
+    private int logRecords; // Записей в журнале после последнего снимка
+    private final AtomicInteger unsyncedRecords = new AtomicInteger(); // Записей, ещё не сброшенных через fsync
+    private final Object syncLock = new Object(); // Упорядочивает fsync фонового потока, sync() и close()
+    private ScheduledFuture<?> periodicSync; // Фоновый fsync; null, пока менеджер не открыт
+    private volatile ManagerSaveException syncFailure; // Ошибка фонового fsync, отдаётся следующей записи
+
+    // Один поток-демон на все открытые менеджеры: fsync короткий, а менеджеров в процессе немного
+    private static final ScheduledExecutorService SYNCER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "task-log-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Конструктор только запоминает параметры: загрузка вызывает переопределяемые методы родителя,
+    // поэтому её делает open уже над полностью созданным объектом
+    private FileBackedTaskManager(HistoryManager historyManager, Path directory, int groupCommitSize,
+                                  int compactThreshold) {
+        super(historyManager);
+        this.logFile = directory.resolve(LOG_FILE);
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.groupCommitSize = groupCommitSize;
+        this.compactThreshold = compactThreshold;
+    }
+
+    // Открывает каталог directory и восстанавливает из него сохранённое состояние
+    public static FileBackedTaskManager open(HistoryManager historyManager, Path directory) {
+        return open(historyManager, directory, DEFAULT_GROUP_COMMIT_SIZE, DEFAULT_COMPACT_THRESHOLD,
+                DEFAULT_SYNC_INTERVAL);
+    }
+
+    public static FileBackedTaskManager open(HistoryManager historyManager, Path directory, int groupCommitSize,
+                                             int compactThreshold) {
+        return open(historyManager, directory, groupCommitSize, compactThreshold, DEFAULT_SYNC_INTERVAL);
+    }
+
+    public static FileBackedTaskManager open(HistoryManager historyManager, Path directory, int groupCommitSize,
+                                             int compactThreshold, Duration syncInterval) {
+        if (groupCommitSize <= 0 || compactThreshold <= 0) {
+            throw new IllegalArgumentException("groupCommitSize и compactThreshold должны быть положительными.");
+        }
+        if (syncInterval == null || syncInterval.isNegative() || syncInterval.isZero()) {
+            throw new IllegalArgumentException("syncInterval должен быть положительным.");
+        }
+        FileBackedTaskManager manager = new FileBackedTaskManager(historyManager, directory, groupCommitSize,
+                compactThreshold);
+        manager.load(directory);
+        long intervalNanos = syncInterval.toNanos();
+        manager.periodicSync = SYNCER.scheduleWithFixedDelay(manager::backgroundSync, intervalNanos,
+                intervalNanos, TimeUnit.NANOSECONDS);
+        return manager;
+    }
+
+    private void load(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            long snapshotSeq = loadSnapshot();
+            lastSeq = snapshotSeq;
+            long validLength = replayLog(snapshotSeq);
+            log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            log.truncate(validLength); // Отрезаем оборванный хвост, чтобы дописывать после целых записей
+            log.position(validLength);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось загрузить менеджер из " + directory, e);
+        }
+    }
+
+    @Override
+    public int addNewTask(Task task) {
+        return logged(ADD, task, () -> super.addNewTask(task));
+    }
+
+    @Override
+    public int addNewEpic(Epic epic) {
+        return logged(ADD, epic, () -> super.addNewEpic(epic));
+    }
+
+    @Override
+    public Integer addNewSubtask(Subtask subtask) {
+        return logged(ADD, subtask, () -> super.addNewSubtask(subtask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        logged(UPDATE, task, () -> {
+            super.updateTask(task);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        logged(UPDATE, epic, () -> {
+            super.updateEpic(epic);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        logged(UPDATE, subtask, () -> {
+            super.updateSubtask(subtask);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        logged(DELETE, TaskType.TASK, id, () -> super.deleteTask(id));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        logged(DELETE, TaskType.EPIC, id, () -> super.deleteEpic(id));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        logged(DELETE, TaskType.SUBTASK, id, () -> super.deleteSubtask(id));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        logged(DELETE_ALL, TaskType.TASK, 0, super::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        logged(DELETE_ALL, TaskType.EPIC, 0, super::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        logged(DELETE_ALL, TaskType.SUBTASK, 0, super::deleteAllSubtasks);
+    }
+
+    // Пакет пишется в журнал до применения, по записи на каждую операцию. ID и ссылки на сущности пакета
+    // вычисляются заранее так же, как их назначит родитель: добавления получают ID подряд начиная с getNextId().
+    // Неверный пакет родитель отвергнет целиком, и его записи будут отрезаны.
+    // Сжатие откладывается до конца пакета, чтобы снимок не опередил ещё не записанные операции.
+    @Override
+    public int[] applyBatch(List<Mutation> batch) {
+        if (batch == null) {
+            return super.applyBatch(batch); // Родитель отвергнет такой пакет, не меняя хранилищ
+        }
+        List<String> records = new ArrayList<>(batch.size());
+        int[] ids = new int[batch.size()];
+        int nextId = getNextId();
+        for (int i = 0; i < batch.size(); i++) {
+            Mutation mutation = batch.get(i);
+            if (mutation == null) {
+                return super.applyBatch(batch); // List.of не допускает contains(null), поэтому проверяем здесь
+            }
+            long seq = lastSeq + 1 + i;
+            switch (mutation.getKind()) {
+                case ADD:
+                    ids[i] = nextId++;
+                    records.add(encodeEntity(seq, ADD, mutation.getEntity(), ids[i], ids, i));
+                    break;
+                case UPDATE:
+                    ids[i] = resolve(mutation.getId(), ids, i);
+                    records.add(encodeEntity(seq, UPDATE, mutation.getEntity(), ids[i], ids, i));
+                    break;
+                case DELETE:
+                    ids[i] = resolve(mutation.getId(), ids, i);
+                    records.add(encode(String.valueOf(seq), DELETE, mutation.getType().name(),
+                            String.valueOf(ids[i])));
+                    break;
+            }
+        }
+        return logged(records, () -> super.applyBatch(batch));
+    }
+
+    // Массовая загрузка идёт мимо журнала, поэтому в конце всё состояние сразу сохраняется снимком.
+    // Снимок пишется только после проверок родителя, так что отвергнутый импорт на диск не попадает
+    @Override
+    void finishBulkLoad() {
+        super.finishBulkLoad();
+        compact();
+    }
+
+    // Если сбой случился в самом compact, снимок с импортом мог уже заменить прежний - перезаписываем его
+    // пустым состоянием, чтобы после перезапуска менеджер совпадал с тем, что видно в памяти
+    @Override
+    void abortBulkLoad(int previousNextId) {
+        super.abortBulkLoad(previousNextId);
+        compact();
+    }
+
+    // Принудительно сбрасывает на диск все записанные изменения
+    public void sync() {
+        ManagerSaveException failure = syncFailure;
+        if (failure != null) {
+            throw failure;
+        }
+        synchronized (syncLock) {
+            // Снимаем со счётчика только те записи, что были сделаны до fsync; более поздние дождутся следующего
+            int records = unsyncedRecords.get();
+            if (records == 0) {
+                return;
+            }
+            try {
+                log.force(false);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось сбросить журнал на диск.", e);
+            }
+            unsyncedRecords.addAndGet(-records);
+        }
+    }
+
+    // Сохраняет текущее состояние в снимок и обнуляет журнал
+    public void compact() {
+        sync();
+        Path tempFile = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<Task> entities = new ArrayList<>(getTasks());
+            entities.addAll(getEpics()); // Эпики раньше подзадач, чтобы подзадачи было куда добавлять
+            entities.addAll(getSubtasks());
+
+            // Снимок помнит номер последней операции: записи журнала до него при загрузке пропускаются
+            writeLine(channel, encode("0", SNAPSHOT, String.valueOf(lastSeq), String.valueOf(getNextId())));
+            for (Task entity : entities) {
+                writeLine(channel, encodeEntity(0, ADD, entity));
+            }
+            writeLine(channel, encode("0", END, String.valueOf(entities.size())));
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать снимок " + snapshotFile, e);
+        }
+        try {
+            // Атомарная замена: после сбоя на диске остаётся либо старый, либо новый снимок целиком
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.truncate(0);
+            log.position(0);
+            log.force(true);
+            logRecords = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось заменить снимок " + snapshotFile, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        periodicSync.cancel(false);
+        synchronized (syncLock) { // Дожидаемся фонового fsync, если он уже идёт
+            try {
+                sync();
+            } finally {
+                try {
+                    log.close();
+                } catch (IOException e) {
+                    throw new ManagerSaveException("Не удалось закрыть журнал " + logFile, e);
+                }
+            }
+        }
+    }
+
+    // Добавление или обновление сущности. Добавление пишется с ID, который назначит родитель
+    private <T> T logged(String operation, Task entity, Supplier<T> change) {
+        if (entity == null) {
+            return change.get(); // Родитель отвергнет null своим исключением
+        }
+        int id = ADD.equals(operation) ? getNextId() : entity.getId();
+        return logged(List.of(encodeEntity(lastSeq + 1, operation, entity, id, null, 0)), change);
+    }
+
+    // Удаление одной сущности (DELETE) или всех сущностей типа (DELETE_ALL, id не пишется)
+    private void logged(String operation, TaskType type, int id, Runnable change) {
+        String record = DELETE.equals(operation)
+                ? encode(String.valueOf(lastSeq + 1), operation, type.name(), String.valueOf(id))
+                : encode(String.valueOf(lastSeq + 1), operation, type.name());
+        logged(List.of(record), () -> {
+            change.run();
+            return null;
+        });
+    }
+
+    // Журнал упреждающей записи: сначала записи попадают в файл, и только потом change меняет память.
+    // Если родитель отверг изменение или запись оборвалась, записи отрезаются - менеджер однопоточный,
+    // поэтому они последние в файле. Запись и изменение идут под syncLock, чтобы фоновый fsync не сбросил
+    // на диск записи, изменение по которым ещё может быть отвергнуто
+    private <T> T logged(List<String> records, Supplier<T> change) {
+        T result;
+        synchronized (syncLock) {
+            if (syncFailure != null) {
+                throw syncFailure; // Прошлые записи могли не дойти до диска - новых изменений не принимаем
+            }
+            long start = logPosition();
+            try {
+                for (String record : records) {
+                    writeLine(log, record);
+                }
+            } catch (IOException e) {
+                throw rollback(start, new ManagerSaveException("Не удалось записать изменение в журнал " + logFile, e));
+            }
+            try {
+                result = change.get();
+            } catch (RuntimeException e) {
+                throw rollback(start, e);
+            }
+            lastSeq += records.size();
+            logRecords += records.size();
+        }
+        if (unsyncedRecords.addAndGet(records.size()) >= groupCommitSize) {
+            sync(); // Один fsync на всю накопившуюся пачку записей
+        }
+        compactIfNeeded();
+        return result;
+    }
+
+    private long logPosition() {
+        try {
+            return log.position();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось прочитать позицию журнала " + logFile, e);
+        }
+    }
+
+    // Отрезает журнал до start и возвращает failure. Если отрезать не удалось, в журнале осталась запись
+    // без изменения в памяти, поэтому менеджер перестаёт принимать изменения
+    private <E extends RuntimeException> E rollback(long start, E failure) {
+        try {
+            log.truncate(start);
+            log.position(start);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            syncFailure = new ManagerSaveException("Не удалось отменить запись журнала " + logFile, e);
+        }
+        return failure;
+    }
+
+    // Настоящий ID по ссылке Mutation.added на более раннее изменение пакета; неверную ссылку отвергнет родитель
+    private static int resolve(int id, int[] ids, int index) {
+        int target = -id - 1;
+        return id >= 0 || target >= index ? id : ids[target];
+    }
+
+    // Записей, которые ещё не сброшены на диск
+    int unsyncedRecords() {
+        return unsyncedRecords.get();
+    }
+
+    // Для тестов: подменяет открытый журнал обёрткой над ним, например сбоящей при записи
+    void wrapLog(UnaryOperator<FileChannel> wrapper) {
+        synchronized (syncLock) {
+            log = wrapper.apply(log);
+        }
+    }
+
+    // Вызывается фоновым потоком: ошибку некому пробросить, поэтому её получит следующая запись или sync()
+    private void backgroundSync() {
+        synchronized (syncLock) {
+            if (syncFailure != null || !log.isOpen()) {
+                return;
+            }
+            try {
+                sync();
+            } catch (ManagerSaveException e) {
+                syncFailure = e;
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (logRecords >= compactThreshold) {
+            compact();
+        }
+    }
+
+    // Загружает снимок и возвращает номер последней учтённой в нём операции
+    private long loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        List<String[]> records = new ArrayList<>();
+        byte[] content = Files.readAllBytes(snapshotFile);
+        if (readRecords(content, records) != content.length || records.isEmpty()) {
+            throw new ManagerSaveException("Снимок " + snapshotFile + " повреждён.");
+        }
+        String[] header = records.get(0);
+        String[] footer = records.get(records.size() - 1);
+        if (!SNAPSHOT.equals(header[1]) || !END.equals(footer[1])
+                || Integer.parseInt(footer[2]) != records.size() - 2) {
+            throw new ManagerSaveException("Снимок " + snapshotFile + " повреждён.");
+        }
+        for (int i = 1; i < records.size() - 1; i++) {
+            restore(decodeEntity(records.get(i)));
+        }
+        reserveId(Integer.parseInt(header[3]) - 1);
+        return Long.parseLong(header[2]);
+    }
+
+    // Применяет журнал поверх снимка и возвращает длину его целой части в байтах
+    private long replayLog(long snapshotSeq) throws IOException {
+        if (!Files.exists(logFile)) {
+            return 0;
+        }
+        List<String[]> records = new ArrayList<>();
+        int validLength = readRecords(Files.readAllBytes(logFile), records);
+        for (String[] record : records) {
+            long seq = Long.parseLong(record[0]);
+            if (seq <= snapshotSeq) {
+                continue; // Уже учтено в снимке (сбой между записью снимка и обнулением журнала)
+            }
+            apply(record);
+            lastSeq = seq;
+            logRecords++;
+        }
+        return validLength;
+    }
+
+    // Повтор операции из журнала через методы родителя, чтобы не писать её в журнал заново
+    private void apply(String[] record) {
+        String operation = record[1];
+        if (ADD.equals(operation)) {
+            restore(decodeEntity(record));
+        } else if (UPDATE.equals(operation)) {
+            Task entity = decodeEntity(record);
+            if (entity instanceof Subtask) {
+                super.updateSubtask((Subtask) entity);
+            } else if (entity instanceof Epic) {
+                super.updateEpic((Epic) entity);
+            } else {
+                super.updateTask(entity);
+            }
+        } else if (DELETE.equals(operation)) {
+            int id = Integer.parseInt(record[3]);
+            switch (TaskType.valueOf(record[2])) {
+                case TASK:
+                    super.deleteTask(id);
+                    break;
+                case EPIC:
+                    super.deleteEpic(id);
+                    break;
+                case SUBTASK:
+                    super.deleteSubtask(id);
+                    break;
+            }
+        } else if (DELETE_ALL.equals(operation)) {
+            switch (TaskType.valueOf(record[2])) {
+                case TASK:
+                    super.deleteAllTasks();
+                    break;
+                case EPIC:
+                    super.deleteAllEpics();
+                    break;
+                case SUBTASK:
+                    super.deleteAllSubtasks();
+                    break;
+            }
+        } else {
+            throw new ManagerSaveException("Неизвестная операция в журнале: " + operation);
+        }
+    }
+
+    private void restore(Task entity) {
+        if (entity instanceof Subtask) {
+            restoreSubtask((Subtask) entity);
+        } else if (entity instanceof Epic) {
+            restoreEpic((Epic) entity);
+        } else {
+            restoreTask(entity);
+        }
+    }
+
+    // Формат сущности: seq;операция;тип;id;статус;epicId;название;описание;начало;продолжительность.
+    // Время - в ISO-8601; у эпика оно вычисляется и не пишется. Записи без времени (из старых файлов) читаются
+    private static String encodeEntity(long seq, String operation, Task entity) {
+        return encodeEntity(seq, operation, entity, entity.getId(), null, 0);
+    }
+
+    // Сущность с ID id; ссылка подзадачи на эпик пакета (Mutation.added) заменяется его ID из batchIds
+    private static String encodeEntity(long seq, String operation, Task entity, int id, int[] batchIds, int index) {
+        int epicId = entity instanceof Subtask ? ((Subtask) entity).getEpicId() : 0;
+        if (batchIds != null) {
+            epicId = resolve(epicId, batchIds, index);
+        }
+        boolean timed = !(entity instanceof Epic);
+        LocalDateTime startTime = timed ? entity.getStartTime() : null;
+        Duration duration = timed ? entity.getDuration() : null;
+        return encode(String.valueOf(seq), operation, entity.getType().name(), String.valueOf(id),
+                entity.getStatus().name(), String.valueOf(epicId), entity.getTitle(), entity.getDescription(),
+                startTime == null ? null : startTime.toString(), duration == null ? null : duration.toString());
+    }
+
+    private static Task decodeEntity(String[] record) {
+        int id = Integer.parseInt(record[3]);
+        Status status = Status.valueOf(record[4]);
+        LocalDateTime startTime = record.length > 8 && record[8] != null ? LocalDateTime.parse(record[8]) : null;
+        Duration duration = record.length > 9 && record[9] != null ? Duration.parse(record[9]) : null;
+        switch (TaskType.valueOf(record[2])) {
+            case EPIC:
+                return new Epic(id, record[6], record[7], status);
+            case SUBTASK:
+                return new Subtask(id, record[6], record[7], status, Integer.parseInt(record[5]), startTime,
+                        duration);
+            default:
+                return new Task(id, record[6], record[7], status, startTime, duration);
+        }
+    }
+
+    // Поля разделяются ';', спецсимволы экранируются '\', null записывается как \0
+    private static String encode(String... fields) {
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                payload.append(';');
+            }
+            String field = fields[i];
+            if (field == null) {
+                payload.append("\\0");
+                continue;
+            }
+            for (int j = 0; j < field.length(); j++) {
+                char c = field.charAt(j);
+                switch (c) {
+                    case '\\':
+                        payload.append("\\\\");
+                        break;
+                    case ';':
+                        payload.append("\\;");
+                        break;
+                    case '\n':
+                        payload.append("\\n");
+                        break;
+                    case '\r':
+                        payload.append("\\r");
+                        break;
+                    default:
+                        payload.append(c);
+                }
+            }
+        }
+        return payload.toString();
+    }
+
+    private static String[] decode(String payload) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isNull = false;
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (c == ';') {
+                fields.add(isNull ? null : field.toString());
+                field.setLength(0);
+                isNull = false;
+            } else if (c == '\\' && i + 1 < payload.length()) {
+                char escaped = payload.charAt(++i);
+                if (escaped == '0') {
+                    isNull = true;
+                } else {
+                    field.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+                }
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(isNull ? null : field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    // Строка файла: CRC32 полезной нагрузки в hex, ';', нагрузка, перевод строки
+    private static void writeLine(FileChannel channel, String payload) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        byte[] prefix = (Long.toHexString(crc.getValue()) + ";").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(prefix.length + bytes.length + 1);
+        buffer.put(prefix).put(bytes).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Читает целые записи с верной контрольной суммой и возвращает длину прочитанной части в байтах.
+    // Первая оборванная или повреждённая строка и всё после неё считаются не записанными.
+    private static int readRecords(byte[] content, List<String[]> records) {
+        int start = 0;
+        while (start < content.length) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            if (end == content.length) {
+                return start; // Нет перевода строки - запись оборвана
+            }
+            int separator = start;
+            while (separator < end && content[separator] != ';') {
+                separator++;
+            }
+            if (separator == end) {
+                return start;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(content, separator + 1, end - separator - 1);
+            String expected = new String(content, start, separator - start, StandardCharsets.US_ASCII);
+            if (!Long.toHexString(crc.getValue()).equals(expected)) {
+                return start;
+            }
+            records.add(decode(new String(content, separator + 1, end - separator - 1, StandardCharsets.UTF_8)));
+            start = end + 1;
+        }
+        return start;
+    }
+}
@@ -1,6 +1,9 @@
 package service;
 import model.Task;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 public interface HistoryManager {
 
@@ -10,4 +13,49 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    // Удаляет из истории все задачи, чьи ID подходят под ids; условие проверяется сразу, во время вызова
+    default void removeAll(IntPredicate ids) {
+        for (Task task : getHistory()) {
+            if (ids.test(task.getId())) {
+                remove(task.getId());
+            }
+        }
+    }
+
+    // Количество задач в истории
+    default int size() {
+        return getHistory().size();
+    }
+
+    // Удаляет из истории задачи с перечисленными ID, например эпик вместе со всеми подзадачами.
+    // Повторы и ID, которых нет в истории, допустимы
+    default void removeAll(int[] ids) {
+        for (int id : ids) {
+            remove(id);
+        }
+    }
+
+    // Полная очистка истории, когда удаляются все сущности
+    default void clear() {
+        removeAll(id -> true);
+    }
+
+    // Обход истории от давних просмотров к свежим без построения списка
+    default void forEach(Consumer<? super Task> action) {
+        getHistory().forEach(action);
+    }
+
+    // Страница истории: не больше limit задач, начиная с позиции offset
+    default List<Task> getHistory(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset и limit не могут быть отрицательными.");
+        }
+        List<Task> history = getHistory();
+        if (offset >= history.size()) {
+            return new ArrayList<>();
+        }
+        // offset + limit может переполнить int, поэтому конец считаем в long
+        return new ArrayList<>(history.subList(offset, (int) Math.min(history.size(), (long) offset + limit)));
+    }
+
 }
\ No newline at end of file
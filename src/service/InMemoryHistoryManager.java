@@ -2,17 +2,41 @@ package service;
 
 import model.Task;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+// История просмотров. Помимо getHistory() её можно обойти без копирования:
+// как Iterable (живое представление только для чтения) или через forEach.
+public class InMemoryHistoryManager implements HistoryManager, Iterable<Task> {
+    public static final int UNBOUNDED = Integer.MAX_VALUE; // Ёмкость истории без ограничения
 
-public class InMemoryHistoryManager implements HistoryManager {
     // Хеш-таблица для быстрого доступа к узлам по ID задачи
-    private final HashMap<Integer, Node> taskMap = new HashMap<>();
+    private final IntHashMap<Node> taskMap = new IntHashMap<>();
 
     // Ссылки на начало и конец двусвязного списка
     private Node head;
     private Node tail;
 
+    private final int capacity; // Максимальное число задач в истории
+    private long evictionCount; // Сколько давно просмотренных задач вытеснено из-за ёмкости
+    private int modCount; // Счётчик изменений, чтобы итератор замечал правку истории во время обхода
+
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
     // Узел двусвязного списка для хранения задачи и ссылок на соседние элементы
     private static class Node {
         Task task;
@@ -33,9 +57,7 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
 
         // Если задача уже существует в истории, удаляем старый просмотр
-        if (taskMap.containsKey(task.getId())) {
-            removeNode(taskMap.get(task.getId()));
-        }
+        removeNode(taskMap.get(task.getId()));
 
         // Создаем новый узел для задачи и добавляем его в конец истории
         Node newNode = new Node(task);
@@ -43,10 +65,17 @@ public class InMemoryHistoryManager implements HistoryManager {
 
         // Добавляем узел в map для быстрого доступа по id задачи
         taskMap.put(task.getId(), newNode);
+
+        // При переполнении вытесняем самый давний просмотр - он всегда в голове списка
+        if (taskMap.size() > capacity) {
+            removeNode(head);
+            evictionCount++;
+        }
     }
 
     private void removeNode(Node node) {
         if (node == null) return;
+        modCount++;
 
         // Обновление ссылок на предыдущий и следующий узлы
         if (node.prev != null) {
@@ -65,6 +94,7 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     // Добавление узла в конец двусвязного списка
     private void linkLast(Node node) {
+        modCount++;
         if (tail == null) {
             head = node;
             tail = node;
@@ -84,6 +114,53 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
     }
 
+    // Один проход по списку вместо поиска каждого ID: стоит O(размер истории), сколько бы ID ни удалялось
+    @Override
+    public void removeAll(IntPredicate ids) {
+        for (Node current = head; current != null; current = current.next) {
+            if (ids.test(current.task.getId())) {
+                removeNode(current); // Ссылка next у удалённого узла не меняется, проход продолжается
+            }
+        }
+    }
+
+    // Немного ID - точечные удаления через таблицу; много - один проход по списку с поиском
+    // в отсортированной копии ID
+    @Override
+    public void removeAll(int[] ids) {
+        if (ids.length < taskMap.size() / 8) {
+            for (int id : ids) {
+                remove(id);
+            }
+            return;
+        }
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        removeAll(id -> Arrays.binarySearch(sorted, id) >= 0);
+    }
+
+    // O(1): список и таблица просто отбрасываются целиком
+    @Override
+    public void clear() {
+        modCount++;
+        head = null;
+        tail = null;
+        taskMap.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int size() {
+        return taskMap.size();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
     // Получение списка задач в порядке просмотра
     @Override
     public List<Task> getHistory() {
@@ -95,4 +172,74 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         return history;
     }
+
+    // Страница истории: идём от ближнего к offset конца списка и копируем только нужные задачи
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset и limit не могут быть отрицательными.");
+        }
+        int size = taskMap.size();
+        if (offset >= size || limit == 0) {
+            return new ArrayList<>();
+        }
+        int end = (int) Math.min(size, (long) offset + limit);
+        List<Task> page = new ArrayList<>(end - offset);
+        Node current;
+        if (offset <= size - end) {
+            current = head;
+            for (int i = 0; i < offset; i++) {
+                current = current.next;
+            }
+        } else {
+            current = tail; // Страница ближе к концу - отсчитываем от хвоста
+            for (int i = size - 1; i > offset; i--) {
+                current = current.prev;
+            }
+        }
+        for (int i = offset; i < end; i++) {
+            page.add(current.task);
+            current = current.next;
+        }
+        return page;
+    }
+
+    // Обход истории без выделения памяти на каждый элемент
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        int expectedModCount = modCount;
+        for (Node current = head; current != null; current = current.next) {
+            action.accept(current.task);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    // Живое представление истории только для чтения; правка истории во время обхода - ошибка
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private Node next = head;
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next.task;
+                next = next.next;
+                return task;
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -4,20 +4,54 @@ import model.Epic;
 import model.Status;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public class InMemoryTaskManager implements TaskManager {
-
-    private final Map<Integer, Task> tasks = new HashMap<>(); // Задачи
-    private final Map<Integer, Epic> epics = new HashMap<>(); // Эпики
-    private final Map<Integer, Subtask> subtasks = new HashMap<>(); // Подзадачи
+    private static final int PARALLEL_THRESHOLD = 4096; // Меньшие коллекции обходятся в текущем потоке
+
+    // Хранилища с ключами int: без упаковки ID в Integer и без узла HashMap на каждую сущность.
+    // getTasks/getEpics/getSubtasks отдают неизменяемые снимки за O(1) без копирования.
+    // Каждое хранилище дополнительно разбито по статусу для выборок getXxxByStatus и countByStatus
+    private final SearchIndex searchIndex = new SearchIndex(); // Полнотекстовый индекс по всем хранилищам
+    private final StatusIndexedMap<Task> tasks = new StatusIndexedMap<>(searchIndex); // Задачи
+    private final StatusIndexedMap<Epic> epics = new StatusIndexedMap<>(searchIndex); // Эпики
+    private final StatusIndexedMap<Subtask> subtasks = new StatusIndexedMap<>(searchIndex); // Подзадачи
+    // Подзадачи эпика в порядке добавления хранит сам Epic, а здесь - обратная связь:
+    // ID подзадачи -> эпик, в котором она учтена. Подзадача - живой объект, и её epicId могут поменять
+    // на месте, поэтому прежний эпик при переносе и удалении берётся отсюда, а не из самой подзадачи
+    private final IntHashMap<Epic> subtaskEpics = new IntHashMap<>();
+    private final ScheduleIndex schedule = new ScheduleIndex(); // Запланированные задачи и подзадачи по времени
     protected HistoryManager historyManager; // Менеджер истории
+    private final ForkJoinPool bulkPool; // Пул для параллельной части массовых операций
+    private final TaskEventBus events; // Куда публикуются события изменений; null - никуда
     private int nextId = 1; // Счетчик для ID
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, ForkJoinPool.commonPool());
+    }
+
+    // Массовые операции (deleteAll*, recalculateStatuses) обходят эпики и подзадачи параллельно в bulkPool.
+    // Сам менеджер по-прежнему не потокобезопасен: параллельна только работа внутри одного вызова
+    public InMemoryTaskManager(HistoryManager historyManager, ForkJoinPool bulkPool) {
+        this(historyManager, bulkPool, null);
+    }
+
+    // События о создании, изменении и удалении сущностей уходят в events без ожидания;
+    // подписчики получают их в потоке доставки шины
+    public InMemoryTaskManager(HistoryManager historyManager, TaskEventBus events) {
+        this(historyManager, ForkJoinPool.commonPool(), events);
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, ForkJoinPool bulkPool, TaskEventBus events) {
         this.historyManager = historyManager;
+        this.bulkPool = bulkPool;
+        this.events = events;
     }
 
     @Override
@@ -25,9 +59,9 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null) {
             throw new IllegalArgumentException("Task не может быть null.");
         }
-        int id = nextId++; // Получаем следующий уникальный ID
-        task.setId(id); // Устанавливаем уникальный ID для задачи
-        tasks.put(id, task); // Сохраняем задачу в коллекции
+        schedule.checkFree(0, task); // Новая задача ещё без ID, поэтому своего интервала у неё нет
+        int id = insertTask(task);
+        publish(TaskEvent.Kind.CREATED, TaskType.TASK, id, 1);
         return id; // Возвращаем ID добавленной задачи
     }
 
@@ -37,9 +71,8 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Эпик не может быть null.");
         }
 
-        int id = nextId++; // Получаем следующий уникальный ID
-        epic.setId(id); // Устанавливаем уникальный ID для эпика
-        epics.put(id, epic); // Сохраняем эпик в коллекции
+        int id = insertEpic(epic);
+        publish(TaskEvent.Kind.CREATED, TaskType.EPIC, id, 1);
         return id; // Возвращаем ID добавленного эпика
     }
 
@@ -59,42 +92,29 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtasks.containsKey(subtask.getId())) {
             throw new IllegalArgumentException("Подзадача с ID " + subtask.getId() + " уже существует.");
         }
+        schedule.checkFree(0, subtask);
 
         int id = nextId++; // Устанавливаем id и добавляем подзадачу в хранилище
         subtask.setId(id);
-        subtasks.put(id, subtask);
-        epic.addSubtask(subtask); // Добавляем ID подзадачи в эпик
+        linkSubtask(subtask, epic); // Добавляем подзадачу в хранилище, индекс и эпик
         updateEpicStatus(epic.getId()); // Обновляем статус эпика, так как была добавлена новая подзадача
+        publish(TaskEvent.Kind.CREATED, TaskType.SUBTASK, id, 1);
         return id; // Возвращаем ID добавленной подзадачи
     }
 
     @Override
     public List<Task> getTasks() {
-        // Проверяем, что карта задач не null
-        if (tasks == null) {
-            System.out.println("Задач нет");
-            return new ArrayList<>(); // Возвращаем пустой список, если задач нет
-        }
-        // Возвращаем список всех задач
-        return new ArrayList<>(tasks.values());
+        return tasks.values(); // Возвращаем список всех задач
     }
 
     @Override
     public List<Epic> getEpics() {
-        if (epics == null) {
-            System.out.println("Эпиков нет.");
-        }
-        return new ArrayList<>(epics.values());
+        return epics.values();
     }
 
     @Override
     public List<Subtask> getSubtasks() {
-        // Проверяем, что карта подзадач не null
-        if (subtasks == null) {
-            System.out.println("Подзадач нет.");
-        }
-        // Возвращаем список всех подзадач
-        return new ArrayList<>(subtasks.values());
+        return subtasks.values(); // Возвращаем список всех подзадач
     }
 
     @Override
@@ -107,23 +127,91 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NoSuchElementException("Эпик с ID " + epicId + " не существует.");
         }
 
-        // Получаем список подзадач этого эпика
-        List<Subtask> epicSubtasks = new ArrayList<>();
+        // Подзадачи берём из самого эпика, не перебирая все подзадачи
+        return new ArrayList<>(epic.getSubtasks()); // Если подзадач нет, список пустой
+    }
 
-        // Проходим по всем подзадачам, связанным с эпиком
-        for (Subtask subtask : subtasks.values()) {
-            if (subtask.getEpicId() == epicId) {
-                epicSubtasks.add(subtask);
-            }
+    // Потоки идут по снимку хранилища: его обход уже упорядочен по ID
+    @Override
+    public Stream<Task> streamTasks() {
+        return tasks.values().stream();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return epics.values().stream();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return subtasks.values().stream();
+    }
+
+    // Начало страницы находится спуском по дереву хранилища, без перебора предыдущих страниц
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return tasks.page(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return epics.page(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return subtasks.page(afterId, limit);
+    }
+
+    // Выборки по статусу берут готовый раздел индекса, а не фильтруют все сущности
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return tasks.values(status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return epics.values(status);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return subtasks.values(status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        switch (type) {
+            case EPIC:
+                return epics.count(status);
+            case SUBTASK:
+                return subtasks.count(status);
+            default:
+                return tasks.count(status);
         }
+    }
 
-        // Если подзадач нет, можно вернуть пустой список или выбросить исключение
-        if (epicSubtasks.isEmpty()) {
-            System.out.println("У эпика с ID " + epicId + " нет подзадач.");
+    @Override
+    public int count(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics.size();
+            case SUBTASK:
+                return subtasks.size();
+            default:
+                return tasks.size();
         }
+    }
 
-        // Возвращаем список подзадач
-        return epicSubtasks;
+    @Override
+    public List<Task> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    // Расписание ведётся при каждом изменении, поэтому список не сортируется заново
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return schedule.ordered();
     }
 
     @Override
@@ -170,7 +258,10 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null || !tasks.containsKey(task.getId())) {
             throw new NoSuchElementException("Task c id " + task.getId() + " не существует.");
         }
+        schedule.checkFree(task.getId(), task);
         tasks.put(task.getId(), task);// Обновляем задачу целиком
+        schedule.put(task.getId(), task);
+        publish(TaskEvent.Kind.UPDATED, TaskType.TASK, task.getId(), 1);
     }
 
     @Override
@@ -184,6 +275,8 @@ public class InMemoryTaskManager implements TaskManager {
         // Обновляем параметры эпика, кроме статуса
         existingEpic.setTitle(epic.getTitle());  // Обновляем название
         existingEpic.setDescription(epic.getDescription());  // Обновляем описание
+        epics.refresh(existingEpic); // Переиндексируем текст эпика
+        publish(TaskEvent.Kind.UPDATED, TaskType.EPIC, epic.getId(), 1);
     }
 
     @Override
@@ -193,17 +286,21 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         // Находим эпик, к которому относится подзадача, используя epicId
-        Epic epic = (Epic) tasks.get(subtask.getEpicId());
-        if (epic != null) {
-            // Обновляем подзадачу в эпике
-            epic.updateSubtask(subtask);
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic == null) {
+            throw new NoSuchElementException("Epic с ID " + subtask.getEpicId() + " не найден.");
+        }
+        schedule.checkFree(subtask.getId(), subtask);
 
-            // Пересчитываем статус эпика
-            updateEpicStatus(epic.getId());
+        // Заменяем подзадачу; если её перенесли в другой эпик, пересчитываем и старый
+        int oldEpicId = replaceSubtask(subtask, epic);
+        if (oldEpicId != epic.getId()) {
+            updateEpicStatus(oldEpicId);
         }
 
-        // Обновляем подзадачу в общем списке подзадач
-        subtasks.put(subtask.getId(), subtask);
+        // Пересчитываем статус эпика
+        updateEpicStatus(epic.getId());
+        publish(TaskEvent.Kind.UPDATED, TaskType.SUBTASK, subtask.getId(), 1);
     }
 
 
@@ -214,6 +311,8 @@ public class InMemoryTaskManager implements TaskManager {
         }
         historyManager.remove(id);
         tasks.remove(id);
+        schedule.remove(id);
+        publish(TaskEvent.Kind.DELETED, TaskType.TASK, id, 1);
     }
 
     @Override
@@ -221,15 +320,10 @@ public class InMemoryTaskManager implements TaskManager {
         if (!subtasks.containsKey(id)) {
             throw new NoSuchElementException("Подзадача с id " + id + " не существует.");
         }
-        Subtask subtask = subtasks.get(id); // Получаем подзадачу
-        int epicId = subtask.getEpicId();
-        Epic epic = epics.get(epicId);
-        if (epic != null) {
-            epic.removeSubtask(id); // Удаляем подзадачу из эпика
-            updateEpicStatus(epicId); // Обновляем статус эпика после удаления подзадачи
-        }
-        subtasks.remove(id); // Удаляем подзадачу из глобального списка подзадач
+        int epicId = unlinkSubtask(id); // Удаляем подзадачу из хранилища, индекса и эпика
+        updateEpicStatus(epicId); // Обновляем статус эпика после удаления подзадачи
         historyManager.remove(id); // Удаляем подзадачу из истории
+        publish(TaskEvent.Kind.DELETED, TaskType.SUBTASK, id, 1);
     }
 
     @Override
@@ -240,83 +334,88 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NoSuchElementException("Эпик с ID " + id + " не существует.");
         }
 
-        List<Subtask> subtasksToRemove = epic.getSubtasks();
-        for (Subtask subtask : subtasksToRemove) { // Удаляем все подзадачи, связанные с эпиком
-            int subtaskId = subtask.getId();
-            subtasks.remove(subtaskId); // Удаляем подзадачу из глобального списка подзадач
-            historyManager.remove(subtaskId); // Удаляем подзадачу из истории
-        }
-
-        epics.remove(id); // Удаляем сам эпик
-        historyManager.remove(id); // Удаляем эпик из истории
+        int[] subtaskIds = removeEpic(id); // Удаляем эпик вместе с подзадачами
+        int[] removedIds = Arrays.copyOf(subtaskIds, subtaskIds.length + 1);
+        removedIds[subtaskIds.length] = id;
+        historyManager.removeAll(removedIds); // Убираем эпик и его подзадачи из истории одним вызовом
+        publish(TaskEvent.Kind.DELETED, TaskType.EPIC, id, removedIds.length);
     }
 
     @Override
     public void deleteAllTasks() {
-        if (tasks.isEmpty()) { // Проверяем, есть ли задачи
-            System.out.println("Нет задач для удаления.");
+        int count = tasks.size();
+        if (count == 0) { // Проверяем, есть ли задачи
+            publish(TaskEvent.Kind.CLEARED, TaskType.TASK, 0, 0);
             return;
         }
 
-        // Удаляем каждую задачу из истории
-        for (Integer taskId : tasks.keySet()) {
-            historyManager.remove(taskId); // Удаляем задачу из истории
+        // В истории только существующие сущности: если кроме задач ничего нет, её можно сбросить целиком,
+        // иначе удаляем задачи одним проходом по ней
+        if (epics.isEmpty()) {
+            historyManager.clear();
+        } else {
+            historyManager.removeAll(tasks::containsKey);
         }
 
+        unschedule(tasks.values(), subtasks.isEmpty());
         tasks.clear(); // Очищаем коллекцию задач
-        System.out.println("Все задачи удалены.");
+        publish(TaskEvent.Kind.CLEARED, TaskType.TASK, 0, count);
     }
 
 
 
     @Override
     public void deleteAllEpics() {
+        int count = epics.size() + subtasks.size();
         if (epics.isEmpty()) { // Проверяем, есть ли эпики в коллекции
-            System.out.println("Нет эпиков для удаления.");
+            publish(TaskEvent.Kind.CLEARED, TaskType.EPIC, 0, 0);
             return;
         }
 
-        // Удаляем подзадачи из истории
-        for (Subtask subtask : subtasks.values()) {
-            historyManager.remove(subtask.getId());
-        }
-
-        // Удаляем эпики из истории
-        for (Epic epic : epics.values()) {
-            historyManager.remove(epic.getId());
+        // Удаляем эпики и подзадачи из истории: целиком, если задач нет, иначе одним проходом по ней
+        if (tasks.isEmpty()) {
+            historyManager.clear();
+        } else {
+            historyManager.removeAll(id -> epics.containsKey(id) || subtasks.containsKey(id));
         }
 
         // Очищаем коллекции подзадач и эпиков
+        unschedule(subtasks.values(), tasks.isEmpty());
         subtasks.clear();
         epics.clear();
-        System.out.println("Все эпики и связанные с ними подзадачи удалены.");
+        subtaskEpics.clear();
+        publish(TaskEvent.Kind.CLEARED, TaskType.EPIC, 0, count); // Вместе с подзадачами
     }
 
 
     @Override
     public void deleteAllSubtasks() {
-        if (subtasks.isEmpty()) {
-            System.out.println("Нет подзадач для удаления."); // Сообщаем, если подзадач нет
+        int count = subtasks.size();
+        if (count == 0) {
+            publish(TaskEvent.Kind.CLEARED, TaskType.SUBTASK, 0, 0); // Сообщаем, если подзадач нет
             return;
         }
 
-        // Удаляем все подзадачи из истории
-        for (Subtask subtask : subtasks.values()) {
-            historyManager.remove(subtask.getId()); // Удаляем подзадачу из истории
-        }
+        // Удаляем все подзадачи из истории одним проходом по ней
+        historyManager.removeAll(subtasks::containsKey);
 
-        // Проходим по всем эпикам, удаляем все подзадачи и сразу устанавливаем статус NEW
-        for (Epic epic : epics.values()) {
-            // Очищаем все подзадачи у эпика
-            epic.getSubtasks().clear();
+        // Эпики очищаются независимо друг от друга - параллельно: подзадачи вместе со счётчиками статусов
+        List<Epic> allEpics = epics.values();
+        forEachInBulkPool(allEpics, Epic::clearSubtasks);
 
-            // Устанавливаем статус эпика в NEW
-            epic.setStatus(Status.NEW);
+        // Хранилище эпиков меняется последовательно и только для эпиков, которые ещё не в статусе NEW
+        for (Epic epic : allEpics) {
+            if (epic.getStatus() != Status.NEW) {
+                epic.setStatus(Status.NEW);
+                epics.refresh(epic);
+            }
         }
 
         // Очистка коллекции подзадач
+        unschedule(subtasks.values(), tasks.isEmpty());
         subtasks.clear();
-        System.out.println("Все подзадачи удалены.");
+        subtaskEpics.clear();
+        publish(TaskEvent.Kind.CLEARED, TaskType.SUBTASK, 0, count);
     }
 
 
@@ -324,44 +423,443 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory(); // Возвращаем историю задач из менеджера истории
     }
 
+    // Пересчитывает статусы всех эпиков по текущим статусам их подзадач и перекладывает в разделы
+    // по статусу подзадачи, которые меняли напрямую, в обход updateSubtask. Пересчёт эпиков и проверка
+    // подзадач идут параллельно в bulkPool, хранилища меняются последовательно и только для сущностей,
+    // чей статус действительно изменился. Возвращает число таких сущностей.
+    public int recalculateStatuses() {
+        List<Subtask> misfiled = Collections.synchronizedList(new ArrayList<>());
+        forEachInBulkPool(subtasks.values(), subtask -> {
+            if (!subtasks.isFiledUnderStatus(subtask)) {
+                misfiled.add(subtask);
+            }
+        });
+        for (Subtask subtask : misfiled) {
+            subtasks.refresh(subtask);
+        }
+
+        List<Epic> allEpics = epics.values();
+        forEachInBulkPool(allEpics, Epic::recountSubtasks);
+        int changed = misfiled.size();
+        for (Epic epic : allEpics) {
+            if (epic.calculateStatus() != epic.getStatus()) {
+                epic.setStatus(epic.calculateStatus());
+                epics.refresh(epic);
+                changed++;
+            }
+        }
+        return changed;
+    }
 
-    private void updateEpicStatus(int epicId) {
-        Epic epic = epics.get(epicId); // Получаем эпик по ID
+    // Сначала проверяем весь пакет, поэтому при ошибке менеджер остаётся нетронутым.
+    // Статус каждого затронутого эпика пересчитывается один раз в конце, а не после каждой подзадачи.
+    @Override
+    public int[] applyBatch(List<Mutation> batch) {
+        validateBatch(batch);
+
+        int[] ids = new int[batch.size()];
+        Set<Integer> dirtyEpicIds = new HashSet<>(); // Эпики, чей статус нужно пересчитать
+        List<Integer> removedIds = new ArrayList<>(); // Удалённые сущности, которые нужно убрать из истории
+        for (int i = 0; i < batch.size(); i++) {
+            Mutation mutation = batch.get(i);
+            Task entity = mutation.getEntity();
+            int target = mutation.bind(batch, ids, i); // Ссылки на сущности пакета уже проверены
+            switch (mutation.getKind()) {
+                case ADD:
+                    if (entity instanceof Subtask) {
+                        Subtask subtask = (Subtask) entity;
+                        subtask.setId(nextId++);
+                        linkSubtask(subtask, epics.get(subtask.getEpicId()));
+                        dirtyEpicIds.add(subtask.getEpicId());
+                        ids[i] = subtask.getId();
+                    } else if (entity instanceof Epic) {
+                        ids[i] = insertEpic((Epic) entity);
+                    } else {
+                        ids[i] = insertTask(entity);
+                    }
+                    publish(TaskEvent.Kind.CREATED, mutation.getType(), ids[i], 1);
+                    break;
+                case UPDATE:
+                    if (entity instanceof Subtask) {
+                        Subtask subtask = (Subtask) entity;
+                        dirtyEpicIds.add(replaceSubtask(subtask, epics.get(subtask.getEpicId())));
+                        dirtyEpicIds.add(subtask.getEpicId());
+                    } else if (entity instanceof Epic) {
+                        Epic existingEpic = epics.get(entity.getId());
+                        existingEpic.setTitle(entity.getTitle());
+                        existingEpic.setDescription(entity.getDescription());
+                        epics.refresh(existingEpic);
+                    } else {
+                        tasks.put(entity.getId(), entity);
+                        schedule.put(entity.getId(), entity);
+                    }
+                    ids[i] = entity.getId();
+                    publish(TaskEvent.Kind.UPDATED, mutation.getType(), ids[i], 1);
+                    break;
+                case DELETE:
+                    int id = target;
+                    int count = 1;
+                    switch (mutation.getType()) {
+                        case TASK:
+                            tasks.remove(id);
+                            schedule.remove(id);
+                            break;
+                        case EPIC:
+                            int[] subtaskIds = removeEpic(id);
+                            for (int subtaskId : subtaskIds) {
+                                removedIds.add(subtaskId);
+                            }
+                            count += subtaskIds.length;
+                            break;
+                        case SUBTASK:
+                            dirtyEpicIds.add(unlinkSubtask(id));
+                            break;
+                    }
+                    removedIds.add(id);
+                    ids[i] = id;
+                    publish(TaskEvent.Kind.DELETED, mutation.getType(), id, count);
+                    break;
+            }
+        }
+
+        for (Integer epicId : dirtyEpicIds) {
+            updateEpicStatus(epicId); // Удалённые в пакете эпики пропускаются
+        }
+        int[] historyIds = new int[removedIds.size()];
+        for (int i = 0; i < historyIds.length; i++) {
+            historyIds[i] = removedIds.get(i);
+        }
+        historyManager.removeAll(historyIds);
+        return ids;
+    }
+
+
+    // Событие создаётся, только если есть куда его отправить
+    private void publish(TaskEvent.Kind kind, TaskType type, int id, int count) {
+        if (events != null) {
+            events.publish(new TaskEvent(kind, type, id, count));
+        }
+    }
+
+    // Восстановление сущностей с уже назначенным ID (например, при загрузке из файла)
+    protected void restoreTask(Task task) {
+        schedule.checkFree(task.getId(), task);
+        tasks.put(task.getId(), task);
+        schedule.put(task.getId(), task);
+        reserveId(task.getId());
+    }
+
+    protected void restoreEpic(Epic epic) {
+        epic.clearSubtasks(); // Подзадачи восстанавливаются отдельно через restoreSubtask
+        epic.setStatus(epic.calculateStatus());
+        epics.put(epic.getId(), epic);
+        reserveId(epic.getId());
+    }
+
+    protected void restoreSubtask(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
         if (epic == null) {
-            return; // Если эпик не найден, выходим
+            throw new NoSuchElementException("Epic с ID " + subtask.getEpicId() + " не найден.");
         }
-        List<Subtask> subtasks = epic.getSubtasks(); // Получаем список подзадач
-        if (subtasks.isEmpty()) {
-            epic.setStatus(Status.NEW); // Если подзадач нет, устанавливаем статус NEW
+        schedule.checkFree(subtask.getId(), subtask);
+        linkSubtask(subtask, epic);
+        updateEpicStatus(epic.getId());
+        reserveId(subtask.getId());
+    }
+
+    // Массовая загрузка сущностей с готовыми ID (CsvTaskIO): без событий, истории, полнотекстового индекса
+    // и пересчёта статусов эпиков - всё это делает один вызов finishBulkLoad в конце. Расписание тоже
+    // строится там: одна сортировка дешевле поиска по дереву на каждую строку.
+    // Подзадача, чей эпик ещё не загружен, не кладётся: возвращается false, и загрузчик повторит её позже
+    boolean bulkLoad(Task entity) {
+        int id = entity.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("Неверный ID сущности: " + id);
+        }
+        if (tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id)) {
+            throw new IllegalArgumentException("ID " + id + " уже занят.");
+        }
+        if (entity instanceof Subtask) {
+            Subtask subtask = (Subtask) entity;
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                return false;
+            }
+            subtasks.putUnindexed(id, subtask);
+            subtaskEpics.put(id, epic);
+            epic.addSubtask(subtask);
+        } else if (entity instanceof Epic) {
+            Epic epic = (Epic) entity;
+            epic.clearSubtasks(); // Подзадачи приходят отдельными строками
+            epics.putUnindexed(id, epic);
+        } else {
+            tasks.putUnindexed(id, entity);
+        }
+        reserveId(id);
+        return true;
+    }
+
+    // Завершает массовую загрузку: ставит загруженное в расписание (IllegalArgumentException, если время
+    // пересекается), один раз пересчитывает статусы эпиков по счётчикам их подзадач и отдаёт все сущности
+    // полнотекстовому индексу одной пачкой. Индекс разберёт их (параллельно в bulkPool)
+    // при первом обращении - поиске или изменении, - поэтому загрузка его не ждёт
+    void finishBulkLoad() {
+        List<Task> scheduled = new ArrayList<>(tasks.size() + subtasks.size());
+        scheduled.addAll(tasks.values());
+        scheduled.addAll(subtasks.values());
+        schedule.putAll(scheduled);
+        for (Epic epic : epics.values()) {
+            Status status = epic.calculateStatus();
+            if (status != epic.getStatus()) {
+                epic.setStatus(status);
+                epics.refreshStatus(epic);
+            }
+        }
+        List<Task> all = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        all.addAll(tasks.values());
+        all.addAll(epics.values());
+        all.addAll(subtasks.values());
+        searchIndex.addAllLater(all, bulkPool);
+    }
+
+    // Откатывает массовую загрузку, начатую в пустом менеджере: хранилища, расписание и индекс очищаются,
+    // счётчик ID возвращается к значению до загрузки. События и история загрузкой не затрагивались
+    void abortBulkLoad(int previousNextId) {
+        subtasks.clear();
+        epics.clear();
+        tasks.clear();
+        subtaskEpics.clear();
+        schedule.clear();
+        nextId = previousNextId;
+    }
+
+    protected int getNextId() {
+        return nextId;
+    }
+
+    // Помечаем ID как занятый, чтобы новые сущности получали только большие ID
+    protected void reserveId(int id) {
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    // Проверка пакета без изменений в хранилищах. Пакет проигрывается на модели поверх текущего состояния:
+    // новые сущности получают временные ID Mutation.added(i), удалённые в пакете ID (с подзадачами
+    // удалённых эпиков) считаются отсутствующими, а принадлежность подзадач эпикам учитывает переносы
+    // и добавления в пакете. Время пробно ставится в расписание, чтобы найти пересечения, в том числе
+    // между сущностями самого пакета; пробные изменения расписания откатываются в конце
+    private void validateBatch(List<Mutation> batch) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Пакет изменений не может быть null.");
+        }
+        Set<Integer> addedIds = new HashSet<>(); // Временные ID добавленных пакетом сущностей
+        Set<Integer> deletedIds = new HashSet<>();
+        Map<Integer, Integer> epicOf = new HashMap<>(); // Подзадачи, добавленные или перенесённые пакетом -> эпик
+        List<Integer> undoIds = new ArrayList<>(); // Затронутые ID и их прежние сущности в расписании
+        List<Task> undoEntities = new ArrayList<>();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Mutation mutation = batch.get(i);
+                if (mutation == null) {
+                    throw new IllegalArgumentException("Изменение №" + i + " в пакете равно null.");
+                }
+                Task entity = mutation.getEntity();
+                int id = mutation.getKind() == Mutation.Kind.ADD ? Mutation.added(i) : mutation.getId();
+                if (mutation.getKind() != Mutation.Kind.ADD) {
+                    Mutation.checkReference(batch, i, id, mutation.getType());
+                    if (!existsInBatch(mutation.getType(), id, addedIds, deletedIds)) {
+                        throw new NoSuchElementException("Изменение №" + i + ": " + mutation.getType() + " с ID " + id
+                                + " не существует.");
+                    }
+                }
+                if (mutation.getKind() == Mutation.Kind.DELETE) {
+                    deleteInBatch(mutation.getType(), id, deletedIds, epicOf, undoIds, undoEntities);
+                    continue;
+                }
+                if (entity instanceof Subtask) {
+                    int epicId = ((Subtask) entity).getEpicId();
+                    Mutation.checkReference(batch, i, epicId, TaskType.EPIC);
+                    if (!existsInBatch(TaskType.EPIC, epicId, addedIds, deletedIds)) {
+                        throw new NoSuchElementException("Изменение №" + i + ": Epic с ID " + epicId + " не найден.");
+                    }
+                    epicOf.put(id, epicId);
+                }
+                if (mutation.getKind() == Mutation.Kind.ADD) {
+                    addedIds.add(id);
+                }
+                if (!(entity instanceof Epic)) { // Время эпика следует из подзадач
+                    try {
+                        schedule.checkFree(id, entity);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Изменение №" + i + ": " + e.getMessage(), e);
+                    }
+                    trialSchedule(id, entity, undoIds, undoEntities);
+                }
+            }
+        } finally {
+            for (int i = undoIds.size() - 1; i >= 0; i--) {
+                Task previous = undoEntities.get(i);
+                if (previous == null) {
+                    schedule.remove(undoIds.get(i));
+                } else {
+                    schedule.put(undoIds.get(i), previous);
+                }
+            }
+        }
+    }
+
+    // Отмечает в модели пакета удаление сущности; эпик уносит с собой подзадачи, которые принадлежат ему
+    // с учётом изменений пакета: свои, не перенесённые в другой эпик, и добавленные или перенесённые в него
+    private void deleteInBatch(TaskType type, int id, Set<Integer> deletedIds, Map<Integer, Integer> epicOf,
+                               List<Integer> undoIds, List<Task> undoEntities) {
+        deletedIds.add(id);
+        if (type != TaskType.EPIC) {
+            epicOf.remove(id);
+            trialSchedule(id, null, undoIds, undoEntities);
             return;
         }
-        int newCount = 0;
-        int inProgressCount = 0;
-        int doneCount = 0;
-        // Перебираем все подзадачи и считаем их статусы
-        for (Subtask subtask : subtasks) {
-            switch (subtask.getStatus()) {
-                case NEW:
-                    newCount++;
-                    break;
-                case IN_PROGRESS:
-                    inProgressCount++;
-                    break;
-                case DONE:
-                    doneCount++;
-                    break;
+        List<Integer> removed = new ArrayList<>();
+        if (id > 0) {
+            for (Subtask subtask : epics.get(id).getSubtasks()) {
+                int subtaskId = subtask.getId();
+                if (!deletedIds.contains(subtaskId) && epicOf.getOrDefault(subtaskId, id) == id) {
+                    removed.add(subtaskId);
+                }
             }
         }
+        for (Map.Entry<Integer, Integer> entry : epicOf.entrySet()) {
+            if (entry.getValue() == id) {
+                removed.add(entry.getKey());
+            }
+        }
+        for (Integer subtaskId : removed) {
+            deletedIds.add(subtaskId);
+            epicOf.remove(subtaskId);
+            trialSchedule(subtaskId, null, undoIds, undoEntities);
+        }
+    }
 
-        // Обновляем статус эпика на основе подсчитанных значений
-        if (doneCount == subtasks.size()) {
-            epic.setStatus(Status.DONE); // Все подзадачи выполнены
-        } else if (inProgressCount > 0) {
-            epic.setStatus(Status.IN_PROGRESS); // Есть хотя бы одна подзадача в процессе
+    // Ставит entity в расписание под ID id (null - снимает) и запоминает, что там было раньше
+    private void trialSchedule(int id, Task entity, List<Integer> undoIds, List<Task> undoEntities) {
+        undoIds.add(id);
+        undoEntities.add(schedule.get(id));
+        if (entity == null) {
+            schedule.remove(id);
         } else {
-            epic.setStatus(Status.NEW);
+            schedule.put(id, entity);
+        }
+    }
+
+    // Есть ли сущность типа type с ID id (временным для добавленных пакетом) в модели пакета
+    private boolean existsInBatch(TaskType type, int id, Set<Integer> addedIds, Set<Integer> deletedIds) {
+        if (deletedIds.contains(id)) {
+            return false;
+        }
+        if (id < 0) {
+            return addedIds.contains(id); // Тип уже проверен Mutation.checkReference
+        }
+        switch (type) {
+            case EPIC:
+                return epics.containsKey(id);
+            case SUBTASK:
+                return subtasks.containsKey(id);
+            default:
+                return tasks.containsKey(id);
+        }
+    }
+
+    private int insertTask(Task task) {
+        int id = nextId++; // Получаем следующий уникальный ID
+        task.setId(id); // Устанавливаем уникальный ID для задачи
+        tasks.put(id, task); // Сохраняем задачу в коллекции
+        schedule.put(id, task);
+        return id;
+    }
+
+    // Подзадачи, пришедшие вместе с новым эпиком, отбрасываются, как в restoreEpic: они добавляются
+    // только через addNewSubtask, а статус эпика следует из них
+    private int insertEpic(Epic epic) {
+        int id = nextId++; // Получаем следующий уникальный ID
+        epic.setId(id); // Устанавливаем уникальный ID для эпика
+        epic.clearSubtasks();
+        epic.setStatus(epic.calculateStatus());
+        epics.put(id, epic); // Сохраняем эпик в коллекции
+        return id;
+    }
+
+    // Связывание подзадачи с эпиком без пересчёта его статуса
+    private void linkSubtask(Subtask subtask, Epic epic) {
+        subtasks.put(subtask.getId(), subtask);
+        subtaskEpics.put(subtask.getId(), epic);
+        epic.addSubtask(subtask);
+        schedule.put(subtask.getId(), subtask);
+    }
+
+    // Заменяет подзадачу, при необходимости переносит её в другой эпик, и возвращает ID прежнего эпика
+    private int replaceSubtask(Subtask subtask, Epic epic) {
+        Epic oldEpic = subtaskEpics.put(subtask.getId(), epic);
+        int oldEpicId = oldEpic.getId();
+        if (oldEpicId != epic.getId()) {
+            oldEpic.removeSubtask(subtask.getId());
+        }
+        epic.updateSubtask(subtask); // Обновляем подзадачу в эпике
+        subtasks.put(subtask.getId(), subtask); // Обновляем подзадачу в общем списке подзадач
+        schedule.put(subtask.getId(), subtask);
+        return oldEpicId;
+    }
+
+    // Удаляет подзадачу из хранилища и эпика и возвращает ID эпика; статус не пересчитывается
+    private int unlinkSubtask(int id) {
+        subtasks.remove(id);
+        schedule.remove(id);
+        Epic epic = subtaskEpics.remove(id);
+        epic.removeSubtask(id); // Удаляем подзадачу из эпика
+        return epic.getId();
+    }
+
+    // Удаляет эпик вместе с подзадачами и возвращает ID удалённых подзадач
+    private int[] removeEpic(int id) {
+        Epic epic = epics.remove(id); // Удаляем сам эпик
+        int[] subtaskIds = new int[epic.getSubtasks().size()];
+        int i = 0;
+        for (Subtask subtask : epic.getSubtasks()) {
+            subtaskIds[i++] = subtask.getId();
+            subtasks.remove(subtask.getId()); // Удаляем подзадачу из глобального списка подзадач
+            subtaskEpics.remove(subtask.getId());
+            schedule.remove(subtask.getId());
+        }
+        return subtaskIds;
+    }
+
+    // Убирает сущности из расписания; если кроме них там ничего нет, расписание сбрасывается целиком
+    private void unschedule(List<? extends Task> removed, boolean onlyThese) {
+        if (onlyThese) {
+            schedule.clear();
+            return;
+        }
+        for (Task entity : removed) {
+            schedule.remove(entity.getId());
         }
+    }
+
+    // Параллельный обход в bulkPool: параллельный поток, запущенный из задачи пула, выполняется
+    // на потоках этого пула. Небольшие коллекции и пул из одного потока (на одноядерной машине таков
+    // и общий пул) обходятся в текущем потоке: там разбиение на задачи только добавляет 10-20%
+    private <T> void forEachInBulkPool(List<T> entities, Consumer<? super T> action) {
+        if (entities.size() < PARALLEL_THRESHOLD || bulkPool.getParallelism() == 1) {
+            entities.forEach(action);
+            return;
+        }
+        bulkPool.submit(() -> entities.parallelStream().forEach(action)).join();
+    }
 
+    private void updateEpicStatus(int epicId) {
+        Epic epic = epics.get(epicId); // Получаем эпик по ID
+        if (epic == null) {
+            return; // Если эпик не найден, выходим
+        }
+        // Эпик сам ведёт счётчики статусов подзадач, поэтому пересчёт за O(1)
+        epic.setStatus(epic.calculateStatus());
+        epics.refresh(epic); // Переносим эпик в раздел его нового статуса
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,400 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Декоратор, который считает вызовы, ошибки и задержки каждого метода TaskManager и отдаёт их
+// снимком через getMetrics() или как MXBean через registerMBean. Сам менеджер не меняется:
+// все вызовы уходят в delegate как есть, включая его собственные реализации методов по умолчанию.
+// На вызов приходятся два System.nanoTime() и несколько атомарных увеличений без блокировок,
+// поэтому декоратор можно держать включённым постоянно.
+// Потокобезопасен настолько, насколько потокобезопасен delegate. Размеры хранилищ и истории
+// читаются при запросе метрик; для однопоточного менеджера при чтении из другого потока (JMX)
+// они могут немного отставать.
+public class InstrumentedTaskManager implements TaskManager {
+
+    private final TaskManager delegate;
+    private final HistoryManager historyManager; // Может быть null - тогда размер истории берётся через delegate
+    private final List<Operation> operations = new ArrayList<>();
+    private ObjectName objectName; // Имя, под которым менеджер зарегистрирован в JMX
+
+    // Методы TaskManager в порядке объявления
+    private final Operation getTasks = operation("getTasks");
+    private final Operation getEpics = operation("getEpics");
+    private final Operation getSubtasks = operation("getSubtasks");
+    private final Operation getEpicSubtasks = operation("getEpicSubtasks");
+    private final Operation streamTasks = operation("streamTasks");
+    private final Operation streamEpics = operation("streamEpics");
+    private final Operation streamSubtasks = operation("streamSubtasks");
+    private final Operation getTasksPage = operation("getTasksPage");
+    private final Operation getEpicsPage = operation("getEpicsPage");
+    private final Operation getSubtasksPage = operation("getSubtasksPage");
+    private final Operation getTasksByStatus = operation("getTasksByStatus");
+    private final Operation getEpicsByStatus = operation("getEpicsByStatus");
+    private final Operation getSubtasksByStatus = operation("getSubtasksByStatus");
+    private final Operation countByStatus = operation("countByStatus");
+    private final Operation count = operation("count");
+    private final Operation search = operation("search");
+    private final Operation getPrioritizedTasks = operation("getPrioritizedTasks");
+    private final Operation getTask = operation("getTask");
+    private final Operation getSubtask = operation("getSubtask");
+    private final Operation getEpic = operation("getEpic");
+    private final Operation addNewTask = operation("addNewTask");
+    private final Operation addNewEpic = operation("addNewEpic");
+    private final Operation addNewSubtask = operation("addNewSubtask");
+    private final Operation deleteEpic = operation("deleteEpic");
+    private final Operation updateTask = operation("updateTask");
+    private final Operation updateEpic = operation("updateEpic");
+    private final Operation updateSubtask = operation("updateSubtask");
+    private final Operation deleteTask = operation("deleteTask");
+    private final Operation deleteSubtask = operation("deleteSubtask");
+    private final Operation getHistory = operation("getHistory");
+    private final Operation deleteAllTasks = operation("deleteAllTasks");
+    private final Operation deleteAllEpics = operation("deleteAllEpics");
+    private final Operation deleteAllSubtasks = operation("deleteAllSubtasks");
+    private final Operation applyBatch = operation("applyBatch");
+
+    public InstrumentedTaskManager(TaskManager delegate) {
+        this(delegate, null);
+    }
+
+    // historyManager - тот же менеджер истории, что у delegate: через него размер истории читается без копирования
+    public InstrumentedTaskManager(TaskManager delegate, HistoryManager historyManager) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("TaskManager не может быть null.");
+        }
+        this.delegate = delegate;
+        this.historyManager = historyManager;
+    }
+
+    // Счётчики одного метода
+    private static final class Operation {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+
+        Operation(String name) {
+            this.name = name;
+        }
+    }
+
+    private Operation operation(String name) {
+        Operation operation = new Operation(name);
+        operations.add(operation);
+        return operation;
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    public TaskManagerMetrics getMetrics() {
+        List<OperationStats> stats = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            stats.add(operation.latency.toStats(operation.name, operation.errors.sum()));
+        }
+        return new TaskManagerMetrics(delegate.count(TaskType.TASK), delegate.count(TaskType.EPIC),
+                delegate.count(TaskType.SUBTASK), historySize(), stats);
+    }
+
+    // Регистрирует метрики в платформенном MBeanServer как service:type=TaskManager,name=<name>
+    public synchronized ObjectName registerMBean(String name) {
+        if (objectName != null) {
+            throw new IllegalStateException("Метрики уже зарегистрированы как " + objectName + ".");
+        }
+        ObjectName newName;
+        try {
+            newName = new ObjectName("service:type=TaskManager,name=" + ObjectName.quote(name));
+        } catch (MalformedObjectNameException | NullPointerException e) {
+            throw new IllegalArgumentException("Недопустимое имя MBean: " + name, e);
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(new StandardMBean(new MetricsBean(), TaskManagerMetricsMXBean.class, true), newName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать MBean " + newName + ".", e);
+        }
+        objectName = newName;
+        return newName;
+    }
+
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось снять регистрацию MBean " + objectName + ".", e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    private int historySize() {
+        return historyManager != null ? historyManager.size() : delegate.getHistory().size();
+    }
+
+    // MXBean читает метрики при каждом обращении к атрибуту
+    private final class MetricsBean implements TaskManagerMetricsMXBean {
+        @Override
+        public int getTaskCount() {
+            return delegate.count(TaskType.TASK);
+        }
+
+        @Override
+        public int getEpicCount() {
+            return delegate.count(TaskType.EPIC);
+        }
+
+        @Override
+        public int getSubtaskCount() {
+            return delegate.count(TaskType.SUBTASK);
+        }
+
+        @Override
+        public int getHistorySize() {
+            return historySize();
+        }
+
+        @Override
+        public long getTotalCalls() {
+            return getMetrics().getTotalCalls();
+        }
+
+        @Override
+        public long getTotalErrors() {
+            return getMetrics().getTotalErrors();
+        }
+
+        @Override
+        public List<OperationStats> getOperations() {
+            return getMetrics().getOperations();
+        }
+    }
+
+    // Замер одного вызова. Ошибкой считается выброшенное RuntimeException; задержка пишется в любом случае.
+    // Лямбды не захватывают ничего, кроме аргументов, и JIT обычно убирает их выделение после встраивания
+    private static <T> T call(Operation operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            operation.errors.increment();
+            throw e;
+        } finally {
+            operation.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private static int callInt(Operation operation, IntSupplier call) {
+        long start = System.nanoTime();
+        try {
+            return call.getAsInt();
+        } catch (RuntimeException e) {
+            operation.errors.increment();
+            throw e;
+        } finally {
+            operation.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private static void run(Operation operation, Runnable call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            operation.errors.increment();
+            throw e;
+        } finally {
+            operation.latency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return call(getTasks, delegate::getTasks);
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return call(getEpics, delegate::getEpics);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return call(getSubtasks, delegate::getSubtasks);
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int epicId) {
+        return call(getEpicSubtasks, () -> delegate.getEpicSubtasks(epicId));
+    }
+
+    // Потоки ленивые, поэтому замеряется только их создание, а не обход
+    @Override
+    public Stream<Task> streamTasks() {
+        return call(streamTasks, delegate::streamTasks);
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        return call(streamEpics, delegate::streamEpics);
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        return call(streamSubtasks, delegate::streamSubtasks);
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return call(getTasksPage, () -> delegate.getTasks(afterId, limit));
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return call(getEpicsPage, () -> delegate.getEpics(afterId, limit));
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return call(getSubtasksPage, () -> delegate.getSubtasks(afterId, limit));
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return call(getTasksByStatus, () -> delegate.getTasksByStatus(status));
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return call(getEpicsByStatus, () -> delegate.getEpicsByStatus(status));
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return call(getSubtasksByStatus, () -> delegate.getSubtasksByStatus(status));
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return callInt(countByStatus, () -> delegate.countByStatus(type, status));
+    }
+
+    @Override
+    public int count(TaskType type) {
+        return callInt(count, () -> delegate.count(type));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return call(search, () -> delegate.search(query, limit));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return call(getPrioritizedTasks, delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return call(getTask, () -> delegate.getTask(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return call(getSubtask, () -> delegate.getSubtask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return call(getEpic, () -> delegate.getEpic(id));
+    }
+
+    @Override
+    public int addNewTask(Task task) {
+        return callInt(addNewTask, () -> delegate.addNewTask(task));
+    }
+
+    @Override
+    public int addNewEpic(Epic epic) {
+        return callInt(addNewEpic, () -> delegate.addNewEpic(epic));
+    }
+
+    @Override
+    public Integer addNewSubtask(Subtask subtask) {
+        return call(addNewSubtask, () -> delegate.addNewSubtask(subtask));
+    }
+
+    @Override
+    public void deleteEpic(int id) {
+        run(deleteEpic, () -> delegate.deleteEpic(id));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        run(updateTask, () -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        run(updateEpic, () -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        run(updateSubtask, () -> delegate.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteTask(int id) {
+        run(deleteTask, () -> delegate.deleteTask(id));
+    }
+
+    @Override
+    public void deleteSubtask(int id) {
+        run(deleteSubtask, () -> delegate.deleteSubtask(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return call(getHistory, delegate::getHistory);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        run(deleteAllTasks, delegate::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        run(deleteAllEpics, delegate::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        run(deleteAllSubtasks, delegate::deleteAllSubtasks);
+    }
+
+    @Override
+    public int[] applyBatch(List<Mutation> batch) {
+        return call(applyBatch, () -> delegate.applyBatch(batch));
+    }
+}
@@ -0,0 +1,208 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Хеш-таблица с ключами int и открытой адресацией (линейное пробирование по схеме Robin Hood: при вставке
+// запись, ушедшая от своей ячейки дальше, вытесняет более «близкую», поэтому внутри цепочки записи
+// упорядочены по родной ячейке). Поиск отсутствующего ключа и удаление останавливаются на первой записи,
+// которая ближе к своей ячейке, - иначе при последовательных ID длинные плотные цепочки делали бы
+// каждое удаление линейным.
+// Ключи лежат в массиве int, значения - в параллельном массиве Object, поэтому нет ни упаковки ключей
+// в Integer, ни объекта-узла на каждую запись, как у HashMap<Integer, V>. Пустая ячейка - значение null,
+// поэтому null в качестве значения не допускается. Ячейка - старшие биты ключа, умноженного на 2^32/φ
+// (фибоначчиево хеширование): почти тождественная ячейка, как в HashMap, при пробировании даёт длинные
+// цепочки, когда возрастающие ID с плотностью от 1/2 до 3/4 (например, подзадачи одного статуса) второй
+// раз проходят по таблице, и вставка становится квадратичной. Порядок обхода поэтому не связан с ID.
+// Таблица растёт при заполнении на 3/4 и сжимается, когда заполнена меньше чем на 1/8. Не потокобезопасна.
+public class IntHashMap<V> {
+    private static final int MIN_CAPACITY = 4;
+    private static final int DEFAULT_EXPECTED_SIZE = 12; // Таблица на 16 ячеек
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int GOLDEN_RATIO = 0x9E3779B9; // 2^32 / φ
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold; // Размер, после которого таблица увеличивается вдвое (заполнение 3/4)
+    private int shift; // 32 - log2(ёмкости): ячейка - столько старших бит произведения
+
+    public IntHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public IntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Ожидаемый размер не может быть отрицательным: " + expectedSize);
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // Возвращает прежнее значение по ключу или null
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null.");
+        }
+        int existing = indexOf(key);
+        if (existing >= 0) {
+            V previous = (V) values[existing];
+            values[existing] = value;
+            return previous;
+        }
+        if (size == keys.length - 1 && threshold == Integer.MAX_VALUE) { // Таблица максимального размера
+            throw new IllegalStateException("IntHashMap переполнена: " + size + " записей.");
+        }
+        insert(key, value);
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    // Возвращает удалённое значение или null
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V previous = (V) values[i];
+        shiftBack(i, keys.length - 1);
+        if (--size < keys.length >>> 3 && keys.length > MIN_CAPACITY) {
+            resize(keys.length >>> 1); // Сжимаемся, чтобы обход стоил пропорционально числу записей
+        }
+        return previous;
+    }
+
+    public void clear() {
+        if (keys.length > MIN_CAPACITY) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(values, null);
+        }
+        size = 0;
+    }
+
+    // Копия значений в порядке ячеек таблицы
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    // Обход значений без копирования; менять таблицу во время обхода нельзя
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    private int slot(int key) {
+        return (key * GOLDEN_RATIO) >>> shift;
+    }
+
+    // Ячейка ключа или -1. Дальше записи, которая ближе к своей ячейке, чем искомый ключ к своей,
+    // искать бесполезно: при вставке ключ вытеснил бы её
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        for (int distance = 0; values[i] != null && distance(i, mask) >= distance; distance++) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Вставка ключа, которого нет в таблице; в таблице есть хотя бы одна пустая ячейка
+    private void insert(int key, Object value) {
+        int mask = keys.length - 1;
+        int i = slot(key);
+        for (int distance = 0; values[i] != null; distance++) {
+            int residentDistance = distance(i, mask);
+            if (residentDistance < distance) {
+                // Запись ближе к своей ячейке - уступает место и ищет себе новое дальше
+                int residentKey = keys[i];
+                Object residentValue = values[i];
+                keys[i] = key;
+                values[i] = value;
+                key = residentKey;
+                value = residentValue;
+                distance = residentDistance;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private int distance(int i, int mask) {
+        return (i - slot(keys[i])) & mask;
+    }
+
+    // Удаление без надгробий: сдвигаем на шаг назад хвост цепочки до записи, стоящей в своей ячейке
+    private void shiftBack(int hole, int mask) {
+        for (int i = (hole + 1) & mask; values[i] != null && distance(i, mask) > 0; i = (i + 1) & mask) {
+            keys[hole] = keys[i];
+            values[hole] = values[i];
+            hole = i;
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            threshold = Integer.MAX_VALUE; // Дальше таблица не растёт; одна ячейка всегда остаётся пустой
+            return;
+        }
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                insert(oldKeys[j], oldValues[j]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = capacity / 4 * 3;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+}
@@ -0,0 +1,88 @@
+package service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма задержек в наносекундах в духе HdrHistogram. До 64 нс корзины идут по 1 нс, дальше каждая
+// степень двойки делится на 32 равные корзины, поэтому любое значение хранится с погрешностью не больше
+// 1/32 (около 3%). Значения от 2^36 нс (около 69 с) попадают в последнюю корзину, точный максимум
+// хранится отдельно. Запись - одно атомарное увеличение счётчика без блокировок и выделения памяти,
+// поэтому гистограмму можно вести постоянно. Чтение не останавливает запись: перцентили считаются
+// по копии счётчиков и могут не учесть вызовы, которые завершаются в этот момент.
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Корзин на степень двойки
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS; // Ниже - точные корзины по 1 нс
+    private static final int MAX_EXPONENT = 36;
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0; // nanoTime монотонен, но на всякий случай не даём испортить корзины
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    // Сводка по одной копии счётчиков: число вызовов, среднее, перцентили и максимум
+    OperationStats toStats(String name, long errors) {
+        long[] copy = new long[BUCKET_COUNT];
+        long calls = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            calls += copy[i];
+        }
+        long max = maxNanos.get();
+        long mean = calls == 0 ? 0 : totalNanos.sum() / calls;
+        return new OperationStats(name, calls, errors, mean,
+                valueAt(copy, calls, 50.0, max), valueAt(copy, calls, 90.0, max),
+                valueAt(copy, calls, 99.0, max), valueAt(copy, calls, 99.9, max), max);
+    }
+
+    // Наименьшее значение, не меньше которого percentile процентов записей; верхняя граница корзины
+    static long valueAt(long[] counts, long total, double percentile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < LINEAR_LIMIT) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int mantissa = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)); // От SUB_BUCKETS до 2 * SUB_BUCKETS - 1
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int offset = bucket - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long mantissa = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,55 @@
+package service;
+
+import model.TaskType;
+
+// Подписчик, который пишет события в журнал платформы (System.Logger) вместо прежнего System.out
+// внутри менеджера. Удаление всех сущностей пишется на уровне INFO, остальные события - на DEBUG.
+public class LoggingTaskListener implements TaskListener {
+
+    private final System.Logger logger;
+
+    public LoggingTaskListener() {
+        this(System.getLogger(LoggingTaskListener.class.getName()));
+    }
+
+    public LoggingTaskListener(System.Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void onEvent(TaskEvent event) {
+        switch (event.getKind()) {
+            case CLEARED:
+                if (event.getCount() == 0) {
+                    logger.log(System.Logger.Level.INFO, "Нет {0} для удаления.", plural(event.getType()));
+                } else {
+                    logger.log(System.Logger.Level.INFO, "Удалено {0}: {1}.", plural(event.getType()),
+                            event.getCount());
+                }
+                break;
+            case DELETED:
+                logger.log(System.Logger.Level.DEBUG, "Удалена сущность {0} с ID {1} (всего удалено: {2}).",
+                        event.getType(), event.getId(), event.getCount());
+                break;
+            case CREATED:
+                logger.log(System.Logger.Level.DEBUG, "Создана сущность {0} с ID {1}.",
+                        event.getType(), event.getId());
+                break;
+            case UPDATED:
+                logger.log(System.Logger.Level.DEBUG, "Обновлена сущность {0} с ID {1}.",
+                        event.getType(), event.getId());
+                break;
+        }
+    }
+
+    private static String plural(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return "эпиков";
+            case SUBTASK:
+                return "подзадач";
+            default:
+                return "задач";
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package service;
+
+// Ошибка записи или чтения состояния менеджера из файла
+public class ManagerSaveException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ManagerSaveException(String message) {
+        super(message);
+    }
+
+    public ManagerSaveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,4 +1,7 @@
 package service;
+
+import java.nio.file.Path;
+
 public class Managers {
     // Метод для получения экземпляра TaskManager
     public static TaskManager getDefault() {
@@ -8,10 +11,63 @@ public class Managers {
         return new InMemoryTaskManager(historyManager);
     }
 
+    // Метод для получения InMemoryTaskManager, который публикует события изменений в events
+    public static TaskManager getDefault(TaskEventBus events) {
+        return new InMemoryTaskManager(getDefaultHistory(), events);
+    }
+
+    // Метод для получения шины событий, на которую уже подписан журнал (LoggingTaskListener)
+    public static TaskEventBus getLoggingEventBus() {
+        TaskEventBus events = TaskEventBus.start();
+        events.subscribe(new LoggingTaskListener());
+        return events;
+    }
+
+    // Метод для получения потокобезопасного TaskManager, который можно разделять между потоками
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager(getConcurrentHistory());
+    }
+
+    // Метод для получения TaskManager, который хранит задачи в каталоге directory и восстанавливает их при запуске
+    public static FileBackedTaskManager getFileBacked(Path directory) {
+        return FileBackedTaskManager.open(getDefaultHistory(), directory);
+    }
+
+    // Метод для получения TaskManager с колоночным хранением для очень больших досок
+    public static TaskManager getColumnar() {
+        return new ColumnarTaskManager(getDefaultHistory());
+    }
+
+    // Метод для получения InMemoryTaskManager с метриками вызовов (getMetrics() и JMX через registerMBean)
+    public static InstrumentedTaskManager getInstrumented() {
+        HistoryManager historyManager = getDefaultHistory();
+        return new InstrumentedTaskManager(new InMemoryTaskManager(historyManager), historyManager);
+    }
+
+    // Метод для получения потокобезопасного TaskManager с метриками вызовов
+    public static InstrumentedTaskManager getInstrumentedConcurrent() {
+        HistoryManager historyManager = getConcurrentHistory();
+        return new InstrumentedTaskManager(new ConcurrentTaskManager(historyManager), historyManager);
+    }
+
     // Метод для получения экземпляра HistoryManager
     public static HistoryManager getDefaultHistory() {
         // Возвращаем новый экземпляр InMemoryHistoryManager
         return new InMemoryHistoryManager();
     }
 
+    // Метод для получения HistoryManager, который хранит не больше capacity последних просмотров
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    // Метод для получения потокобезопасного HistoryManager
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
+    public static HistoryManager getConcurrentHistory(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,459 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Двоичный снимок доски, который открывается через MappedByteBuffer без разбора всего файла.
+// Файл: заголовок | таблица ID (отсортированные int) | записи фиксированной длины в том же порядке |
+// таблица подзадач эпиков (номера записей) | строки UTF-8.
+// Версия 2 добавила к записи время начала и продолжительность; снимки версии 1 (записи без времени) читаются.
+// Открытие стоит O(1): отображаются секции файла и проверяется заголовок. Объекты Task, Epic и Subtask
+// создаются при первом обращении к ним и кэшируются; поиск по ID - двоичный поиск по таблице ID.
+// Это отдельная структура только для чтения: менеджеры и запуск сервера её не используют, а
+// FileBackedTaskManager восстанавливается из своего текстового снимка и журнала. Снимок пишется во временный
+// файл и атомарно подменяет прежний, поэтому уже открытые экземпляры продолжают читать старый файл целиком.
+public class MappedSnapshot implements Closeable {
+
+    private static final int MAGIC = 0x4B4E424E; // "KNBN"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 64;
+    private static final int V1_RECORD_SIZE = 40;
+    private static final int STRING_CHUNK = 1 << 30; // Строки отображаются кусками по 1 ГБ и не пересекают их границ
+    private static final int NULL_LENGTH = -1;
+
+    // Смещения полей внутри записи
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int EPIC_ID_OR_CHILD_COUNT = 8; // Подзадача - ID эпика, эпик - число подзадач
+    private static final int CHILD_START = 12; // Эпик - начало его подзадач в таблице подзадач
+    private static final int TITLE_OFFSET = 16;
+    private static final int DESCRIPTION_OFFSET = 24;
+    private static final int TITLE_LENGTH = 32;
+    private static final int DESCRIPTION_LENGTH = 36;
+    private static final int START_SECONDS = 40; // Секунды от 1970-01-01T00:00 без часового пояса; NO_TIME - нет
+    private static final int DURATION_SECONDS = 48; // NO_TIME - продолжительность не задана
+    private static final int START_NANOS = 56;
+    private static final int DURATION_NANOS = 60;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final FileChannel channel;
+    private final int count;
+    private final int nextId;
+    private final int recordSize;
+    private final ByteBuffer ids;
+    private final ByteBuffer records;
+    private final ByteBuffer children;
+    private final MappedByteBuffer[] strings;
+    private final Map<Integer, Task> materialized = new ConcurrentHashMap<>(); // Уже созданные объекты по номеру записи
+
+    private MappedSnapshot(FileChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.size() < HEADER_SIZE) {
+            throw new ManagerSaveException("Файл не является снимком доски.");
+        }
+        ByteBuffer header = map(0, HEADER_SIZE);
+        int version = header.getInt(4);
+        if (header.getInt(0) != MAGIC || version < 1 || version > VERSION) {
+            throw new ManagerSaveException("Файл не является снимком доски версии до " + VERSION + ".");
+        }
+        recordSize = version == 1 ? V1_RECORD_SIZE : RECORD_SIZE;
+        count = header.getInt(8);
+        int childCount = header.getInt(12);
+        nextId = header.getInt(16);
+        long idsOffset = header.getLong(24);
+        long recordsOffset = header.getLong(32);
+        long childrenOffset = header.getLong(40);
+        long stringsOffset = header.getLong(48);
+        long stringsLength = header.getLong(56);
+        if (stringsOffset + stringsLength != channel.size()) {
+            throw new ManagerSaveException("Снимок доски обрезан или повреждён.");
+        }
+        ids = map(idsOffset, (long) count * Integer.BYTES);
+        records = map(recordsOffset, (long) count * recordSize);
+        children = map(childrenOffset, (long) childCount * Integer.BYTES);
+        strings = new MappedByteBuffer[(int) ((stringsLength + STRING_CHUNK - 1) / STRING_CHUNK)];
+        for (int i = 0; i < strings.length; i++) {
+            long start = (long) i * STRING_CHUNK;
+            strings[i] = map(stringsOffset + start, Math.min(STRING_CHUNK, stringsLength - start));
+        }
+    }
+
+    // Открывает снимок; объём работы не зависит от числа задач
+    public static MappedSnapshot open(Path file) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new MappedSnapshot(channel);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            if (e instanceof ManagerSaveException) {
+                throw (ManagerSaveException) e;
+            }
+            throw new ManagerSaveException("Не удалось открыть снимок " + file, e);
+        }
+    }
+
+    // Записывает задачи, эпики и подзадачи менеджера в двоичный снимок
+    public static void write(TaskManager taskManager, Path file) {
+        List<Task> entities = new ArrayList<>(taskManager.getTasks());
+        entities.addAll(taskManager.getEpics());
+        entities.addAll(taskManager.getSubtasks());
+        entities.sort(Comparator.comparingInt(Task::getId));
+
+        int count = entities.size();
+        int[] sortedIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedIds[i] = entities.get(i).getId();
+        }
+        // Счётчик ID знает только InMemoryTaskManager; для остальных берём следующий после наибольшего
+        int nextId = taskManager instanceof InMemoryTaskManager
+                ? ((InMemoryTaskManager) taskManager).getNextId()
+                : (count == 0 ? 1 : sortedIds[count - 1] + 1);
+
+        if ((long) count * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Слишком много задач для одного снимка: " + count);
+        }
+
+        // Таблица подзадач: номера записей подзадач, сгруппированные по эпикам в порядке записей эпиков
+        int[] childStart = new int[count];
+        int childCount = 0;
+        for (Task entity : entities) {
+            if (entity instanceof Epic) {
+                childCount += ((Epic) entity).getSubtasks().size();
+            }
+        }
+        int[] childIndexes = new int[childCount];
+        childCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (entities.get(i) instanceof Epic) {
+                childStart[i] = childCount;
+                for (Subtask subtask : ((Epic) entities.get(i)).getSubtasks()) {
+                    childIndexes[childCount++] = Arrays.binarySearch(sortedIds, subtask.getId());
+                }
+            }
+        }
+
+        long idsOffset = HEADER_SIZE;
+        long recordsOffset = idsOffset + (long) count * Integer.BYTES;
+        long childrenOffset = recordsOffset + (long) count * RECORD_SIZE;
+        long stringsOffset = childrenOffset + (long) childIndexes.length * Integer.BYTES;
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output main = new Output(out, idsOffset);
+            Output text = new Output(out, stringsOffset);
+            for (int id : sortedIds) {
+                main.putInt(id);
+            }
+            for (int i = 0; i < count; i++) {
+                Task entity = entities.get(i);
+                byte[] title = utf8(entity.getTitle());
+                byte[] description = utf8(entity.getDescription());
+                long titleOffset = text.putString(title, stringsOffset);
+                long descriptionOffset = text.putString(description, stringsOffset);
+
+                int epicIdOrChildCount = 0;
+                if (entity instanceof Subtask) {
+                    epicIdOrChildCount = ((Subtask) entity).getEpicId();
+                } else if (entity instanceof Epic) {
+                    epicIdOrChildCount = ((Epic) entity).getSubtasks().size();
+                }
+                main.putInt(entity.getId());
+                main.putByte((byte) entity.getType().ordinal());
+                main.putByte((byte) entity.getStatus().ordinal());
+                main.putShort((short) 0);
+                main.putInt(epicIdOrChildCount);
+                main.putInt(childStart[i]);
+                main.putLong(titleOffset);
+                main.putLong(descriptionOffset);
+                main.putInt(title == null ? NULL_LENGTH : title.length);
+                main.putInt(description == null ? NULL_LENGTH : description.length);
+                // Время эпика выводится из подзадач при их добавлении, поэтому не хранится
+                LocalDateTime startTime = entity instanceof Epic ? null : entity.getStartTime();
+                Duration duration = entity instanceof Epic ? null : entity.getDuration();
+                main.putLong(startTime == null ? NO_TIME : startTime.toEpochSecond(ZoneOffset.UTC));
+                main.putLong(duration == null ? NO_TIME : duration.getSeconds());
+                main.putInt(startTime == null ? 0 : startTime.getNano());
+                main.putInt(duration == null ? 0 : duration.getNano());
+            }
+            for (int childIndex : childIndexes) {
+                main.putInt(childIndex);
+            }
+            main.flush();
+            text.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(childIndexes.length).putInt(nextId).putInt(0)
+                    .putLong(idsOffset).putLong(recordsOffset).putLong(childrenOffset).putLong(stringsOffset)
+                    .putLong(text.position() - stringsOffset).flip();
+            while (header.hasRemaining()) {
+                out.write(header, header.position());
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать снимок " + file, e);
+        }
+        try {
+            // Атомарная замена: после сбоя на диске остаётся либо старый, либо новый снимок целиком, а
+            // отображённый в память старый файл не обрезается под открытыми экземплярами
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось заменить снимок " + file, e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Исходная ошибка открытия важнее
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Следующий свободный ID на момент записи снимка
+    public int getNextId() {
+        return nextId;
+    }
+
+    public boolean contains(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    // Задача, эпик или подзадача по ID; объект создаётся при первом обращении
+    public Task get(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            throw new NoSuchElementException("Задача с ID " + id + " отсутствует в снимке.");
+        }
+        return materialize(index);
+    }
+
+    public TaskType getType(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            throw new NoSuchElementException("Задача с ID " + id + " отсутствует в снимке.");
+        }
+        return TYPES[records.get(index * recordSize + TYPE)];
+    }
+
+    // Все сущности снимка в порядке ID; материализует их, поэтому предназначен для полной загрузки
+    public List<Task> getAll() {
+        List<Task> all = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            all.add(materialize(i));
+        }
+        return all;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close(); // Отображение освободит сборщик мусора
+    }
+
+    // Двоичный поиск по таблице ID
+    private int indexOf(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = ids.getInt(mid * Integer.BYTES);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private Task materialize(int index) {
+        Task cached = materialized.get(index);
+        if (cached != null) {
+            return cached;
+        }
+        int base = index * recordSize;
+        int id = records.getInt(base + ID);
+        Status status = STATUSES[records.get(base + STATUS)];
+        String title = readString(records.getLong(base + TITLE_OFFSET), records.getInt(base + TITLE_LENGTH));
+        String description = readString(records.getLong(base + DESCRIPTION_OFFSET),
+                records.getInt(base + DESCRIPTION_LENGTH));
+        Task entity;
+        switch (TYPES[records.get(base + TYPE)]) {
+            case EPIC:
+                Epic epic = new Epic(id, title, description, status);
+                int childStart = records.getInt(base + CHILD_START);
+                int childCount = records.getInt(base + EPIC_ID_OR_CHILD_COUNT);
+                for (int i = 0; i < childCount; i++) {
+                    epic.addSubtask((Subtask) materialize(children.getInt((childStart + i) * Integer.BYTES)));
+                }
+                epic.setStatus(status);
+                entity = epic;
+                break;
+            case SUBTASK:
+                entity = new Subtask(id, title, description, status, records.getInt(base + EPIC_ID_OR_CHILD_COUNT),
+                        startTime(base), duration(base));
+                break;
+            default:
+                entity = new Task(id, title, description, status, startTime(base), duration(base));
+        }
+        Task previous = materialized.putIfAbsent(index, entity);
+        return previous != null ? previous : entity;
+    }
+
+    private LocalDateTime startTime(int base) {
+        if (recordSize == V1_RECORD_SIZE || records.getLong(base + START_SECONDS) == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(records.getLong(base + START_SECONDS), records.getInt(base + START_NANOS),
+                ZoneOffset.UTC);
+    }
+
+    private Duration duration(int base) {
+        if (recordSize == V1_RECORD_SIZE || records.getLong(base + DURATION_SECONDS) == NO_TIME) {
+            return null;
+        }
+        return Duration.ofSeconds(records.getLong(base + DURATION_SECONDS), records.getInt(base + DURATION_NANOS));
+    }
+
+    private String readString(long offset, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings[(int) (offset / STRING_CHUNK)].get((int) (offset % STRING_CHUNK), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer map(long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Секция снимка больше 2 ГБ не поддерживается.");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    // Буферизованная запись в канал с указанной позиции
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long position; // Позиция в файле, куда попадёт следующий байт
+
+        Output(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long position() {
+            return position;
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(Byte.BYTES);
+            buffer.put(value);
+            position += Byte.BYTES;
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(Short.BYTES);
+            buffer.putShort(value);
+            position += Short.BYTES;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+            position += Long.BYTES;
+        }
+
+        // Пишет строку и возвращает её смещение от начала секции; строка не пересекает границу куска отображения
+        long putString(byte[] bytes, long sectionStart) throws IOException {
+            if (bytes == null) {
+                return 0;
+            }
+            if (bytes.length > STRING_CHUNK) {
+                throw new ManagerSaveException("Строка длиннее " + STRING_CHUNK + " байт не поддерживается.");
+            }
+            long offsetInChunk = (position - sectionStart) % STRING_CHUNK;
+            if (offsetInChunk + bytes.length > STRING_CHUNK) {
+                long padding = STRING_CHUNK - offsetInChunk;
+                for (long i = 0; i < padding; i++) {
+                    putByte((byte) 0);
+                }
+            }
+            for (int written = 0; written < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, length);
+                written += length;
+                position += length;
+            }
+            return position - sectionStart - bytes.length;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            long writePosition = position - buffer.remaining();
+            while (buffer.hasRemaining()) {
+                writePosition += channel.write(buffer, writePosition);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
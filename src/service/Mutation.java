@@ -0,0 +1,126 @@
+package service;
+
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Одно изменение в пакете для TaskManager.applyBatch: добавление, обновление или удаление сущности.
+// На сущность, которую добавляет пакет, можно сослаться из следующих изменений того же пакета
+// ещё до того, как у неё появится ID: отрицательный ID added(N) означает "сущность, добавленную
+// изменением №N". Так одним пакетом добавляется эпик вместе с подзадачами (epicId = added(0)).
+// При применении ссылки заменяются настоящими ID прямо в переданных сущностях, как и ID новых сущностей
+public final class Mutation {
+
+    public enum Kind {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    private final Kind kind;
+    private final TaskType type;
+    private final Task entity; // null для удаления
+    private final int id; // ID удаляемой сущности
+
+    private Mutation(Kind kind, TaskType type, Task entity, int id) {
+        this.kind = kind;
+        this.type = type;
+        this.entity = entity;
+        this.id = id;
+    }
+
+    // Добавление задачи, эпика или подзадачи; ID назначит менеджер
+    public static Mutation add(Task entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Добавляемая сущность не может быть null.");
+        }
+        return new Mutation(Kind.ADD, entity.getType(), entity, 0);
+    }
+
+    public static Mutation update(Task entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Обновляемая сущность не может быть null.");
+        }
+        return new Mutation(Kind.UPDATE, entity.getType(), entity, entity.getId());
+    }
+
+    public static Mutation delete(TaskType type, int id) {
+        if (type == null) {
+            throw new IllegalArgumentException("Тип удаляемой сущности не может быть null.");
+        }
+        return new Mutation(Kind.DELETE, type, null, id);
+    }
+
+    // Ссылка на сущность, добавленную изменением №index того же пакета (нумерация с нуля)
+    public static int added(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Номер изменения не может быть отрицательным: " + index);
+        }
+        return -(index + 1);
+    }
+
+    // Проверяет ссылку id изменения №index на сущность типа type: отрицательный id должен указывать
+    // на более раннее добавление сущности этого типа. Обычные ID не проверяются
+    static void checkReference(List<Mutation> batch, int index, int id, TaskType type) {
+        if (id >= 0) {
+            return;
+        }
+        int target = -id - 1;
+        if (target >= index || batch.get(target).kind != Kind.ADD || batch.get(target).type != type) {
+            throw new NoSuchElementException("Изменение №" + index + ": ссылка " + id
+                    + " не указывает на добавление " + type + " раньше в пакете.");
+        }
+    }
+
+    // Заменяет ссылки на сущности пакета их ID из ids (результаты уже применённых изменений) и возвращает
+    // ID сущности, к которой относится изменение №index; у добавления - 0, ID ему назначит менеджер
+    int bind(List<Mutation> batch, int[] ids, int index) {
+        if (entity instanceof Subtask) {
+            Subtask subtask = (Subtask) entity;
+            checkReference(batch, index, subtask.getEpicId(), TaskType.EPIC);
+            if (subtask.getEpicId() < 0) {
+                subtask.setEpicId(ids[-subtask.getEpicId() - 1]);
+            }
+        }
+        if (kind == Kind.ADD) {
+            return 0;
+        }
+        int target = getId();
+        checkReference(batch, index, target, type);
+        if (target < 0) {
+            target = ids[-target - 1];
+            if (entity != null) {
+                entity.setId(target);
+            }
+        }
+        return target;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public Task getEntity() {
+        return entity;
+    }
+
+    public int getId() {
+        return kind == Kind.DELETE ? id : entity.getId();
+    }
+
+    @Override
+    public String toString() {
+        return "Mutation{" +
+                "kind=" + kind +
+                ", type=" + type +
+                ", id=" + getId() +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package service;
+
+import javax.management.ConstructorParameters;
+
+// Сводка по одному методу TaskManager на момент запроса: число вызовов и ошибок, средняя задержка,
+// перцентили и максимум в наносекундах. Вызовы, закончившиеся исключением, тоже входят в задержки.
+public final class OperationStats {
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    // Аннотация нужна JMX, чтобы клиент мог собрать объект обратно из CompositeData
+    @ConstructorParameters({"name", "calls", "errors", "meanNanos", "p50Nanos", "p90Nanos", "p99Nanos",
+            "p999Nanos", "maxNanos"})
+    public OperationStats(String name, long calls, long errors, long meanNanos, long p50Nanos, long p90Nanos,
+                          long p99Nanos, long p999Nanos, long maxNanos) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationStats{" +
+                "name='" + name + '\'' +
+                ", calls=" + calls +
+                ", errors=" + errors +
+                ", meanNanos=" + meanNanos +
+                ", p50Nanos=" + p50Nanos +
+                ", p90Nanos=" + p90Nanos +
+                ", p99Nanos=" + p99Nanos +
+                ", p999Nanos=" + p999Nanos +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+}
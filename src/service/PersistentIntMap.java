@@ -0,0 +1,404 @@
+package service;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Отображение int -> значение на префиксном дереве по 5 бит ключа с разреженными узлами (битовая маска
+// занятых ветвей + плотный массив), как HAMT, только без хеширования: при последовательных ID дерево
+// плотное, а обход идёт по возрастанию ключа (ключ сравнивается без знака, поэтому отрицательные идут
+// после положительных). Каждый узел помнит число значений в поддереве.
+//
+// snapshot() за O(1) возвращает неизменяемый снимок: текущий корень замораживается, и следующие записи
+// копируют путь от корня до листа (O(log32 n) небольших узлов), не трогая узлов снимка. Пока снимков
+// не брали, узлы принадлежат текущей «правке» и меняются на месте, поэтому запись без читателей почти
+// не создаёт мусора. Сама карта не потокобезопасна, а безопасно опубликованный снимок (например, через
+// volatile-поле) можно читать из любых потоков без блокировок.
+// null в качестве значения не допускается.
+public class PersistentIntMap<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private Node root;
+    private int shift; // Сдвиг ключа для ветвления в корне; 0 - корень сам лист
+    private Object edit = new Object(); // Владелец узлов, которые можно менять на месте
+
+    // Узел дерева: во внутренних узлах slots - дочерние узлы, в листьях - значения
+    private static final class Node {
+        final Object owner;
+        int bitmap; // Какие из 32 ветвей заняты
+        Object[] slots; // Только занятые ветви, по порядку
+        int size; // Число значений в поддереве
+
+        Node(Object owner, int bitmap, Object[] slots, int size) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        Object child(int branch) {
+            int bit = 1 << branch;
+            return (bitmap & bit) == 0 ? null : slots[Integer.bitCount(bitmap & (bit - 1))];
+        }
+    }
+
+    public PersistentIntMap() {
+        root = emptyRoot();
+    }
+
+    public int size() {
+        return root.size;
+    }
+
+    public boolean isEmpty() {
+        return root.size == 0;
+    }
+
+    public V get(int key) {
+        return find(root, shift, key);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // Возвращает прежнее значение по ключу или null
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null.");
+        }
+        V previous = get(key);
+        while (shift < Integer.SIZE - BITS && key >>> (shift + BITS) != 0) {
+            // Ключ не помещается в дерево - поднимаем корень на уровень выше
+            root = new Node(edit, root.size == 0 ? 0 : 1, root.size == 0 ? new Object[0] : new Object[]{root},
+                    root.size);
+            shift += BITS;
+        }
+        Node node = root = editable(root);
+        for (int s = shift; s > 0; s -= BITS) {
+            if (previous == null) {
+                node.size++;
+            }
+            int branch = (key >>> s) & MASK;
+            Node child = (Node) node.child(branch);
+            child = child == null ? new Node(edit, 0, new Object[0], 0) : editable(child);
+            setSlot(node, branch, child);
+            node = child;
+        }
+        if (previous == null) {
+            node.size++;
+        }
+        setSlot(node, key & MASK, value);
+        return previous;
+    }
+
+    // Возвращает удалённое значение или null
+    public V remove(int key) {
+        V previous = get(key);
+        if (previous == null) {
+            return null;
+        }
+        if (root.size == 1) {
+            root = emptyRoot(); // Удаляется последнее значение - дерево снова минимальной высоты
+            shift = 0;
+            return previous;
+        }
+        Node node = root = editable(root);
+        for (int s = shift; s > 0; s -= BITS) {
+            node.size--;
+            int branch = (key >>> s) & MASK;
+            Node child = (Node) node.child(branch);
+            if (child.size == 1) {
+                clearSlot(node, branch); // В поддереве больше ничего нет - отрезаем его целиком
+                return previous;
+            }
+            child = editable(child);
+            setSlot(node, branch, child);
+            node = child;
+        }
+        node.size--;
+        clearSlot(node, key & MASK);
+        return previous;
+    }
+
+    public void clear() {
+        root = emptyRoot();
+        shift = 0;
+    }
+
+    // Обход значений по возрастанию ключа; менять карту во время обхода нельзя
+    public void forEach(Consumer<? super V> action) {
+        forEach(root, shift, action);
+    }
+
+    // Неизменяемый снимок текущего содержимого за O(1)
+    public Snapshot<V> snapshot() {
+        edit = new Object(); // Узлы снимка больше не принадлежат правке и будут копироваться при записи
+        return new Snapshot<>(root, shift);
+    }
+
+    // Неизменяемый список значений по возрастанию ключа. Доступ по номеру стоит O(log n) по счётчикам
+    // поддеревьев, обход итератором - O(1) на элемент. Поиск по ключу - lookup.
+    public static final class Snapshot<V> extends AbstractList<V> {
+        private final Node root;
+        private final int shift;
+
+        private Snapshot(Node root, int shift) {
+            this.root = root;
+            this.shift = shift;
+        }
+
+        @Override
+        public int size() {
+            return root.size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            if (index < 0 || index >= root.size) {
+                throw new IndexOutOfBoundsException("Индекс " + index + " вне списка из " + root.size + " элементов.");
+            }
+            Node node = root;
+            for (int s = shift; s > 0; s -= BITS) {
+                int i = 0;
+                Node child = (Node) node.slots[0];
+                while (index >= child.size) {
+                    index -= child.size;
+                    child = (Node) node.slots[++i];
+                }
+                node = child;
+            }
+            return (V) node.slots[index];
+        }
+
+        public V lookup(int key) {
+            return find(root, shift, key);
+        }
+
+        // Число значений с ключом меньше key (без знака) - номер, с которого начинаются ключи от key
+        public int rank(int key) {
+            if (shift < Integer.SIZE - BITS && key >>> (shift + BITS) != 0) {
+                return root.size;
+            }
+            int rank = 0;
+            Node node = root;
+            for (int s = shift; ; s -= BITS) {
+                int bit = 1 << ((key >>> s) & MASK);
+                int i = Integer.bitCount(node.bitmap & (bit - 1));
+                if (s == 0) {
+                    return rank + i;
+                }
+                for (int j = 0; j < i; j++) {
+                    rank += ((Node) node.slots[j]).size;
+                }
+                if ((node.bitmap & bit) == 0) {
+                    return rank;
+                }
+                node = (Node) node.slots[i];
+            }
+        }
+
+        // До limit значений с неотрицательными ключами больше afterKey по возрастанию ключа; поиск начала
+        // страницы стоит O(log n), поэтому страницы по курсору не дороже первой
+        public List<V> page(int afterKey, int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("limit не может быть отрицательным.");
+            }
+            int from = afterKey < 0 ? 0 : afterKey == Integer.MAX_VALUE ? root.size : rank(afterKey + 1);
+            int to = (int) Math.min(rank(Integer.MIN_VALUE), (long) from + limit);
+            List<V> page = new ArrayList<>(Math.max(0, to - from));
+            Iterator<V> iterator = new SnapshotIterator<>(root, shift, from);
+            for (int i = from; i < to; i++) {
+                page.add(iterator.next());
+            }
+            return page;
+        }
+
+        @Override
+        public void forEach(Consumer<? super V> action) {
+            PersistentIntMap.forEach(root, shift, action);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new SnapshotIterator<>(root, shift, 0);
+        }
+
+        // Делится пополам по номерам, поэтому параллельный поток по снимку распределяется равномерно
+        @Override
+        public Spliterator<V> spliterator() {
+            return new SnapshotSpliterator<>(root, shift, 0, root.size);
+        }
+    }
+
+    // Диапазон номеров [index, end) снимка; итератор создаётся при первом обходе, после этого не делится
+    private static final class SnapshotSpliterator<V> implements Spliterator<V> {
+        private final Node root;
+        private final int shift;
+        private int index;
+        private final int end;
+        private SnapshotIterator<V> iterator;
+
+        SnapshotSpliterator(Node root, int shift, int index, int end) {
+            this.root = root;
+            this.shift = shift;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> action) {
+            if (index >= end) {
+                return false;
+            }
+            if (iterator == null) {
+                iterator = new SnapshotIterator<>(root, shift, index);
+            }
+            index++;
+            action.accept(iterator.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int middle = (index + end) >>> 1;
+            if (iterator != null || middle <= index) {
+                return null;
+            }
+            Spliterator<V> prefix = new SnapshotSpliterator<>(root, shift, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+
+    // Обход в глубину со стеком путей; высота дерева не больше 7 уровней
+    private static final class SnapshotIterator<V> implements Iterator<V> {
+        private final Node[] nodes = new Node[Integer.SIZE / BITS + 1];
+        private final int[] positions = new int[nodes.length];
+        private int depth; // Уровень листа в стеке
+        private int remaining;
+
+        // Начинает обход с значения номер index: спуск по счётчикам поддеревьев, как в get
+        SnapshotIterator(Node root, int shift, int index) {
+            remaining = root.size - index;
+            depth = shift / BITS;
+            if (remaining > 0) {
+                nodes[0] = root;
+                for (int level = 0; level < depth; level++) {
+                    Node node = nodes[level];
+                    int i = 0;
+                    while (index >= ((Node) node.slots[i]).size) {
+                        index -= ((Node) node.slots[i++]).size;
+                    }
+                    positions[level] = i;
+                    nodes[level + 1] = (Node) node.slots[i];
+                }
+                positions[depth] = index;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            if (positions[depth] == nodes[depth].slots.length) {
+                // Лист пройден: поднимаемся до узла с непройденной ветвью и спускаемся по её левому краю
+                int level = depth;
+                while (positions[level] == nodes[level].slots.length) {
+                    level--;
+                    positions[level]++;
+                }
+                for (; level < depth; level++) {
+                    nodes[level + 1] = (Node) nodes[level].slots[positions[level]];
+                    positions[level + 1] = 0;
+                }
+            }
+            remaining--;
+            return (V) nodes[depth].slots[positions[depth]++];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V find(Node root, int shift, int key) {
+        if (shift < Integer.SIZE - BITS && key >>> (shift + BITS) != 0) {
+            return null; // Ключ больше любого, что помещается в дерево
+        }
+        Node node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            node = (Node) node.child((key >>> s) & MASK);
+            if (node == null) {
+                return null;
+            }
+        }
+        return (V) node.child(key & MASK);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, int shift, Consumer<? super V> action) {
+        for (Object slot : node.slots) {
+            if (shift == 0) {
+                action.accept((V) slot);
+            } else {
+                forEach((Node) slot, shift - BITS, action);
+            }
+        }
+    }
+
+    private Node emptyRoot() {
+        return new Node(edit, 0, new Object[0], 0);
+    }
+
+    // Узел, который можно менять на месте: свой или копия узла, доступного из снимков
+    private Node editable(Node node) {
+        return node.owner == edit ? node : new Node(edit, node.bitmap, node.slots.clone(), node.size);
+    }
+
+    // Узел уже принадлежит текущей правке, поэтому массив слотов можно заменять
+    private static void setSlot(Node node, int branch, Object value) {
+        int bit = 1 << branch;
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) != 0) {
+            node.slots[i] = value;
+            return;
+        }
+        Object[] slots = new Object[node.slots.length + 1];
+        System.arraycopy(node.slots, 0, slots, 0, i);
+        slots[i] = value;
+        System.arraycopy(node.slots, i, slots, i + 1, node.slots.length - i);
+        node.slots = slots;
+        node.bitmap |= bit;
+    }
+
+    private static void clearSlot(Node node, int branch) {
+        int bit = 1 << branch;
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        Object[] slots = Arrays.copyOf(node.slots, node.slots.length - 1);
+        System.arraycopy(node.slots, i + 1, slots, i, slots.length - i);
+        node.slots = slots;
+        node.bitmap &= ~bit;
+    }
+}
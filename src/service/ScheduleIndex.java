@@ -0,0 +1,202 @@
+package service;
+
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Расписание запланированных задач и подзадач (со временем начала): интервалы [начало, окончание)
+// в дереве по (начало, окончание, ID). Задачи пересекаются, если каждая начинается раньше, чем кончается
+// другая; задача нулевой продолжительности - точка, которая может стоять на границе чужого интервала.
+//
+// В расписание не попадают пересекающиеся задачи, поэтому отдельное дерево интервалов с максимумом
+// окончаний по поддеревьям не нужно: интервалы, упорядоченные по началу, упорядочены и по окончанию.
+// Тогда новый интервал пересекается с кем-то тогда и только тогда, когда пересекается с последним
+// интервалом, начавшимся раньше его окончания, - проверка стоит один спуск по дереву, O(log n).
+// Интервалы хранятся копиями времени, поэтому правка самой задачи в обход менеджера дерево не ломает.
+public class ScheduleIndex {
+
+    private final TreeMap<Slot, Task> slots = new TreeMap<>();
+    private final IntHashMap<Slot> slotsById = new IntHashMap<>(); // ID сущности -> её интервал
+
+    // Интервал запланированной сущности; ID различает интервалы с одинаковым временем. Время хранится
+    // секундами и наносекундами (как будто в UTC), а не LocalDateTime: сравнение не ходит по трём объектам
+    // (дата, время суток), а интервал занимает 40 байт вместо сотни с лишним
+    private static final class Slot implements Comparable<Slot> {
+        final long startSeconds;
+        final int startNanos;
+        final long endSeconds;
+        final int endNanos;
+        final int id;
+
+        Slot(LocalDateTime start, LocalDateTime end, int id) {
+            this(start.toEpochSecond(ZoneOffset.UTC), start.getNano(), end.toEpochSecond(ZoneOffset.UTC), end.getNano(),
+                    id);
+        }
+
+        Slot(long startSeconds, int startNanos, long endSeconds, int endNanos, int id) {
+            this.startSeconds = startSeconds;
+            this.startNanos = startNanos;
+            this.endSeconds = endSeconds;
+            this.endNanos = endNanos;
+            this.id = id;
+        }
+
+        // Начинается ли этот интервал раньше, чем кончается other
+        boolean startsBeforeEndOf(Slot other) {
+            return startSeconds < other.endSeconds || startSeconds == other.endSeconds && startNanos < other.endNanos;
+        }
+
+        boolean endsAfter(Slot other) {
+            return endSeconds > other.endSeconds || endSeconds == other.endSeconds && endNanos > other.endNanos;
+        }
+
+        LocalDateTime start() {
+            return LocalDateTime.ofEpochSecond(startSeconds, startNanos, ZoneOffset.UTC);
+        }
+
+        LocalDateTime end() {
+            return LocalDateTime.ofEpochSecond(endSeconds, endNanos, ZoneOffset.UTC);
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            if (startSeconds != other.startSeconds) {
+                return Long.compare(startSeconds, other.startSeconds);
+            }
+            if (startNanos != other.startNanos) {
+                return Integer.compare(startNanos, other.startNanos);
+            }
+            if (endSeconds != other.endSeconds) {
+                return Long.compare(endSeconds, other.endSeconds);
+            }
+            if (endNanos != other.endNanos) {
+                return Integer.compare(endNanos, other.endNanos);
+            }
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    // Бросает IllegalArgumentException, если entity с её текущим временем нельзя поставить в расписание
+    // под ID id: она пересекается с другой запланированной сущностью или её продолжительность отрицательна.
+    // Собственный интервал сущности с этим ID не считается - так проверяется и обновление
+    public void checkFree(int id, Task entity) {
+        Duration duration = entity.getDuration();
+        if (duration != null && duration.isNegative()) {
+            throw new IllegalArgumentException("Продолжительность не может быть отрицательной: " + duration);
+        }
+        LocalDateTime start = entity.getStartTime();
+        if (start == null) {
+            return;
+        }
+        Task conflict = findOverlap(new Slot(start, entity.getEndTime(), id));
+        if (conflict != null) {
+            throw new IllegalArgumentException("Время " + start + " - " + entity.getEndTime()
+                    + " пересекается с " + conflict.getType() + " с ID " + conflict.getId() + ".");
+        }
+    }
+
+    // Ставит сущность в расписание под ID id вместо её прежнего интервала; незапланированная сущность
+    // из расписания убирается. Пересечения не проверяются - перед изменением вызывается checkFree
+    public void put(int id, Task entity) {
+        remove(id);
+        LocalDateTime start = entity.getStartTime();
+        if (start != null) {
+            Slot slot = new Slot(start, entity.getEndTime(), id);
+            slots.put(slot, entity);
+            slotsById.put(id, slot);
+        }
+    }
+
+    // Ставит в расписание пачку сущностей под их ID; незапланированные пропускает. Для пустого расписания
+    // (массовая загрузка) пересечения проверяются одним проходом по пачке, отсортированной как дерево:
+    // если интервал пересекается с кем-то из предыдущих, то и с тем из них, что кончается позже всех.
+    // В непустое расписание сущности ставятся по одной через checkFree.
+    // При пересечении бросает IllegalArgumentException и оставляет расписание как было
+    public void putAll(List<? extends Task> entities) {
+        if (!slots.isEmpty()) {
+            for (Task entity : entities) {
+                checkFree(entity.getId(), entity);
+                put(entity.getId(), entity);
+            }
+            return;
+        }
+        List<Map.Entry<Slot, Task>> batch = new ArrayList<>(entities.size());
+        for (Task entity : entities) {
+            LocalDateTime start = entity.getStartTime();
+            Duration duration = entity.getDuration();
+            if (duration != null && duration.isNegative()) {
+                throw new IllegalArgumentException("Продолжительность не может быть отрицательной: " + duration);
+            }
+            if (start != null) {
+                batch.add(new AbstractMap.SimpleImmutableEntry<>(new Slot(start, entity.getEndTime(), entity.getId()),
+                        entity));
+            }
+        }
+        batch.sort(Map.Entry.comparingByKey());
+        Map.Entry<Slot, Task> latest = null; // Интервал с самым поздним окончанием среди уже просмотренных
+        for (Map.Entry<Slot, Task> entry : batch) {
+            Slot slot = entry.getKey();
+            if (latest != null && slot.startsBeforeEndOf(latest.getKey()) && latest.getKey().startsBeforeEndOf(slot)) {
+                throw new IllegalArgumentException("Время " + slot.start() + " - " + slot.end() + " пересекается с "
+                        + latest.getValue().getType() + " с ID " + latest.getKey().id + ".");
+            }
+            if (latest == null || slot.endsAfter(latest.getKey())) {
+                latest = entry;
+            }
+        }
+        for (Map.Entry<Slot, Task> entry : batch) { // По возрастанию: вставка идёт по правому краю дерева
+            slots.put(entry.getKey(), entry.getValue());
+            slotsById.put(entry.getKey().id, entry.getKey());
+        }
+    }
+
+    // Сущность в расписании под ID id; null, если её там нет
+    public Task get(int id) {
+        Slot slot = slotsById.get(id);
+        return slot == null ? null : slots.get(slot);
+    }
+
+    public void remove(int id) {
+        Slot slot = slotsById.remove(id);
+        if (slot != null) {
+            slots.remove(slot);
+        }
+    }
+
+    public void clear() {
+        slots.clear();
+        slotsById.clear();
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    // Запланированные сущности по возрастанию времени начала
+    public List<Task> ordered() {
+        return new ArrayList<>(slots.values());
+    }
+
+    // Сущность, с которой пересекается интервал slot, кроме сущности с тем же ID; null - таких нет
+    private Task findOverlap(Slot slot) {
+        // Последний интервал, который начинается раньше конца slot: он меньше ключа с началом в конце slot
+        // и минимальным концом. Раз он начался раньше, пересечение зависит только от того, кончается ли он
+        // позже начала slot
+        Slot key = new Slot(slot.endSeconds, slot.endNanos, Long.MIN_VALUE, 0, Integer.MIN_VALUE);
+        Map.Entry<Slot, Task> last = slots.lowerEntry(key);
+        if (last != null && last.getKey().id == slot.id) {
+            last = slots.lowerEntry(last.getKey());
+        }
+        if (last == null) {
+            return null;
+        }
+        return slot.startsBeforeEndOf(last.getKey()) ? last.getValue() : null;
+    }
+}
@@ -0,0 +1,501 @@
+package service;
+
+import model.Task;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+// Инкрементальный полнотекстовый индекс по названиям и описаниям.
+// Текст нормализуется (NFKC, нижний регистр, ё -> е) и режется на слова из букв и цифр любого алфавита.
+// Словарь отсортирован, поэтому слово запроса совпадает со всеми терминами, которые с него начинаются.
+// Найдены должны быть все слова запроса; релевантность - сумма по словам запроса лучшего совпадения:
+// вес термина в документе (название весит больше описания) * редкость термина, префикс вдвое дешевле
+// целого слова.
+//
+// Документы термина разложены по корзинам веса. Поиск идёт от самого узкого слова запроса и перебирает
+// корзины от самых ценных; как только даже лучший возможный документ следующей корзины не обгоняет
+// limit-й найденный, перебор останавливается (приём MaxScore). Поэтому время запроса зависит от того,
+// сколько документов нужно просмотреть до первых limit результатов, а не от размера индекса.
+//
+// Документ помнит саму сущность, только если она добавлена через add(Task); add(id, title, description)
+// хранит лишь ID, и найденное отдаёт searchIds - так менеджер, который не держит объектов, не платит
+// за их копии в индексе.
+public class SearchIndex {
+    static final int TITLE_WEIGHT = 3; // Вхождение в название весит как три вхождения в описание
+    static final int MAX_WEIGHT = 15; // Вес термина в документе ограничен, чтобы корзин было немного
+    static final int MIN_PREFIX_LENGTH = 2; // Более короткие слова запроса совпадают только целиком
+    private static final double PREFIX_PENALTY = 0.5;
+    private static final int PARALLEL_THRESHOLD = 4096; // Меньшие пачки в addAll разбираются в текущем потоке
+    private static final int SHORT_TEXT_WORDS = 16; // До стольких слов повторы в тексте ищутся перебором
+
+    private final NavigableMap<String, Term> dictionary = new TreeMap<>();
+    private final IntHashMap<Document> documents = new IntHashMap<>(); // ID сущности -> документ
+    private List<? extends Task> deferred; // Пачка addAllLater, ещё не внесённая в индекс
+    private ForkJoinPool deferredPool;
+
+    // Термин словаря и его документы по корзинам веса
+    private static final class Term {
+        final String text;
+        IntHashMap<Document>[] byWeight = newBuckets(TITLE_WEIGHT + 1);
+        int size; // Число документов с термином
+
+        Term(String text) {
+            this.text = text;
+        }
+
+        void add(int weight, Document document) {
+            if (weight >= byWeight.length) {
+                byWeight = Arrays.copyOf(byWeight, weight + 1);
+            }
+            if (byWeight[weight] == null) {
+                byWeight[weight] = new IntHashMap<>(1);
+            }
+            byWeight[weight].put(document.id, document);
+            size++;
+        }
+
+        void remove(int weight, int id) {
+            if (byWeight[weight].remove(id) != null) {
+                size--;
+                if (byWeight[weight].isEmpty()) {
+                    byWeight[weight] = null;
+                }
+            }
+        }
+
+        int maxWeight() {
+            for (int weight = byWeight.length - 1; weight > 0; weight--) {
+                if (byWeight[weight] != null) {
+                    return weight;
+                }
+            }
+            return 0;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static IntHashMap<Document>[] newBuckets(int length) {
+            return new IntHashMap[length];
+        }
+    }
+
+    // Проиндексированная сущность: различные термины её текста и их веса
+    private static final class Document {
+        final int id;
+        final Task entity; // null, если документ добавлен только по ID
+        final String title; // Текст сущности на момент индексации, чтобы не переиндексировать без изменений
+        final String description;
+        final Term[] terms;
+        final int[] weights;
+
+        Document(int id, Task entity, Term[] terms, int[] weights) {
+            this.id = id;
+            this.entity = entity;
+            this.title = entity == null ? null : entity.getTitle();
+            this.description = entity == null ? null : entity.getDescription();
+            this.terms = terms;
+            this.weights = weights;
+        }
+    }
+
+    // Корзина термина ведущего слова запроса с одинаковым вкладом в релевантность
+    private static final class Segment {
+        final IntHashMap<Document> documents;
+        final double score;
+
+        Segment(IntHashMap<Document> documents, double score) {
+            this.documents = documents;
+            this.score = score;
+        }
+    }
+
+    // Различные слова текста сущности и их суммарные веса в порядке появления
+    private static final class Analysis {
+        final String[] words;
+        final int[] weights;
+
+        Analysis(String[] words, int[] weights) {
+            this.words = words;
+            this.weights = weights;
+        }
+    }
+
+    // Добавляет или переиндексирует сущность
+    public void add(Task entity) {
+        catchUp();
+        Document existing = documents.get(entity.getId());
+        if (existing != null) {
+            if (isIndexed(existing, entity)) {
+                return; // Текст не менялся (например, изменился только статус)
+            }
+            remove(entity.getId());
+        }
+        insert(entity.getId(), entity, analyze(entity.getTitle(), entity.getDescription()));
+    }
+
+    // Добавляет или переиндексирует текст сущности с ID id, не запоминая ни сущность, ни сам текст.
+    // Найти такой документ можно только через searchIds
+    public void add(int id, String title, String description) {
+        catchUp();
+        remove(id);
+        insert(id, null, analyze(title, description));
+    }
+
+    // Массовое добавление (например, после загрузки доски). Разбор текста на слова идёт параллельно в pool,
+    // а словарь, который не потокобезопасен, пополняется последовательно: слова пачки сначала собираются
+    // в хеш-таблицу, и новые термины вставляются в словарь один раз и по возрастанию, а не вразброс
+    // на каждое вхождение
+    public void addAll(List<? extends Task> entities, ForkJoinPool pool) {
+        catchUp();
+        List<Task> pending = new ArrayList<>(entities.size());
+        for (Task entity : entities) {
+            Document existing = documents.get(entity.getId());
+            if (existing != null) {
+                if (isIndexed(existing, entity)) {
+                    continue;
+                }
+                remove(entity.getId()); // До разбора, чтобы не сослаться на термин, который удалится из словаря
+            }
+            pending.add(entity);
+        }
+        List<Analysis> analyzed = pending.size() < PARALLEL_THRESHOLD
+                ? pending.stream().map(SearchIndex::analyze).toList()
+                : pool.submit(() -> pending.parallelStream().map(SearchIndex::analyze).toList()).join();
+
+        Map<String, Term> batchTerms = new HashMap<>();
+        List<Term> created = new ArrayList<>();
+        for (Analysis analysis : analyzed) {
+            for (String word : analysis.words) {
+                if (!batchTerms.containsKey(word)) {
+                    Term term = dictionary.get(word);
+                    if (term == null) {
+                        term = new Term(word);
+                        created.add(term);
+                    }
+                    batchTerms.put(word, term);
+                }
+            }
+        }
+        created.sort(Comparator.comparing(term -> term.text));
+        for (Term term : created) {
+            dictionary.put(term.text, term);
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            Analysis analysis = analyzed.get(i);
+            Term[] terms = new Term[analysis.words.length];
+            for (int j = 0; j < terms.length; j++) {
+                terms[j] = batchTerms.get(analysis.words[j]);
+            }
+            insert(pending.get(i).getId(), pending.get(i), terms, analysis.weights);
+        }
+    }
+
+    // То же, что addAll, но пачка индексируется при первом следующем обращении к индексу. Массовая загрузка
+    // не ждёт индексации, а сущности пачки до того времени менять можно: изменение само обращается к индексу
+    public void addAllLater(List<? extends Task> entities, ForkJoinPool pool) {
+        catchUp();
+        deferred = entities;
+        deferredPool = pool;
+    }
+
+    private void catchUp() {
+        if (deferred != null) {
+            List<? extends Task> entities = deferred;
+            deferred = null;
+            addAll(entities, deferredPool);
+        }
+    }
+
+    private static boolean isIndexed(Document document, Task entity) {
+        return document.entity == entity && document.title == entity.getTitle()
+                && document.description == entity.getDescription();
+    }
+
+    private static Analysis analyze(Task entity) {
+        return analyze(entity.getTitle(), entity.getDescription());
+    }
+
+    // Разбор текста сущности; не трогает индекс, поэтому безопасен из разных потоков.
+    // У задачи обычно несколько слов, и повторы ищутся перебором; хеш-таблица нужна только длинным текстам
+    private static Analysis analyze(String titleText, String descriptionText) {
+        List<String> title = tokenize(titleText);
+        List<String> description = tokenize(descriptionText);
+        String[] words = new String[title.size() + description.size()];
+        int[] weights = new int[words.length];
+        Map<String, Integer> positions = words.length > SHORT_TEXT_WORDS ? new HashMap<>() : null;
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            boolean inTitle = i < title.size();
+            String word = inTitle ? title.get(i) : description.get(i - title.size());
+            int j;
+            if (positions != null) {
+                j = positions.computeIfAbsent(word, w -> positions.size());
+            } else {
+                j = 0;
+                while (j < count && !words[j].equals(word)) {
+                    j++;
+                }
+            }
+            if (j == count) {
+                words[count++] = word;
+            }
+            weights[j] = Math.min(MAX_WEIGHT, weights[j] + (inTitle ? TITLE_WEIGHT : 1));
+        }
+        return new Analysis(Arrays.copyOf(words, count), Arrays.copyOf(weights, count));
+    }
+
+    private void insert(int id, Task entity, Analysis analysis) {
+        Term[] terms = new Term[analysis.words.length];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = dictionary.computeIfAbsent(analysis.words[i], Term::new);
+        }
+        insert(id, entity, terms, analysis.weights);
+    }
+
+    private void insert(int id, Task entity, Term[] terms, int[] weights) {
+        Document document = new Document(id, entity, terms, weights);
+        documents.put(id, document);
+        for (int i = 0; i < terms.length; i++) {
+            terms[i].add(weights[i], document);
+        }
+    }
+
+    public void remove(int id) {
+        catchUp();
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (int i = 0; i < document.terms.length; i++) {
+            Term term = document.terms[i];
+            term.remove(document.weights[i], id);
+            if (term.size == 0) {
+                dictionary.remove(term.text);
+            }
+        }
+    }
+
+    public void clear() {
+        deferred = null;
+        dictionary.clear();
+        documents.clear();
+    }
+
+    public int size() {
+        catchUp();
+        return documents.size();
+    }
+
+    // До limit сущностей, содержащих все слова запроса, в порядке убывания релевантности.
+    // При равной релевантности выше сущность с меньшим ID среди просмотренных.
+    // Документы, добавленные только по ID, в результат не попадают - их отдаёт searchIds
+    public List<Task> search(String query, int limit) {
+        Hit[] hits = find(query, limit);
+        List<Task> result = new ArrayList<>(hits.length);
+        for (Hit hit : hits) {
+            if (hit.document.entity != null) {
+                result.add(hit.document.entity);
+            }
+        }
+        return result;
+    }
+
+    // То же, что search, но только ID найденных сущностей
+    public int[] searchIds(String query, int limit) {
+        Hit[] hits = find(query, limit);
+        int[] ids = new int[hits.length];
+        for (int i = 0; i < hits.length; i++) {
+            ids[i] = hits[i].document.id;
+        }
+        return ids;
+    }
+
+    private Hit[] find(String query, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit не может быть отрицательным.");
+        }
+        catchUp();
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty() || limit == 0) {
+            return new Hit[0];
+        }
+
+        // Для каждого слова - подходящие термины и лучший возможный вклад; ведущее слово - самое узкое
+        List<List<Term>> matches = new ArrayList<>(words.size());
+        double[] maxScores = new double[words.size()];
+        int driver = -1;
+        long driverSize = Long.MAX_VALUE;
+        for (int w = 0; w < words.size(); w++) {
+            List<Term> terms = matchingTerms(words.get(w));
+            if (terms.isEmpty()) {
+                return new Hit[0]; // Слово не встречается нигде
+            }
+            long size = 0;
+            for (Term term : terms) {
+                size += term.size;
+                maxScores[w] = Math.max(maxScores[w], term.maxWeight() * termScore(term, words.get(w)));
+            }
+            if (size < driverSize) {
+                driverSize = size;
+                driver = w;
+            }
+            matches.add(terms);
+        }
+        double restBound = 0; // Лучший возможный вклад остальных слов
+        for (int w = 0; w < words.size(); w++) {
+            restBound += w == driver ? 0 : maxScores[w];
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        for (Term term : matches.get(driver)) {
+            double score = termScore(term, words.get(driver));
+            for (int weight = term.byWeight.length - 1; weight > 0; weight--) {
+                if (term.byWeight[weight] != null) {
+                    segments.add(new Segment(term.byWeight[weight], weight * score));
+                }
+            }
+        }
+        segments.sort((a, b) -> Double.compare(b.score, a.score));
+
+        // Минимальная куча из limit лучших; документ может лежать в нескольких терминах ведущего слова,
+        // первым он встретится в самой ценной корзине
+        PriorityQueue<Hit> top = new PriorityQueue<>();
+        IntHashMap<Document> seen = matches.get(driver).size() > 1 ? new IntHashMap<>() : null;
+        int driverWord = driver;
+        double rest = restBound;
+        for (Segment segment : segments) {
+            if (top.size() == limit && segment.score + rest <= top.peek().score) {
+                break; // Дальше только корзины, которые не могут попасть в результат
+            }
+            segment.documents.forEach(document -> {
+                if (seen != null && seen.put(document.id, document) != null) {
+                    return;
+                }
+                if (top.size() == limit && segment.score + rest <= top.peek().score) {
+                    return;
+                }
+                double score = segment.score;
+                if (rest > 0) {
+                    double others = scoreOtherWords(document, words, driverWord);
+                    if (others < 0) {
+                        return; // Не содержит какое-то из слов запроса
+                    }
+                    score += others;
+                }
+                top.offer(new Hit(document, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+        }
+
+        Hit[] hits = top.toArray(new Hit[0]);
+        Arrays.sort(hits, (a, b) -> b.compareTo(a));
+        return hits;
+    }
+
+    // Нормализованные слова текста в порядке появления
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = (needsNormalization(text) ? Normalizer.normalize(text, Normalizer.Form.NFKC) : text)
+                .toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            boolean wordChar = Character.isLetterOrDigit(codePoint)
+                    || start >= 0 && Character.getType(codePoint) == Character.NON_SPACING_MARK;
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            tokens.add(normalized.substring(start));
+        }
+        return tokens;
+    }
+
+    // ASCII и основной русский алфавит NFKC не меняет, поэтому такой текст нормализовать не нужно
+    private static boolean needsNormalization(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 && (c < 0x0400 || c > 0x045F)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Term> matchingTerms(String word) {
+        if (word.length() < MIN_PREFIX_LENGTH) {
+            Term exact = dictionary.get(word);
+            return exact == null ? new ArrayList<>() : List.of(exact);
+        }
+        return new ArrayList<>(dictionary.subMap(word, true, word + Character.MAX_VALUE, false).values());
+    }
+
+    // Вклад единицы веса термина: редкость термина, для совпадения по префиксу - со штрафом
+    private double termScore(Term term, String word) {
+        double idf = Math.log(1 + (double) documents.size() / term.size);
+        return term.text.length() == word.length() ? idf : idf * PREFIX_PENALTY;
+    }
+
+    // Сумма лучших совпадений слов запроса, кроме ведущего; -1, если какое-то слово не совпало
+    private double scoreOtherWords(Document document, List<String> words, int driver) {
+        double score = 0;
+        for (int w = 0; w < words.size(); w++) {
+            if (w == driver) {
+                continue;
+            }
+            String word = words.get(w);
+            double best = -1;
+            for (int i = 0; i < document.terms.length; i++) {
+                Term term = document.terms[i];
+                String text = term.text;
+                if (text.length() == word.length() ? text.equals(word)
+                        : word.length() >= MIN_PREFIX_LENGTH && text.startsWith(word)) {
+                    best = Math.max(best, document.weights[i] * termScore(term, word));
+                }
+            }
+            if (best < 0) {
+                return -1;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private static final class Hit implements Comparable<Hit> {
+        final Document document;
+        final double score;
+
+        Hit(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        // Меньше - хуже: ниже релевантность, а при равной - больший ID
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Integer.compare(other.document.id, document.id);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package service;
+
+import model.Status;
+import model.Task;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Хранилище сущностей по ID с дополнительным разбиением по статусу: для каждого статуса своя таблица,
+// поэтому подсчёт стоит O(1). Разделы - тоже PersistentIntMap: выборка по статусу - снимок раздела за O(1),
+// по возрастанию ID, как и у остальных менеджеров.
+// Раздел определяется статусом сущности в момент put; если статус или текст изменён у уже лежащего объекта,
+// его нужно переложить через refresh. Заодно поддерживается общий для всех хранилищ полнотекстовый индекс.
+// Основная таблица - PersistentIntMap, поэтому полный список values() - неизменяемый снимок за O(1).
+class StatusIndexedMap<T extends Task> {
+    private static final Status[] STATUSES = Status.values();
+
+    private final PersistentIntMap<T> all = new PersistentIntMap<>();
+    private final PersistentIntMap<T>[] byStatus;
+    private final SearchIndex searchIndex;
+
+    StatusIndexedMap(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+        byStatus = newPartitions(STATUSES.length);
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new PersistentIntMap<>();
+        }
+    }
+
+    int size() {
+        return all.size();
+    }
+
+    boolean isEmpty() {
+        return all.isEmpty();
+    }
+
+    T get(int id) {
+        return all.get(id);
+    }
+
+    boolean containsKey(int id) {
+        return all.containsKey(id);
+    }
+
+    T put(int id, T entity) {
+        if (entity.getStatus() == null) {
+            throw new IllegalArgumentException("Статус сущности с ID " + id + " не может быть null.");
+        }
+        T previous = all.put(id, entity);
+        unindex(id);
+        byStatus[entity.getStatus().ordinal()].put(id, entity);
+        searchIndex.add(entity);
+        return previous;
+    }
+
+    // Кладёт сущность с ещё не занятым ID без полнотекстовой индексации - для массовой загрузки,
+    // после которой вся пачка индексируется разом через SearchIndex.addAllLater
+    void putUnindexed(int id, T entity) {
+        if (entity.getStatus() == null) {
+            throw new IllegalArgumentException("Статус сущности с ID " + id + " не может быть null.");
+        }
+        all.put(id, entity);
+        byStatus[entity.getStatus().ordinal()].put(id, entity);
+    }
+
+    // Перекладывает сущность в раздел её текущего статуса и переиндексирует изменившийся текст
+    void refresh(T entity) {
+        put(entity.getId(), entity);
+    }
+
+    // Только перекладывает сущность в раздел её текущего статуса: текст не менялся, индекс не нужен
+    void refreshStatus(T entity) {
+        unindex(entity.getId());
+        byStatus[entity.getStatus().ordinal()].put(entity.getId(), entity);
+    }
+
+    T remove(int id) {
+        T previous = all.remove(id);
+        if (previous != null) {
+            unindex(id);
+            searchIndex.remove(id);
+        }
+        return previous;
+    }
+
+    void clear() {
+        if (searchIndex.size() == all.size()) {
+            searchIndex.clear(); // В индексе только сущности этого хранилища - сбрасываем его целиком
+        } else {
+            all.forEach(entity -> searchIndex.remove(entity.getId()));
+        }
+        all.clear();
+        for (PersistentIntMap<T> partition : byStatus) {
+            partition.clear();
+        }
+    }
+
+    // Снимок не видит последующих изменений хранилища; сами сущности в нём живые
+    List<T> values() {
+        return all.snapshot();
+    }
+
+    // Страница по курсору: до limit сущностей с ID больше afterId по возрастанию ID
+    List<T> page(int afterId, int limit) {
+        return all.snapshot().page(afterId, limit);
+    }
+
+    // Снимок раздела по возрастанию ID
+    List<T> values(Status status) {
+        return byStatus[status.ordinal()].snapshot();
+    }
+
+    // Лежит ли сущность в разделе своего текущего статуса; только читает таблицы, поэтому безопасно
+    // вызывается из нескольких потоков, пока хранилище не меняют
+    boolean isFiledUnderStatus(T entity) {
+        return entity.getStatus() != null && byStatus[entity.getStatus().ordinal()].get(entity.getId()) == entity;
+    }
+
+    int count(Status status) {
+        return byStatus[status.ordinal()].size();
+    }
+
+    void forEach(Consumer<? super T> action) {
+        all.forEach(action);
+    }
+
+    // Массив параметризованного типа создать нельзя, поэтому создаём сырой и приводим
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> PersistentIntMap<T>[] newPartitions(int length) {
+        return new PersistentIntMap[length];
+    }
+
+    // Статус, под которым сущность лежала раньше, неизвестен: объект мог быть изменён снаружи
+    private void unindex(int id) {
+        for (PersistentIntMap<T> partition : byStatus) {
+            if (partition.remove(id) != null) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package service;
+
+import model.TaskType;
+
+// Событие жизненного цикла сущности в менеджере задач. Событие не держит ссылку на саму сущность:
+// подписчик получает его асинхронно, когда сущность могла уже измениться, и при необходимости
+// запрашивает актуальное состояние у менеджера по ID.
+public final class TaskEvent {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED, // Удаление одной сущности; у эпика count учитывает и его подзадачи
+        CLEARED // deleteAll*: id равен 0, count - сколько сущностей удалено (может быть 0)
+    }
+
+    private final Kind kind;
+    private final TaskType type;
+    private final int id;
+    private final int count; // Сколько сущностей затронуто
+    private final long timestamp; // Момент изменения, System.currentTimeMillis()
+
+    TaskEvent(Kind kind, TaskType type, int id, int count) {
+        this.kind = kind;
+        this.type = type;
+        this.id = id;
+        this.count = count;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public static TaskEvent created(TaskType type, int id) {
+        return new TaskEvent(Kind.CREATED, type, id, 1);
+    }
+
+    public static TaskEvent updated(TaskType type, int id) {
+        return new TaskEvent(Kind.UPDATED, type, id, 1);
+    }
+
+    public static TaskEvent deleted(TaskType type, int id, int count) {
+        return new TaskEvent(Kind.DELETED, type, id, count);
+    }
+
+    public static TaskEvent cleared(TaskType type, int count) {
+        return new TaskEvent(Kind.CLEARED, type, 0, count);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{" +
+                "kind=" + kind +
+                ", type=" + type +
+                ", id=" + id +
+                ", count=" + count +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
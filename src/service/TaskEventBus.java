@@ -0,0 +1,172 @@
+package service;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Асинхронная доставка TaskEvent подписчикам. События лежат в кольцевом буфере фиксированного размера
+// без блокировок: писатели (их может быть несколько) занимают ячейку через CAS по счётчику tail,
+// а единственный поток доставки забирает ячейки по порядку и вызывает подписчиков.
+// publish никогда не ждёт: если буфер полон, потому что подписчики не успевают, событие отбрасывается
+// и учитывается в getDroppedCount(). Поток доставки засыпает на пустом буфере, и писатель будит его,
+// только если тот действительно спит, - в остальное время публикация стоит пару атомарных операций.
+public class TaskEventBus implements Closeable {
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int SPINS_BEFORE_PARK = 100; // Сколько раз поток доставки проверяет буфер перед сном
+
+    private final AtomicReferenceArray<TaskEvent> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Следующая ячейка для писателя
+    private volatile long head; // Следующая ячейка для потока доставки; пишет только он
+    private volatile long delivered; // Сколько событий уже передано подписчикам
+    private final AtomicBoolean sleeping = new AtomicBoolean(); // Поток доставки спит на пустом буфере
+    private volatile boolean closed;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final List<TaskListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread consumer;
+
+    // Поток доставки запускается фабрикой, а не конструктором: так он не увидит недостроенный объект
+    private TaskEventBus(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ёмкость буфера событий должна быть от 1 до 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.consumer = new Thread(this::deliverLoop, "task-events");
+        consumer.setDaemon(true);
+    }
+
+    public static TaskEventBus start() {
+        return start(DEFAULT_CAPACITY);
+    }
+
+    // Создаёт шину и запускает поток доставки; ёмкость округляется вверх до степени двойки
+    public static TaskEventBus start(int capacity) {
+        TaskEventBus bus = new TaskEventBus(capacity);
+        bus.consumer.start();
+        return bus;
+    }
+
+    public void subscribe(TaskListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Подписчик не может быть null.");
+        }
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(TaskListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Ставит событие в очередь на доставку; false, если буфер полон или шина закрыта
+    public boolean publish(TaskEvent event) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        // Обычная volatile-запись, а не lazySet: она не должна переставиться с чтением sleeping ниже,
+        // иначе поток доставки может уснуть, не увидев события
+        slots.set((int) sequence & mask, event);
+        if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    // Ждёт, пока подписчики получат все события, опубликованные до вызова; false, если время вышло
+    public boolean flush(long timeout, TimeUnit unit) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (delivered < target) {
+            if (System.nanoTime() - deadline >= 0 || !consumer.isAlive()) {
+                return delivered >= target;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    // Новые события больше не принимаются; уже опубликованные доставляются, после чего поток завершается.
+    // Событие, которое публикуется одновременно с закрытием, может потеряться
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverLoop() {
+        int idle = 0;
+        while (true) {
+            long sequence = head;
+            int index = (int) sequence & mask;
+            TaskEvent event = slots.get(index);
+            if (event != null) {
+                // Ячейка освобождается раньше, чем сдвигается head: писатель, увидевший новый head, найдёт её пустой
+                slots.lazySet(index, null);
+                head = sequence + 1;
+                dispatch(event);
+                delivered = sequence + 1;
+                idle = 0;
+            } else if (sequence == tail.get() && closed) {
+                return; // Всё опубликованное доставлено
+            } else if (++idle < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                // Сначала объявляем сон, потом перепроверяем буфер: писатель, опубликовавший событие
+                // между проверкой и засыпанием, увидит флаг и разбудит нас
+                sleeping.set(true);
+                if (slots.get(index) == null && !closed) {
+                    LockSupport.park(this);
+                }
+                sleeping.set(false);
+                idle = 0;
+            }
+        }
+    }
+
+    private void dispatch(TaskEvent event) {
+        for (TaskListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                failures.increment(); // Ошибка подписчика не должна останавливать доставку
+            }
+        }
+    }
+}
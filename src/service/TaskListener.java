@@ -0,0 +1,10 @@
+package service;
+
+// Подписчик на события менеджера задач. Вызывается из потока доставки TaskEventBus, а не из потока,
+// который изменил менеджер, поэтому может работать медленно, не задерживая вызывающего.
+// Исключение подписчика не мешает доставке остальным: оно учитывается в TaskEventBus.getFailureCount().
+@FunctionalInterface
+public interface TaskListener {
+
+    void onEvent(TaskEvent event);
+}
@@ -1,13 +1,21 @@
 package service;
 
 import model.Epic;
+import model.Status;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public interface TaskManager {
 
+    // Полные списки. InMemoryTaskManager и ConcurrentTaskManager отдают неизменяемый снимок за O(1),
+    // который не видит последующих добавлений и удалений; менять сам список нельзя
     List<Task> getTasks();
 
     List<Epic> getEpics();
@@ -16,6 +24,104 @@ public interface TaskManager {
 
     List<Subtask> getEpicSubtasks(int epicId);
 
+    // Ленивые потоки по возрастанию ID. Менеджеры со снимками и ColumnarTaskManager идут прямо
+    // по хранилищу, не собирая список; реализация по умолчанию сортирует полный список
+    default Stream<Task> streamTasks() {
+        return sortedById(getTasks());
+    }
+
+    default Stream<Epic> streamEpics() {
+        return sortedById(getEpics());
+    }
+
+    default Stream<Subtask> streamSubtasks() {
+        return sortedById(getSubtasks());
+    }
+
+    // Страницы по курсору: до limit сущностей с ID больше afterId по возрастанию ID. Следующая страница
+    // запрашивается с ID последней сущности предыдущей, поэтому добавления и удаления между запросами
+    // не сдвигают страницы; первая страница - afterId = 0
+    default List<Task> getTasks(int afterId, int limit) {
+        return page(streamTasks(), afterId, limit);
+    }
+
+    default List<Epic> getEpics(int afterId, int limit) {
+        return page(streamEpics(), afterId, limit);
+    }
+
+    default List<Subtask> getSubtasks(int afterId, int limit) {
+        return page(streamSubtasks(), afterId, limit);
+    }
+
+    // Выборки по статусу. Реализация по умолчанию фильтрует полный список, менеджеры с индексом
+    // по статусам отвечают за время, пропорциональное размеру результата
+    default List<Task> getTasksByStatus(Status status) {
+        return filterByStatus(getTasks(), status);
+    }
+
+    default List<Epic> getEpicsByStatus(Status status) {
+        return filterByStatus(getEpics(), status);
+    }
+
+    default List<Subtask> getSubtasksByStatus(Status status) {
+        return filterByStatus(getSubtasks(), status);
+    }
+
+    default int countByStatus(TaskType type, Status status) {
+        switch (type) {
+            case EPIC:
+                return getEpicsByStatus(status).size();
+            case SUBTASK:
+                return getSubtasksByStatus(status).size();
+            default:
+                return getTasksByStatus(status).size();
+        }
+    }
+
+    // Количество сущностей типа type. Менеджеры из этого пакета отвечают за O(1), не собирая список
+    default int count(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return getEpics().size();
+            case SUBTASK:
+                return getSubtasks().size();
+            default:
+                return getTasks().size();
+        }
+    }
+
+    // Полнотекстовый поиск по названиям и описаниям: до limit сущностей, содержащих все слова запроса
+    // (целиком или как префикс), в порядке убывания релевантности. Все менеджеры проекта ведут индекс
+    // инкрементально; реализация по умолчанию строит его заново на каждый вызов, за O(N), и годится
+    // только для небольших досок и заглушек
+    default List<Task> search(String query, int limit) {
+        SearchIndex index = new SearchIndex();
+        getTasks().forEach(index::add);
+        getEpics().forEach(index::add);
+        getSubtasks().forEach(index::add);
+        return index.search(query, limit);
+    }
+
+    // Запланированные задачи и подзадачи (со временем начала) по возрастанию времени начала; эпики и задачи
+    // без времени в список не входят. Реализация по умолчанию каждый раз сортирует полные списки;
+    // InMemoryTaskManager ведёт расписание при каждом изменении и отклоняет пересекающиеся по времени задачи
+    default List<Task> getPrioritizedTasks() {
+        List<Task> scheduled = new ArrayList<>();
+        for (Task task : getTasks()) {
+            if (task.getStartTime() != null) {
+                scheduled.add(task);
+            }
+        }
+        for (Subtask subtask : getSubtasks()) {
+            if (subtask.getStartTime() != null) {
+                scheduled.add(subtask);
+            }
+        }
+        scheduled.sort(Comparator.comparing(Task::getStartTime).thenComparing(Task::getEndTime)
+                .thenComparingInt(Task::getId));
+        return scheduled;
+    }
+
     Task getTask(int id);
 
     Subtask getSubtask(int id);
@@ -40,6 +146,7 @@ public interface TaskManager {
 
     void deleteSubtask(int id);
 
+    // Просмотренные сущности от давних к последним, в текущем состоянии (а не на момент просмотра)
     List<Task> getHistory();
 
     void deleteAllTasks();
@@ -48,4 +155,73 @@ public interface TaskManager {
 
     void deleteAllSubtasks();
 
+    // Применяет пакет изменений и возвращает ID сущности для каждой операции в том же порядке.
+    // Ссылки Mutation.added(N) заменяются ID, назначенными раньше в том же пакете.
+    // Реализация по умолчанию выполняет операции по одной и при ошибке оставляет уже применённые.
+    default int[] applyBatch(List<Mutation> batch) {
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Mutation mutation = batch.get(i);
+            Task entity = mutation.getEntity();
+            int id = mutation.bind(batch, ids, i);
+            switch (mutation.getKind()) {
+                case ADD:
+                    if (entity instanceof Subtask) {
+                        ids[i] = addNewSubtask((Subtask) entity);
+                    } else if (entity instanceof Epic) {
+                        ids[i] = addNewEpic((Epic) entity);
+                    } else {
+                        ids[i] = addNewTask(entity);
+                    }
+                    break;
+                case UPDATE:
+                    if (entity instanceof Subtask) {
+                        updateSubtask((Subtask) entity);
+                    } else if (entity instanceof Epic) {
+                        updateEpic((Epic) entity);
+                    } else {
+                        updateTask(entity);
+                    }
+                    ids[i] = entity.getId();
+                    break;
+                case DELETE:
+                    switch (mutation.getType()) {
+                        case TASK:
+                            deleteTask(id);
+                            break;
+                        case EPIC:
+                            deleteEpic(id);
+                            break;
+                        case SUBTASK:
+                            deleteSubtask(id);
+                            break;
+                    }
+                    ids[i] = id;
+                    break;
+            }
+        }
+        return ids;
+    }
+
+    private static <T extends Task> Stream<T> sortedById(List<T> entities) {
+        return entities.stream().sorted(Comparator.comparingInt(Task::getId));
+    }
+
+    private static <T extends Task> List<T> page(Stream<T> entities, int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit не может быть отрицательным.");
+        }
+        return entities.filter(entity -> entity.getId() > afterId).limit(limit).collect(Collectors.toList());
+    }
+
+    private static <T extends Task> List<T> filterByStatus(List<T> entities, Status status) {
+        List<T> result = new ArrayList<>();
+        for (T entity : entities) {
+            if (entity.getStatus() == status) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
 }
\ No newline at end of file
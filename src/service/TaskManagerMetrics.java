@@ -0,0 +1,70 @@
+package service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Снимок метрик InstrumentedTaskManager: размеры хранилищ и истории плюс сводки по каждому методу.
+// Объект неизменяемый; за свежими значениями нужно снова вызвать getMetrics().
+public final class TaskManagerMetrics {
+    private final int taskCount;
+    private final int epicCount;
+    private final int subtaskCount;
+    private final int historySize;
+    private final List<OperationStats> operations;
+
+    TaskManagerMetrics(int taskCount, int epicCount, int subtaskCount, int historySize,
+                       List<OperationStats> operations) {
+        this.taskCount = taskCount;
+        this.epicCount = epicCount;
+        this.subtaskCount = subtaskCount;
+        this.historySize = historySize;
+        this.operations = Collections.unmodifiableList(operations);
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public int getEpicCount() {
+        return epicCount;
+    }
+
+    public int getSubtaskCount() {
+        return subtaskCount;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public List<OperationStats> getOperations() {
+        return operations;
+    }
+
+    // Сводка по методу; перегрузки со страницами называются getTasksPage, getEpicsPage, getSubtasksPage
+    public OperationStats getOperation(String name) {
+        for (OperationStats stats : operations) {
+            if (stats.getName().equals(name)) {
+                return stats;
+            }
+        }
+        throw new NoSuchElementException("Метод " + name + " не отслеживается.");
+    }
+
+    public long getTotalCalls() {
+        long total = 0;
+        for (OperationStats stats : operations) {
+            total += stats.getCalls();
+        }
+        return total;
+    }
+
+    public long getTotalErrors() {
+        long total = 0;
+        for (OperationStats stats : operations) {
+            total += stats.getErrors();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,23 @@
+package service;
+
+import java.util.List;
+
+// Метрики InstrumentedTaskManager для JMX (jconsole, VisualVM, агенты мониторинга).
+// Значения считаются при каждом чтении атрибута, поэтому всегда актуальны.
+public interface TaskManagerMetricsMXBean {
+
+    int getTaskCount();
+
+    int getEpicCount();
+
+    int getSubtaskCount();
+
+    int getHistorySize();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    // Сводки по методам в порядке объявления в TaskManager; в JMX видны как массив CompositeData
+    List<OperationStats> getOperations();
+}
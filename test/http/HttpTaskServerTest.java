@@ -0,0 +1,281 @@
+package http;
+
+import model.Epic;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.ConcurrentHistoryManager;
+import service.ConcurrentTaskManager;
+import service.TaskManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerTest {
+
+    private TaskManager manager;
+    private HttpTaskServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new ConcurrentTaskManager(new ConcurrentHistoryManager());
+        server = start(manager, 16, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void tasks_ShouldSupportCreateReadUpdateDelete() throws Exception {
+        HttpResponse<String> created = send("POST", "/tasks",
+                "{\"title\":\"Купить \\\"молоко\\\"\",\"description\":\"2 л\",\"status\":\"NEW\"}");
+        assertEquals(201, created.statusCode());
+        assertEquals("{\"id\":1}", created.body());
+
+        HttpResponse<String> task = send("GET", "/tasks/1", null);
+        assertEquals(200, task.statusCode());
+        assertEquals("{\"id\":1,\"type\":\"TASK\",\"title\":\"Купить \\\"молоко\\\"\",\"description\":\"2 л\","
+                + "\"status\":\"NEW\"}", task.body());
+
+        assertEquals(200, send("POST", "/tasks", "{\"id\":1,\"title\":\"t\",\"status\":\"DONE\"}").statusCode());
+        assertEquals("DONE", manager.getTask(1).getStatus().name());
+        assertTrue(send("GET", "/tasks?status=DONE", null).body().contains("\"id\":1"));
+        assertEquals("{\"count\":1}", send("GET", "/tasks/count", null).body());
+        assertEquals(1, countOccurrences(send("GET", "/history", null).body(), "\"id\":1"));
+
+        assertEquals(204, send("DELETE", "/tasks/1", null).statusCode());
+        assertEquals(404, send("GET", "/tasks/1", null).statusCode());
+        assertEquals("[]", send("GET", "/tasks", null).body());
+    }
+
+    @Test
+    void epics_ShouldExposeSubtasksPagesAndBatch() throws Exception {
+        assertEquals(201, send("POST", "/epics", "{\"title\":\"Эпик\"}").statusCode());
+        assertEquals(201, send("POST", "/subtasks", "{\"title\":\"a\",\"status\":\"DONE\",\"epicId\":1}").statusCode());
+        assertEquals(201, send("POST", "/subtasks", "{\"title\":\"b\",\"status\":\"DONE\",\"epicId\":1}").statusCode());
+
+        assertTrue(send("GET", "/epics/1", null).body().contains("\"status\":\"DONE\""));
+        assertEquals(2, countOccurrences(send("GET", "/epics/1/subtasks", null).body(), "\"epicId\":1"));
+        String page = send("GET", "/subtasks?afterId=2&limit=5", null).body();
+        assertEquals(1, countOccurrences(page, "\"id\""));
+        assertTrue(page.contains("\"id\":3"));
+
+        HttpResponse<String> batch = send("POST", "/batch", "[{\"kind\":\"ADD\",\"entity\":{\"type\":\"TASK\","
+                + "\"title\":\"x\"}},{\"kind\":\"DELETE\",\"type\":\"SUBTASK\",\"id\":2}]");
+        assertEquals(200, batch.statusCode());
+        assertEquals("{\"ids\":[4,2]}", batch.body());
+        assertEquals(List.of(4), manager.getTasks().stream().map(Task::getId).toList());
+
+        assertTrue(send("GET", "/search?q=%D1%8D%D0%BF%D0%B8%D0%BA", null).body().contains("\"id\":1"));
+        assertEquals(204, send("DELETE", "/epics", null).statusCode());
+        assertTrue(manager.getSubtasks().isEmpty());
+    }
+
+    @Test
+    void epics_ShouldNotAcceptSubtasksOrStatusFromRequestBody() throws Exception {
+        assertEquals(400, send("POST", "/epics",
+                "{\"title\":\"e\",\"status\":\"DONE\",\"subtasks\":[{\"id\":77,\"status\":\"DONE\"}]}").statusCode());
+        assertTrue(manager.getEpics().isEmpty());
+
+        assertEquals(201, send("POST", "/epics", "{\"title\":\"e\",\"status\":\"DONE\"}").statusCode());
+        Epic epic = manager.getEpics().get(0);
+        assertEquals(Status.NEW, epic.getStatus());
+        assertTrue(epic.getSubtasks().isEmpty());
+    }
+
+    @Test
+    void prioritized_ShouldListScheduledTasksByStartTime() throws Exception {
+        send("POST", "/tasks", "{\"title\":\"поздно\",\"startTime\":\"2026-10-18T12:00\",\"duration\":\"PT1H\"}");
+        send("POST", "/tasks", "{\"title\":\"без времени\"}");
+        send("POST", "/tasks", "{\"title\":\"рано\",\"startTime\":\"2026-10-18T09:00\",\"duration\":\"PT30M\"}");
+
+        HttpResponse<String> prioritized = send("GET", "/prioritized", null);
+        assertEquals(200, prioritized.statusCode());
+        String body = prioritized.body();
+        assertEquals(2, countOccurrences(body, "\"startTime\""));
+        assertTrue(body.indexOf("\"id\":3") < body.indexOf("\"id\":1"), body);
+        assertTrue(body.contains("\"endTime\":\"2026-10-18T09:30\""));
+        assertEquals(400, send("POST", "/tasks", "{\"title\":\"t\",\"duration\":\"завтра\"}").statusCode());
+        assertEquals(400, send("POST", "/tasks",
+                "{\"title\":\"занято\",\"startTime\":\"2026-10-18T09:15\",\"duration\":\"PT5M\"}").statusCode());
+    }
+
+    @Test
+    void errors_ShouldMapToStatusCodes() throws Exception {
+        assertEquals(404, send("GET", "/epics/42", null).statusCode());
+        assertEquals(404, send("GET", "/tasksx", null).statusCode());
+        assertEquals(400, send("GET", "/tasks/abc", null).statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"title\":").statusCode());
+        assertEquals(400, send("POST", "/subtasks", "{\"title\":\"no epic\"}").statusCode());
+        assertEquals(400, send("GET", "/tasks?status=LATER", null).statusCode());
+        assertEquals(405, send("PUT", "/tasks", "{}").statusCode());
+        assertTrue(send("GET", "/epics/42", null).body().startsWith("{\"error\":"));
+    }
+
+    @Test
+    void connection_ShouldStayOpenBetweenRequests() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            for (int i = 0; i < 3; i++) {
+                out.write("GET /tasks HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                assertEquals("HTTP/1.1 200 OK", in.readLine());
+                int length = -1;
+                for (String line = in.readLine(); !line.isEmpty(); line = in.readLine()) {
+                    if (line.toLowerCase().startsWith("content-length:")) {
+                        length = Integer.parseInt(line.substring(15).trim());
+                    }
+                }
+                char[] body = new char[length];
+                assertEquals(length, in.read(body));
+                assertEquals("[]", new String(body));
+            }
+        }
+    }
+
+    @Test
+    void oversizedBody_ShouldGet413AndCloseConnectionWithoutReadingIt() throws Exception {
+        String atLimit = "{\"title\":\"" + "x".repeat(BaseHttpHandler.MAX_BODY_BYTES - 12) + "\"}";
+        assertEquals(201, send("POST", "/tasks", atLimit).statusCode());
+
+        // Тело по частям без Content-Length читается только до предела
+        HttpResponse<String> chunked = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(
+                        (atLimit + " ").getBytes(StandardCharsets.UTF_8))))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(413, chunked.statusCode());
+        assertEquals(1, manager.getTasks().size());
+
+        // Заявленный гигабайт не читается: ответ 413 уходит сразу, и соединение закрывается. Клиент посылает
+        // 64 КиБ - столько встроенный сервер дочитывает при закрытии обмена, поэтому закрытие проходит без сброса
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5_000);
+            OutputStream out = socket.getOutputStream();
+            out.write("POST /tasks HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1073741824\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.write(new byte[64 * 1024]);
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("HTTP/1.1 413 Request Entity Too Large", in.readLine());
+            String line = in.readLine();
+            while (line != null) {
+                line = in.readLine(); // Ответ читается до конца: сервер закрывает соединение, а не ждёт тело
+            }
+        }
+        assertEquals(1, manager.getTasks().size());
+    }
+
+    @Test
+    void server_ShouldRejectRequestsBeyondQueueLimit() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskManager slow = new ConcurrentTaskManager(new ConcurrentHistoryManager()) {
+            @Override
+            public List<Task> getTasks() {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getTasks();
+            }
+        };
+        try (HttpTaskServer limited = start(slow, 1, 0)) {
+            CompletableFuture<HttpResponse<String>> first = client.sendAsync(
+                    request("GET", limited.getPort(), "/tasks", null), HttpResponse.BodyHandlers.ofString());
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            HttpResponse<String> rejected = client.send(request("GET", limited.getPort(), "/tasks", null),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, rejected.statusCode());
+            assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null));
+
+            // Длинное тело отклонённого запроса не дочитывается - соединение закрывается после ответа
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), limited.getPort())) {
+                socket.setSoTimeout(5_000);
+                OutputStream out = socket.getOutputStream();
+                out.write("POST /tasks HTTP/1.1\r\nHost: localhost\r\nContent-Length: 1073741824\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.write(new byte[64 * 1024]);
+                out.flush();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                assertEquals("HTTP/1.1 503 Service Unavailable", in.readLine());
+                String line = in.readLine();
+                while (line != null) {
+                    line = in.readLine();
+                }
+            }
+
+            release.countDown();
+            assertEquals(200, first.get(5, TimeUnit.SECONDS).statusCode());
+        }
+    }
+
+    @Test
+    void unexpectedError_ShouldReturnGenericMessageWithoutDetails() throws Exception {
+        server.close();
+        manager = new ConcurrentTaskManager(new ConcurrentHistoryManager()) {
+            @Override
+            public List<Task> getHistory() {
+                throw new IllegalStateException("Не удалось открыть /var/lib/tasks/history.db");
+            }
+        };
+        server = start(manager, 16, 16);
+
+        HttpResponse<String> response = send("GET", "/history", null);
+        assertEquals(500, response.statusCode());
+        assertEquals("{\"error\":\"Внутренняя ошибка сервера.\"}", response.body());
+    }
+
+    private static HttpTaskServer start(TaskManager manager, int maxConcurrent, int maxQueued) throws IOException {
+        HttpTaskServer server = new HttpTaskServer(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                maxConcurrent, maxQueued);
+        server.start();
+        return server;
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, server.getPort(), path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest request(String method, int port, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static int countOccurrences(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
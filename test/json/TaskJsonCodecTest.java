@@ -0,0 +1,139 @@
+package json;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonCodecTest {
+
+    private final TaskJsonCodec codec = new TaskJsonCodec();
+
+    @Test
+    void encode_ShouldWriteFieldsInFixedOrder() {
+        assertEquals("{\"id\":7,\"type\":\"SUBTASK\",\"title\":\"a\",\"description\":null,\"status\":\"DONE\",\"epicId\":3}",
+                string(codec.encode(new Subtask(7, "a", null, Status.DONE, 3))));
+        assertEquals("[{\"id\":1,\"type\":\"TASK\",\"title\":\"t\",\"description\":\"d\",\"status\":\"NEW\"}]",
+                string(codec.encode(List.of(new Task(1, "t", "d", Status.NEW)))));
+    }
+
+    @Test
+    void roundTrip_ShouldPreserveEscapesAndUnicode() {
+        String title = "\"кавычки\" \\ / \n\t\u0001 € 😀";
+        Task task = new Task(Integer.MAX_VALUE, title, "описание", Status.IN_PROGRESS);
+        byte[] json = codec.encode(task);
+
+        assertArrayEquals(json, new String(json, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8));
+        assertTrue(string(json).contains("\\u0001"));
+        Task decoded = codec.decode(json, null);
+        assertEquals(title, decoded.getTitle());
+        assertEquals("описание", decoded.getDescription());
+        assertEquals(Status.IN_PROGRESS, decoded.getStatus());
+        assertEquals(Integer.MAX_VALUE, decoded.getId());
+        assertEquals("Aé", codec.decode(bytes("{\"type\":\"TASK\",\"title\":\"\\u0041\\u00e9\"}"), null).getTitle());
+    }
+
+    @Test
+    void epic_ShouldRoundTripWithNestedSubtasks() {
+        Epic epic = new Epic(1, "Эпик", "e", Status.IN_PROGRESS);
+        epic.addSubtask(new Subtask(2, "a", "x", Status.DONE, 1));
+        epic.addSubtask(new Subtask(3, "b", "y", Status.IN_PROGRESS, 1));
+        TaskJsonCodec withSubtasks = new TaskJsonCodec(true);
+
+        Epic decoded = (Epic) withSubtasks.decode(withSubtasks.encode(epic), TaskType.EPIC);
+
+        assertEquals(epic.getSubtasks(), decoded.getSubtasks());
+        assertEquals(Status.IN_PROGRESS, decoded.calculateStatus());
+        assertFalse(string(codec.encode(epic)).contains("subtasks"), "Без includeSubtasks подзадачи не пишутся");
+
+        // Внутри эпика epicId можно опустить, а чужой epicId - ошибка
+        Epic implicit = (Epic) withSubtasks.decode(bytes("{\"subtasks\":[{\"id\":5}],\"id\":4,\"type\":\"EPIC\"}"), null);
+        assertEquals(4, implicit.getSubtasks().get(0).getEpicId());
+        assertThrows(IllegalArgumentException.class,
+                () -> withSubtasks.decode(bytes("{\"id\":4,\"subtasks\":[{\"id\":5,\"epicId\":9}]}"), TaskType.EPIC));
+        assertThrows(IllegalArgumentException.class,
+                () -> withSubtasks.decode(bytes("{\"id\":4,\"subtasks\":[]}"), TaskType.TASK));
+    }
+
+    @Test
+    void decode_WithoutIncludeSubtasks_ShouldRejectNestedSubtasks() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(
+                bytes("{\"id\":4,\"status\":\"DONE\",\"subtasks\":[{\"id\":77,\"status\":\"DONE\"}]}"), TaskType.EPIC));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(bytes("{\"id\":4,\"subtasks\":[]}"), TaskType.EPIC));
+
+        Epic epic = (Epic) codec.decode(bytes("{\"id\":4,\"title\":\"e\",\"subtasks\":null}"), TaskType.EPIC);
+        assertTrue(epic.getSubtasks().isEmpty());
+    }
+
+    @Test
+    void decode_ShouldSkipDeeplyNestedUnknownFieldsWithoutRecursion() {
+        int depth = 200_000;
+        StringBuilder json = new StringBuilder("{\"extra\":");
+        json.append("[{\"k\":".repeat(depth)).append("null").append("}]".repeat(depth));
+        json.append(",\"title\":\"ok\",\"type\":\"TASK\"}");
+
+        assertEquals("ok", codec.decode(bytes(json.toString()), null).getTitle());
+        assertThrows(IllegalArgumentException.class, () -> new JsonReader(bytes("[".repeat(depth))).skipValue());
+    }
+
+    @Test
+    void time_ShouldRoundTripAsIsoStrings() {
+        Subtask subtask = new Subtask(2, "a", null, Status.NEW, 1, LocalDateTime.of(2026, 10, 18, 9, 0),
+                Duration.ofMinutes(90));
+        byte[] json = codec.encode(subtask);
+
+        assertTrue(string(json).endsWith(
+                ",\"startTime\":\"2026-10-18T09:00\",\"duration\":\"PT1H30M\",\"endTime\":\"2026-10-18T10:30\"}"));
+        Task decoded = codec.decode(json, TaskType.SUBTASK);
+        assertEquals(subtask.getStartTime(), decoded.getStartTime());
+        assertEquals(subtask.getDuration(), decoded.getDuration());
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(bytes("{\"type\":\"TASK\",\"startTime\":\"завтра\"}"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode(bytes("{\"type\":\"TASK\",\"duration\":\"1h\"}"), null));
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"title\":"), TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"title\":\"a\"} x"), TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"id\":1.5}"), TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"id\":3000000000}"), TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"title\":\"a\"}"), null));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"title\":\"a\"}"), TaskType.SUBTASK));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"status\":\"LATER\"}"), TaskType.TASK));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(bytes("{\"title\":\"a\nb\"}"), TaskType.TASK));
+    }
+
+    @Test
+    void writer_ShouldBeReusableAfterReset() {
+        JsonWriter writer = new JsonWriter(16);
+        codec.write(writer, new Task(1, "x".repeat(100), null, Status.NEW));
+        byte[] buffer = writer.buffer();
+
+        writer.reset();
+        codec.write(writer, new Task(2, "y", null, Status.NEW));
+
+        assertSame(buffer, writer.buffer(), "Буфер переиспользуется после reset()");
+        assertEquals("{\"id\":2,\"type\":\"TASK\",\"title\":\"y\",\"description\":null,\"status\":\"NEW\"}",
+                string(writer.toByteArray()));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] json) {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,16 @@
 package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EpicTest {
 
@@ -64,6 +71,119 @@ class EpicTest {
     }
 
 
+    @Test
+    void testCalculateStatus() {
+        assertEquals(Status.NEW, epic.calculateStatus(), "Epic without subtasks should be NEW.");
+
+        Subtask subtask1 = new Subtask(2, "Subtask 1", "Description 1", Status.DONE, 1);
+        Subtask subtask2 = new Subtask(3, "Subtask 2", "Description 2", Status.NEW, 1);
+        epic.addSubtask(subtask1);
+        epic.addSubtask(subtask2);
+        assertEquals(Status.NEW, epic.calculateStatus(), "NEW and DONE subtasks should give NEW.");
+
+        // Обновление учитывает переход старого статуса в новый
+        epic.updateSubtask(new Subtask(3, "Subtask 2", "Description 2", Status.IN_PROGRESS, 1));
+        assertEquals(Status.IN_PROGRESS, epic.calculateStatus(), "An IN_PROGRESS subtask should give IN_PROGRESS.");
+
+        epic.updateSubtask(new Subtask(3, "Subtask 2", "Description 2", Status.DONE, 1));
+        assertEquals(Status.DONE, epic.calculateStatus(), "All DONE subtasks should give DONE.");
+
+        epic.removeSubtask(2);
+        epic.removeSubtask(3);
+        assertEquals(Status.NEW, epic.calculateStatus(), "Epic should become NEW after all subtasks are removed.");
+    }
+
+    @Test
+    void testClearSubtasks() {
+        epic.addSubtask(new Subtask(2, "Subtask Title", "Subtask Description", Status.DONE, 1));
+
+        epic.clearSubtasks();
+
+        assertEquals(0, epic.getSubtasks().size(), "Subtask list should be empty after clear.");
+        assertEquals(Status.NEW, epic.calculateStatus(), "Epic should be NEW after clear.");
+    }
+
+    @Test
+    void testUpdateSubtaskKeepsOrder() {
+        for (int id = 2; id <= 5; id++) {
+            epic.addSubtask(new Subtask(id, "Subtask " + id, "", Status.NEW, 1));
+        }
+        epic.updateSubtask(new Subtask(3, "Updated", "", Status.DONE, 1));
+        epic.addSubtask(new Subtask(2, "Added again", "", Status.NEW, 1)); // Повторное добавление - замена
+
+        List<Subtask> subtasks = epic.getSubtasks();
+        assertEquals(4, subtasks.size(), "Replacing a subtask should not duplicate it.");
+        assertEquals(List.of(2, 3, 4, 5), ids(subtasks), "Updated subtasks should stay in place.");
+        assertEquals("Updated", subtasks.get(1).getTitle());
+        assertEquals("Added again", subtasks.get(0).getTitle());
+    }
+
+    @Test
+    void testGetSubtasksIsReadOnlyLiveView() {
+        List<Subtask> subtasks = epic.getSubtasks();
+        Subtask subtask = new Subtask(2, "Subtask", "", Status.NEW, 1);
+        epic.addSubtask(subtask);
+
+        assertEquals(1, subtasks.size(), "The view should reflect later additions.");
+        assertTrue(subtasks.contains(subtask));
+        assertThrows(UnsupportedOperationException.class, () -> subtasks.add(subtask));
+        assertThrows(UnsupportedOperationException.class, () -> subtasks.remove(0));
+        assertThrows(UnsupportedOperationException.class, subtasks::clear);
+
+        Iterator<Subtask> iterator = subtasks.iterator();
+        epic.removeSubtask(2);
+        assertFalse(subtasks.contains(subtask));
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    void testLargeEpicIndexAccessAndRemoval() {
+        int count = 50_000;
+        for (int id = 2; id < count + 2; id++) {
+            epic.addSubtask(new Subtask(id, "Subtask", "", Status.DONE, 1));
+        }
+        for (int id = 3; id < count + 2; id += 2) {
+            epic.removeSubtask(id); // Удаляем каждую вторую подзадачу
+        }
+        List<Subtask> subtasks = epic.getSubtasks();
+        assertEquals(count / 2, subtasks.size());
+        assertEquals(2, subtasks.get(0).getId());
+        assertEquals(count, subtasks.get(subtasks.size() - 1).getId());
+        assertEquals(2 + 2 * 100, subtasks.get(100).getId());
+        ListIterator<Subtask> backwards = subtasks.listIterator(subtasks.size());
+        assertEquals(count, backwards.previous().getId());
+        assertEquals(count - 2, backwards.previous().getId());
+        assertEquals(Status.DONE, epic.calculateStatus());
+    }
+
+    @Test
+    void testSparseIdsAreFoundAfterRemovalAndReplacement() {
+        List<Subtask> added = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            Subtask subtask = new Subtask(i << 16, "Subtask", "", Status.NEW, 1); // ID с одинаковыми младшими битами
+            added.add(subtask);
+            epic.addSubtask(subtask);
+        }
+        for (int i = 0; i < added.size(); i += 3) {
+            epic.removeSubtask(added.get(i).getId());
+        }
+        for (int i = 0; i < added.size(); i++) {
+            assertEquals(i % 3 != 0, epic.getSubtasks().contains(added.get(i)), "Subtask #" + i);
+        }
+
+        Subtask replacement = new Subtask(added.get(1).getId(), "Replaced", "", Status.DONE, 1);
+        epic.updateSubtask(replacement);
+        assertEquals("Replaced", epic.getSubtasks().get(0).getTitle(), "Replacement should keep its position.");
+        assertEquals(666, epic.getSubtasks().size());
+    }
+
+    private static List<Integer> ids(List<Subtask> subtasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Subtask subtask : subtasks) {
+            ids.add(subtask.getId());
+        }
+        return ids;
+    }
 
     @Test
     void testToString() {
@@ -0,0 +1,316 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskManagerTest {
+    private ColumnarTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        taskManager = new ColumnarTaskManager(new InMemoryHistoryManager());
+    }
+
+    @Test
+    void addAndGet_ShouldKeepFieldsIncludingNullDescription() {
+        int taskId = taskManager.addNewTask(new Task(0, "Задача №1", null, Status.IN_PROGRESS));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "", "Subtask Description", Status.DONE, epicId));
+
+        Task task = taskManager.getTask(taskId);
+        assertEquals("Задача №1", task.getTitle());
+        assertNull(task.getDescription());
+        assertEquals(Status.IN_PROGRESS, task.getStatus());
+
+        Subtask subtask = taskManager.getSubtask(subtaskId);
+        assertEquals("", subtask.getTitle());
+        assertEquals("Subtask Description", subtask.getDescription());
+        assertEquals(epicId, subtask.getEpicId());
+
+        Epic epic = taskManager.getEpic(epicId);
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(List.of(subtask), epic.getSubtasks());
+        assertEquals(List.of(task, epic), taskManager.getHistory());
+    }
+
+    @Test
+    void views_ShouldBeSnapshotsUntilUpdated() {
+        int taskId = taskManager.addNewTask(new Task(0, "Title", "Description", Status.NEW));
+        Task view = taskManager.getTask(taskId);
+        view.setTitle("Changed");
+        view.setStatus(Status.DONE);
+        assertEquals("Title", taskManager.getTask(taskId).getTitle(), "View changes need updateTask");
+
+        taskManager.updateTask(view);
+        Task updated = taskManager.getTask(taskId);
+        assertEquals("Changed", updated.getTitle());
+        assertEquals("Description", updated.getDescription());
+        assertEquals(Status.DONE, updated.getStatus());
+    }
+
+    @Test
+    void updateTask_WhenTextRewrittenManyTimes_ShouldKeepEarlierViewsReadable() {
+        int taskId = taskManager.addNewTask(new Task(0, "Title 0", "Description", Status.NEW));
+        Task first = taskManager.getTask(taskId);
+        // Достаточно перезаписей, чтобы хранилище текста несколько раз сжалось
+        String description = "x".repeat(1000);
+        for (int i = 1; i <= 500; i++) {
+            taskManager.updateTask(new Task(taskId, "Title " + i, description, Status.NEW));
+        }
+        assertEquals("Title 0", first.getTitle());
+        assertEquals("Title 500", taskManager.getTask(taskId).getTitle());
+        assertEquals(description, taskManager.getTask(taskId).getDescription());
+    }
+
+    @Test
+    void text_WhenSpreadOverSmallChunks_ShouldStayReadableAfterUpdatesAndCompaction() {
+        ColumnarTaskManager chunked = new ColumnarTaskManager(new InMemoryHistoryManager(), 256);
+        Random random = new Random(7);
+        List<String> titles = new ArrayList<>();
+        List<String> descriptions = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // Часть текстов длиннее куска: им достаётся отдельный кусок по размеру
+            String description = random.nextInt(10) == 0 ? null : "ж".repeat(random.nextInt(300));
+            titles.add("Задача " + i);
+            descriptions.add(description);
+            assertEquals(i + 1, chunked.addNewTask(new Task(0, titles.get(i), description, Status.NEW)));
+        }
+        Task first = chunked.getTask(1);
+        for (int round = 0; round < 5; round++) { // Перезаписей хватает на несколько сжатий
+            for (int id = 1; id <= titles.size(); id += 2) {
+                titles.set(id - 1, "Раунд " + round + " " + id);
+                descriptions.set(id - 1, "d".repeat(random.nextInt(400)));
+                chunked.updateTask(new Task(id, titles.get(id - 1), descriptions.get(id - 1), Status.NEW));
+            }
+            chunked.deleteTask(2 + round * 2);
+        }
+
+        for (int id = 1; id <= titles.size(); id++) {
+            if (id % 2 == 0 && id <= 10) {
+                continue; // Удалены
+            }
+            Task task = chunked.getTask(id);
+            assertEquals(titles.get(id - 1), task.getTitle(), "Title #" + id);
+            assertEquals(descriptions.get(id - 1), task.getDescription(), "Description #" + id);
+        }
+        assertEquals("Задача 0", first.getTitle(), "Представление читает свой кусок и после сжатия");
+    }
+
+    @Test
+    void getTask_ShouldGiveHistoryOnlyStubsWithoutText() {
+        HistoryManager historyManager = new InMemoryHistoryManager();
+        ColumnarTaskManager manager = new ColumnarTaskManager(historyManager);
+        int taskId = manager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        int epicId = manager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        manager.getTask(taskId);
+        manager.getEpic(epicId);
+
+        List<Task> stored = historyManager.getHistory();
+        assertEquals(List.of(taskId, epicId), ids(stored));
+        assertNull(stored.get(0).getTitle(), "История не держит текст и куски хранилища");
+        assertTrue(stored.get(1) instanceof Epic);
+        assertEquals("Task", manager.getHistory().get(0).getTitle());
+    }
+
+    @Test
+    void getEpic_WhenMissingOrWrongType_ShouldThrow() {
+        int taskId = taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        assertThrows(NoSuchElementException.class, () -> taskManager.getEpic(taskId));
+        assertThrows(NoSuchElementException.class, () -> taskManager.getEpic(100));
+        assertThrows(NoSuchElementException.class, () -> taskManager.getEpic(-1));
+    }
+
+    @Test
+    void schedule_ShouldKeepTimeInViewsAndRejectOverlaps() {
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(
+                new Subtask(0, "Sub", null, Status.NEW, epicId, morning.plusHours(1), Duration.ofHours(1)));
+        int taskId = taskManager.addNewTask(new Task(0, "Task", null, Status.NEW, morning, Duration.ofHours(1)));
+        int plainId = taskManager.addNewTask(new Task(0, "Plain", null, Status.NEW));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addNewTask(
+                new Task(0, "Overlap", null, Status.NEW, morning.plusMinutes(90), Duration.ofHours(1))));
+        assertEquals(List.of(taskId, subtaskId),
+                taskManager.getPrioritizedTasks().stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals(morning.plusHours(2), taskManager.getSubtask(subtaskId).getEndTime());
+        assertEquals(morning.plusHours(1), taskManager.getEpic(epicId).getStartTime(), "Время эпика - по подзадачам");
+        assertNull(taskManager.getTask(plainId).getStartTime());
+
+        taskManager.updateTask(new Task(taskId, "Task", null, Status.DONE));
+        taskManager.deleteSubtask(subtaskId);
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        assertNull(taskManager.getEpic(epicId).getDuration());
+    }
+
+    @Test
+    void getHistory_ShouldReturnCurrentStateOfViewedEntities() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", null, Status.NEW, epicId));
+        int taskId = taskManager.addNewTask(new Task(0, "Task", null, Status.NEW));
+        taskManager.getEpic(epicId);
+        taskManager.getTask(taskId);
+
+        taskManager.updateTask(new Task(taskId, "Renamed", null, Status.IN_PROGRESS));
+        taskManager.updateSubtask(new Subtask(subtaskId, "Subtask", null, Status.DONE, epicId));
+
+        List<Task> history = taskManager.getHistory();
+        assertEquals(List.of(epicId, taskId), history.stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals(Status.DONE, history.get(0).getStatus(), "Epic status should be recalculated after view");
+        assertEquals(List.of(subtaskId), ((Epic) history.get(0)).getSubtasks().stream().map(Task::getId)
+                .collect(Collectors.toList()));
+        assertEquals("Renamed", history.get(1).getTitle());
+        assertEquals(Status.IN_PROGRESS, history.get(1).getStatus());
+    }
+
+    @Test
+    void search_ShouldFollowAddUpdateAndDeleteAndReturnCurrentViews() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Релиз 2.0", "Подготовка релиза", Status.NEW));
+        int taskId = taskManager.addNewTask(new Task(0, "Заметки к релизу", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Сборка", "Перед релизом", Status.NEW, epicId));
+        assertEquals(3, taskManager.search("рел", 10).size());
+
+        taskManager.updateTask(new Task(taskId, "Заметки", null, Status.DONE));
+        taskManager.updateSubtask(new Subtask(subtaskId, "Сборка релиза", null, Status.IN_PROGRESS, epicId));
+        List<Task> found = taskManager.search("релиза", 10);
+        assertEquals(List.of(subtaskId, epicId), found.stream().map(Task::getId).collect(Collectors.toList()));
+        assertEquals(Status.IN_PROGRESS, found.get(0).getStatus(), "Найденное - текущее состояние строки");
+        assertTrue(found.get(0) instanceof Subtask);
+        assertEquals(Status.DONE, taskManager.search("заметки", 1).get(0).getStatus());
+
+        taskManager.deleteEpic(epicId);
+        assertTrue(taskManager.search("сборка", 10).isEmpty());
+        taskManager.deleteAllTasks();
+        assertTrue(taskManager.search("заметки", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldIndexChangesMadeBeforeAndAfterFirstSearch() {
+        int taskId = taskManager.addNewTask(new Task(0, "Черновик", null, Status.NEW));
+        taskManager.updateTask(new Task(taskId, "Отчёт", null, Status.NEW));
+        int deletedId = taskManager.addNewTask(new Task(0, "Отчёт к удалению", null, Status.NEW));
+        taskManager.deleteTask(deletedId);
+
+        // Индекс строится при первом поиске по текущему тексту строк
+        assertEquals(List.of(taskId), taskManager.search("отчет", 10).stream().map(Task::getId)
+                .collect(Collectors.toList()));
+        assertTrue(taskManager.search("черновик", 10).isEmpty());
+
+        int epicId = taskManager.addNewEpic(new Epic(0, "Отчёты", null, Status.NEW));
+        assertEquals(List.of(taskId, epicId), taskManager.search("отчет", 10).stream().map(Task::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void randomOperations_ShouldMatchInMemoryTaskManager() {
+        Random random = new Random(3);
+        TaskManager expected = new InMemoryTaskManager(new InMemoryHistoryManager());
+        Status[] statuses = Status.values();
+        for (int i = 0; i < 5_000; i++) {
+            List<Epic> epics = expected.getEpics();
+            List<Subtask> subtasks = expected.getSubtasks();
+            List<Task> tasks = expected.getTasks();
+            Status status = statuses[random.nextInt(statuses.length)];
+            int operation = random.nextInt(100);
+            if (operation < 15) {
+                assertEquals(expected.addNewTask(new Task(0, "Task " + i, "D" + i, status)),
+                        taskManager.addNewTask(new Task(0, "Task " + i, "D" + i, status)));
+            } else if (operation < 25) {
+                assertEquals(expected.addNewEpic(new Epic(0, "Epic " + i, null, Status.NEW)),
+                        taskManager.addNewEpic(new Epic(0, "Epic " + i, null, Status.NEW)));
+            } else if (operation < 55 && !epics.isEmpty()) {
+                int epicId = epics.get(random.nextInt(epics.size())).getId();
+                assertEquals(expected.addNewSubtask(new Subtask(0, "Subtask " + i, "D", status, epicId)),
+                        taskManager.addNewSubtask(new Subtask(0, "Subtask " + i, "D", status, epicId)));
+            } else if (operation < 75 && !subtasks.isEmpty() && !epics.isEmpty()) {
+                Subtask subtask = subtasks.get(random.nextInt(subtasks.size()));
+                int epicId = random.nextBoolean() ? subtask.getEpicId() : epics.get(random.nextInt(epics.size())).getId();
+                expected.updateSubtask(new Subtask(subtask.getId(), "Updated " + i, "D", status, epicId));
+                taskManager.updateSubtask(new Subtask(subtask.getId(), "Updated " + i, "D", status, epicId));
+            } else if (operation < 80 && !tasks.isEmpty()) {
+                int taskId = tasks.get(random.nextInt(tasks.size())).getId();
+                expected.updateTask(new Task(taskId, "Updated " + i, null, status));
+                taskManager.updateTask(new Task(taskId, "Updated " + i, null, status));
+            } else if (operation < 85 && !tasks.isEmpty()) {
+                int taskId = tasks.get(random.nextInt(tasks.size())).getId();
+                expected.deleteTask(taskId);
+                taskManager.deleteTask(taskId);
+            } else if (operation < 93 && !subtasks.isEmpty()) {
+                int subtaskId = subtasks.get(random.nextInt(subtasks.size())).getId();
+                expected.deleteSubtask(subtaskId);
+                taskManager.deleteSubtask(subtaskId);
+            } else if (operation < 98 && !epics.isEmpty()) {
+                int epicId = epics.get(random.nextInt(epics.size())).getId();
+                expected.deleteEpic(epicId);
+                taskManager.deleteEpic(epicId);
+            } else if (operation == 98) {
+                expected.deleteAllSubtasks();
+                taskManager.deleteAllSubtasks();
+            }
+        }
+        assertEquals(fingerprint(expected), fingerprint(taskManager));
+        for (Epic epic : expected.getEpics()) {
+            assertEquals(ids(expected.getEpicSubtasks(epic.getId())), ids(taskManager.getEpicSubtasks(epic.getId())));
+        }
+        assertEquals(ids(expected.getSubtasks(100, 50)), ids(taskManager.getSubtasks(100, 50)));
+        assertEquals(ids(expected.getEpics(0, 20)), ids(taskManager.getEpics(0, 20)));
+        assertEquals(expected.streamTasks().map(Task::getId).collect(Collectors.toList()),
+                taskManager.streamTasks().map(Task::getId).collect(Collectors.toList()));
+        for (Status status : Status.values()) {
+            assertEquals(sortedIds(expected.getTasksByStatus(status)), sortedIds(taskManager.getTasksByStatus(status)));
+            assertEquals(sortedIds(expected.getEpicsByStatus(status)), sortedIds(taskManager.getEpicsByStatus(status)));
+            assertEquals(sortedIds(expected.getSubtasksByStatus(status)), sortedIds(taskManager.getSubtasksByStatus(status)));
+            for (TaskType type : TaskType.values()) {
+                assertEquals(expected.countByStatus(type, status), taskManager.countByStatus(type, status));
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    // Порядок выборки по статусу у менеджеров разный
+    private static List<Integer> sortedIds(List<? extends Task> tasks) {
+        List<Integer> ids = ids(tasks);
+        ids.sort(null);
+        return ids;
+    }
+
+    private static String fingerprint(TaskManager taskManager) {
+        List<Task> all = new ArrayList<>(taskManager.getTasks());
+        all.addAll(taskManager.getEpics());
+        all.addAll(taskManager.getSubtasks());
+        all.sort(Comparator.comparingInt(Task::getId));
+        StringBuilder fingerprint = new StringBuilder();
+        for (Task task : all) {
+            fingerprint.append(task.getType()).append(' ').append(task.getId()).append(' ').append(task.getTitle())
+                    .append(' ').append(task.getDescription()).append(' ').append(task.getStatus());
+            if (task instanceof Subtask) {
+                fingerprint.append(" epic=").append(((Subtask) task).getEpicId());
+            }
+            fingerprint.append('\n');
+        }
+        return fingerprint.toString();
+    }
+}
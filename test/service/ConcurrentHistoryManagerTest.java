@@ -0,0 +1,159 @@
+package service;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 2_000;
+
+    private ConcurrentHistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new ConcurrentHistoryManager();
+    }
+
+    @Test
+    void addDuplicateTask_ShouldReplaceOldTaskInHistory() {
+        Task task1 = new Task(1, "Task 1", "", Status.NEW);
+        Task task2 = new Task(2, "Task 2", "", Status.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+
+        assertEquals(List.of(task2, task1), historyManager.getHistory(), "Task 1 should be last in history");
+    }
+
+    @Test
+    void remove_ShouldApplyInOrderWithAdds() {
+        Task task1 = new Task(1, "Task 1", "", Status.NEW);
+
+        historyManager.add(task1);
+        historyManager.remove(1);
+        assertTrue(historyManager.getHistory().isEmpty(), "Removed task should not be in history");
+
+        historyManager.add(task1); // Повторный просмотр после удаления снова попадает в историю
+        assertEquals(List.of(task1), historyManager.getHistory());
+    }
+
+    @Test
+    void add_WhenCapacityReached_ShouldEvictLeastRecentlyViewed() {
+        ConcurrentHistoryManager boundedHistory = new ConcurrentHistoryManager(1);
+        Task task1 = new Task(1, "Task 1", "", Status.NEW);
+        Task task2 = new Task(2, "Task 2", "", Status.NEW);
+
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+
+        assertEquals(List.of(task2), boundedHistory.getHistory());
+        assertEquals(1, boundedHistory.getEvictionCount());
+    }
+
+    @Test
+    void remove_WithoutReads_ShouldNotAccumulateUnboundedQueue() {
+        for (int id = 0; id < 10_000; id++) {
+            historyManager.remove(id);
+            historyManager.removeAll(new int[]{id, id + 1});
+        }
+        assertTrue(historyManager.pendingCount() < 2_048, "Removals should be drained like views");
+    }
+
+    @Test
+    void reads_UnderContinuousWrites_ShouldCatchUpOnlyToTheirOwnMarker() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            int firstId = t * TASKS_PER_THREAD;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; !stop.get(); i++) {
+                    historyManager.add(new Task(firstId + i % TASKS_PER_THREAD, "Task", "", Status.NEW));
+                    if (i % 3 == 0) {
+                        historyManager.remove(firstId + (i + 1) % TASKS_PER_THREAD);
+                    }
+                }
+            }));
+        }
+        // Читатели снимают метки друг друга; каждый должен вернуться, пока писатели продолжают работать
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            readers.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    assertTrue(historyManager.size() <= THREADS / 2 * TASKS_PER_THREAD);
+                }
+            }));
+        }
+        try {
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            stop.set(true);
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentViews_ShouldKeepHistoryDeduplicatedAndOrderedPerThread() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int firstId = t * TASKS_PER_THREAD;
+            futures.add(executor.submit(() -> {
+                start.await();
+                // Каждый поток дважды просматривает свои задачи и общую задачу с ID -1
+                for (int round = 0; round < 2; round++) {
+                    for (int id = firstId; id < firstId + TASKS_PER_THREAD; id++) {
+                        historyManager.add(new Task(id, "Task", "", Status.NEW));
+                        historyManager.add(new Task(-1, "Shared", "", Status.NEW));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(THREADS * TASKS_PER_THREAD + 1, history.size(), "History should contain every task exactly once");
+
+        Set<Integer> seen = new HashSet<>();
+        int[] lastIdOfThread = new int[THREADS];
+        Arrays.fill(lastIdOfThread, -1);
+        for (Task task : history) {
+            assertTrue(seen.add(task.getId()), "History should not contain duplicates");
+            if (task.getId() < 0) {
+                continue;
+            }
+            // Внутри одного потока последние просмотры идут по возрастанию ID
+            int thread = task.getId() / TASKS_PER_THREAD;
+            assertTrue(task.getId() > lastIdOfThread[thread], "Views of one thread should keep their order");
+            lastIdOfThread[thread] = task.getId();
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final int EPICS = 16;
+
+    private ConcurrentTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        taskManager = new ConcurrentTaskManager(new ConcurrentHistoryManager());
+    }
+
+    @Test
+    void addAndGet_ShouldBehaveLikeInMemoryTaskManager() {
+        int taskId = taskManager.addNewTask(new Task(0, "Task Title", "Task Description", Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask Title", "Subtask Description", Status.DONE, epicId));
+
+        assertEquals(1, taskId);
+        assertEquals(3, subtaskId);
+        assertEquals(Status.DONE, taskManager.getEpic(epicId).getStatus());
+        assertEquals(1, taskManager.getEpicSubtasks(epicId).size());
+        taskManager.getTask(taskId);
+        taskManager.getEpic(epicId);
+        assertEquals(2, taskManager.getHistory().size(), "History should contain the viewed task and epic");
+
+        taskManager.deleteEpic(epicId);
+        assertThrows(NoSuchElementException.class, () -> taskManager.getSubtask(subtaskId));
+        assertEquals(1, taskManager.getHistory().size(), "History should contain only the task after the epic is deleted");
+    }
+
+    @Test
+    void updateSubtask_ShouldMoveSubtaskWhoseEpicIdWasChangedInPlace() {
+        int firstEpicId = taskManager.addNewEpic(new Epic(0, "Epic 1", null, Status.NEW));
+        int secondEpicId = taskManager.addNewEpic(new Epic(0, "Epic 2", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", null, Status.DONE, firstEpicId));
+
+        // Меняем эпик у живого объекта из менеджера, а не у новой подзадачи
+        Subtask subtask = taskManager.getSubtask(subtaskId);
+        subtask.setEpicId(secondEpicId);
+        taskManager.updateSubtask(subtask);
+
+        assertTrue(taskManager.getEpicSubtasks(firstEpicId).isEmpty());
+        assertEquals(Status.NEW, taskManager.getEpic(firstEpicId).getStatus());
+        assertEquals(List.of(subtask), taskManager.getEpicSubtasks(secondEpicId));
+        assertEquals(Status.DONE, taskManager.getEpic(secondEpicId).getStatus());
+
+        taskManager.deleteSubtask(subtaskId);
+        assertTrue(taskManager.getEpicSubtasks(secondEpicId).isEmpty());
+        assertEquals(Status.NEW, taskManager.getEpic(secondEpicId).getStatus());
+    }
+
+    @Test
+    void concurrentAdds_ShouldAllocateUniqueIds() throws Exception {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ids.add(taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW)));
+                ids.add(taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.NEW, epicId)));
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD * 2, ids.size(), "Every add should get its own id");
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, taskManager.getTasks().size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, taskManager.getEpicSubtasks(epicId).size());
+    }
+
+    @Test
+    void concurrentScheduledAdds_ShouldGiveEachSlotToOneTask() throws Exception {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        int slots = 500;
+
+        // Все потоки претендуют на одни и те же часы, половина - подзадачами
+        runConcurrently(() -> {
+            for (int i = 0; i < slots; i++) {
+                try {
+                    if (ThreadLocalRandom.current().nextBoolean()) {
+                        taskManager.addNewTask(new Task(0, "Task", null, Status.NEW, morning.plusHours(i),
+                                Duration.ofMinutes(45)));
+                    } else {
+                        taskManager.addNewSubtask(new Subtask(0, "Subtask", null, Status.NEW, epicId,
+                                morning.plusHours(i).plusMinutes(30), Duration.ofMinutes(20)));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Час уже занят другим потоком
+                }
+            }
+        });
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(slots, prioritized.size(), "В каждом часе ровно одна задача");
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getEndTime()));
+        }
+        assertEquals(slots, taskManager.getTasks().size() + taskManager.getSubtasks().size());
+
+        taskManager.deleteAllTasks();
+        assertEquals(taskManager.getSubtasks().size(), taskManager.getPrioritizedTasks().size());
+        taskManager.deleteEpic(epicId);
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void search_WhileTasksAreRenamed_ShouldFindEachTaskOnlyUnderItsCurrentTitle() throws Exception {
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            taskManager.addNewTask(new Task(0, "старое " + i, null, Status.NEW));
+        }
+
+        // Половина потоков переименовывает задачи, остальные ищут; после переименования старое название не ищется
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+                int id = 1 + random.nextInt(count);
+                if (random.nextBoolean()) {
+                    taskManager.updateTask(new Task(id, "новое " + id, null, Status.NEW));
+                } else {
+                    for (Task task : taskManager.search("новое", count)) {
+                        assertTrue(task.getTitle().startsWith("новое"));
+                    }
+                }
+            }
+        });
+
+        int renamed = taskManager.search("новое", count).size();
+        assertEquals(count, renamed + taskManager.search("старое", count).size());
+        taskManager.deleteAllTasks();
+        assertTrue(taskManager.search("новое", count).isEmpty());
+    }
+
+    @Test
+    void randomMutations_ShouldKeepEpicStatusAndHistoryConsistent() throws Exception {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epicIds.add(taskManager.addNewEpic(new Epic(0, "Epic " + i, "Description", Status.NEW)));
+        }
+        Status[] statuses = Status.values();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Integer> ownSubtasks = new ArrayList<>();
+            List<Integer> ownTasks = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int epicId = epicIds.get(random.nextInt(EPICS));
+                switch (random.nextInt(6)) {
+                    case 0:
+                    case 1:
+                        ownSubtasks.add(taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description",
+                                statuses[random.nextInt(statuses.length)], epicId)));
+                        break;
+                    case 2:
+                        if (!ownSubtasks.isEmpty()) {
+                            // Обновляем статус и заодно переносим подзадачу в случайный эпик
+                            int subtaskId = ownSubtasks.get(random.nextInt(ownSubtasks.size()));
+                            taskManager.updateSubtask(new Subtask(subtaskId, "Subtask", "Updated",
+                                    statuses[random.nextInt(statuses.length)], epicId));
+                        }
+                        break;
+                    case 3:
+                        if (!ownSubtasks.isEmpty()) {
+                            taskManager.deleteSubtask(ownSubtasks.remove(random.nextInt(ownSubtasks.size())));
+                        }
+                        break;
+                    case 4:
+                        ownTasks.add(taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW)));
+                        taskManager.getTask(ownTasks.get(random.nextInt(ownTasks.size())));
+                        break;
+                    default:
+                        taskManager.getEpic(epicId);
+                        if (!ownTasks.isEmpty() && random.nextBoolean()) {
+                            taskManager.deleteTask(ownTasks.remove(random.nextInt(ownTasks.size())));
+                        }
+                        break;
+                }
+            }
+        });
+
+        // Статус каждого эпика совпадает с полным пересчётом по его подзадачам
+        for (int epicId : epicIds) {
+            List<Subtask> epicSubtasks = taskManager.getEpicSubtasks(epicId);
+            for (Subtask subtask : epicSubtasks) {
+                assertEquals(epicId, subtask.getEpicId(), "Epic should contain only its own subtasks");
+                assertSame(subtask, taskManager.getSubtask(subtask.getId()));
+            }
+            assertEquals(expectedStatus(epicSubtasks), taskManager.getEpic(epicId).getStatus(),
+                    "Epic " + epicId + " status should match its subtasks");
+        }
+        int subtasksInEpics = 0;
+        for (Epic epic : taskManager.getEpics()) {
+            subtasksInEpics += epic.getSubtasks().size();
+        }
+        assertEquals(taskManager.getSubtasks().size(), subtasksInEpics, "Every subtask should belong to exactly one epic");
+
+        // История не содержит дубликатов и удалённых сущностей
+        List<Task> history = taskManager.getHistory();
+        Set<Integer> historyIds = new HashSet<>();
+        for (Task task : history) {
+            assertTrue(historyIds.add(task.getId()), "History should not contain duplicates");
+            boolean exists = task instanceof Epic
+                    ? taskManager.getEpics().contains(task)
+                    : taskManager.getTasks().contains(task);
+            assertTrue(exists, "History should not contain deleted entity " + task.getId());
+        }
+    }
+
+    @Test
+    void randomMutations_ShouldKeepStatusPartitionsInSyncWithEntities() throws Exception {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epicIds.add(taskManager.addNewEpic(new Epic(0, "Epic " + i, "Description", Status.NEW)));
+        }
+        Status[] statuses = Status.values();
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Integer> ownSubtasks = new ArrayList<>();
+            List<Integer> ownTasks = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 5; i++) {
+                Status status = statuses[random.nextInt(statuses.length)];
+                int epicId = epicIds.get(random.nextInt(EPICS));
+                switch (random.nextInt(5)) {
+                    case 0:
+                        ownSubtasks.add(taskManager.addNewSubtask(new Subtask(0, "Subtask", null, status, epicId)));
+                        break;
+                    case 1:
+                        if (!ownSubtasks.isEmpty()) {
+                            int subtaskId = ownSubtasks.get(random.nextInt(ownSubtasks.size()));
+                            taskManager.updateSubtask(new Subtask(subtaskId, "Subtask", null, status, epicId));
+                        }
+                        break;
+                    case 2:
+                        if (!ownSubtasks.isEmpty()) {
+                            taskManager.deleteSubtask(ownSubtasks.remove(random.nextInt(ownSubtasks.size())));
+                        }
+                        break;
+                    case 3:
+                        ownTasks.add(taskManager.addNewTask(new Task(0, "Task", null, status)));
+                        break;
+                    default:
+                        if (!ownTasks.isEmpty()) {
+                            int taskId = ownTasks.get(random.nextInt(ownTasks.size()));
+                            taskManager.updateTask(new Task(taskId, "Task", null, status));
+                        }
+                        // Выборка во время записи берёт раздел одного снимка: в нём только задачи этого статуса
+                        for (Task task : taskManager.getTasksByStatus(status)) {
+                            assertEquals(status, task.getStatus());
+                        }
+                        break;
+                }
+            }
+        });
+
+        for (Status status : statuses) {
+            assertEquals(ids(taskManager.getTasks(), status), ids(taskManager.getTasksByStatus(status)));
+            assertEquals(ids(taskManager.getEpics(), status), ids(taskManager.getEpicsByStatus(status)),
+                    "Epics should be filed under their recalculated status");
+            assertEquals(ids(taskManager.getSubtasks(), status), ids(taskManager.getSubtasksByStatus(status)));
+            assertEquals(ids(taskManager.getEpics(), status).size(), taskManager.countByStatus(TaskType.EPIC, status));
+        }
+        taskManager.deleteAllSubtasks();
+        assertEquals(EPICS, taskManager.countByStatus(TaskType.EPIC, Status.NEW));
+        assertEquals(0, taskManager.countByStatus(TaskType.SUBTASK, Status.DONE));
+    }
+
+    @Test
+    void deleteAllEpics_ShouldNotRaceWithSubtaskAdds() throws Exception {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epicIds.add(taskManager.addNewEpic(new Epic(0, "Epic " + i, "Description", Status.NEW)));
+        }
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD / 10; i++) {
+                try {
+                    taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.NEW,
+                            epicIds.get(random.nextInt(EPICS))));
+                } catch (NoSuchElementException e) {
+                    // Эпик уже удалён другим потоком - это ожидаемо
+                }
+                if (i == OPERATIONS_PER_THREAD / 20) {
+                    taskManager.deleteAllEpics();
+                }
+            }
+        });
+
+        assertTrue(taskManager.getEpics().isEmpty());
+        assertTrue(taskManager.getSubtasks().isEmpty(), "No subtask should outlive its epic");
+    }
+
+    @Test
+    void getTasks_WhileTasksAreAdded_ShouldReturnConsistentSnapshots() throws Exception {
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+                    continue;
+                }
+                // Снимок не меняется под читателем: размер совпадает с обходом, ID идут по возрастанию
+                List<Task> snapshot = taskManager.getTasks();
+                int count = 0;
+                int previousId = 0;
+                for (Task task : snapshot) {
+                    assertTrue(task.getId() > previousId);
+                    previousId = task.getId();
+                    count++;
+                }
+                assertEquals(snapshot.size(), count);
+            }
+        });
+        assertEquals(taskManager.getTasks().size(), new HashSet<>(taskManager.getTasks()).size());
+    }
+
+    private void runConcurrently(Runnable action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await(); // Стартуем все потоки одновременно для максимальной конкуренции
+                action.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS); // Пробрасываем исключения из потоков
+        }
+        executor.shutdown();
+    }
+
+    private static List<Integer> ids(List<? extends Task> entities, Status status) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task entity : entities) {
+            if (entity.getStatus() == status) {
+                ids.add(entity.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static List<Integer> ids(List<? extends Task> entities) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task entity : entities) {
+            ids.add(entity.getId());
+        }
+        return ids;
+    }
+
+    private static Status expectedStatus(List<Subtask> subtasks) {
+        if (subtasks.isEmpty()) {
+            return Status.NEW;
+        }
+        boolean allDone = true;
+        for (Subtask subtask : subtasks) {
+            if (subtask.getStatus() == Status.IN_PROGRESS) {
+                return Status.IN_PROGRESS;
+            }
+            allDone &= subtask.getStatus() == Status.DONE;
+        }
+        return allDone ? Status.DONE : Status.NEW;
+    }
+}
@@ -0,0 +1,175 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTaskIOTest {
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("kanban-csv");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void exportThenImport_ShouldRestoreBoardWithSpecialCharacters() {
+        InMemoryTaskManager source = new InMemoryTaskManager(new InMemoryHistoryManager());
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        source.addNewTask(new Task(0, "Купить \"молоко\", хлеб", "строка 1\nстрока 2\r\n😀", Status.IN_PROGRESS,
+                morning, Duration.ofHours(1)));
+        int epicId = source.addNewEpic(new Epic(0, "Релиз", null, Status.NEW));
+        source.addNewSubtask(new Subtask(0, "", "Сборка", Status.DONE, epicId, morning.plusHours(1),
+                Duration.ofSeconds(90)));
+        source.addNewSubtask(new Subtask(0, "Выкладка", "x".repeat(200_000), Status.IN_PROGRESS, epicId));
+        Path file = directory.resolve("board.csv");
+
+        assertEquals(4, CsvTaskIO.exportTo(source, file));
+        InMemoryTaskManager imported = new InMemoryTaskManager(new InMemoryHistoryManager());
+        assertEquals(4, CsvTaskIO.importFrom(file, imported));
+
+        assertEquals(source.getTasks(), imported.getTasks());
+        assertEquals(source.getEpics(), imported.getEpics());
+        assertEquals(source.getSubtasks(), imported.getSubtasks());
+        assertNull(imported.getEpic(epicId).getDescription());
+        assertEquals("", imported.getSubtask(3).getTitle());
+        assertEquals(Status.IN_PROGRESS, imported.getEpic(epicId).getStatus());
+        assertEquals(List.of(3, 4), imported.getEpicSubtasks(epicId).stream().map(Task::getId).toList());
+        assertEquals(List.of(1, 3), imported.getPrioritizedTasks().stream().map(Task::getId).toList());
+        assertEquals(Duration.ofSeconds(90), imported.getSubtask(3).getDuration());
+        assertEquals(morning.plusHours(1), imported.getEpic(epicId).getStartTime(), "Время эпика - по подзадачам");
+        assertNull(imported.getSubtask(4).getStartTime());
+        assertEquals(1, imported.search("молоко", 10).size(), "Текст проиндексирован для поиска");
+        assertEquals(5, imported.addNewTask(new Task(0, "next", null, Status.NEW)), "ID не пересекаются с загруженными");
+    }
+
+    @Test
+    void import_ShouldResolveSubtasksListedBeforeTheirEpicAndRecalculateStatus() throws IOException {
+        String csv = CsvTaskIO.HEADER + "\r\n"
+                + "3,SUBTASK,DONE,1,a,,,\r\n"
+                + "\r\n"
+                + "2,TASK,NEW,,t,,,\r\n"
+                + "4,SUBTASK,DONE,1,b,,,\r\n"
+                + "1,EPIC,NEW,,Эпик,\"\",,";
+        InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+
+        assertEquals(4, importCsv(csv, manager));
+
+        Epic epic = manager.getEpic(1);
+        assertEquals(Status.DONE, epic.getStatus(), "Статус эпика пересчитан по подзадачам");
+        assertEquals("", epic.getDescription());
+        assertEquals(2, epic.getSubtasks().size());
+        assertEquals(1, manager.getEpicsByStatus(Status.DONE).size());
+        assertEquals(2, manager.count(TaskType.SUBTASK));
+
+        // Индекс достраивается при первом обращении, в том числе при изменении ещё не проиндексированной задачи
+        manager.updateTask(new Task(2, "переименована", null, Status.NEW));
+        manager.deleteSubtask(4);
+        assertEquals(List.of(2), manager.search("переименована", 10).stream().map(Task::getId).toList());
+        assertTrue(manager.search("t", 10).isEmpty());
+        assertEquals(List.of(3), manager.search("a", 10).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void import_ShouldRejectMalformedInput() {
+        String header = CsvTaskIO.HEADER + "\n";
+        assertThrows(NoSuchElementException.class, () -> importCsv(header + "2,SUBTASK,NEW,9,a,,,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv("id,type\n1,TASK\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,TASK,NEW,,a,,,\n1,TASK,NEW,,b,,,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,TASK,LATER,,a,,,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,TASK,NEW,,a\"b,,,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,TASK,NEW,,\"a,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,TASK,NEW,5,a,,,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "x,TASK,NEW,,a,,,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,TASK,NEW,,a,,18.10.2026,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header + "1,EPIC,NEW,,a,,2026-10-18T09:00,\n"));
+        assertThrows(IllegalArgumentException.class, () -> importCsv(header
+                + "1,TASK,NEW,,a,,2026-10-18T09:00,PT1H\n2,TASK,NEW,,b,,2026-10-18T09:30,PT1H\n"));
+
+        InMemoryTaskManager notEmpty = new InMemoryTaskManager(new InMemoryHistoryManager());
+        notEmpty.addNewTask(new Task(0, "t", null, Status.NEW));
+        assertThrows(IllegalStateException.class, () -> importCsv(header, notEmpty));
+    }
+
+    @Test
+    void import_WhenRejected_ShouldLeaveManagerEmpty() throws IOException {
+        String header = CsvTaskIO.HEADER + "\n";
+        String orphan = header + "1,EPIC,NEW,,e,,,\n2,SUBTASK,NEW,1,s,,,\n3,TASK,NEW,,t,,,\n4,SUBTASK,NEW,9,x,,,\n";
+        String overlap = header + "1,TASK,NEW,,a,,2026-10-18T09:00,PT1H\n2,TASK,NEW,,b,,2026-10-18T09:30,PT1H\n";
+        String malformed = header + "1,EPIC,NEW,,e,,,\n2,TASK,LATER,,t,,,\n";
+        for (String csv : List.of(orphan, overlap, malformed)) {
+            InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+            assertThrows(RuntimeException.class, () -> importCsv(csv, manager));
+            assertTrue(manager.getTasks().isEmpty() && manager.getEpics().isEmpty() && manager.getSubtasks().isEmpty());
+            assertTrue(manager.getPrioritizedTasks().isEmpty());
+            assertTrue(manager.search("a", 10).isEmpty());
+
+            // После отката менеджер пригоден для повторного импорта, ID снова начинаются с 1
+            assertEquals(1, importCsv(header + "1,TASK,NEW,,a,,2026-10-18T09:00,PT1H\n", manager));
+            assertEquals(2, manager.addNewTask(new Task(0, "next", null, Status.NEW)));
+        }
+
+        Path storage = directory.resolve("rejected");
+        try (FileBackedTaskManager manager = FileBackedTaskManager.open(new InMemoryHistoryManager(), storage)) {
+            assertThrows(RuntimeException.class, () -> importCsv(orphan, manager));
+            assertTrue(manager.getEpics().isEmpty());
+        }
+        try (FileBackedTaskManager reopened = FileBackedTaskManager.open(new InMemoryHistoryManager(), storage)) {
+            assertTrue(reopened.getEpics().isEmpty() && reopened.getTasks().isEmpty(), "Rejected import should not persist");
+        }
+    }
+
+    @Test
+    void import_ShouldPersistBoardInFileBackedManager() {
+        InMemoryTaskManager source = new InMemoryTaskManager(new InMemoryHistoryManager());
+        int epicId = source.addNewEpic(new Epic(0, "Epic", "e", Status.NEW));
+        source.addNewSubtask(new Subtask(0, "Sub", "s", Status.IN_PROGRESS, epicId));
+        Path file = directory.resolve("board.csv");
+        CsvTaskIO.exportTo(source, file);
+
+        Path storage = directory.resolve("storage");
+        try (FileBackedTaskManager manager = FileBackedTaskManager.open(new InMemoryHistoryManager(), storage)) {
+            CsvTaskIO.importFrom(file, manager);
+        }
+        try (FileBackedTaskManager reopened = FileBackedTaskManager.open(new InMemoryHistoryManager(), storage)) {
+            assertEquals(source.getSubtasks(), reopened.getSubtasks());
+            assertEquals(Status.IN_PROGRESS, reopened.getEpic(epicId).getStatus());
+        }
+    }
+
+    private static int importCsv(String csv) throws IOException {
+        return importCsv(csv, new InMemoryTaskManager(new InMemoryHistoryManager()));
+    }
+
+    private static int importCsv(String csv, InMemoryTaskManager manager) throws IOException {
+        return CsvTaskIO.importFrom(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))),
+                manager);
+    }
+}
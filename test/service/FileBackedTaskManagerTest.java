@@ -0,0 +1,473 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileBackedTaskManagerTest {
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("kanban");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void reopen_ShouldRestoreTasksEpicsSubtasksAndNextId() {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        int taskId = taskManager.addNewTask(new Task(0, "Задача; с разделителем", "Строка 1\nстрока 2 \\ слеш", Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.IN_PROGRESS, epicId));
+        int deletedId = taskManager.addNewTask(new Task(0, "Deleted", "Description", Status.NEW));
+        taskManager.deleteTask(deletedId);
+        taskManager.close();
+
+        FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        assertEquals("Задача; с разделителем", restored.getTask(taskId).getTitle());
+        assertEquals("Строка 1\nстрока 2 \\ слеш", restored.getTask(taskId).getDescription());
+        assertNull(restored.getEpic(epicId).getDescription());
+        assertEquals(Status.IN_PROGRESS, restored.getEpic(epicId).getStatus());
+        assertEquals(subtaskId, restored.getEpicSubtasks(epicId).get(0).getId());
+        assertEquals(deletedId + 1, restored.addNewTask(new Task(0, "New", "Description", Status.NEW)),
+                "IDs of deleted entities should not be reused");
+        restored.close();
+    }
+
+    @Test
+    void reopen_ShouldRestoreScheduleFromLogAndSnapshot() {
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0, 30, 5);
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        int taskId = taskManager.addNewTask(new Task(0, "Task", null, Status.NEW, morning, Duration.ofMinutes(45)));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(
+                new Subtask(0, "Subtask", null, Status.NEW, epicId, morning.plusHours(1), Duration.ZERO));
+        taskManager.close();
+
+        for (int reopen = 0; reopen < 2; reopen++) {
+            FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+            assertEquals(List.of(taskId, subtaskId),
+                    restored.getPrioritizedTasks().stream().map(Task::getId).toList());
+            assertEquals(morning.plusMinutes(45), restored.getTask(taskId).getEndTime());
+            assertEquals(Duration.ZERO, restored.getSubtask(subtaskId).getDuration());
+            assertEquals(morning.plusHours(1), restored.getEpic(epicId).getStartTime());
+            assertThrows(IllegalArgumentException.class, () -> restored.addNewTask(
+                    new Task(0, "Overlap", null, Status.NEW, morning.plusMinutes(30), Duration.ofHours(1))));
+            restored.compact(); // Второй проход читает то же самое уже из снимка
+            restored.close();
+        }
+    }
+
+    @Test
+    void periodicSync_ShouldFlushTailWithoutFurtherWrites() throws InterruptedException {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory,
+                1_000, 10_000, Duration.ofMillis(10));
+        taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+
+        // Пачка далеко не набрана, но фоновый fsync сбрасывает хвост журнала по времени
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (taskManager.unsyncedRecords() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, taskManager.unsyncedRecords(), "Records should be synced within the sync interval");
+        taskManager.close();
+        assertThrows(IllegalArgumentException.class, () -> FileBackedTaskManager.open(new InMemoryHistoryManager(),
+                directory, 1, 1, Duration.ZERO));
+    }
+
+    @Test
+    void compact_ShouldMoveStateToSnapshotAndEmptyLog() throws IOException {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory, 4, 10);
+        applyRandomMutations(taskManager, new Random(1), 60);
+        String expected = fingerprint(taskManager);
+        taskManager.close();
+
+        assertTrue(Files.exists(directory.resolve(FileBackedTaskManager.SNAPSHOT_FILE)), "Snapshot should be written");
+        assertTrue(countLines(directory.resolve(FileBackedTaskManager.LOG_FILE)) < 10, "Log should be compacted");
+
+        FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory, 4, 10);
+        assertEquals(expected, fingerprint(restored));
+        restored.close();
+    }
+
+    @Test
+    void reopen_WhenCrashedBeforeLogTruncation_ShouldNotReplayRecordsTwice() throws IOException {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        applyRandomMutations(taskManager, new Random(2), 30);
+        taskManager.sync();
+        Path staleLog = directory.resolve("stale.log");
+        Files.copy(directory.resolve(FileBackedTaskManager.LOG_FILE), staleLog);
+        taskManager.compact();
+        String expected = fingerprint(taskManager);
+        taskManager.close();
+
+        // Имитируем сбой: снимок уже заменён, а журнал ещё не обнулён
+        Files.move(staleLog, directory.resolve(FileBackedTaskManager.LOG_FILE), StandardCopyOption.REPLACE_EXISTING);
+
+        FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        assertEquals(expected, fingerprint(restored));
+        restored.close();
+    }
+
+    @Test
+    void reopen_WhenLogTruncatedAtRandomPoint_ShouldRecoverLastCompleteMutation() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            Path roundDirectory = Files.createDirectory(directory.resolve("round" + round));
+            Path logFile = roundDirectory.resolve(FileBackedTaskManager.LOG_FILE);
+            FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), roundDirectory);
+
+            // После каждой операции запоминаем длину журнала и ожидаемое состояние
+            List<Long> logSizes = new ArrayList<>();
+            List<String> states = new ArrayList<>();
+            logSizes.add(0L);
+            states.add(fingerprint(taskManager));
+            for (int i = 0; i < 40; i++) {
+                if (applyRandomMutations(taskManager, random, 1) > 0) {
+                    logSizes.add(Files.size(logFile));
+                    states.add(fingerprint(taskManager));
+                }
+            }
+            taskManager.close();
+
+            // Обрезаем журнал в случайной точке, как при сбое посреди записи
+            long cut = (long) (random.nextDouble() * (Files.size(logFile) + 1));
+            byte[] content = Files.readAllBytes(logFile);
+            Files.write(logFile, Arrays.copyOf(content, (int) cut));
+            int expectedState = 0;
+            while (expectedState + 1 < logSizes.size() && logSizes.get(expectedState + 1) <= cut) {
+                expectedState++;
+            }
+
+            FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), roundDirectory);
+            assertEquals(states.get(expectedState), fingerprint(restored),
+                    "Round " + round + ": state should match the last complete record before byte " + cut);
+
+            // После восстановления журнал снова пригоден для дозаписи
+            applyRandomMutations(restored, random, 5);
+            String afterRecovery = fingerprint(restored);
+            restored.close();
+            FileBackedTaskManager reopened = FileBackedTaskManager.open(new InMemoryHistoryManager(), roundDirectory);
+            assertEquals(afterRecovery, fingerprint(reopened));
+            reopened.close();
+        }
+    }
+
+    @Test
+    void applyBatch_ShouldBeRestoredAfterReopen() {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory, 4, 3);
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        int taskId = taskManager.addNewTask(new Task(0, "Task Title", "Task Description", Status.NEW));
+        // Порог сжатия меньше пакета: снимок не должен записаться посреди пакета
+        taskManager.applyBatch(List.of(
+                Mutation.add(new Subtask(0, "Subtask 1", "Description", Status.DONE, epicId)),
+                Mutation.add(new Subtask(0, "Subtask 2", "Description", Status.IN_PROGRESS, epicId)),
+                Mutation.update(new Task(taskId, "Updated", "Task Description", Status.DONE)),
+                Mutation.delete(TaskType.TASK, taskId),
+                Mutation.add(new Task(0, "Task 2", "Description", Status.NEW)),
+                Mutation.add(new Epic(0, "Epic 2", null, Status.NEW)),
+                Mutation.add(new Subtask(0, "Subtask 3", null, Status.DONE, Mutation.added(5))),
+                Mutation.delete(TaskType.TASK, Mutation.added(4))));
+        String expected = fingerprint(taskManager);
+        taskManager.close();
+
+        FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory, 4, 3);
+        assertEquals(expected, fingerprint(restored));
+        assertEquals(Status.IN_PROGRESS, restored.getEpic(epicId).getStatus());
+        restored.close();
+    }
+
+    // Выполняет случайные изменения и возвращает, сколько из них записано в журнал
+    @Test
+    void failedLogWrite_ShouldLeaveManagerMatchingLog() throws IOException {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        int taskId = taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", null, Status.NEW));
+        taskManager.addNewSubtask(new Subtask(0, "Subtask", null, Status.DONE, epicId));
+        FailingChannel channel = new FailingChannel();
+        taskManager.wrapLog(log -> channel.wrap(log));
+        String before = fingerprint(taskManager);
+
+        // Запись обрывается на середине: изменение не должно попасть в память
+        channel.failWrites = true;
+        assertThrows(ManagerSaveException.class,
+                () -> taskManager.addNewTask(new Task(0, "Lost", "Description", Status.NEW)));
+        assertThrows(ManagerSaveException.class,
+                () -> taskManager.updateTask(new Task(taskId, "Lost", "Description", Status.DONE)));
+        assertThrows(ManagerSaveException.class,
+                () -> taskManager.updateEpic(new Epic(epicId, "Lost", null, Status.NEW)));
+        assertThrows(ManagerSaveException.class, () -> taskManager.deleteEpic(epicId));
+        assertEquals(before, fingerprint(taskManager));
+        channel.failWrites = false;
+
+        // Изменения, отвергнутые менеджером, не оставляют записей в журнале
+        long lines = countLines(directory.resolve(FileBackedTaskManager.LOG_FILE));
+        assertThrows(NoSuchElementException.class,
+                () -> taskManager.updateTask(new Task(taskId + 100, "Missing", "Description", Status.NEW)));
+        assertThrows(NoSuchElementException.class, () -> taskManager.applyBatch(List.of(
+                Mutation.add(new Task(0, "Batch", "Description", Status.NEW)),
+                Mutation.delete(TaskType.TASK, taskId + 100))));
+        assertEquals(lines, countLines(directory.resolve(FileBackedTaskManager.LOG_FILE)));
+
+        int nextTaskId = taskManager.addNewTask(new Task(0, "Kept", "Description", Status.NEW));
+        String expected = fingerprint(taskManager);
+        taskManager.close();
+
+        FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        assertEquals(expected, fingerprint(restored));
+        assertEquals(nextTaskId + 1, restored.addNewTask(new Task(0, "Next", "Description", Status.NEW)));
+        restored.close();
+    }
+
+    @Test
+    void failedLogRollback_ShouldStopAcceptingChanges() {
+        FileBackedTaskManager taskManager = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        FailingChannel channel = new FailingChannel();
+        taskManager.wrapLog(log -> channel.wrap(log));
+        String expected = fingerprint(taskManager);
+
+        channel.failWrites = true;
+        channel.failTruncate = true;
+        assertThrows(ManagerSaveException.class,
+                () -> taskManager.addNewTask(new Task(0, "Lost", "Description", Status.NEW)));
+        channel.failWrites = false;
+        channel.failTruncate = false;
+
+        // Оборванную запись не удалось отрезать: дальнейшие изменения легли бы после неё
+        assertThrows(ManagerSaveException.class,
+                () -> taskManager.addNewTask(new Task(0, "Rejected", "Description", Status.NEW)));
+        assertEquals(expected, fingerprint(taskManager));
+        assertThrows(ManagerSaveException.class, taskManager::close);
+
+        // Оборванный хвост при загрузке отбрасывается по контрольной сумме
+        FileBackedTaskManager restored = FileBackedTaskManager.open(new InMemoryHistoryManager(), directory);
+        assertEquals(expected, fingerprint(restored));
+        restored.close();
+    }
+
+    private static int applyRandomMutations(TaskManager taskManager, Random random, int count) {
+        Status[] statuses = Status.values();
+        int applied = 0;
+        for (int i = 0; i < count; i++) {
+            List<Task> tasks = taskManager.getTasks();
+            List<Epic> epics = taskManager.getEpics();
+            List<Subtask> subtasks = taskManager.getSubtasks();
+            Status status = statuses[random.nextInt(statuses.length)];
+            switch (random.nextInt(8)) {
+                case 0:
+                    taskManager.addNewTask(new Task(0, "Task " + i, "Description;" + i, status));
+                    break;
+                case 1:
+                    taskManager.addNewEpic(new Epic(0, "Epic " + i, "Description " + i, Status.NEW));
+                    break;
+                case 2:
+                case 3:
+                    if (epics.isEmpty()) {
+                        continue;
+                    }
+                    int epicId = epics.get(random.nextInt(epics.size())).getId();
+                    taskManager.addNewSubtask(new Subtask(0, "Subtask " + i, "Description", status, epicId));
+                    break;
+                case 4:
+                    if (subtasks.isEmpty()) {
+                        continue;
+                    }
+                    Subtask subtask = subtasks.get(random.nextInt(subtasks.size()));
+                    taskManager.updateSubtask(new Subtask(subtask.getId(), "Updated " + i, "Description", status,
+                            subtask.getEpicId()));
+                    break;
+                case 5:
+                    if (tasks.isEmpty()) {
+                        continue;
+                    }
+                    taskManager.deleteTask(tasks.get(random.nextInt(tasks.size())).getId());
+                    break;
+                case 6:
+                    if (subtasks.isEmpty()) {
+                        continue;
+                    }
+                    taskManager.deleteSubtask(subtasks.get(random.nextInt(subtasks.size())).getId());
+                    break;
+                default:
+                    if (epics.isEmpty()) {
+                        continue;
+                    }
+                    taskManager.deleteEpic(epics.get(random.nextInt(epics.size())).getId());
+                    break;
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    // Строковый отпечаток всего состояния менеджера в порядке ID
+    private static String fingerprint(TaskManager taskManager) {
+        List<Task> all = new ArrayList<>(taskManager.getTasks());
+        all.addAll(taskManager.getEpics());
+        all.addAll(taskManager.getSubtasks());
+        all.sort(Comparator.comparingInt(Task::getId));
+        StringBuilder fingerprint = new StringBuilder();
+        for (Task task : all) {
+            fingerprint.append(task.getType()).append(' ').append(task.getId()).append(' ').append(task.getTitle())
+                    .append(' ').append(task.getDescription()).append(' ').append(task.getStatus());
+            if (task instanceof Subtask) {
+                fingerprint.append(" epic=").append(((Subtask) task).getEpicId());
+            }
+            fingerprint.append('\n');
+        }
+        return fingerprint.toString();
+    }
+
+    private static long countLines(Path file) throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.count();
+        }
+    }
+
+    // Журнал, который по флагам обрывает запись на середине строки или не даёт её отрезать
+    private static final class FailingChannel extends FileChannel {
+        private FileChannel delegate;
+        private volatile boolean failWrites;
+        private volatile boolean failTruncate;
+
+        FileChannel wrap(FileChannel channel) {
+            delegate = channel;
+            return this;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!failWrites) {
+                return delegate.write(src);
+            }
+            if (src.remaining() > 1) { // Пишем половину строки, остальное теряется
+                ByteBuffer half = src.duplicate();
+                half.limit(half.position() + src.remaining() / 2);
+                int written = delegate.write(half);
+                src.position(src.position() + written);
+                return written;
+            }
+            throw new IOException("Диск переполнен");
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) {
+                throw new IOException("Диск недоступен");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
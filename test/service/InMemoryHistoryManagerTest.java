@@ -5,6 +5,9 @@ import model.Status;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +59,57 @@ class InMemoryHistoryManagerTest {
         assertEquals(task2, history.get(0), "Remaining task should be Task 2");
     }
 
+    @Test
+    void removeAll_ShouldRemoveMatchingTasksAndKeepOrder() {
+        for (int id = 1; id <= 10; id++) {
+            historyManager.add(new Task(id, "Task " + id, "", Status.NEW));
+        }
+        historyManager.removeAll(id -> id % 3 != 0); // Удаляются и голова, и хвост списка
+
+        List<Integer> ids = new ArrayList<>();
+        historyManager.forEach(task -> ids.add(task.getId()));
+        assertEquals(List.of(3, 6, 9), ids);
+        assertEquals(3, historyManager.size());
+        historyManager.add(new Task(1, "Task 1", "", Status.NEW));
+        assertEquals(4, historyManager.getHistory().size(), "History should stay usable after bulk removal");
+    }
+
+    @Test
+    void removeAllIds_ShouldRemoveListedTasksOnBothPaths() {
+        for (int id = 1; id <= 100; id++) {
+            historyManager.add(new Task(id, "Task " + id, "", Status.NEW));
+        }
+        historyManager.removeAll(new int[]{1, 100, 50, 500}); // Мало ID - точечные удаления
+        assertEquals(97, historyManager.size());
+
+        int[] odd = new int[50];
+        for (int i = 0; i < odd.length; i++) {
+            odd[i] = 99 - 2 * i; // По убыванию, чтобы заметить сортировку на месте
+        }
+        historyManager.removeAll(odd); // Много ID - один проход по списку
+        List<Integer> ids = new ArrayList<>();
+        historyManager.forEach(task -> ids.add(task.getId()));
+        assertEquals(48, ids.size());
+        assertEquals(2, ids.get(0));
+        assertEquals(98, ids.get(ids.size() - 1));
+        assertEquals(99, odd[0], "Array of IDs should not be modified");
+    }
+
+    @Test
+    void clear_ShouldEmptyHistoryAndKeepItUsable() {
+        historyManager.add(new Task(1, "Task 1", "", Status.NEW));
+        historyManager.add(new Task(2, "Task 2", "", Status.NEW));
+        Iterator<Task> iterator = historyManager.iterator();
+
+        historyManager.clear();
+
+        assertTrue(historyManager.getHistory().isEmpty());
+        assertEquals(0, historyManager.size());
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        historyManager.add(new Task(1, "Task 1", "", Status.NEW));
+        assertEquals(1, historyManager.getHistory().size());
+    }
+
     @Test
     void removeNonExistingTask_ShouldNotAffectHistory() {
         Task task1 = new Task(1, "Task 1", "", Status.NEW);
@@ -90,4 +144,119 @@ class InMemoryHistoryManagerTest {
         assertEquals(task2, history.get(1), "Second task should be Task 2");
         assertEquals(task3, history.get(2), "Third task should be Task 3");
     }
+
+    @Test
+    void add_WhenCapacityReached_ShouldEvictLeastRecentlyViewed() {
+        InMemoryHistoryManager boundedHistory = new InMemoryHistoryManager(2);
+        Task task1 = new Task(1, "Task 1", "", Status.NEW);
+        Task task2 = new Task(2, "Task 2", "", Status.NEW);
+        Task task3 = new Task(3, "Task 3", "", Status.NEW);
+
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+        boundedHistory.add(task1); // task1 снова свежий, давним становится task2
+        boundedHistory.add(task3);
+
+        assertEquals(List.of(task1, task3), boundedHistory.getHistory(), "Task 2 should be evicted");
+        assertEquals(2, boundedHistory.size());
+        assertEquals(1, boundedHistory.getEvictionCount(), "Exactly one task should be evicted");
+    }
+
+    @Test
+    void add_WhenViewingTaskAlreadyInHistory_ShouldNotEvict() {
+        InMemoryHistoryManager boundedHistory = new InMemoryHistoryManager(2);
+        Task task1 = new Task(1, "Task 1", "", Status.NEW);
+        Task task2 = new Task(2, "Task 2", "", Status.NEW);
+
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+        boundedHistory.add(task2);
+
+        assertEquals(List.of(task1, task2), boundedHistory.getHistory());
+        assertEquals(0, boundedHistory.getEvictionCount());
+    }
+
+    @Test
+    void constructor_WithNonPositiveCapacity_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+    }
+
+    @Test
+    void getHistoryPage_ShouldReturnRequestedSlice() {
+        for (int id = 1; id <= 5; id++) {
+            historyManager.add(new Task(id, "Task " + id, "", Status.NEW));
+        }
+
+        assertEquals(List.of(1, 2), ids(historyManager.getHistory(0, 2)), "First page should start at the oldest view");
+        assertEquals(List.of(4, 5), ids(historyManager.getHistory(3, 10)), "Last page should be cut at the end");
+        assertTrue(historyManager.getHistory(5, 2).isEmpty(), "Page after the end should be empty");
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1, 2));
+    }
+
+    @Test
+    void getHistoryPage_DefaultImplementation_ShouldNotOverflowOnLargeLimit() {
+        List<Task> viewed = new ArrayList<>();
+        HistoryManager plain = new HistoryManager() { // Только обязательные методы - страница берётся по умолчанию
+            @Override
+            public void add(Task task) {
+                viewed.add(task);
+            }
+
+            @Override
+            public void remove(int id) {
+                viewed.removeIf(task -> task.getId() == id);
+            }
+
+            @Override
+            public List<Task> getHistory() {
+                return new ArrayList<>(viewed);
+            }
+        };
+        for (int id = 1; id <= 3; id++) {
+            plain.add(new Task(id, "Task " + id, "", Status.NEW));
+            historyManager.add(new Task(id, "Task " + id, "", Status.NEW));
+        }
+
+        assertEquals(List.of(2, 3), ids(plain.getHistory(1, Integer.MAX_VALUE)));
+        assertEquals(List.of(2, 3), ids(historyManager.getHistory(1, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void forEachAndIterator_ShouldVisitTasksInViewOrder() {
+        Task task1 = new Task(1, "Task 1", "", Status.NEW);
+        Task task2 = new Task(2, "Task 2", "", Status.NEW);
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        List<Task> visited = new ArrayList<>();
+        historyManager.forEach(visited::add);
+        assertEquals(List.of(task1, task2), visited);
+
+        List<Task> iterated = new ArrayList<>();
+        for (Task task : historyManager) {
+            iterated.add(task);
+        }
+        assertEquals(List.of(task1, task2), iterated);
+    }
+
+    @Test
+    void iterator_WhenHistoryChangesDuringIteration_ShouldFailFast() {
+        historyManager.add(new Task(1, "Task 1", "", Status.NEW));
+        historyManager.add(new Task(2, "Task 2", "", Status.NEW));
+
+        Iterator<Task> iterator = historyManager.iterator();
+        iterator.next();
+        historyManager.remove(2);
+
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        assertThrows(UnsupportedOperationException.class, iterator::remove, "View should be read-only");
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
 }
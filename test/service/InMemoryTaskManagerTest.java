@@ -3,10 +3,18 @@ import model.Epic;
 import model.Status;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryTaskManagerTest {
@@ -61,6 +69,50 @@ class InMemoryTaskManagerTest {
         assertEquals(0, taskManager.getSubtasks().size());
     }
 
+    @Test
+    void deleteEpic_ShouldRemoveEpicAndSubtasksFromHistoryOnly() {
+        int taskId = taskManager.addNewTask(new Task(0, "Task", "", Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "", Status.NEW));
+        int otherEpicId = taskManager.addNewEpic(new Epic(0, "Other epic", "", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", "", Status.NEW, epicId));
+        taskManager.getSubtask(subtaskId);
+        taskManager.getTask(taskId);
+        taskManager.getEpic(epicId);
+        taskManager.getEpic(otherEpicId);
+
+        taskManager.deleteEpic(epicId);
+        assertEquals(List.of(taskId, otherEpicId),
+                taskManager.getHistory().stream().map(Task::getId).toList());
+
+        taskManager.deleteAllEpics(); // Задача осталась - история чистится выборочно
+        assertEquals(List.of(taskId), taskManager.getHistory().stream().map(Task::getId).toList());
+        taskManager.deleteAllTasks(); // Больше ничего нет - история сбрасывается целиком
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void events_ShouldBePublishedForLifecycleChanges() {
+        try (TaskEventBus events = TaskEventBus.start()) {
+            List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+            events.subscribe(received::add);
+            TaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager(), events);
+
+            int epicId = manager.addNewEpic(new Epic(0, "Epic", "", Status.NEW));
+            Subtask subtask = new Subtask(0, "Subtask", "", Status.NEW, epicId);
+            int subtaskId = manager.addNewSubtask(subtask);
+            subtask.setStatus(Status.DONE);
+            manager.updateSubtask(subtask);
+            manager.deleteEpic(epicId);
+            manager.deleteAllTasks();
+            assertTrue(events.flush(5, TimeUnit.SECONDS));
+
+            assertEquals(List.of("CREATED EPIC " + epicId, "CREATED SUBTASK " + subtaskId,
+                    "UPDATED SUBTASK " + subtaskId, "DELETED EPIC " + epicId, "CLEARED TASK 0"),
+                    received.stream().map(e -> e.getKind() + " " + e.getType() + " " + e.getId()).toList());
+            assertEquals(2, received.get(3).getCount(), "Epic deletion should count its subtasks");
+        }
+    }
+
     @Test
     void addNewSubtask_ShouldAddSubtaskAndUpdateEpic() {
         Epic epic = new Epic(0, "Epic Title", "Epic Description", Status.NEW); // Создание эпика с 4 аргументами
@@ -133,6 +185,30 @@ class InMemoryTaskManagerTest {
         assertEquals("Updated Subtask Title", updatedSubtask.getTitle()); // Проверяем, что название обновлено
     }
 
+    @Test
+    void updateSubtask_ShouldMoveSubtaskWhoseEpicIdWasChangedInPlace() {
+        int firstEpicId = taskManager.addNewEpic(new Epic(0, "Epic 1", null, Status.NEW));
+        int secondEpicId = taskManager.addNewEpic(new Epic(0, "Epic 2", null, Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", null, Status.DONE, firstEpicId));
+
+        // Меняем эпик у живого объекта из менеджера, а не у новой подзадачи
+        Subtask subtask = taskManager.getSubtask(subtaskId);
+        subtask.setEpicId(secondEpicId);
+        taskManager.updateSubtask(subtask);
+
+        assertTrue(taskManager.getEpicSubtasks(firstEpicId).isEmpty());
+        assertTrue(taskManager.getEpic(firstEpicId).getSubtasks().isEmpty());
+        assertEquals(Status.NEW, taskManager.getEpic(firstEpicId).getStatus());
+        assertEquals(List.of(subtask), taskManager.getEpicSubtasks(secondEpicId));
+        assertEquals(List.of(subtask), taskManager.getEpic(secondEpicId).getSubtasks());
+        assertEquals(Status.DONE, taskManager.getEpic(secondEpicId).getStatus());
+
+        // Удаление после такого переноса тоже убирает подзадачу из нового эпика
+        taskManager.deleteSubtask(subtaskId);
+        assertTrue(taskManager.getEpic(secondEpicId).getSubtasks().isEmpty());
+        assertEquals(Status.NEW, taskManager.getEpic(secondEpicId).getStatus());
+    }
+
 
     @Test
     void getTasks_ShouldReturnAllTasks() {
@@ -145,6 +221,47 @@ class InMemoryTaskManagerTest {
         assertEquals(2, tasks.size()); // Должны быть 2 задачи
     }
 
+    @Test
+    void getTasks_ShouldReturnSnapshotUnaffectedByLaterChanges() {
+        int firstId = taskManager.addNewTask(new Task(0, "Task 1", "Description 1", Status.NEW));
+        List<Task> snapshot = taskManager.getTasks();
+
+        taskManager.addNewTask(new Task(0, "Task 2", "Description 2", Status.NEW));
+        taskManager.deleteTask(firstId);
+
+        assertEquals(1, snapshot.size());
+        assertEquals(firstId, snapshot.get(0).getId());
+        assertEquals(1, taskManager.getTasks().size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Task(0, "Task 3", null, Status.NEW)));
+    }
+
+    @Test
+    void getSubtasksPaged_ShouldNotShiftPagesOnDeletion() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(taskManager.addNewSubtask(new Subtask(0, "Subtask " + i, null, Status.NEW, epicId)));
+        }
+
+        List<Integer> walked = new ArrayList<>();
+        List<Subtask> page = taskManager.getSubtasks(0, 10);
+        while (!page.isEmpty()) {
+            page.forEach(subtask -> walked.add(subtask.getId()));
+            if (walked.size() == 10) {
+                taskManager.deleteSubtask(ids.get(0)); // Уже пройденная подзадача
+                taskManager.deleteSubtask(ids.get(20)); // Ещё не пройденная
+            }
+            page = taskManager.getSubtasks(walked.get(walked.size() - 1), 10);
+        }
+
+        List<Integer> expected = new ArrayList<>(ids);
+        expected.remove(20);
+        assertEquals(expected, walked);
+        expected.remove(0);
+        assertEquals(expected, taskManager.streamSubtasks().map(Subtask::getId).collect(Collectors.toList()));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasks(0, -1));
+    }
+
     @Test
     void getEpics_ShouldReturnAllEpics() {
         // Создаем эпики с необходимыми параметрами, включая статус
@@ -217,4 +334,403 @@ class InMemoryTaskManagerTest {
         assertEquals(0, taskManager.getSubtasks().size()); // Должны быть 0 подзадач
     }
 
+    @Test
+    void getEpicSubtasks_ShouldReturnOnlyOwnSubtasksAfterMutations() {
+        int epicId1 = taskManager.addNewEpic(new Epic(0, "Epic 1", "Description 1", Status.NEW));
+        int epicId2 = taskManager.addNewEpic(new Epic(0, "Epic 2", "Description 2", Status.NEW));
+
+        int subtaskId1 = taskManager.addNewSubtask(new Subtask(0, "Subtask 1", "Description 1", Status.NEW, epicId1));
+        int subtaskId2 = taskManager.addNewSubtask(new Subtask(0, "Subtask 2", "Description 2", Status.NEW, epicId1));
+        int subtaskId3 = taskManager.addNewSubtask(new Subtask(0, "Subtask 3", "Description 3", Status.NEW, epicId2));
+
+        // Удаляем подзадачу и переносим другую во второй эпик
+        taskManager.deleteSubtask(subtaskId1);
+        taskManager.updateSubtask(new Subtask(subtaskId2, "Subtask 2", "Description 2", Status.IN_PROGRESS, epicId2));
+
+        assertTrue(taskManager.getEpicSubtasks(epicId1).isEmpty()); // У первого эпика подзадач не осталось
+        List<Subtask> epic2Subtasks = taskManager.getEpicSubtasks(epicId2);
+        assertEquals(2, epic2Subtasks.size());
+        assertEquals(subtaskId3, epic2Subtasks.get(0).getId());
+        assertEquals(subtaskId2, epic2Subtasks.get(1).getId());
+        assertEquals(Status.NEW, taskManager.getEpic(epicId1).getStatus());
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpic(epicId2).getStatus());
+    }
+
+    @Test
+    void getEpicSubtasks_ShouldBeEmptyAfterDeleteAllSubtasks() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        taskManager.addNewSubtask(new Subtask(0, "Subtask Title", "Subtask Description", Status.NEW, epicId));
+
+        taskManager.deleteAllSubtasks();
+
+        assertTrue(taskManager.getEpicSubtasks(epicId).isEmpty());
+    }
+
+    @Test
+    void updateSubtask_ShouldRecalculateEpicStatusOnEachTransition() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        Subtask subtask1 = new Subtask(0, "Subtask 1", "Description 1", Status.NEW, epicId);
+        Subtask subtask2 = new Subtask(0, "Subtask 2", "Description 2", Status.NEW, epicId);
+        taskManager.addNewSubtask(subtask1);
+        taskManager.addNewSubtask(subtask2);
+        assertEquals(Status.NEW, taskManager.getEpic(epicId).getStatus());
+
+        // Меняем статус у того же объекта, который хранится в менеджере
+        subtask1.setStatus(Status.IN_PROGRESS);
+        taskManager.updateSubtask(subtask1);
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpic(epicId).getStatus());
+
+        subtask1.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask1);
+        assertEquals(Status.NEW, taskManager.getEpic(epicId).getStatus()); // NEW + DONE дают NEW
+
+        subtask2.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask2);
+        assertEquals(Status.DONE, taskManager.getEpic(epicId).getStatus());
+
+        taskManager.deleteSubtask(subtask2.getId());
+        taskManager.addNewSubtask(new Subtask(0, "Subtask 3", "Description 3", Status.IN_PROGRESS, epicId));
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpic(epicId).getStatus());
+    }
+
+    @Test
+    void bulkOperations_InParallelPool_ShouldKeepStatusesAndHistoryConsistent() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        InMemoryTaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager(), pool);
+        List<Subtask> all = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) { // Больше порога, после которого эпики обходятся параллельно
+            int epicId = manager.addNewEpic(new Epic(0, "Epic " + i, null, Status.NEW));
+            Subtask subtask = new Subtask(0, "Subtask " + i, null, Status.NEW, epicId);
+            manager.addNewSubtask(subtask);
+            all.add(subtask);
+            manager.getEpic(epicId);
+            manager.getSubtask(subtask.getId());
+        }
+
+        // Подзадачи меняют напрямую, без updateSubtask, - статусы эпиков пересчитываются массово
+        for (int i = 0; i < all.size(); i += 2) {
+            all.get(i).setStatus(Status.DONE);
+        }
+        assertEquals(all.size() / 2 * 2, manager.recalculateStatuses()); // Подзадача и её эпик
+        assertEquals(all.size() / 2, manager.countByStatus(TaskType.EPIC, Status.DONE));
+        assertEquals(all.size() / 2, manager.getSubtasksByStatus(Status.DONE).size());
+
+        manager.deleteAllSubtasks();
+        assertEquals(all.size(), manager.countByStatus(TaskType.EPIC, Status.NEW));
+        assertTrue(manager.getEpicSubtasks(all.get(0).getEpicId()).isEmpty());
+        assertEquals(all.size(), manager.getHistory().size(), "Only epics should remain in history");
+        pool.shutdown();
+    }
+
+    @Test
+    void applyBatch_ShouldApplyAllMutationsAndReturnIdsInOrder() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        int taskId = taskManager.addNewTask(new Task(0, "Task Title", "Task Description", Status.NEW));
+        Subtask done1 = new Subtask(0, "Subtask 1", "Description 1", Status.DONE, epicId);
+        Subtask done2 = new Subtask(0, "Subtask 2", "Description 2", Status.DONE, epicId);
+
+        int[] ids = taskManager.applyBatch(List.of(
+                Mutation.add(done1),
+                Mutation.add(done2),
+                Mutation.add(new Task(0, "New Task", "Description", Status.NEW)),
+                Mutation.update(new Epic(epicId, "Renamed Epic", "Epic Description", Status.NEW)),
+                Mutation.delete(TaskType.TASK, taskId)));
+
+        assertArrayEquals(new int[]{3, 4, 5, epicId, taskId}, ids);
+        assertEquals(done1, taskManager.getSubtask(3));
+        assertEquals("Renamed Epic", taskManager.getEpic(epicId).getTitle());
+        assertEquals(Status.DONE, taskManager.getEpic(epicId).getStatus()); // Статус пересчитан после пакета
+        assertEquals(2, taskManager.getEpicSubtasks(epicId).size());
+        assertThrows(NoSuchElementException.class, () -> taskManager.getTask(taskId));
+    }
+
+    @Test
+    void applyBatch_WhenDeletingEpic_ShouldRemoveItsSubtasksAndHistory() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.NEW, epicId));
+        taskManager.getEpic(epicId);
+
+        taskManager.applyBatch(List.of(
+                Mutation.update(new Subtask(subtaskId, "Subtask", "Description", Status.DONE, epicId)),
+                Mutation.delete(TaskType.EPIC, epicId)));
+
+        assertTrue(taskManager.getEpics().isEmpty());
+        assertTrue(taskManager.getSubtasks().isEmpty());
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void applyBatch_WhenAnyMutationInvalid_ShouldLeaveManagerUnchanged() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic Title", "Epic Description", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.NEW, epicId));
+
+        // Подзадача удалена вместе с эпиком раньше в том же пакете, поэтому её обновление недопустимо
+        List<Mutation> batch = List.of(
+                Mutation.add(new Task(0, "New Task", "Description", Status.NEW)),
+                Mutation.delete(TaskType.EPIC, epicId),
+                Mutation.update(new Subtask(subtaskId, "Subtask", "Description", Status.DONE, epicId)));
+
+        Exception exception = assertThrows(NoSuchElementException.class, () -> taskManager.applyBatch(batch));
+        assertTrue(exception.getMessage().contains("№2"));
+        assertTrue(taskManager.getTasks().isEmpty());
+        assertEquals(1, taskManager.getEpics().size());
+        assertEquals(1, taskManager.getSubtasks().size());
+        assertEquals(3, taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW)),
+                "Rejected batch should not consume IDs");
+    }
+
+    @Test
+    void applyBatch_WhenSubtaskWasMovedIntoEpicDeletedInBatch_ShouldRejectLaterUpdate() {
+        int firstEpicId = taskManager.addNewEpic(new Epic(0, "Epic 1", "Description", Status.NEW));
+        int secondEpicId = taskManager.addNewEpic(new Epic(0, "Epic 2", "Description", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", "Description", Status.NEW, firstEpicId));
+
+        // Подзадача переезжает во второй эпик и удаляется вместе с ним, поэтому вернуть её уже нельзя
+        List<Mutation> batch = List.of(
+                Mutation.update(new Subtask(subtaskId, "Subtask", "Description", Status.NEW, secondEpicId)),
+                Mutation.delete(TaskType.EPIC, secondEpicId),
+                Mutation.update(new Subtask(subtaskId, "Subtask", "Description", Status.DONE, firstEpicId)));
+
+        Exception exception = assertThrows(NoSuchElementException.class, () -> taskManager.applyBatch(batch));
+        assertTrue(exception.getMessage().contains("№2"));
+        assertEquals(2, taskManager.getEpics().size());
+        assertEquals(firstEpicId, taskManager.getSubtask(subtaskId).getEpicId());
+        assertEquals(List.of(subtaskId), ids(taskManager.getEpicSubtasks(firstEpicId)));
+
+        // Подзадача, перенесённая из удаляемого эпика раньше, остаётся жить в новом
+        taskManager.applyBatch(List.of(
+                Mutation.update(new Subtask(subtaskId, "Subtask", "Description", Status.DONE, secondEpicId)),
+                Mutation.delete(TaskType.EPIC, firstEpicId),
+                Mutation.update(new Subtask(subtaskId, "Subtask", "Description", Status.NEW, secondEpicId))));
+        assertEquals(List.of(subtaskId), ids(taskManager.getEpicSubtasks(secondEpicId)));
+    }
+
+    @Test
+    void applyBatch_ShouldResolveReferencesToEntitiesAddedInSameBatch() {
+        List<Mutation> batch = new ArrayList<>();
+        batch.add(Mutation.add(new Epic(0, "Импорт", null, Status.NEW)));
+        for (int i = 0; i < 1_000; i++) {
+            batch.add(Mutation.add(new Subtask(0, "Подзадача " + i, null, Status.DONE, Mutation.added(0))));
+        }
+        batch.add(Mutation.update(new Subtask(Mutation.added(1), "Первая", null, Status.NEW, Mutation.added(0))));
+        batch.add(Mutation.delete(TaskType.SUBTASK, Mutation.added(2)));
+
+        int[] result = taskManager.applyBatch(batch);
+
+        int epicId = result[0];
+        assertEquals(999, taskManager.getEpicSubtasks(epicId).size());
+        assertEquals(result[1], result[1001], "Обновление получает ID добавленной подзадачи");
+        assertEquals("Первая", taskManager.getSubtask(result[1]).getTitle());
+        assertEquals(epicId, taskManager.getSubtask(result[1]).getEpicId());
+        assertThrows(NoSuchElementException.class, () -> taskManager.getSubtask(result[2]));
+        assertEquals(Status.NEW, taskManager.getEpic(epicId).getStatus(), "Одна подзадача снова NEW");
+
+        // Ссылка вперёд, на изменение другого типа или на удалённую в пакете сущность - ошибка
+        assertThrows(NoSuchElementException.class, () -> taskManager.applyBatch(List.of(
+                Mutation.add(new Subtask(0, "s", null, Status.NEW, Mutation.added(1))),
+                Mutation.add(new Epic(0, "e", null, Status.NEW)))));
+        assertThrows(NoSuchElementException.class, () -> taskManager.applyBatch(List.of(
+                Mutation.add(new Task(0, "t", null, Status.NEW)),
+                Mutation.add(new Subtask(0, "s", null, Status.NEW, Mutation.added(0))))));
+        assertThrows(NoSuchElementException.class, () -> taskManager.applyBatch(List.of(
+                Mutation.add(new Epic(0, "e", null, Status.NEW)),
+                Mutation.delete(TaskType.EPIC, Mutation.added(0)),
+                Mutation.add(new Subtask(0, "s", null, Status.NEW, Mutation.added(0))))));
+        assertEquals(1, taskManager.getEpics().size());
+    }
+
+    @Test
+    void getByStatus_ShouldReturnEntitiesInIdOrderInEveryManager() {
+        List<TaskManager> managers = List.of(taskManager, new ConcurrentTaskManager(new InMemoryHistoryManager()),
+                new ColumnarTaskManager(new InMemoryHistoryManager()));
+        for (TaskManager manager : managers) {
+            int epicId = manager.addNewEpic(new Epic(0, "Epic", null, Status.NEW));
+            List<Integer> taskIds = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                taskIds.add(manager.addNewTask(new Task(0, "Task " + i, null, Status.NEW)));
+                manager.addNewSubtask(new Subtask(0, "Subtask " + i, null, Status.NEW, epicId));
+            }
+            // Переводим задачи в DONE в обратном порядке, чтобы порядок вставки в раздел не совпадал с ID
+            for (int i = taskIds.size() - 1; i >= 0; i -= 2) {
+                manager.updateTask(new Task(taskIds.get(i), "Task", null, Status.DONE));
+            }
+
+            for (Status status : Status.values()) {
+                assertIdOrder(manager.getTasksByStatus(status));
+                assertIdOrder(manager.getSubtasksByStatus(status));
+                assertIdOrder(manager.getEpicsByStatus(status));
+            }
+            assertEquals(1_000, manager.getTasksByStatus(Status.DONE).size());
+        }
+    }
+
+    @Test
+    void addNewEpic_ShouldDropSubtasksAndStatusSuppliedWithEpicInEveryManager() {
+        List<TaskManager> managers = List.of(taskManager, new ConcurrentTaskManager(new InMemoryHistoryManager()),
+                new ColumnarTaskManager(new InMemoryHistoryManager()));
+        for (TaskManager manager : managers) {
+            Epic epic = new Epic(0, "Epic", null, Status.DONE);
+            epic.addSubtask(new Subtask(77, "Foreign", null, Status.DONE, 0)); // Подзадача, которой нет в менеджере
+
+            int epicId = manager.addNewEpic(epic);
+
+            assertTrue(manager.getEpicSubtasks(epicId).isEmpty(), manager.getClass().getSimpleName());
+            assertTrue(manager.getEpic(epicId).getSubtasks().isEmpty());
+            assertEquals(Status.NEW, manager.getEpic(epicId).getStatus());
+            assertEquals(List.of(epicId), ids(manager.getEpicsByStatus(Status.NEW)));
+            assertThrows(NoSuchElementException.class, () -> manager.getSubtask(77));
+        }
+    }
+
+    private static void assertIdOrder(List<? extends Task> entities) {
+        for (int i = 1; i < entities.size(); i++) {
+            assertTrue(entities.get(i - 1).getId() < entities.get(i).getId(), "Status lists should be sorted by ID");
+        }
+    }
+
+    @Test
+    void getByStatus_ShouldFollowStatusTransitionsIncludingDerivedEpicStatus() {
+        int taskId = taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        Subtask subtask = new Subtask(0, "Subtask", "Description", Status.NEW, epicId);
+        taskManager.addNewSubtask(subtask);
+        assertEquals(1, taskManager.countByStatus(TaskType.TASK, Status.NEW));
+        assertEquals(List.of(subtask), taskManager.getSubtasksByStatus(Status.NEW));
+
+        // Статус меняется у хранимого объекта, индекс обновляется при updateSubtask
+        subtask.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask);
+        assertTrue(taskManager.getSubtasksByStatus(Status.NEW).isEmpty());
+        assertEquals(List.of(subtask), taskManager.getSubtasksByStatus(Status.DONE));
+        assertEquals(epicId, taskManager.getEpicsByStatus(Status.DONE).get(0).getId());
+        assertEquals(0, taskManager.countByStatus(TaskType.EPIC, Status.NEW));
+
+        taskManager.updateTask(new Task(taskId, "Task", "Description", Status.IN_PROGRESS));
+        assertEquals(taskId, taskManager.getTasksByStatus(Status.IN_PROGRESS).get(0).getId());
+        assertEquals(0, taskManager.countByStatus(TaskType.TASK, Status.NEW));
+
+        taskManager.deleteAllSubtasks();
+        assertEquals(1, taskManager.countByStatus(TaskType.EPIC, Status.NEW));
+        assertEquals(0, taskManager.countByStatus(TaskType.SUBTASK, Status.DONE));
+
+        taskManager.deleteEpic(epicId);
+        taskManager.deleteTask(taskId);
+        for (Status status : Status.values()) {
+            assertEquals(0, taskManager.countByStatus(TaskType.TASK, status));
+            assertEquals(0, taskManager.countByStatus(TaskType.EPIC, status));
+        }
+    }
+
+    @Test
+    void search_ShouldFollowAddUpdateAndDelete() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Релиз 2.0", "Подготовка релиза", Status.NEW));
+        int taskId = taskManager.addNewTask(new Task(0, "Написать заметки к релизу", null, Status.NEW));
+        Subtask subtask = new Subtask(0, "Проверить сборку", "Перед релизом", Status.NEW, epicId);
+        taskManager.addNewSubtask(subtask);
+        assertEquals(3, taskManager.search("рел", 10).size());
+
+        taskManager.updateEpic(new Epic(epicId, "Версия 2.0", null, Status.NEW));
+        taskManager.updateTask(new Task(taskId, "Написать заметки", null, Status.DONE));
+        assertEquals(List.of(subtask), taskManager.search("релиз", 10));
+        assertEquals(epicId, taskManager.search("версия", 10).get(0).getId());
+
+        taskManager.deleteEpic(epicId);
+        assertTrue(taskManager.search("сборку", 10).isEmpty());
+        assertEquals(taskId, taskManager.search("заметки", 10).get(0).getId());
+    }
+
+    @Test
+    void getPrioritizedTasks_ShouldFollowAddUpdateAndDelete() {
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        int lateId = taskManager.addNewTask(new Task(0, "Late", null, Status.NEW, morning.plusHours(3), Duration.ofHours(1)));
+        taskManager.addNewTask(new Task(0, "Unscheduled", null, Status.NEW));
+        Subtask early = new Subtask(0, "Early", null, Status.NEW, epicId, morning, Duration.ofMinutes(30));
+        int earlyId = taskManager.addNewSubtask(early);
+        assertEquals(List.of(earlyId, lateId), ids(taskManager.getPrioritizedTasks()));
+
+        // Перенос задачи в начало дня меняет порядок, снятие времени убирает её из расписания
+        taskManager.updateTask(new Task(lateId, "Late", null, Status.NEW, morning.minusHours(1), Duration.ofHours(1)));
+        assertEquals(List.of(lateId, earlyId), ids(taskManager.getPrioritizedTasks()));
+        taskManager.updateTask(new Task(lateId, "Late", null, Status.NEW));
+        assertEquals(List.of(earlyId), ids(taskManager.getPrioritizedTasks()));
+
+        taskManager.deleteEpic(epicId);
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void addAndUpdate_WhenTimeOverlaps_ShouldRejectAndKeepSchedule() {
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        int taskId = taskManager.addNewTask(new Task(0, "Task", null, Status.NEW, morning, Duration.ofHours(1)));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addNewSubtask(
+                new Subtask(0, "Overlap", null, Status.NEW, epicId, morning.plusMinutes(59), Duration.ofMinutes(5))));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addNewTask(
+                new Task(0, "Covers", null, Status.NEW, morning.minusHours(1), Duration.ofHours(3))));
+        // Соседние интервалы [9:00, 10:00) и [10:00, 11:00) не пересекаются
+        int nextId = taskManager.addNewTask(new Task(0, "Next", null, Status.NEW, morning.plusHours(1), Duration.ofHours(1)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.updateTask(
+                new Task(nextId, "Next", null, Status.NEW, morning.plusMinutes(30), Duration.ofHours(1))));
+        // Сдвиг внутри собственного интервала - не пересечение с самим собой
+        taskManager.updateTask(new Task(taskId, "Task", null, Status.DONE, morning.plusMinutes(10), Duration.ofMinutes(50)));
+
+        assertEquals(List.of(taskId, nextId), ids(taskManager.getPrioritizedTasks()));
+        assertEquals(morning.plusHours(1), taskManager.getTask(nextId).getStartTime());
+        assertTrue(taskManager.getSubtasks().isEmpty());
+    }
+
+    @Test
+    void applyBatch_WhenTimeOverlapsWithinBatch_ShouldLeaveManagerUnchanged() {
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        int taskId = taskManager.addNewTask(new Task(0, "Task", null, Status.NEW, morning, Duration.ofHours(1)));
+
+        // Задача освобождает утро, а две новые претендуют на одно и то же время после неё
+        List<Mutation> batch = List.of(
+                Mutation.delete(TaskType.TASK, taskId),
+                Mutation.add(new Task(0, "A", null, Status.NEW, morning, Duration.ofHours(1))),
+                Mutation.add(new Task(0, "B", null, Status.NEW, morning.plusMinutes(30), Duration.ofHours(1))));
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> taskManager.applyBatch(batch));
+        assertTrue(exception.getMessage().contains("№2"));
+        assertEquals(List.of(taskId), ids(taskManager.getPrioritizedTasks()));
+
+        int[] applied = taskManager.applyBatch(batch.subList(0, 2));
+        assertEquals(List.of(applied[1]), ids(taskManager.getPrioritizedTasks()));
+    }
+
+    @Test
+    void epicTime_ShouldFollowSubtaskChanges() {
+        LocalDateTime morning = LocalDateTime.of(2026, 10, 18, 9, 0);
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Description", Status.NEW));
+        assertNull(taskManager.getEpic(epicId).getStartTime());
+        int firstId = taskManager.addNewSubtask(
+                new Subtask(0, "First", null, Status.NEW, epicId, morning, Duration.ofMinutes(30)));
+        int lastId = taskManager.addNewSubtask(
+                new Subtask(0, "Last", null, Status.NEW, epicId, morning.plusHours(2), Duration.ofHours(1)));
+        taskManager.addNewSubtask(new Subtask(0, "Unscheduled", null, Status.NEW, epicId));
+
+        Epic epic = taskManager.getEpic(epicId);
+        assertEquals(morning, epic.getStartTime());
+        assertEquals(morning.plusHours(3), epic.getEndTime(), "Окончание - по самой поздней подзадаче");
+        assertEquals(Duration.ofMinutes(90), epic.getDuration(), "Продолжительность - сумма, а не размах");
+        assertFalse(taskManager.getPrioritizedTasks().contains(epic), "Эпик не попадает в расписание");
+
+        taskManager.updateSubtask(new Subtask(lastId, "Last", null, Status.NEW, epicId, morning.plusHours(1),
+                Duration.ofMinutes(15)));
+        taskManager.deleteSubtask(firstId);
+        epic = taskManager.getEpic(epicId);
+        assertEquals(morning.plusHours(1), epic.getStartTime());
+        assertEquals(morning.plusMinutes(75), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(15), epic.getDuration());
+
+        taskManager.deleteAllSubtasks();
+        assertNull(taskManager.getEpic(epicId).getStartTime());
+        assertNull(taskManager.getEpic(epicId).getDuration());
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
 }
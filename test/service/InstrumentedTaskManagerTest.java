@@ -0,0 +1,110 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedTaskManagerTest {
+
+    private InstrumentedTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() {
+        taskManager = Managers.getInstrumented();
+    }
+
+    @Test
+    void getMetrics_ShouldCountCallsErrorsAndSizes() {
+        int taskId = taskManager.addNewTask(new Task(0, "Task", "", Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "", Status.NEW));
+        taskManager.addNewSubtask(new Subtask(0, "Subtask", "", Status.DONE, epicId));
+        taskManager.getTask(taskId);
+        taskManager.getTask(taskId);
+        assertThrows(NoSuchElementException.class, () -> taskManager.getTask(999));
+
+        TaskManagerMetrics metrics = taskManager.getMetrics();
+        OperationStats getTask = metrics.getOperation("getTask");
+        assertEquals(3, getTask.getCalls(), "Failed calls should be counted too");
+        assertEquals(1, getTask.getErrors());
+        assertTrue(getTask.getP50Nanos() <= getTask.getP99Nanos());
+        assertTrue(getTask.getP99Nanos() <= getTask.getMaxNanos());
+        assertEquals(1, metrics.getOperation("addNewSubtask").getCalls());
+        assertEquals(0, metrics.getOperation("deleteAllTasks").getCalls());
+        assertEquals(6, metrics.getTotalCalls());
+        assertEquals(1, metrics.getTotalErrors());
+
+        assertEquals(1, metrics.getTaskCount());
+        assertEquals(1, metrics.getEpicCount());
+        assertEquals(1, metrics.getSubtaskCount());
+        assertEquals(1, metrics.getHistorySize());
+        assertThrows(NoSuchElementException.class, () -> metrics.getOperation("unknown"));
+    }
+
+    @Test
+    void decorator_ShouldBehaveLikeDelegate() {
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "", Status.NEW));
+        int subtaskId = taskManager.addNewSubtask(new Subtask(0, "Subtask", "", Status.DONE, epicId));
+        assertEquals(Status.DONE, taskManager.getEpic(epicId).getStatus());
+        assertEquals(subtaskId, taskManager.getSubtasks(0, 10).get(0).getId());
+        assertEquals(1, taskManager.getMetrics().getOperation("getSubtasksPage").getCalls());
+
+        taskManager.deleteEpic(epicId);
+        assertTrue(taskManager.getSubtasks().isEmpty());
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    void registerMBean_ShouldExposeMetricsThroughJmx() throws Exception {
+        taskManager.addNewTask(new Task(0, "Task", "", Status.NEW));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = taskManager.registerMBean("test-" + System.nanoTime());
+        try {
+            assertThrows(IllegalStateException.class, () -> taskManager.registerMBean("again"));
+            assertEquals(1, server.getAttribute(name, "TaskCount"));
+            assertEquals(1L, server.getAttribute(name, "TotalCalls"));
+            CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+            assertEquals("getTasks", operations[0].get("name"));
+            assertEquals(taskManager.getMetrics().getOperations().size(), operations.length);
+        } finally {
+            taskManager.unregisterMBean();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void latencyHistogram_ShouldKeepValuesWithinRelativeError() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT - 1; bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.highestValueIn(bucket)));
+            assertEquals(bucket + 1, LatencyHistogram.bucketOf(LatencyHistogram.highestValueIn(bucket) + 1));
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10_000];
+        Random random = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + random.nextInt(10_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        OperationStats stats = histogram.toStats("op", 0);
+        assertEquals(values.length, stats.getCalls());
+        assertEquals(values[values.length - 1], stats.getMaxNanos());
+        long exactP99 = values[(int) Math.ceil(0.99 * values.length) - 1];
+        assertTrue(Math.abs(stats.getP99Nanos() - exactP99) <= exactP99 / 32,
+                "p99 " + stats.getP99Nanos() + " should be within 1/32 of " + exactP99);
+    }
+}
@@ -0,0 +1,89 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+
+    @Test
+    void put_ShouldReplaceValueAndReturnPrevious() {
+        IntHashMap<String> map = new IntHashMap<>();
+        assertNull(map.put(1, "one"));
+        assertEquals("one", map.put(1, "uno"));
+        assertEquals("uno", map.get(1));
+        assertEquals(1, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(2, null));
+    }
+
+    @Test
+    void remove_WhenKeysCollide_ShouldKeepRestOfChainReachable() {
+        IntHashMap<String> map = new IntHashMap<>();
+        // Ключи с шагом 16 попадают в одну ячейку начальной таблицы
+        map.put(0, "a");
+        map.put(16, "b");
+        map.put(32, "c");
+        map.put(1, "d");
+
+        assertEquals("a", map.remove(0));
+        assertEquals("b", map.get(16));
+        assertEquals("c", map.get(32));
+        assertEquals("d", map.get(1));
+        assertNull(map.remove(0));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void put_ForAscendingIdsWithGaps_ShouldKeepAllEntriesReachable() {
+        // Раздел одного статуса: две трети подряд идущих ID, таблица проходится несколько раз
+        IntHashMap<Integer> map = new IntHashMap<>();
+        int count = 0;
+        for (int id = 1; id <= 300_000; id++) {
+            if (id % 3 != 0) {
+                map.put(id, id);
+                count++;
+            }
+        }
+        assertEquals(count, map.size());
+        for (int id = 1; id <= 300_000; id++) {
+            assertEquals(id % 3 != 0 ? Integer.valueOf(id) : null, map.get(id));
+        }
+    }
+
+    @Test
+    void randomOperations_ShouldMatchHashMap() {
+        Random random = new Random(7);
+        IntHashMap<Integer> map = new IntHashMap<>();
+        Map<Integer, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 1_000; // Есть и отрицательные ключи, и ноль
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(reference.put(key, i), map.put(key, i));
+                    break;
+                case 1:
+                    assertEquals(reference.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(reference.get(key), map.get(key));
+                    break;
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        List<Integer> values = map.values();
+        values.sort(null);
+        List<Integer> expected = new ArrayList<>(reference.values());
+        expected.sort(null);
+        assertEquals(expected, values);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertTrue(map.values().isEmpty());
+    }
+}
@@ -1,5 +1,6 @@
 package service;
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -20,4 +21,40 @@ class ManagersTest {
         assertNotNull(historyManager, "HistoryManager должен быть не null");
         assertTrue(historyManager instanceof InMemoryHistoryManager, "Должен возвращаться экземпляр InMemoryHistoryManager");
     }
+
+    @Test
+    void testGetConcurrentTaskManager() {
+        TaskManager taskManager = Managers.getConcurrent();
+        assertNotNull(taskManager, "TaskManager должен быть не null");
+        assertTrue(taskManager instanceof ConcurrentTaskManager, "Должен возвращаться экземпляр ConcurrentTaskManager");
+    }
+
+    @Test
+    void testGetColumnarTaskManager() {
+        TaskManager taskManager = Managers.getColumnar();
+        assertNotNull(taskManager, "TaskManager должен быть не null");
+        assertTrue(taskManager instanceof ColumnarTaskManager, "Должен возвращаться экземпляр ColumnarTaskManager");
+    }
+
+    @Test
+    void testGetInstrumentedTaskManager() {
+        InstrumentedTaskManager taskManager = Managers.getInstrumented();
+        assertTrue(taskManager.getDelegate() instanceof InMemoryTaskManager, "Метрики должны оборачивать InMemoryTaskManager");
+        assertTrue(Managers.getInstrumentedConcurrent().getDelegate() instanceof ConcurrentTaskManager,
+                "Метрики должны оборачивать ConcurrentTaskManager");
+    }
+
+    @Test
+    void testGetConcurrentHistoryManager() {
+        HistoryManager historyManager = Managers.getConcurrentHistory();
+        assertNotNull(historyManager, "HistoryManager должен быть не null");
+        assertTrue(historyManager instanceof ConcurrentHistoryManager, "Должен возвращаться экземпляр ConcurrentHistoryManager");
+    }
+
+    @Test
+    void testGetDefaultHistoryManagerWithCapacity() {
+        HistoryManager historyManager = Managers.getDefaultHistory(10);
+        assertTrue(historyManager instanceof InMemoryHistoryManager, "Должен возвращаться экземпляр InMemoryHistoryManager");
+        assertEquals(10, ((InMemoryHistoryManager) historyManager).getCapacity(), "Ёмкость должна передаваться в менеджер истории");
+    }
 }
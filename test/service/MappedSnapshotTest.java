@@ -0,0 +1,154 @@
+package service;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSnapshotTest {
+    private Path file;
+    private InMemoryTaskManager taskManager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("kanban", ".snapshot");
+        taskManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void open_ShouldLazilyMaterializeEntitiesById() throws IOException {
+        int taskId = taskManager.addNewTask(new Task(0, "Задача", null, Status.DONE));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", "Описание эпика", Status.NEW));
+        int subtaskId1 = taskManager.addNewSubtask(new Subtask(0, "Subtask 1", "", Status.IN_PROGRESS, epicId));
+        int subtaskId2 = taskManager.addNewSubtask(new Subtask(0, "Subtask 2", "Description", Status.NEW, epicId));
+        int deletedId = taskManager.addNewTask(new Task(0, "Deleted", "Description", Status.NEW));
+        taskManager.deleteTask(deletedId);
+
+        MappedSnapshot.write(taskManager, file);
+
+        try (MappedSnapshot snapshot = MappedSnapshot.open(file)) {
+            assertEquals(4, snapshot.size());
+            assertEquals(deletedId + 1, snapshot.getNextId(), "Snapshot should keep the ID counter");
+            assertFalse(snapshot.contains(deletedId));
+            assertEquals(TaskType.SUBTASK, snapshot.getType(subtaskId2));
+
+            Task task = snapshot.get(taskId);
+            assertEquals("Задача", task.getTitle());
+            assertNull(task.getDescription());
+            assertEquals(Status.DONE, task.getStatus());
+
+            Epic epic = (Epic) snapshot.get(epicId);
+            assertEquals("Описание эпика", epic.getDescription());
+            assertEquals(Status.IN_PROGRESS, epic.getStatus());
+            List<Subtask> subtasks = epic.getSubtasks();
+            assertEquals(2, subtasks.size());
+            assertSame(subtasks.get(0), snapshot.get(subtaskId1), "Subtasks should be materialized only once");
+            assertEquals(epicId, ((Subtask) snapshot.get(subtaskId2)).getEpicId());
+            assertEquals("", ((Subtask) snapshot.get(subtaskId1)).getDescription());
+
+            assertThrows(NoSuchElementException.class, () -> snapshot.get(deletedId));
+        }
+    }
+
+    @Test
+    void getAll_ShouldReturnEntitiesInIdOrder() throws IOException {
+        for (int i = 0; i < 1_000; i++) {
+            taskManager.addNewTask(new Task(0, "Task " + i, "Description " + i, Status.NEW));
+        }
+        MappedSnapshot.write(taskManager, file);
+
+        try (MappedSnapshot snapshot = MappedSnapshot.open(file)) {
+            List<Task> all = snapshot.getAll();
+            assertEquals(1_000, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(i + 1, all.get(i).getId());
+                assertEquals("Task " + i, all.get(i).getTitle());
+            }
+        }
+    }
+
+    @Test
+    void open_ShouldRestoreTaskTime() throws IOException {
+        LocalDateTime start = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999);
+        int taskId = taskManager.addNewTask(new Task(0, "Task", null, Status.NEW, start, Duration.ofNanos(1)));
+        int plainId = taskManager.addNewTask(new Task(0, "Plain", null, Status.NEW));
+        int epicId = taskManager.addNewEpic(new Epic(0, "Epic", null, Status.NEW));
+        taskManager.addNewSubtask(new Subtask(0, "Sub", null, Status.NEW, epicId, start.plusDays(1), Duration.ofDays(2)));
+
+        MappedSnapshot.write(taskManager, file);
+
+        try (MappedSnapshot snapshot = MappedSnapshot.open(file)) {
+            assertEquals(start, snapshot.get(taskId).getStartTime());
+            assertEquals(LocalDateTime.of(1970, 1, 1, 0, 0), snapshot.get(taskId).getEndTime());
+            assertNull(snapshot.get(plainId).getStartTime());
+            assertNull(snapshot.get(plainId).getDuration());
+            assertEquals(Duration.ofDays(2), snapshot.get(epicId).getDuration(), "Время эпика - по подзадачам");
+        }
+    }
+
+    @Test
+    void write_ShouldReplaceFileAtomicallyUnderOpenSnapshot() throws IOException {
+        int taskId = taskManager.addNewTask(new Task(0, "Old", "Description", Status.NEW));
+        MappedSnapshot.write(taskManager, file);
+
+        try (MappedSnapshot old = MappedSnapshot.open(file)) {
+            taskManager.updateTask(new Task(taskId, "New", "Description", Status.DONE));
+            int addedId = taskManager.addNewTask(new Task(0, "Added", null, Status.NEW));
+            MappedSnapshot.write(taskManager, file);
+
+            assertEquals("Old", old.get(taskId).getTitle(), "Открытый снимок читает прежний файл");
+            assertFalse(old.contains(addedId));
+            try (MappedSnapshot updated = MappedSnapshot.open(file)) {
+                assertEquals("New", updated.get(taskId).getTitle());
+                assertEquals(2, updated.size());
+            }
+        }
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+
+    @Test
+    void write_WhenTempFileCannotBeWritten_ShouldKeepPreviousSnapshot() throws IOException {
+        int taskId = taskManager.addNewTask(new Task(0, "Kept", "Description", Status.NEW));
+        MappedSnapshot.write(taskManager, file);
+        Path blocker = Files.createDirectory(file.resolveSibling(file.getFileName() + ".tmp"));
+        try {
+            taskManager.updateTask(new Task(taskId, "Lost", "Description", Status.NEW));
+            assertThrows(ManagerSaveException.class, () -> MappedSnapshot.write(taskManager, file));
+        } finally {
+            Files.delete(blocker);
+        }
+        try (MappedSnapshot snapshot = MappedSnapshot.open(file)) {
+            assertEquals("Kept", snapshot.get(taskId).getTitle());
+        }
+    }
+
+    @Test
+    void open_WhenFileIsTruncated_ShouldThrow() throws IOException {
+        taskManager.addNewTask(new Task(0, "Task", "Description", Status.NEW));
+        MappedSnapshot.write(taskManager, file);
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 3));
+
+        assertThrows(ManagerSaveException.class, () -> MappedSnapshot.open(file));
+    }
+}
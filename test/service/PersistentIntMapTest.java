@@ -0,0 +1,121 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntMapTest {
+
+    @Test
+    void snapshot_ShouldNotSeeLaterWrites() {
+        PersistentIntMap<String> map = new PersistentIntMap<>();
+        map.put(1, "one");
+        map.put(2, "two");
+        List<String> snapshot = map.snapshot();
+
+        map.put(1, "uno");
+        map.put(3, "three");
+        map.remove(2);
+
+        assertEquals(List.of("one", "two"), snapshot);
+        assertEquals(List.of("uno", "three"), map.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add("four"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(4, null));
+    }
+
+    @Test
+    void snapshot_ShouldListValuesByKeyWithIndexAccess() {
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int key = 0; key < 40_000; key += 3) {
+            map.put(key, key);
+            expected.add(key);
+        }
+        PersistentIntMap.Snapshot<Integer> snapshot = map.snapshot();
+        assertEquals(expected, snapshot);
+        for (int i = 0; i < expected.size(); i += 97) {
+            assertEquals(expected.get(i), snapshot.get(i));
+        }
+        assertEquals(300, snapshot.lookup(300));
+        assertNull(snapshot.lookup(301));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(expected.size()));
+    }
+
+    @Test
+    void page_ShouldStartAfterKeyAndSkipNegativeKeys() {
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        for (int key = 1; key <= 5_000; key += 2) {
+            map.put(key, key);
+        }
+        map.put(-7, -7);
+        PersistentIntMap.Snapshot<Integer> snapshot = map.snapshot();
+
+        assertEquals(List.of(1, 3, 5), snapshot.page(0, 3));
+        assertEquals(List.of(1001, 1003), snapshot.page(1000, 2));
+        assertEquals(List.of(1001, 1003), snapshot.page(999, 2));
+        assertEquals(List.of(4997, 4999), snapshot.page(4995, 10));
+        assertTrue(snapshot.page(Integer.MAX_VALUE, 10).isEmpty());
+        assertEquals(2, snapshot.rank(4));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.page(0, -1));
+    }
+
+    @Test
+    void parallelStream_ShouldVisitEveryValueOnce() {
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        long expected = 0;
+        for (int key = 1; key <= 100_000; key++) {
+            map.put(key * 7, key);
+            expected += key;
+        }
+        PersistentIntMap.Snapshot<Integer> snapshot = map.snapshot();
+        assertEquals(expected, snapshot.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(snapshot, snapshot.parallelStream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void randomOperations_ShouldMatchTreeMapAndKeepEverySnapshot() {
+        Random random = new Random(11);
+        PersistentIntMap<Integer> map = new PersistentIntMap<>();
+        TreeMap<Integer, Integer> reference = new TreeMap<>();
+        List<List<Integer>> snapshots = new ArrayList<>();
+        List<List<Integer>> expectedSnapshots = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(20) == 0 ? random.nextInt() : random.nextInt(5_000); // Есть и огромные ключи
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(reference.put(key, i), map.put(key, i));
+                    break;
+                case 1:
+                    assertEquals(reference.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(reference.get(key), map.get(key));
+                    break;
+            }
+            assertEquals(reference.size(), map.size());
+            if (i % 5_000 == 0) {
+                snapshots.add(map.snapshot());
+                expectedSnapshots.add(unsignedOrder(reference));
+            }
+        }
+        assertEquals(expectedSnapshots, snapshots);
+        assertEquals(unsignedOrder(reference), map.snapshot());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertTrue(map.snapshot().isEmpty());
+    }
+
+    // Ключи без знака: сначала неотрицательные, затем отрицательные
+    private static List<Integer> unsignedOrder(TreeMap<Integer, Integer> reference) {
+        List<Integer> values = new ArrayList<>(reference.tailMap(0).values());
+        values.addAll(reference.headMap(0).values());
+        return values;
+    }
+}
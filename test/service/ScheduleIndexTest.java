@@ -0,0 +1,85 @@
+package service;
+
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleIndexTest {
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Test
+    void checkFree_ShouldTreatIntervalsAsHalfOpen() {
+        ScheduleIndex schedule = new ScheduleIndex();
+        schedule.put(1, task(1, NOON, Duration.ofHours(1)));
+
+        schedule.checkFree(0, task(0, NOON.minusHours(1), Duration.ofHours(1))); // Кончается, когда та начинается
+        schedule.checkFree(0, task(0, NOON.plusHours(1), Duration.ofHours(1))); // Начинается, когда та кончается
+        schedule.checkFree(0, task(0, NOON, Duration.ZERO)); // Точка на границе
+        schedule.checkFree(0, new Task(0, "t", null, Status.NEW)); // Без времени ни с чем не пересекается
+        assertThrows(IllegalArgumentException.class, () -> schedule.checkFree(0, task(0, NOON.plusMinutes(30), null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.checkFree(0, task(0, NOON.minusMinutes(1), Duration.ofHours(2))));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.checkFree(0, task(0, NOON.plusMinutes(59), Duration.ofMinutes(2))));
+    }
+
+    @Test
+    void checkFree_ShouldFindOverlapBehindZeroLengthPoints() {
+        ScheduleIndex schedule = new ScheduleIndex();
+        schedule.put(1, new Subtask(1, "s", null, Status.NEW, 9, NOON, Duration.ofHours(2)));
+        schedule.put(2, task(2, NOON.plusHours(2), Duration.ZERO));
+        schedule.put(3, task(3, NOON.plusHours(2), Duration.ofHours(1)));
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> schedule.checkFree(0, task(0, NOON.plusMinutes(90), Duration.ofMinutes(10))));
+        assertTrue(exception.getMessage().contains("SUBTASK с ID 1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.checkFree(0, task(0, NOON.plusMinutes(150), Duration.ofHours(1))));
+        schedule.checkFree(0, task(0, NOON.plusHours(3), Duration.ofHours(1)));
+    }
+
+    @Test
+    void checkFree_ShouldIgnoreOwnIntervalAndRejectNegativeDuration() {
+        ScheduleIndex schedule = new ScheduleIndex();
+        schedule.put(1, task(1, NOON, Duration.ofHours(1)));
+        schedule.put(2, task(2, NOON.plusHours(1), Duration.ofHours(1)));
+
+        schedule.checkFree(2, task(2, NOON.plusMinutes(70), Duration.ofMinutes(30)));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.checkFree(2, task(2, NOON.plusMinutes(30), Duration.ofHours(1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> schedule.checkFree(0, task(0, NOON.plusDays(1), Duration.ofMinutes(-1))));
+    }
+
+    @Test
+    void put_ShouldReplaceAndRemoveIntervalsById() {
+        ScheduleIndex schedule = new ScheduleIndex();
+        Task first = task(1, NOON.plusHours(5), Duration.ofHours(1));
+        Task second = task(2, NOON, Duration.ofHours(1));
+        schedule.put(1, first);
+        schedule.put(2, second);
+        assertEquals(List.of(second, first), schedule.ordered());
+
+        Task moved = task(1, NOON.minusHours(5), Duration.ofHours(1));
+        schedule.put(1, moved);
+        assertEquals(List.of(moved, second), schedule.ordered());
+        assertSame(moved, schedule.get(1));
+
+        schedule.put(2, new Task(2, "t", null, Status.NEW)); // Снятое время убирает сущность из расписания
+        schedule.remove(1);
+        assertEquals(0, schedule.size());
+        assertNull(schedule.get(2));
+        schedule.checkFree(0, task(0, NOON, Duration.ofHours(1)));
+    }
+
+    private static Task task(int id, LocalDateTime start, Duration duration) {
+        return new Task(id, "t", null, Status.NEW, start, duration);
+    }
+}
@@ -0,0 +1,97 @@
+package service;
+
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+    }
+
+    @Test
+    void tokenize_ShouldNormalizeCaseYoAndCompatibilityForms() {
+        assertEquals(List.of("еще", "fix", "login", "2fa"), SearchIndex.tokenize("ЕЩЁ: Fix-LOGIN, ２FA!"));
+        assertTrue(SearchIndex.tokenize(" ,.- ").isEmpty());
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void search_ShouldMatchPrefixesAndRequireAllWords() {
+        index.add(task(1, "Починить авторизацию", "Ошибка при входе через OAuth"));
+        index.add(task(2, "Авторизация в мобильном приложении", null));
+        index.add(task(3, "Обновить зависимости", "gradle и oauth-клиент"));
+
+        assertEquals(List.of(1, 2), ids(index.search("автор", 10)));
+        assertEquals(List.of(1), ids(index.search("авториз ошибк", 10)));
+        assertEquals(List.of(1, 3), ids(index.search("OAUTH", 10)));
+        assertTrue(index.search("авторизация gradle", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldRankTitleAboveDescriptionAndExactAbovePrefix() {
+        index.add(task(1, "Отчёт", "Подготовить релиз"));
+        index.add(task(2, "Релиз", "Подготовить отчёт"));
+        index.add(task(3, "Релизный план", null));
+
+        assertEquals(List.of(2, 3, 1), ids(index.search("релиз", 10)));
+        assertEquals(List.of(2), ids(index.search("релиз", 1)));
+    }
+
+    @Test
+    void addAndRemove_ShouldKeepIndexIncremental() {
+        Task task = task(1, "Старое название", null);
+        index.add(task);
+        task.setTitle("Новое название");
+        index.add(task);
+        assertTrue(index.search("старое", 10).isEmpty());
+        assertEquals(List.of(1), ids(index.search("новое", 10)));
+
+        index.remove(1);
+        assertTrue(index.search("название", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void search_ShouldMatchOneLetterWordsOnlyExactly() {
+        index.add(task(1, "План А", null));
+        index.add(task(2, "Архив", null));
+        assertEquals(List.of(1), ids(index.search("а", 10)));
+        assertThrows(IllegalArgumentException.class, () -> index.search("план", -1));
+    }
+
+    @Test
+    void searchIds_ShouldFindDocumentsAddedById() {
+        index.add(1, "Релиз", "Подготовить отчёт");
+        index.add(task(2, "Отчёт", null));
+        index.add(1, "Отчёт за квартал", null); // Повторное добавление по ID переиндексирует текст
+
+        assertArrayEquals(new int[]{1, 2}, index.searchIds("отчет", 10));
+        assertEquals(0, index.searchIds("релиз", 10).length);
+        assertEquals(List.of(2), ids(index.search("отчет", 10)), "search отдаёт только сохранённые сущности");
+        index.remove(1);
+        assertArrayEquals(new int[]{2}, index.searchIds("отчет", 10));
+    }
+
+    private static Task task(int id, String title, String description) {
+        return new Task(id, title, description, Status.NEW);
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+}
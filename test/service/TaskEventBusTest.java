@@ -0,0 +1,123 @@
+package service;
+
+import model.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventBusTest {
+
+    private TaskEventBus events;
+
+    @BeforeEach
+    void setUp() {
+        events = TaskEventBus.start(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        events.close();
+    }
+
+    @Test
+    void publish_ShouldDeliverEventsInOrderFromSeveralThreads() throws InterruptedException {
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(event -> received.add(event.getId()));
+        int threads = 4;
+        int perThread = 2000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            Thread writer = new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    while (!events.publish(TaskEvent.created(TaskType.TASK, base + i))) {
+                        Thread.onSpinWait(); // Буфер маленький - повторяем, пока доставка не освободит место
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertTrue(events.flush(5, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, received.size());
+        int[] last = new int[threads];
+        for (int id : received) {
+            int writer = (id - 1) / perThread;
+            assertTrue(id > last[writer], "Events of one writer should keep their order");
+            last[writer] = id;
+        }
+    }
+
+    @Test
+    void publish_ShouldDropEventsInsteadOfBlockingWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch firstDelivered = new CountDownLatch(1);
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(event -> {
+            firstDelivered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getId());
+        });
+
+        assertTrue(events.publish(TaskEvent.created(TaskType.TASK, 0)));
+        assertTrue(firstDelivered.await(5, TimeUnit.SECONDS)); // Подписчик завис на первом событии
+        int accepted = 0;
+        for (int i = 1; i <= 20; i++) {
+            if (events.publish(TaskEvent.created(TaskType.TASK, i))) {
+                accepted++;
+            }
+        }
+        assertEquals(events.getCapacity(), accepted);
+        assertEquals(20 - accepted, events.getDroppedCount());
+
+        release.countDown();
+        assertTrue(events.flush(5, TimeUnit.SECONDS));
+        assertEquals(accepted + 1, received.size());
+    }
+
+    @Test
+    void failingListener_ShouldNotStopDelivery() {
+        List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(event -> {
+            throw new IllegalStateException("listener failure");
+        });
+        events.subscribe(received::add);
+
+        events.publish(TaskEvent.deleted(TaskType.EPIC, 5, 3));
+        events.publish(TaskEvent.cleared(TaskType.SUBTASK, 0));
+        assertTrue(events.flush(5, TimeUnit.SECONDS));
+
+        assertEquals(2, received.size());
+        assertEquals(TaskEvent.Kind.DELETED, received.get(0).getKind());
+        assertEquals(3, received.get(0).getCount());
+        assertEquals(2, events.getFailureCount());
+    }
+
+    @Test
+    void close_ShouldDeliverPendingEventsAndRejectNewOnes() {
+        List<TaskEvent> received = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(received::add);
+        events.publish(TaskEvent.created(TaskType.TASK, 1));
+        events.close();
+
+        assertEquals(1, received.size());
+        assertFalse(events.publish(TaskEvent.created(TaskType.TASK, 2)));
+        assertThrows(IllegalArgumentException.class, () -> TaskEventBus.start(0));
+    }
+}